@@ -0,0 +1,120 @@
+package archivos;
+
+import java.util.List;
+import java.util.stream.Stream;
+import clases.ResultadoCarrera;
+import logica.LogicaException;
+import logica.Utilidades;
+
+/**
+ * Dónde se guardan los resultados de carreras mientras se usan. Cada
+ * {@link MotorAlmacenamiento} tiene su implementación:
+ * <ul>
+ * <li>{@link AlmacenResultadosMemoria}: la lista completa en memoria.</li>
+ * <li>{@link AlmacenResultadosCSV}: sólo la posición de cada fila de DatosResultadoCarrera.csv.</li>
+ * <li>{@link AlmacenResultadosPaginas}: un archivo de páginas con índices B+ por DNI y por fecha.</li>
+ * <li>{@link AlmacenResultadosDirecto}: registros empaquetados en memoria fuera del heap.</li>
+ * </ul>
+ * {@link SistemaGestion#getResultadosCarreras()} devuelve el almacén como una lista
+ * ({@link #comoLista()}), así quien recorre los resultados no depende del motor.
+ * <p>
+ * El archivo de datos es siempre el CSV (lo escribe el {@link EscritorDiferido}): los
+ * resultados agregados en la sesión quedan en memoria hasta que el almacén se vuelve
+ * a abrir, y los almacenes que no guardan todo en memoria sólo leen el CSV tal como
+ * estaba al abrirse.
+ */
+public interface AlmacenResultados extends AutoCloseable {
+
+    /**
+     * Abre los resultados de un archivo con el motor indicado.
+     *
+     * @param motor El motor de almacenamiento.
+     * @param path Ruta de DatosResultadoCarrera.csv (sin comprimir, salvo en {@link MotorAlmacenamiento#MEMORIA} y {@link MotorAlmacenamiento#DIRECTO}).
+     * @param indice Índice de carga con los pilotos y las carreras.
+     * @param modo Modo de lectura del archivo.
+     * @return El almacén abierto.
+     * @throws LogicaException Si el archivo no se encuentra o tiene datos inválidos.
+     */
+    static AlmacenResultados abrir(MotorAlmacenamiento motor, String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        switch (motor) {
+            case CSV: return AlmacenResultadosCSV.abrir(path, indice);
+            case PAGINAS: return AlmacenResultadosPaginas.abrir(path, indice);
+            case DIRECTO: return AlmacenResultadosDirecto.abrir(path, indice, modo);
+            default: return new AlmacenResultadosMemoria(GestorArchivos.leerResultadosDesdeCSV(path, indice, modo));
+        }
+    }
+
+    /**
+     * Devuelve cuántos resultados hay (los del archivo más los agregados).
+     * @return La cantidad.
+     */
+    int cantidad();
+
+    /**
+     * Devuelve un resultado por su posición.
+     * @param posicion Posición, desde 0 (los agregados van después de los del archivo).
+     * @return El resultado.
+     * @throws LogicaException Si no se puede leer o referencia datos que ya no existen.
+     * @throws IndexOutOfBoundsException Si la posición no existe.
+     */
+    ResultadoCarrera obtener(int posicion) throws LogicaException;
+
+    /**
+     * Agrega un resultado al final.
+     * @param resultado El resultado.
+     */
+    void agregar(ResultadoCarrera resultado);
+
+    /**
+     * Devuelve los resultados agregados desde que se abrió el almacén, en orden.
+     * @return Una copia de los agregados.
+     */
+    List<ResultadoCarrera> getAgregados();
+
+    /**
+     * Recorre todos los resultados en orden. Los errores de lectura se lanzan durante
+     * el recorrido como {@link logica.LogicaRuntimeException}.
+     * @param paralelo true para obtener un Stream paralelo.
+     * @return El Stream de resultados.
+     */
+    Stream<ResultadoCarrera> stream(boolean paralelo);
+
+    /**
+     * Devuelve los resultados de un piloto, en orden.
+     * @param dni DNI del piloto.
+     * @return El Stream de sus resultados.
+     * @throws LogicaException Si no se pueden leer.
+     */
+    default Stream<ResultadoCarrera> porPiloto(String dni) throws LogicaException {
+        String buscado = dni.trim();
+        return stream(false).filter(r -> r.getPiloto().getDni().trim().equals(buscado));
+    }
+
+    /**
+     * Devuelve los resultados de las carreras corridas entre dos fechas (inclusive).
+     * @param desde Inicio del rango (formato "yyyy-MM-dd", ver {@link Utilidades#formatearFecha}).
+     * @param hasta Fin del rango (formato "yyyy-MM-dd").
+     * @return El Stream de resultados dentro del rango (sin un orden en particular).
+     * @throws LogicaException Si no se pueden leer.
+     */
+    default Stream<ResultadoCarrera> entreFechas(String desde, String hasta) throws LogicaException {
+        return stream(false).filter(r -> {
+            String fecha = Utilidades.formatearFecha(r.getCarrera().getFechaRealizacion());
+            return fecha != null && fecha.compareTo(desde) >= 0 && fecha.compareTo(hasta) <= 0;
+        });
+    }
+
+    /**
+     * Devuelve el almacén como una lista: leerla lee del almacén y agregarle agrega al almacén.
+     * @return La lista de resultados.
+     */
+    default List<ResultadoCarrera> comoLista() {
+        return new VistaResultados(this);
+    }
+
+    /**
+     * Libera los archivos abiertos. Después de cerrarlo no se puede seguir leyendo.
+     */
+    @Override
+    void close();
+}
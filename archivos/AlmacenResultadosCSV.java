@@ -0,0 +1,301 @@
+package archivos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import clases.ResultadoCarrera;
+import logica.LogicaException;
+import logica.LogicaRuntimeException;
+
+/**
+ * {@link AlmacenResultados} que deja los resultados en DatosResultadoCarrera.csv
+ * ({@link MotorAlmacenamiento#CSV}): al abrirlo recorre el archivo una vez, validando
+ * cada fila, y sólo guarda en memoria dónde empieza cada una (8 bytes por fila en
+ * lugar de un objeto). Cada fila se vuelve a leer del archivo cuando se pide.
+ * <p>
+ * El archivo queda abierto mientras se usa el almacén: si el {@link EscritorDiferido}
+ * lo reemplaza o le agrega filas, el almacén sigue leyendo las que había al abrirse
+ * (las agregadas en la sesión están en memoria). Recorrerlo con {@link #stream} lee
+ * el archivo por bloques de {@value #TAMANIO_BLOQUE} bytes, y se puede dividir para
+ * recorrerlo en paralelo.
+ */
+public class AlmacenResultadosCSV implements AlmacenResultados {
+    private static final int TAMANIO_BLOQUE = 64 * 1024;
+
+    private final String path;
+    private final FileChannel canal;
+    private final IndiceCarga indice;
+    private final long[] inicios; // Inicio de cada fila del archivo; el último es el fin de la última
+    private final int leidos;
+    private final List<ResultadoCarrera> agregados; // Sincronizada con ella misma
+    private final Charset charset;
+
+    private AlmacenResultadosCSV(String path, FileChannel canal, IndiceCarga indice, long[] inicios, int leidos) {
+        this.path = path;
+        this.canal = canal;
+        this.indice = indice;
+        this.inicios = inicios;
+        this.leidos = leidos;
+        this.agregados = new ArrayList<>();
+        this.charset = Charset.defaultCharset(); // El mismo que usan los lectores CSV
+    }
+
+    /**
+     * Abre el archivo y anota dónde empieza cada fila, validándolas con el mismo
+     * esquema que {@link GestorArchivos#leerResultadosDesdeCSV}.
+     *
+     * @param path Ruta de DatosResultadoCarrera.csv (sin comprimir).
+     * @param indice Índice de carga con los pilotos y las carreras.
+     * @return El almacén abierto.
+     * @throws LogicaException Si el archivo no se encuentra o tiene datos inválidos.
+     */
+    static AlmacenResultadosCSV abrir(String path, IndiceCarga indice) throws LogicaException {
+        FileChannel canal;
+        try {
+            canal = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new LogicaException("Error al leer el archivo " + path + ": no se encuentra el archivo.");
+        }
+        try {
+            long largo = canal.size();
+            long[] inicios = new long[1024];
+            int cantidad = 0;
+            try (LectorCSVMapeado lector = new LectorCSVMapeado(path, 0, largo)) {
+                lector.siguienteLinea(); // Saltear encabezado
+                while (lector.siguienteLinea()) {
+                    if (lector.lineaVacia()) {
+                        continue;
+                    }
+                    long inicio = lector.posicionLinea();
+                    GestorArchivos.ESQUEMA_RESULTADOS.leerFila(lector, indice, () -> path + " (byte " + inicio + ")");
+                    if (cantidad + 1 == inicios.length) {
+                        inicios = Arrays.copyOf(inicios, inicios.length * 2);
+                    }
+                    inicios[cantidad++] = inicio;
+                }
+            }
+            inicios[cantidad] = largo;
+            return new AlmacenResultadosCSV(path, canal, indice, Arrays.copyOf(inicios, cantidad + 1), cantidad);
+        } catch (IOException e) {
+            cerrar(canal);
+            throw new LogicaException("Error al leer el archivo " + path + ": " + e.getMessage());
+        } catch (LogicaException | RuntimeException e) {
+            cerrar(canal);
+            throw e;
+        }
+    }
+
+    @Override
+    public int cantidad() {
+        synchronized (agregados) {
+            return leidos + agregados.size();
+        }
+    }
+
+    @Override
+    public ResultadoCarrera obtener(int posicion) throws LogicaException {
+        if (posicion >= leidos) {
+            synchronized (agregados) {
+                return agregados.get(posicion - leidos);
+            }
+        }
+        if (posicion < 0) {
+            throw new IndexOutOfBoundsException("Posición " + posicion);
+        }
+        ByteBuffer fila = ByteBuffer.allocate((int) (inicios[posicion + 1] - inicios[posicion]));
+        leer(fila, inicios[posicion]);
+        if (fila.limit() < fila.capacity()) {
+            throw cortado(inicios[posicion]);
+        }
+        return armar(fila.array(), 0, fila.limit(), inicios[posicion]);
+    }
+
+    @Override
+    public void agregar(ResultadoCarrera resultado) {
+        synchronized (agregados) {
+            agregados.add(resultado);
+        }
+    }
+
+    @Override
+    public List<ResultadoCarrera> getAgregados() {
+        synchronized (agregados) {
+            return new ArrayList<>(agregados);
+        }
+    }
+
+    @Override
+    public Stream<ResultadoCarrera> stream(boolean paralelo) {
+        Stream<ResultadoCarrera> delArchivo = StreamSupport.stream(new Parte(0, leidos), paralelo);
+        List<ResultadoCarrera> copia = getAgregados();
+        return copia.isEmpty() ? delArchivo : Stream.concat(delArchivo, paralelo ? copia.parallelStream() : copia.stream());
+    }
+
+    @Override
+    public void close() {
+        cerrar(canal);
+    }
+
+    /** Lee desde una posición hasta llenar el buffer (o llegar al fin) y lo deja listo para leer. */
+    private void leer(ByteBuffer buffer, long posicion) throws LogicaException {
+        try {
+            while (buffer.hasRemaining()) {
+                int n = canal.read(buffer, posicion);
+                if (n <= 0) {
+                    break;
+                }
+                posicion += n;
+            }
+        } catch (IOException e) {
+            throw new LogicaException("Error al leer el archivo " + path + ": " + e.getMessage());
+        }
+        buffer.flip();
+    }
+
+    /** Arma el resultado de la fila que empieza en {@code desde} (hasta el primer salto de línea). */
+    private ResultadoCarrera armar(byte[] bytes, int desde, int hasta, long posicionArchivo) throws LogicaException {
+        LineaCSV linea = new LineaCSV(bytes, desde, hasta, charset);
+        try {
+            linea.siguienteLinea();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Sólo lee del arreglo
+        }
+        return GestorArchivos.ESQUEMA_RESULTADOS.leerFila(linea, indice, () -> path + " (byte " + posicionArchivo + ")");
+    }
+
+    private LogicaException cortado(long posicion) {
+        return new LogicaException("El archivo " + path + " se acortó mientras se usaba (byte " + posicion + ").");
+    }
+
+    private static void cerrar(FileChannel canal) {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            // Sólo se estaba leyendo: no hay nada que perder
+        }
+    }
+
+    /**
+     * Un rango de filas del archivo, que se lee por bloques. Mientras no empezó a
+     * recorrer se puede dividir a la mitad.
+     */
+    private final class Parte implements Spliterator<ResultadoCarrera> {
+        private int desde;
+        private final int hasta;
+        private ByteBuffer bloque;
+        private long inicioBloque; // Posición en el archivo del byte 0 del bloque
+
+        Parte(int desde, int hasta) {
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ResultadoCarrera> accion) {
+            if (desde >= hasta) {
+                return false;
+            }
+            long inicio = inicios[desde];
+            long fin = inicios[desde + 1];
+            try {
+                if (bloque == null || inicio < inicioBloque || fin > inicioBloque + bloque.limit()) {
+                    if (bloque == null || bloque.capacity() < fin - inicio) {
+                        bloque = ByteBuffer.allocate((int) Math.max(TAMANIO_BLOQUE, fin - inicio));
+                    }
+                    bloque.clear();
+                    bloque.limit((int) Math.min(bloque.capacity(), inicios[hasta] - inicio));
+                    leer(bloque, inicio);
+                    inicioBloque = inicio;
+                    if (fin - inicio > bloque.limit()) {
+                        throw cortado(inicio);
+                    }
+                }
+                accion.accept(armar(bloque.array(), (int) (inicio - inicioBloque), (int) (fin - inicioBloque), inicio));
+            } catch (LogicaException e) {
+                desde = hasta;
+                throw new LogicaRuntimeException(e);
+            }
+            desde++;
+            return true;
+        }
+
+        @Override
+        public Spliterator<ResultadoCarrera> trySplit() {
+            if (bloque != null || hasta - desde < 2) {
+                return null;
+            }
+            int mitad = desde + (hasta - desde) / 2;
+            Parte prefijo = new Parte(desde, mitad);
+            desde = mitad;
+            return prefijo;
+        }
+
+        @Override
+        public long estimateSize() {
+            return hasta - desde;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | SIZED | SUBSIZED;
+        }
+    }
+
+    /**
+     * Lector de una sola línea que ya está en un arreglo de bytes.
+     */
+    private static final class LineaCSV extends LectorCSV {
+        private final byte[] bytes;
+        private final int desde;
+        private final int hasta;
+        private final Charset charset;
+        private boolean leida;
+
+        LineaCSV(byte[] bytes, int desde, int hasta, Charset charset) {
+            this.bytes = bytes;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.charset = charset;
+        }
+
+        @Override
+        protected boolean cargarLinea() {
+            if (leida) {
+                return false;
+            }
+            leida = true;
+            int fin = desde;
+            while (fin < hasta && bytes[fin] != '\n' && bytes[fin] != '\r') {
+                fin++;
+            }
+            inicioLinea = desde;
+            finLinea = fin;
+            return true;
+        }
+
+        @Override
+        protected int caracter(int posicion) {
+            return bytes[posicion] & 0xFF;
+        }
+
+        @Override
+        protected String texto(int desde, int hasta) {
+            return new String(bytes, desde, hasta - desde, charset);
+        }
+
+        @Override
+        public void close() {
+            // No tiene nada abierto
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package archivos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import clases.Carrera;
+import clases.Piloto;
+import clases.ResultadoCarrera;
+import logica.LogicaException;
+
+/**
+ * {@link AlmacenResultados} fuera del heap ({@link MotorAlmacenamiento#DIRECTO}): cada
+ * resultado es un registro empaquetado de {@value #TAMANIO_REGISTRO} bytes
+ * {@code [int idPiloto][int idCarrera][int posicion][int marcas]} en buffers directos
+ * ({@link ByteBuffer#allocateDirect}) de {@value #REGISTROS_POR_BLOQUE} registros.
+ * Los ids son posiciones en dos tablas chicas con los pilotos y las carreras que
+ * aparecen en los resultados, así millones de resultados no son millones de objetos
+ * para el recolector de basura.
+ * <p>
+ * Se lee con los accesores por posición ({@link #getPiloto(int)}, {@link #getPosicion(int)}, ...)
+ * o con un {@link Cursor}, que recorre los registros sin crear un objeto por fila.
+ * {@link #comoLista()} arma un {@link ResultadoCarrera} cada vez que se pide uno.
+ * <p>
+ * La memoria de los buffers se libera cuando el recolector los descarta (después de
+ * {@link #close()}); su total está limitado por {@code -XX:MaxDirectMemorySize}.
+ * Agregar un resultado es sincronizado; leer no, y ve los agregados hasta el momento.
+ */
+public class AlmacenResultadosDirecto implements AlmacenResultados {
+    /** Bytes de cada registro. */
+    public static final int TAMANIO_REGISTRO = 16;
+    /** Registros de cada buffer directo (1 MB). */
+    public static final int REGISTROS_POR_BLOQUE = 1 << 16;
+    /** Marca de los resultados agregados después de abrir el almacén. */
+    public static final int MARCA_AGREGADO = 1;
+
+    private static final int POS_PILOTO = 0;
+    private static final int POS_CARRERA = 4;
+    private static final int POS_POSICION = 8;
+    private static final int POS_MARCAS = 12;
+
+    private volatile ByteBuffer[] bloques;
+    private volatile int cantidad; // Se incrementa después de escribir el registro
+    private volatile Piloto[] pilotos; // Se reemplazan al crecer: quien lee nunca ve una tabla a medio copiar
+    private volatile Carrera[] carreras;
+    private int cantidadPilotos;
+    private int cantidadCarreras;
+    private final Map<Piloto, Integer> idsPilotos;
+    private final Map<Carrera, Integer> idsCarreras;
+
+    /**
+     * Constructor de AlmacenResultadosDirecto (vacío).
+     */
+    public AlmacenResultadosDirecto() {
+        this.bloques = new ByteBuffer[0];
+        this.pilotos = new Piloto[16];
+        this.carreras = new Carrera[16];
+        this.idsPilotos = new IdentityHashMap<>();
+        this.idsCarreras = new IdentityHashMap<>();
+    }
+
+    /**
+     * Lee DatosResultadoCarrera.csv (o su versión comprimida) directamente a los
+     * registros, validando cada fila con el mismo esquema que
+     * {@link GestorArchivos#leerResultadosDesdeCSV}.
+     *
+     * @param path Ruta del archivo.
+     * @param indice Índice de carga con los pilotos y las carreras.
+     * @param modo Modo de lectura del archivo.
+     * @return El almacén con los resultados del archivo.
+     * @throws LogicaException Si el archivo no se encuentra o tiene datos inválidos.
+     */
+    static AlmacenResultadosDirecto abrir(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        AlmacenResultadosDirecto almacen = new AlmacenResultadosDirecto();
+        int nroLinea = 1;
+        try (LectorCSV lector = LectorCSV.abrir(path, modo)) {
+            lector.siguienteLinea(); // Saltear encabezado
+            while (lector.siguienteLinea()) {
+                nroLinea++;
+                if (lector.lineaVacia()) {
+                    continue;
+                }
+                int linea = nroLinea;
+                ResultadoCarrera r = GestorArchivos.ESQUEMA_RESULTADOS.leerFila(lector, indice, () -> path + " (Línea " + linea + ")");
+                almacen.escribir(r, 0);
+            }
+        } catch (IOException e) {
+            throw new LogicaException("Error al leer el archivo " + path + ": " + e.getMessage());
+        }
+        return almacen;
+    }
+
+    // --- ESCRITURA ---
+
+    private synchronized void escribir(ResultadoCarrera r, int marcas) {
+        int numero = cantidad;
+        ByteBuffer[] actuales = bloques;
+        if (numero / REGISTROS_POR_BLOQUE == actuales.length) {
+            actuales = Arrays.copyOf(actuales, actuales.length + 1);
+            actuales[actuales.length - 1] = ByteBuffer.allocateDirect(REGISTROS_POR_BLOQUE * TAMANIO_REGISTRO);
+            bloques = actuales;
+        }
+        ByteBuffer bloque = actuales[numero / REGISTROS_POR_BLOQUE];
+        int inicio = (numero % REGISTROS_POR_BLOQUE) * TAMANIO_REGISTRO;
+        bloque.putInt(inicio + POS_PILOTO, idPiloto(r.getPiloto()));
+        bloque.putInt(inicio + POS_CARRERA, idCarrera(r.getCarrera()));
+        bloque.putInt(inicio + POS_POSICION, r.getPosicion());
+        bloque.putInt(inicio + POS_MARCAS, marcas);
+        cantidad = numero + 1;
+    }
+
+    private int idPiloto(Piloto piloto) {
+        Integer id = idsPilotos.get(piloto);
+        if (id == null) {
+            id = cantidadPilotos++;
+            if (id == pilotos.length) {
+                pilotos = Arrays.copyOf(pilotos, id * 2);
+            }
+            pilotos[id] = piloto;
+            idsPilotos.put(piloto, id);
+        }
+        return id;
+    }
+
+    private int idCarrera(Carrera carrera) {
+        Integer id = idsCarreras.get(carrera);
+        if (id == null) {
+            id = cantidadCarreras++;
+            if (id == carreras.length) {
+                carreras = Arrays.copyOf(carreras, id * 2);
+            }
+            carreras[id] = carrera;
+            idsCarreras.put(carrera, id);
+        }
+        return id;
+    }
+
+    // --- ACCESORES POR POSICIÓN ---
+
+    private int campo(int numero, int desplazamiento) {
+        if (numero < 0 || numero >= cantidad) {
+            throw new IndexOutOfBoundsException("Posición " + numero + ", cantidad " + cantidad);
+        }
+        return bloques[numero / REGISTROS_POR_BLOQUE].getInt((numero % REGISTROS_POR_BLOQUE) * TAMANIO_REGISTRO + desplazamiento);
+    }
+
+    /**
+     * Devuelve el id del piloto de un resultado (su posición en la tabla de pilotos del almacén).
+     * @param numero Posición del resultado.
+     * @return El id.
+     */
+    public int getIdPiloto(int numero) {
+        return campo(numero, POS_PILOTO);
+    }
+
+    /**
+     * Devuelve el id de la carrera de un resultado (su posición en la tabla de carreras del almacén).
+     * @param numero Posición del resultado.
+     * @return El id.
+     */
+    public int getIdCarrera(int numero) {
+        return campo(numero, POS_CARRERA);
+    }
+
+    /**
+     * Devuelve el piloto de un resultado.
+     * @param numero Posición del resultado.
+     * @return El piloto.
+     */
+    public Piloto getPiloto(int numero) {
+        return pilotos[getIdPiloto(numero)];
+    }
+
+    /**
+     * Devuelve la carrera de un resultado.
+     * @param numero Posición del resultado.
+     * @return La carrera.
+     */
+    public Carrera getCarrera(int numero) {
+        return carreras[getIdCarrera(numero)];
+    }
+
+    /**
+     * Devuelve la posición final de un resultado.
+     * @param numero Posición del resultado en el almacén.
+     * @return La posición en la carrera.
+     */
+    public int getPosicion(int numero) {
+        return campo(numero, POS_POSICION);
+    }
+
+    /**
+     * Devuelve las marcas de un resultado (ej. {@link #MARCA_AGREGADO}).
+     * @param numero Posición del resultado.
+     * @return Las marcas.
+     */
+    public int getMarcas(int numero) {
+        return campo(numero, POS_MARCAS);
+    }
+
+    /**
+     * Devuelve un cursor al principio del almacén.
+     * @return El cursor.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Recorre los registros del almacén sin crear objetos: {@link #siguiente()} avanza
+     * y los accesores leen el registro actual. Recorre los que había al crearlo.
+     */
+    public final class Cursor {
+        private final int hasta = cantidad;
+        private final ByteBuffer[] vistos = bloques;
+        private final Piloto[] tablaPilotos = pilotos;
+        private final Carrera[] tablaCarreras = carreras;
+        private int numero = -1;
+        private ByteBuffer bloque;
+        private int inicio;
+
+        private Cursor() {
+        }
+
+        /**
+         * Avanza al siguiente registro.
+         * @return false si ya no hay más.
+         */
+        public boolean siguiente() {
+            if (numero + 1 >= hasta) {
+                numero = hasta;
+                return false;
+            }
+            numero++;
+            bloque = vistos[numero / REGISTROS_POR_BLOQUE];
+            inicio = (numero % REGISTROS_POR_BLOQUE) * TAMANIO_REGISTRO;
+            return true;
+        }
+
+        private void verificar() {
+            if (numero < 0 || numero >= hasta) {
+                throw new NoSuchElementException("El cursor no está sobre un registro.");
+            }
+        }
+
+        /** @return La posición del registro actual en el almacén. */
+        public int getNumero() {
+            return numero;
+        }
+
+        /** @return El id del piloto del registro actual. */
+        public int getIdPiloto() {
+            verificar();
+            return bloque.getInt(inicio + POS_PILOTO);
+        }
+
+        /** @return El id de la carrera del registro actual. */
+        public int getIdCarrera() {
+            verificar();
+            return bloque.getInt(inicio + POS_CARRERA);
+        }
+
+        /** @return El piloto del registro actual. */
+        public Piloto getPiloto() {
+            return tablaPilotos[getIdPiloto()];
+        }
+
+        /** @return La carrera del registro actual. */
+        public Carrera getCarrera() {
+            return tablaCarreras[getIdCarrera()];
+        }
+
+        /** @return La posición final del registro actual. */
+        public int getPosicion() {
+            verificar();
+            return bloque.getInt(inicio + POS_POSICION);
+        }
+
+        /** @return Las marcas del registro actual. */
+        public int getMarcas() {
+            verificar();
+            return bloque.getInt(inicio + POS_MARCAS);
+        }
+    }
+
+    // --- ALMACEN RESULTADOS ---
+
+    @Override
+    public int cantidad() {
+        return cantidad;
+    }
+
+    @Override
+    public ResultadoCarrera obtener(int posicion) {
+        return new ResultadoCarrera(getPiloto(posicion), getPosicion(posicion), getCarrera(posicion));
+    }
+
+    @Override
+    public void agregar(ResultadoCarrera resultado) {
+        escribir(resultado, MARCA_AGREGADO);
+    }
+
+    @Override
+    public List<ResultadoCarrera> getAgregados() {
+        List<ResultadoCarrera> agregados = new ArrayList<>();
+        Cursor c = cursor();
+        while (c.siguiente()) {
+            if ((c.getMarcas() & MARCA_AGREGADO) != 0) {
+                agregados.add(new ResultadoCarrera(c.getPiloto(), c.getPosicion(), c.getCarrera()));
+            }
+        }
+        return agregados;
+    }
+
+    @Override
+    public Stream<ResultadoCarrera> stream(boolean paralelo) {
+        IntStream numeros = IntStream.range(0, cantidad);
+        return (paralelo ? numeros.parallel() : numeros).mapToObj(this::obtener);
+    }
+
+    /**
+     * Libera los buffers (la memoria se devuelve cuando el recolector los descarta).
+     */
+    @Override
+    public synchronized void close() {
+        cantidad = 0;
+        bloques = new ByteBuffer[0];
+    }
+}
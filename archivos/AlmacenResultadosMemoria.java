@@ -0,0 +1,60 @@
+package archivos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import clases.ResultadoCarrera;
+
+/**
+ * {@link AlmacenResultados} que guarda todos los resultados en una lista en memoria
+ * ({@link MotorAlmacenamiento#MEMORIA}). Es el más rápido mientras los resultados
+ * entran en memoria: {@link #comoLista()} devuelve la propia lista, sin intermediarios.
+ */
+public class AlmacenResultadosMemoria implements AlmacenResultados {
+    private final List<ResultadoCarrera> resultados;
+    private final int leidos; // Los que había al crearlo
+
+    /**
+     * Constructor de AlmacenResultadosMemoria.
+     * @param resultados Los resultados leídos (la lista pasa a ser del almacén).
+     */
+    public AlmacenResultadosMemoria(List<ResultadoCarrera> resultados) {
+        this.resultados = resultados;
+        this.leidos = resultados.size();
+    }
+
+    @Override
+    public int cantidad() {
+        return resultados.size();
+    }
+
+    @Override
+    public ResultadoCarrera obtener(int posicion) {
+        return resultados.get(posicion);
+    }
+
+    @Override
+    public void agregar(ResultadoCarrera resultado) {
+        resultados.add(resultado);
+    }
+
+    @Override
+    public List<ResultadoCarrera> getAgregados() {
+        return new ArrayList<>(resultados.subList(Math.min(leidos, resultados.size()), resultados.size()));
+    }
+
+    @Override
+    public Stream<ResultadoCarrera> stream(boolean paralelo) {
+        return paralelo ? resultados.parallelStream() : resultados.stream();
+    }
+
+    @Override
+    public List<ResultadoCarrera> comoLista() {
+        return resultados;
+    }
+
+    @Override
+    public void close() {
+        // No tiene archivos abiertos
+    }
+}
@@ -0,0 +1,371 @@
+package archivos;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import clases.ResultadoCarrera;
+import logica.LogicaException;
+import logica.LogicaRuntimeException;
+import logica.Utilidades;
+
+/**
+ * {@link AlmacenResultados} en archivos de páginas ({@link MotorAlmacenamiento#PAGINAS}),
+ * para historiales que no entran en memoria. Los archivos están en el directorio
+ * {@value #DIRECTORIO}, junto a DatosResultadoCarrera.csv:
+ * <ul>
+ * <li>{@value #ARCHIVO_REGISTROS}: los resultados como registros de ancho fijo
+ * {@code [dni][fecha][int posicion]}, {@value #REGISTROS_POR_PAGINA} por página;
+ * el resultado {@code n} está en la página {@code 1 + n / REGISTROS_POR_PAGINA}.</li>
+ * <li>{@value #ARCHIVO_POR_DNI} y {@value #ARCHIVO_POR_FECHA}: índices {@link ArbolBMas}
+ * del DNI del piloto y de la fecha de la carrera ("yyyy-MM-dd") al número de resultado.</li>
+ * </ul>
+ * Todas las páginas se leen a través de un {@link PoolPaginas} de
+ * {@value #PAGINAS_EN_MEMORIA} páginas, así la memoria usada no depende de la
+ * cantidad de resultados.
+ * <p>
+ * Los archivos de páginas se arman a partir del CSV, que sigue siendo el archivo de
+ * datos: la página 0 de {@value #ARCHIVO_REGISTROS} anota hasta qué byte del CSV se
+ * incorporó, su fecha de modificación y un CRC de sus últimos bytes. Al abrirlo, si
+ * el CSV sólo creció (el {@link EscritorDiferido} agrega los resultados al final) se
+ * incorporan las filas nuevas; si cambió de otra forma, o los archivos quedaron a
+ * medio escribir (la página 0 se marca como sucia mientras se incorpora), se vuelven
+ * a armar desde cero. Los resultados agregados en la sesión quedan en memoria.
+ * <p>
+ * Los métodos están sincronizados: el pool y los índices no admiten accesos simultáneos.
+ */
+public class AlmacenResultadosPaginas implements AlmacenResultados {
+    /** Directorio de los archivos de páginas, junto a DatosResultadoCarrera.csv. */
+    public static final String DIRECTORIO = "paginas";
+    /** Páginas que guarda el pool (4 MB). */
+    public static final int PAGINAS_EN_MEMORIA = 1024;
+
+    private static final String ARCHIVO_REGISTROS = "resultados.pag";
+    private static final String ARCHIVO_POR_DNI = "resultados-dni.pag";
+    private static final String ARCHIVO_POR_FECHA = "resultados-fecha.pag";
+    private static final int MAGICO = 0x50414752; // "PAGR"
+    private static final int VERSION = 1;
+    private static final int ANCHO_CLAVE = 16;
+    private static final int TAMANIO_REGISTRO = 2 * ANCHO_CLAVE + 4;
+    private static final int REGISTROS_POR_PAGINA = ArchivoPaginas.TAMANIO_PAGINA / TAMANIO_REGISTRO;
+    /** Bytes del final de lo incorporado del CSV que se comparan para saber si sólo creció. */
+    private static final int BYTES_COLA = 4096;
+
+    // Posiciones dentro de la página 0 de ARCHIVO_REGISTROS
+    private static final int POS_LIMPIO = 12;
+    private static final int POS_CANTIDAD = 16;
+    private static final int POS_LARGO_CSV = 20;
+    private static final int POS_MODIFICACION_CSV = 28;
+    private static final int POS_CRC_COLA = 36;
+
+    private final String pathCsv;
+    private final File directorio;
+    private final IndiceCarga indice;
+    private final PoolPaginas pool;
+    private final List<ResultadoCarrera> agregados;
+    private ArchivoPaginas registros;
+    private ArchivoPaginas archivoPorDni;
+    private ArchivoPaginas archivoPorFecha;
+    private ArbolBMas porDni;
+    private ArbolBMas porFecha;
+    private int leidos;
+
+    private AlmacenResultadosPaginas(String pathCsv, File directorio, IndiceCarga indice) {
+        this.pathCsv = pathCsv;
+        this.directorio = directorio;
+        this.indice = indice;
+        this.pool = new PoolPaginas(PAGINAS_EN_MEMORIA);
+        this.agregados = new ArrayList<>();
+    }
+
+    /**
+     * Abre los archivos de páginas de un CSV de resultados, incorporando las filas
+     * que les falten (o armándolos desde cero si no están al día).
+     *
+     * @param pathCsv Ruta de DatosResultadoCarrera.csv (sin comprimir).
+     * @param indice Índice de carga con los pilotos y las carreras.
+     * @return El almacén abierto.
+     * @throws LogicaException Si el CSV no se encuentra o tiene datos inválidos, o los
+     * archivos de páginas no se pueden escribir.
+     */
+    static AlmacenResultadosPaginas abrir(String pathCsv, IndiceCarga indice) throws LogicaException {
+        File csv = new File(pathCsv).getAbsoluteFile();
+        if (!csv.isFile()) {
+            throw new LogicaException("Error al leer el archivo " + pathCsv + ": no se encuentra el archivo.");
+        }
+        File directorio = new File(csv.getParentFile(), DIRECTORIO);
+        if (!directorio.isDirectory() && !directorio.mkdirs()) {
+            throw new LogicaException("No se pudo crear el directorio " + directorio + ".");
+        }
+        AlmacenResultadosPaginas almacen = new AlmacenResultadosPaginas(pathCsv, directorio, indice);
+        try {
+            almacen.preparar(csv);
+            return almacen;
+        } catch (IOException e) {
+            almacen.close();
+            throw new LogicaException("Error en los archivos de páginas de " + directorio + ": " + e.getMessage());
+        } catch (LogicaException | RuntimeException e) {
+            almacen.close();
+            throw e;
+        }
+    }
+
+    private String path(String archivo) {
+        return new File(directorio, archivo).getPath();
+    }
+
+    private void preparar(File csv) throws IOException, LogicaException {
+        long largo = csv.length();
+        long modificacion = csv.lastModified();
+        registros = new ArchivoPaginas(path(ARCHIVO_REGISTROS), false);
+        archivoPorDni = new ArchivoPaginas(path(ARCHIVO_POR_DNI), false);
+        archivoPorFecha = new ArchivoPaginas(path(ARCHIVO_POR_FECHA), false);
+        ByteBuffer encabezado = registros.getCantidadPaginas() > 0 ? pool.obtener(registros, 0).datos : null;
+        boolean valido = encabezado != null && encabezado.getInt(0) == MAGICO && encabezado.getInt(4) == VERSION
+                && encabezado.getInt(8) == ArchivoPaginas.TAMANIO_PAGINA && encabezado.getInt(POS_LIMPIO) == 1;
+        if (valido) {
+            porDni = ArbolBMas.abrir(archivoPorDni, pool, ANCHO_CLAVE);
+            porFecha = ArbolBMas.abrir(archivoPorFecha, pool, ANCHO_CLAVE);
+            valido = porDni != null && porFecha != null;
+        }
+        if (valido) {
+            long incorporado = encabezado.getLong(POS_LARGO_CSV);
+            leidos = encabezado.getInt(POS_CANTIDAD);
+            if (incorporado == largo && encabezado.getLong(POS_MODIFICACION_CSV) == modificacion) {
+                return; // Al día
+            }
+            int cola = incorporado < largo ? crcCola(csv, incorporado) : 0;
+            if (cola != 0 && cola == encabezado.getInt(POS_CRC_COLA)) {
+                incorporar(csv, incorporado, largo, modificacion);
+                return;
+            }
+        }
+        // Desde cero
+        for (ArchivoPaginas a : new ArchivoPaginas[] { registros, archivoPorDni, archivoPorFecha }) {
+            pool.descartar(a);
+            a.close();
+        }
+        registros = new ArchivoPaginas(path(ARCHIVO_REGISTROS), true);
+        archivoPorDni = new ArchivoPaginas(path(ARCHIVO_POR_DNI), true);
+        archivoPorFecha = new ArchivoPaginas(path(ARCHIVO_POR_FECHA), true);
+        pool.nueva(registros).datos.putInt(0, MAGICO).putInt(4, VERSION).putInt(8, ArchivoPaginas.TAMANIO_PAGINA);
+        porDni = ArbolBMas.crear(archivoPorDni, pool, ANCHO_CLAVE);
+        porFecha = ArbolBMas.crear(archivoPorFecha, pool, ANCHO_CLAVE);
+        leidos = 0;
+        incorporar(csv, 0, largo, modificacion);
+    }
+
+    /**
+     * Agrega a las páginas las filas del CSV entre dos posiciones. Mientras tanto la
+     * página 0 queda marcada como sucia, así un corte obliga a armarlas de nuevo.
+     */
+    private void incorporar(File csv, long desde, long hasta, long modificacion) throws IOException, LogicaException {
+        PoolPaginas.Pagina encabezado = pool.obtener(registros, 0);
+        encabezado.datos.putInt(POS_LIMPIO, 0);
+        registros.escribir(0, encabezado.datos);
+        registros.forzar();
+        try (LectorCSVMapeado lector = new LectorCSVMapeado(csv.getPath(), desde, hasta)) {
+            if (desde == 0) {
+                lector.siguienteLinea(); // Saltear encabezado
+            }
+            while (lector.siguienteLinea()) {
+                if (lector.lineaVacia()) {
+                    continue;
+                }
+                long inicio = lector.posicionLinea();
+                ResultadoCarrera r = GestorArchivos.ESQUEMA_RESULTADOS.leerFila(lector, indice, () -> pathCsv + " (byte " + inicio + ")");
+                try {
+                    escribirRegistro(leidos, r);
+                    porDni.insertar(r.getPiloto().getDni().trim(), leidos);
+                    porFecha.insertar(claveFecha(r.getCarrera().getFechaRealizacion()), leidos);
+                } catch (IllegalArgumentException e) {
+                    throw new LogicaException("Error en " + pathCsv + " (byte " + inicio + "): " + e.getMessage());
+                }
+                leidos++;
+            }
+        }
+        pool.escribirModificadas(registros);
+        porDni.escribir();
+        porFecha.escribir();
+        registros.forzar();
+        encabezado = pool.obtener(registros, 0);
+        encabezado.datos.putInt(POS_LIMPIO, 1).putInt(POS_CANTIDAD, leidos).putLong(POS_LARGO_CSV, hasta)
+                .putLong(POS_MODIFICACION_CSV, modificacion).putInt(POS_CRC_COLA, crcCola(csv, hasta));
+        registros.escribir(0, encabezado.datos);
+        encabezado.modificada = false;
+        registros.forzar();
+    }
+
+    /** CRC de los últimos bytes del CSV antes de una posición (0 si no termina en un salto de línea). */
+    private static int crcCola(File csv, long hasta) throws IOException {
+        if (hasta <= 0) {
+            return 0;
+        }
+        int largo = (int) Math.min(BYTES_COLA, hasta);
+        ByteBuffer cola = ByteBuffer.allocate(largo);
+        try (FileChannel canal = FileChannel.open(csv.toPath(), StandardOpenOption.READ)) {
+            long posicion = hasta - largo;
+            while (cola.hasRemaining()) {
+                int n = canal.read(cola, posicion);
+                if (n <= 0) {
+                    return 0;
+                }
+                posicion += n;
+            }
+        }
+        byte ultimo = cola.get(largo - 1);
+        if (ultimo != '\n' && ultimo != '\r') {
+            return 0; // La última fila podría seguir: no se puede continuar desde ahí
+        }
+        CRC32 crc = new CRC32();
+        crc.update(cola.array(), 0, largo);
+        return (int) crc.getValue() | 1; // Nunca 0
+    }
+
+    private static String claveFecha(String fecha) {
+        String canonica = Utilidades.formatearFecha(fecha);
+        return canonica != null ? canonica : fecha.trim();
+    }
+
+    private void escribirRegistro(int numero, ResultadoCarrera r) throws IOException {
+        int pagina = 1 + numero / REGISTROS_POR_PAGINA;
+        PoolPaginas.Pagina p = pagina == registros.getCantidadPaginas() ? pool.nueva(registros) : pool.obtener(registros, pagina);
+        ByteBuffer registro = p.datos.duplicate();
+        registro.position((numero % REGISTROS_POR_PAGINA) * TAMANIO_REGISTRO);
+        RegistrosFijos.escribirTexto(registro, r.getPiloto().getDni(), ANCHO_CLAVE);
+        RegistrosFijos.escribirTexto(registro, r.getCarrera().getFechaRealizacion(), ANCHO_CLAVE);
+        registro.putInt(r.getPosicion());
+        p.modificada = true;
+    }
+
+    private ResultadoCarrera leerRegistro(int numero) throws LogicaException {
+        try {
+            ByteBuffer registro = pool.obtener(registros, 1 + numero / REGISTROS_POR_PAGINA).datos.duplicate();
+            registro.position((numero % REGISTROS_POR_PAGINA) * TAMANIO_REGISTRO);
+            String dni = RegistrosFijos.leerTexto(registro, ANCHO_CLAVE);
+            String fecha = RegistrosFijos.leerTexto(registro, ANCHO_CLAVE);
+            int posicion = registro.getInt();
+            return new ResultadoCarrera(indice.buscarPiloto(dni), posicion, indice.buscarCarrera(fecha));
+        } catch (IOException e) {
+            throw new LogicaException("Error al leer " + registros.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    /** Para los Streams: los errores se lanzan como LogicaRuntimeException. */
+    private ResultadoCarrera leerParaStream(int numero) {
+        try {
+            synchronized (this) {
+                return leerRegistro(numero);
+            }
+        } catch (LogicaException e) {
+            throw new LogicaRuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized int cantidad() {
+        return leidos + agregados.size();
+    }
+
+    @Override
+    public synchronized ResultadoCarrera obtener(int posicion) throws LogicaException {
+        if (posicion >= leidos) {
+            return agregados.get(posicion - leidos);
+        }
+        if (posicion < 0) {
+            throw new IndexOutOfBoundsException("Posición " + posicion);
+        }
+        return leerRegistro(posicion);
+    }
+
+    @Override
+    public synchronized void agregar(ResultadoCarrera resultado) {
+        agregados.add(resultado);
+    }
+
+    @Override
+    public synchronized List<ResultadoCarrera> getAgregados() {
+        return new ArrayList<>(agregados);
+    }
+
+    @Override
+    public Stream<ResultadoCarrera> stream(boolean paralelo) {
+        int cantidad;
+        List<ResultadoCarrera> copia;
+        synchronized (this) {
+            cantidad = leidos;
+            copia = new ArrayList<>(agregados);
+        }
+        IntStream numeros = IntStream.range(0, cantidad);
+        Stream<ResultadoCarrera> delArchivo = (paralelo ? numeros.parallel() : numeros).mapToObj(this::leerParaStream);
+        return copia.isEmpty() ? delArchivo : Stream.concat(delArchivo, paralelo ? copia.parallelStream() : copia.stream());
+    }
+
+    /**
+     * Devuelve los resultados de un piloto usando el índice por DNI.
+     */
+    @Override
+    public Stream<ResultadoCarrera> porPiloto(String dni) throws LogicaException {
+        String buscado = dni.trim();
+        return conIndice(porDni, buscado, buscado, r -> r.getPiloto().getDni().trim().equals(buscado));
+    }
+
+    /**
+     * Devuelve los resultados entre dos fechas usando el índice por fecha, en el
+     * orden en que están guardados.
+     */
+    @Override
+    public Stream<ResultadoCarrera> entreFechas(String desde, String hasta) throws LogicaException {
+        return conIndice(porFecha, desde, hasta, r -> {
+            String fecha = claveFecha(r.getCarrera().getFechaRealizacion());
+            return fecha.compareTo(desde) >= 0 && fecha.compareTo(hasta) <= 0;
+        });
+    }
+
+    private Stream<ResultadoCarrera> conIndice(ArbolBMas arbol, String desde, String hasta,
+            Predicate<ResultadoCarrera> agregado) throws LogicaException {
+        int[] numeros;
+        List<ResultadoCarrera> copia;
+        synchronized (this) {
+            try {
+                numeros = arbol.buscar(desde, hasta);
+            } catch (IOException e) {
+                throw new LogicaException("Error al leer los índices de " + directorio + ": " + e.getMessage());
+            }
+            copia = new ArrayList<>(agregados);
+        }
+        Arrays.sort(numeros); // En el orden del archivo, que además lee las páginas en orden
+        Stream<ResultadoCarrera> delArchivo = IntStream.of(numeros).mapToObj(this::leerParaStream);
+        return copia.isEmpty() ? delArchivo : Stream.concat(delArchivo, copia.stream().filter(agregado));
+    }
+
+    /**
+     * Devuelve un resumen del uso del pool de páginas (aciertos, fallos y desalojos).
+     * @return El resumen.
+     */
+    public String getResumenPool() {
+        return pool.toString();
+    }
+
+    @Override
+    public synchronized void close() {
+        for (ArchivoPaginas a : new ArchivoPaginas[] { registros, archivoPorDni, archivoPorFecha }) {
+            if (a != null) {
+                pool.descartar(a);
+                try {
+                    a.close();
+                } catch (IOException e) {
+                    // Durante la sesión sólo se lee: no hay nada que perder
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package archivos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Árbol B+ guardado en un {@link ArchivoPaginas}, que asocia claves de texto con
+ * números enteros (ej. DNI del piloto -> número de resultado). Puede haber claves
+ * repetidas: cada entrada es el par (clave, valor), ordenado por clave y después por valor.
+ * <p>
+ * Formato: la página 0 es {@code [int MAGICO][int VERSION][int tamanioPagina][int anchoClave][int raiz]}
+ * y cada nodo es una página {@code [byte tipo][byte 0][short cantidad][int enlace][entradas]}.
+ * En una hoja el enlace es la hoja siguiente y cada entrada es {@code [clave][int valor]};
+ * en un nodo interno el enlace es el primer hijo y cada entrada es
+ * {@code [clave][int valor][int hijo]}, donde el hijo tiene las entradas mayores o
+ * iguales a (clave, valor). Las claves se guardan en UTF-8 rellenas con ceros hasta
+ * {@code anchoClave} bytes, así se comparan byte a byte sin armar Strings.
+ * <p>
+ * Cuando una entrada se agrega al final de un nodo lleno (lo normal si se agregan
+ * en orden), el nodo queda lleno y la nueva va sola al nodo nuevo, en lugar de
+ * partirlo a la mitad: así cargar datos ordenados llena las páginas.
+ */
+class ArbolBMas {
+    private static final int MAGICO = 0x41524242; // "ARBB"
+    private static final int VERSION = 1;
+    private static final byte HOJA = 1;
+    private static final byte INTERNO = 2;
+    private static final int ENCABEZADO_NODO = 8;
+    private static final int SIN_PAGINA = -1;
+
+    /** Lo que sube al nodo padre cuando se divide un hijo. */
+    private static final class Division {
+        final byte[] clave;
+        final int valor;
+        final int pagina;
+
+        Division(byte[] clave, int valor, int pagina) {
+            this.clave = clave;
+            this.valor = valor;
+            this.pagina = pagina;
+        }
+    }
+
+    private final ArchivoPaginas archivo;
+    private final PoolPaginas pool;
+    private final int anchoClave;
+    private final int tamanioHoja;    // Bytes de una entrada de hoja
+    private final int tamanioInterno; // Bytes de una entrada de nodo interno
+    private final int maximoHoja;
+    private final int maximoInterno;
+    private int raiz;
+
+    private ArbolBMas(ArchivoPaginas archivo, PoolPaginas pool, int anchoClave, int raiz) {
+        this.archivo = archivo;
+        this.pool = pool;
+        this.anchoClave = anchoClave;
+        this.tamanioHoja = anchoClave + 4;
+        this.tamanioInterno = anchoClave + 8;
+        this.maximoHoja = (ArchivoPaginas.TAMANIO_PAGINA - ENCABEZADO_NODO) / tamanioHoja;
+        this.maximoInterno = (ArchivoPaginas.TAMANIO_PAGINA - ENCABEZADO_NODO) / tamanioInterno;
+        this.raiz = raiz;
+    }
+
+    /**
+     * Crea un árbol vacío en un archivo vacío.
+     * @param archivo El archivo (sin páginas).
+     * @param pool El pool a través del cual se leen y escriben las páginas.
+     * @param anchoClave Bytes de cada clave.
+     * @return El árbol.
+     * @throws IOException Si ocurre un error de escritura.
+     */
+    static ArbolBMas crear(ArchivoPaginas archivo, PoolPaginas pool, int anchoClave) throws IOException {
+        PoolPaginas.Pagina meta = pool.nueva(archivo);
+        PoolPaginas.Pagina hoja = pool.nueva(archivo);
+        hoja.datos.put(0, HOJA).putShort(2, (short) 0).putInt(4, SIN_PAGINA);
+        meta.datos.putInt(0, MAGICO).putInt(4, VERSION).putInt(8, ArchivoPaginas.TAMANIO_PAGINA).putInt(12, anchoClave).putInt(16, hoja.numero);
+        return new ArbolBMas(archivo, pool, anchoClave, hoja.numero);
+    }
+
+    /**
+     * Abre un árbol existente.
+     * @param archivo El archivo.
+     * @param pool El pool a través del cual se leen y escriben las páginas.
+     * @param anchoClave Bytes de cada clave (debe coincidir con el del archivo).
+     * @return El árbol, o null si el archivo no tiene un árbol con este formato.
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    static ArbolBMas abrir(ArchivoPaginas archivo, PoolPaginas pool, int anchoClave) throws IOException {
+        if (archivo.getCantidadPaginas() < 2) {
+            return null;
+        }
+        ByteBuffer meta = pool.obtener(archivo, 0).datos;
+        int raiz = meta.getInt(16);
+        if (meta.getInt(0) != MAGICO || meta.getInt(4) != VERSION || meta.getInt(8) != ArchivoPaginas.TAMANIO_PAGINA
+                || meta.getInt(12) != anchoClave || raiz <= 0 || raiz >= archivo.getCantidadPaginas()) {
+            return null;
+        }
+        return new ArbolBMas(archivo, pool, anchoClave, raiz);
+    }
+
+    /**
+     * Indica si un texto entra como clave.
+     * @param texto El texto.
+     * @return true si sus bytes UTF-8 no pasan del ancho de la clave.
+     */
+    boolean entra(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8).length <= anchoClave;
+    }
+
+    /** La clave de un texto, rellena con ceros. */
+    private byte[] clave(String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > anchoClave) {
+            throw new IllegalArgumentException("La clave '" + texto + "' no entra en " + anchoClave + " bytes.");
+        }
+        return Arrays.copyOf(bytes, anchoClave);
+    }
+
+    /** Compara una clave con la de una entrada, byte a byte sin signo. */
+    private int compararClave(byte[] clave, ByteBuffer nodo, int posicion) {
+        for (int i = 0; i < anchoClave; i++) {
+            int c = Integer.compare(clave[i] & 0xFF, nodo.get(posicion + i) & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    /** Compara (clave, valor) con una entrada. */
+    private int compararEntrada(byte[] clave, int valor, ByteBuffer nodo, int posicion) {
+        int c = compararClave(clave, nodo, posicion);
+        return c != 0 ? c : Integer.compare(valor, nodo.getInt(posicion + anchoClave));
+    }
+
+    private static int posicionEntrada(int i, int tamanio) {
+        return ENCABEZADO_NODO + i * tamanio;
+    }
+
+    /** Cuántas entradas del nodo son menores o iguales a (clave, valor) (búsqueda binaria). */
+    private int cantidadHasta(ByteBuffer nodo, int cantidad, int tamanio, byte[] clave, int valor) {
+        int desde = 0;
+        int hasta = cantidad;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (compararEntrada(clave, valor, nodo, posicionEntrada(medio, tamanio)) >= 0) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    /** Cuántas entradas del nodo tienen una clave menor a la dada. */
+    private int cantidadMenores(ByteBuffer nodo, int cantidad, int tamanio, byte[] clave) {
+        int desde = 0;
+        int hasta = cantidad;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (compararClave(clave, nodo, posicionEntrada(medio, tamanio)) > 0) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    // --- INSERCIÓN ---
+
+    /**
+     * Agrega una entrada.
+     * @param texto La clave.
+     * @param valor El valor.
+     * @throws IOException Si ocurre un error al leer o escribir una página.
+     * @throws IllegalArgumentException Si la clave no entra (ver {@link #entra}).
+     */
+    void insertar(String texto, int valor) throws IOException {
+        Division division = insertar(raiz, clave(texto), valor);
+        if (division != null) {
+            PoolPaginas.Pagina nueva = pool.nueva(archivo);
+            ByteBuffer nodo = nueva.datos;
+            nodo.put(0, INTERNO).putShort(2, (short) 1).putInt(4, raiz);
+            escribirEntrada(nodo, posicionEntrada(0, tamanioInterno), division.clave, division.valor);
+            nodo.putInt(posicionEntrada(0, tamanioInterno) + anchoClave + 4, division.pagina);
+            raiz = nueva.numero;
+            PoolPaginas.Pagina meta = pool.obtener(archivo, 0);
+            meta.datos.putInt(16, raiz);
+            meta.modificada = true;
+        }
+    }
+
+    private Division insertar(int numero, byte[] clave, int valor) throws IOException {
+        ByteBuffer nodo = pool.obtener(archivo, numero).datos;
+        int cantidad = nodo.getShort(2);
+        if (nodo.get(0) == HOJA) {
+            int posicion = cantidadHasta(nodo, cantidad, tamanioHoja, clave, valor);
+            byte[] entrada = ByteBuffer.allocate(tamanioHoja).put(clave).putInt(valor).array();
+            return agregarEntrada(numero, posicion, entrada, true);
+        }
+        int indice = cantidadHasta(nodo, cantidad, tamanioInterno, clave, valor);
+        int hijo = indice == 0 ? nodo.getInt(4) : nodo.getInt(posicionEntrada(indice - 1, tamanioInterno) + anchoClave + 4);
+        Division division = insertar(hijo, clave, valor);
+        if (division == null) {
+            return null;
+        }
+        byte[] entrada = ByteBuffer.allocate(tamanioInterno).put(division.clave).putInt(division.valor).putInt(division.pagina).array();
+        return agregarEntrada(numero, indice, entrada, false);
+    }
+
+    /**
+     * Agrega una entrada en una posición del nodo. Si no entra, divide el nodo y
+     * devuelve lo que hay que agregar al padre.
+     */
+    private Division agregarEntrada(int numero, int posicion, byte[] entrada, boolean hoja) throws IOException {
+        PoolPaginas.Pagina pagina = pool.obtener(archivo, numero); // Se vuelve a pedir: el hijo pudo haberla desalojado
+        ByteBuffer nodo = pagina.datos;
+        byte[] bytes = nodo.array();
+        int cantidad = nodo.getShort(2);
+        int tamanio = hoja ? tamanioHoja : tamanioInterno;
+        int maximo = hoja ? maximoHoja : maximoInterno;
+        pagina.modificada = true;
+        if (cantidad < maximo) {
+            int inicio = posicionEntrada(posicion, tamanio);
+            System.arraycopy(bytes, inicio, bytes, inicio + tamanio, (cantidad - posicion) * tamanio);
+            System.arraycopy(entrada, 0, bytes, inicio, tamanio);
+            nodo.putShort(2, (short) (cantidad + 1));
+            return null;
+        }
+        // Todas las entradas, con la nueva en su lugar
+        byte[] todas = new byte[(cantidad + 1) * tamanio];
+        System.arraycopy(bytes, ENCABEZADO_NODO, todas, 0, posicion * tamanio);
+        System.arraycopy(entrada, 0, todas, posicion * tamanio, tamanio);
+        System.arraycopy(bytes, posicionEntrada(posicion, tamanio), todas, (posicion + 1) * tamanio, (cantidad - posicion) * tamanio);
+        PoolPaginas.Pagina nueva = pool.nueva(archivo);
+        ByteBuffer derecho = nueva.datos;
+        int total = cantidad + 1;
+        if (hoja) {
+            int izquierda = posicion == cantidad ? cantidad : total / 2;
+            escribirEntradas(nodo, todas, 0, izquierda, tamanio);
+            escribirEntradas(derecho, todas, izquierda, total - izquierda, tamanio);
+            derecho.put(0, HOJA).putInt(4, nodo.getInt(4));
+            nodo.putInt(4, nueva.numero);
+            return new Division(Arrays.copyOfRange(todas, izquierda * tamanio, izquierda * tamanio + anchoClave),
+                    ByteBuffer.wrap(todas).getInt(izquierda * tamanio + anchoClave), nueva.numero);
+        }
+        // Nodo interno: la entrada del medio sube al padre y su hijo pasa a ser el primero del nodo nuevo
+        int medio = posicion == cantidad ? cantidad - 1 : total / 2;
+        ByteBuffer subida = ByteBuffer.wrap(todas);
+        escribirEntradas(nodo, todas, 0, medio, tamanio);
+        escribirEntradas(derecho, todas, medio + 1, total - medio - 1, tamanio);
+        derecho.put(0, INTERNO).putInt(4, subida.getInt(medio * tamanio + anchoClave + 4));
+        return new Division(Arrays.copyOfRange(todas, medio * tamanio, medio * tamanio + anchoClave),
+                subida.getInt(medio * tamanio + anchoClave), nueva.numero);
+    }
+
+    private static void escribirEntradas(ByteBuffer nodo, byte[] entradas, int desde, int cantidad, int tamanio) {
+        System.arraycopy(entradas, desde * tamanio, nodo.array(), ENCABEZADO_NODO, cantidad * tamanio);
+        nodo.putShort(2, (short) cantidad);
+    }
+
+    private void escribirEntrada(ByteBuffer nodo, int posicion, byte[] clave, int valor) {
+        System.arraycopy(clave, 0, nodo.array(), posicion, anchoClave);
+        nodo.putInt(posicion + anchoClave, valor);
+    }
+
+    // --- BÚSQUEDA ---
+
+    /**
+     * Devuelve los valores de las entradas con clave entre dos textos (inclusive).
+     * @param desde Clave inicial.
+     * @param hasta Clave final.
+     * @return Los valores, ordenados por clave y después por valor.
+     * @throws IOException Si ocurre un error al leer una página.
+     */
+    int[] buscar(String desde, String hasta) throws IOException {
+        // Una clave que no entra se corta: las guardadas iguales a 'desde' cortado son menores que 'desde'
+        boolean saltearIguales = !entra(desde);
+        byte[] inicio = Arrays.copyOf(desde.getBytes(StandardCharsets.UTF_8), anchoClave);
+        byte[] fin = Arrays.copyOf(hasta.getBytes(StandardCharsets.UTF_8), anchoClave);
+        int numero = raiz;
+        ByteBuffer nodo = pool.obtener(archivo, numero).datos;
+        while (nodo.get(0) == INTERNO) {
+            int indice = cantidadMenores(nodo, nodo.getShort(2), tamanioInterno, inicio);
+            numero = indice == 0 ? nodo.getInt(4) : nodo.getInt(posicionEntrada(indice - 1, tamanioInterno) + anchoClave + 4);
+            nodo = pool.obtener(archivo, numero).datos;
+        }
+        int[] valores = new int[16];
+        int cantidadValores = 0;
+        int i = cantidadMenores(nodo, nodo.getShort(2), tamanioHoja, inicio);
+        while (true) {
+            int cantidad = nodo.getShort(2);
+            for (; i < cantidad; i++) {
+                int posicion = posicionEntrada(i, tamanioHoja);
+                if (compararClave(fin, nodo, posicion) < 0) {
+                    return Arrays.copyOf(valores, cantidadValores);
+                }
+                if (saltearIguales && compararClave(inicio, nodo, posicion) == 0) {
+                    continue;
+                }
+                if (cantidadValores == valores.length) {
+                    valores = Arrays.copyOf(valores, valores.length * 2);
+                }
+                valores[cantidadValores++] = nodo.getInt(posicion + anchoClave);
+            }
+            int siguiente = nodo.getInt(4);
+            if (siguiente == SIN_PAGINA) {
+                return Arrays.copyOf(valores, cantidadValores);
+            }
+            nodo = pool.obtener(archivo, siguiente).datos;
+            i = 0;
+        }
+    }
+
+    /**
+     * Escribe las páginas modificadas y las fuerza a disco.
+     * @throws IOException Si ocurre un error de escritura.
+     */
+    void escribir() throws IOException {
+        pool.escribirModificadas(archivo);
+        archivo.forzar();
+    }
+}
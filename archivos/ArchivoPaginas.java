@@ -0,0 +1,116 @@
+package archivos;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Archivo dividido en páginas de {@value #TAMANIO_PAGINA} bytes, numeradas desde 0.
+ * Las páginas se leen y se escriben enteras, a través de un {@link PoolPaginas}.
+ * La página 0 es el encabezado de quien usa el archivo.
+ */
+class ArchivoPaginas implements Closeable {
+    /** Bytes de cada página. */
+    static final int TAMANIO_PAGINA = 4096;
+
+    private static final AtomicInteger SIGUIENTE_ID = new AtomicInteger();
+
+    private final int id;
+    private final String path;
+    private final FileChannel canal;
+    private int cantidadPaginas;
+
+    /**
+     * Abre (o crea) el archivo.
+     * @param path Ruta del archivo.
+     * @param vaciar true para descartar lo que tenía.
+     * @throws IOException Si no se puede abrir.
+     */
+    ArchivoPaginas(String path, boolean vaciar) throws IOException {
+        this.id = SIGUIENTE_ID.getAndIncrement();
+        this.path = path;
+        this.canal = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (vaciar) {
+            canal.truncate(0);
+        }
+        this.cantidadPaginas = (int) (canal.size() / TAMANIO_PAGINA);
+    }
+
+    /** Identifica el archivo dentro del pool. */
+    int getId() {
+        return id;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * Devuelve cuántas páginas tiene (incluidas las nuevas que todavía no se escribieron).
+     * @return La cantidad de páginas.
+     */
+    int getCantidadPaginas() {
+        return cantidadPaginas;
+    }
+
+    /**
+     * Reserva el número de una página nueva al final del archivo.
+     * @return El número de la página.
+     */
+    int reservarPagina() {
+        return cantidadPaginas++;
+    }
+
+    /**
+     * Lee una página entera (lo que esté más allá del fin del archivo queda en 0).
+     * @param numero Número de página.
+     * @param destino Buffer de {@value #TAMANIO_PAGINA} bytes.
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    void leer(int numero, ByteBuffer destino) throws IOException {
+        destino.clear();
+        long posicion = (long) numero * TAMANIO_PAGINA;
+        while (destino.hasRemaining()) {
+            int n = canal.read(destino, posicion);
+            if (n <= 0) {
+                break;
+            }
+            posicion += n;
+        }
+        while (destino.hasRemaining()) {
+            destino.put((byte) 0);
+        }
+        destino.clear();
+    }
+
+    /**
+     * Escribe una página entera.
+     * @param numero Número de página.
+     * @param origen Buffer de {@value #TAMANIO_PAGINA} bytes.
+     * @throws IOException Si ocurre un error de escritura.
+     */
+    void escribir(int numero, ByteBuffer origen) throws IOException {
+        ByteBuffer datos = origen.duplicate().clear();
+        long posicion = (long) numero * TAMANIO_PAGINA;
+        while (datos.hasRemaining()) {
+            posicion += canal.write(datos, posicion);
+        }
+    }
+
+    /**
+     * Fuerza a disco lo escrito.
+     * @throws IOException Si ocurre un error de escritura.
+     */
+    void forzar() throws IOException {
+        canal.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
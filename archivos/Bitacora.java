@@ -0,0 +1,574 @@
+package archivos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import logica.LogicaException;
+
+/**
+ * Bitácora binaria de sólo agregado (write-ahead log): cada registro se escribe
+ * y se fuerza a disco con un único {@link FileChannel} antes de devolver el control,
+ * así lo que se confirmó sobrevive a un corte.
+ * <p>
+ * Las escrituras se confirman en grupo (group commit): quien agrega registros los
+ * deja en una cola y espera; un hilo propio junta todo lo encolado, lo escribe de una
+ * vez con un solo {@code force} y recién entonces libera a cada uno. Así varios hilos
+ * que registran a la vez no esperan un {@code force} cada uno. Lo que llega mientras
+ * se fuerza un grupo va en el siguiente; con {@link #setVentanaMicros} el hilo además
+ * espera un rato antes de escribir, para juntar grupos más grandes.
+ * Se miden la latencia de cada confirmación y el tamaño de cada grupo
+ * ({@link #getLatencias()}, {@link #getTamaniosGrupo()}).
+ * <p>
+ * Formato: un encabezado {@code [int MAGICO][int VERSION][long secuenciaBase]} y luego
+ * los registros, cada uno {@code [int largo][long secuencia][contenido][int CRC32]}, donde
+ * el CRC cubre la secuencia y el contenido. Las secuencias son crecientes y mayores que
+ * la base (la última secuencia descartada al compactar, ver {@link #descartarHasta}).
+ * La versión 1 no tenía la base (se lee como base 0). Al abrir la bitácora se recorre
+ * entera y, si el final quedó a medio escribir (o dañado), se descarta desde el
+ * primer registro inválido.
+ * <p>
+ * El contenido de cada registro es opaco para esta clase (ver {@link BitacoraOperaciones}).
+ */
+public class Bitacora implements AutoCloseable {
+    private static final int MAGICO = 0x42495443; // "BITC"
+    private static final int VERSION = 2;
+    private static final int VERSION_SIN_BASE = 1;
+    /** Bytes del encabezado del archivo. */
+    static final int TAMANIO_ENCABEZADO = 16;
+    private static final int TAMANIO_ENCABEZADO_SIN_BASE = 8;
+    /** Bytes antes del contenido de cada registro: largo y secuencia. */
+    private static final int CABECERA_REGISTRO = 4 + 8;
+    /** Largo máximo del contenido de un registro. */
+    static final int TAMANIO_MAXIMO_REGISTRO = 64 * 1024;
+    private static final int BUFFER_LECTURA = 1024 * 1024;
+    private static final String SUFIJO_TEMPORAL = ".tmp";
+
+    /** Registros de un llamador que esperan ser escritos. */
+    private static class Pedido {
+        final List<byte[]> contenidos;
+        final long llegada = System.nanoTime();
+        long secuencia;
+        LogicaException error;
+        boolean listo;
+
+        Pedido(List<byte[]> contenidos) {
+            this.contenidos = contenidos;
+        }
+    }
+
+    /**
+     * Recibe los registros al recorrer la bitácora.
+     */
+    public interface Lector {
+        /**
+         * Procesa un registro.
+         * @param secuencia Número de secuencia del registro.
+         * @param contenido El contenido; sólo es válido durante la llamada.
+         * @throws LogicaException Si el registro no se puede procesar (corta el recorrido).
+         */
+        void registro(long secuencia, ByteBuffer contenido) throws LogicaException;
+    }
+
+    private final String path;
+    private FileChannel canal; // Cambia al compactar
+    private final CRC32 crc;
+    private long inicio; // Dónde empieza el primer registro (después del encabezado)
+    private long base; // Secuencia anterior al primer registro
+    private long fin; // Fin del último registro válido
+    private long ultimaSecuencia;
+    private long cantidad;
+    private long bytesDescartados; // Cola incompleta descartada al abrir
+    // Confirmación en grupo
+    private final Object cerrojoCola = new Object(); // Protege cola, escritor y cerrada
+    private List<Pedido> cola = new ArrayList<>();
+    private Thread escritor;
+    private boolean cerrada;
+    private volatile long ventanaNanos;
+    private final Histograma latencias = new Histograma("µs");
+    private final Histograma tamaniosGrupo = new Histograma("pedidos");
+
+    private Bitacora(String path, FileChannel canal) {
+        this.path = path;
+        this.canal = canal;
+        this.crc = new CRC32();
+    }
+
+    /**
+     * Abre (o crea) una bitácora y descarta su final si quedó incompleto
+     * (ver {@link #getBytesDescartados}).
+     *
+     * @param path Ruta del archivo.
+     * @return La bitácora, lista para agregar registros.
+     * @throws LogicaException Si el archivo no se puede abrir o no es una bitácora.
+     */
+    public static Bitacora abrir(String path) throws LogicaException {
+        FileChannel canal = null;
+        try {
+            Files.deleteIfExists(Paths.get(path + SUFIJO_TEMPORAL)); // Una compactación que no terminó
+            canal = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Bitacora bitacora = new Bitacora(path, canal);
+            if (canal.size() < TAMANIO_ENCABEZADO_SIN_BASE) {
+                canal.truncate(0);
+                escribirTodo(canal, encabezado(0), 0);
+                canal.force(true);
+                bitacora.inicio = TAMANIO_ENCABEZADO;
+                bitacora.fin = TAMANIO_ENCABEZADO;
+                return bitacora;
+            }
+            ByteBuffer encabezado = ByteBuffer.allocate(TAMANIO_ENCABEZADO);
+            while (encabezado.hasRemaining() && canal.read(encabezado, encabezado.position()) > 0) {
+                // Leer el encabezado completo
+            }
+            int version = encabezado.getInt(4);
+            if (encabezado.getInt(0) != MAGICO || (version != VERSION && version != VERSION_SIN_BASE)
+                    || (version == VERSION && encabezado.position() < TAMANIO_ENCABEZADO)) {
+                throw new LogicaException("El archivo " + path + " no es una bitácora válida.");
+            }
+            if (version == VERSION) {
+                bitacora.inicio = TAMANIO_ENCABEZADO;
+                bitacora.base = encabezado.getLong(8);
+            } else {
+                bitacora.inicio = TAMANIO_ENCABEZADO_SIN_BASE;
+            }
+            long tamanio = canal.size();
+            bitacora.recorrer(tamanio, 0, null);
+            if (bitacora.fin < tamanio) {
+                bitacora.bytesDescartados = tamanio - bitacora.fin;
+                canal.truncate(bitacora.fin);
+                canal.force(true);
+            }
+            return bitacora;
+        } catch (IOException e) {
+            cerrar(canal);
+            throw new LogicaException("No se pudo abrir la bitácora " + path + ": " + e.getMessage());
+        } catch (LogicaException e) {
+            cerrar(canal);
+            throw e;
+        }
+    }
+
+    /**
+     * Agrega registros al final de la bitácora y espera a que estén forzados a disco
+     * (junto con los de otros hilos, ver la descripción de la clase). Los registros de
+     * una llamada quedan seguidos y se confirman todos o ninguno.
+     * Si la escritura falla, la bitácora queda como antes.
+     *
+     * @param contenidos El contenido de cada registro, en orden.
+     * @return La secuencia del último registro agregado.
+     * @throws LogicaException Si no se pudieron escribir (ninguno queda confirmado) o la bitácora está cerrada.
+     */
+    public long agregar(List<byte[]> contenidos) throws LogicaException {
+        for (byte[] contenido : contenidos) {
+            if (contenido.length == 0 || contenido.length > TAMANIO_MAXIMO_REGISTRO) {
+                throw new IllegalArgumentException("Registro de bitácora de " + contenido.length + " bytes.");
+            }
+        }
+        Pedido pedido = new Pedido(contenidos);
+        boolean interrumpido = false;
+        synchronized (cerrojoCola) {
+            if (cerrada) {
+                throw new LogicaException("La bitácora " + path + " está cerrada.");
+            }
+            cola.add(pedido);
+            if (escritor == null) {
+                escritor = new Thread(this::escribirGrupos, "bitacora-grupo");
+                escritor.setDaemon(true);
+                escritor.start();
+            }
+            cerrojoCola.notifyAll();
+            while (!pedido.listo) {
+                try {
+                    cerrojoCola.wait();
+                } catch (InterruptedException e) {
+                    interrumpido = true; // Hay que esperar igual: el registro puede quedar confirmado
+                }
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+        if (pedido.error != null) {
+            throw pedido.error;
+        }
+        return pedido.secuencia;
+    }
+
+    /** Hilo que escribe los grupos, hasta que se cierra la bitácora y no queda nada encolado. */
+    private void escribirGrupos() {
+        while (true) {
+            List<Pedido> grupo;
+            synchronized (cerrojoCola) {
+                try {
+                    while (cola.isEmpty() && !cerrada) {
+                        cerrojoCola.wait();
+                    }
+                    long hasta = System.nanoTime() + ventanaNanos;
+                    long resta;
+                    while (!cerrada && (resta = hasta - System.nanoTime()) > 0) {
+                        cerrojoCola.wait(resta / 1_000_000, (int) (resta % 1_000_000));
+                    }
+                } catch (InterruptedException e) {
+                    // Se escribe lo que haya
+                }
+                if (cola.isEmpty()) {
+                    escritor = null;
+                    return; // Cerrada y sin pendientes
+                }
+                grupo = cola;
+                cola = new ArrayList<>();
+            }
+            try {
+                escribirGrupo(grupo);
+            } catch (Throwable e) {
+                // Falla sólo este grupo: el hilo sigue con los pedidos siguientes
+                LogicaException error = new LogicaException("No se pudo escribir en la bitácora " + path + ": " + e);
+                for (Pedido p : grupo) {
+                    p.error = error;
+                }
+            } finally {
+                synchronized (cerrojoCola) {
+                    for (Pedido p : grupo) {
+                        p.listo = true; // Nadie queda esperando un grupo que no se escribió
+                    }
+                    cerrojoCola.notifyAll();
+                }
+            }
+            long ahora = System.nanoTime();
+            for (Pedido p : grupo) {
+                latencias.registrar((ahora - p.llegada) / 1000);
+            }
+            tamaniosGrupo.registrar(grupo.size());
+        }
+    }
+
+    /** Escribe los registros de un grupo con una sola escritura y un solo force. */
+    private synchronized void escribirGrupo(List<Pedido> grupo) {
+        int total = 0;
+        long registros = 0;
+        for (Pedido p : grupo) {
+            for (byte[] contenido : p.contenidos) {
+                total += CABECERA_REGISTRO + contenido.length + 4;
+            }
+            registros += p.contenidos.size();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        long secuencia = ultimaSecuencia;
+        for (Pedido p : grupo) {
+            for (byte[] contenido : p.contenidos) {
+                secuencia++;
+                int inicio = buffer.position();
+                buffer.putInt(contenido.length).putLong(secuencia).put(contenido);
+                crc.reset();
+                crc.update(buffer.array(), inicio + 4, 8 + contenido.length);
+                buffer.putInt((int) crc.getValue());
+            }
+            p.secuencia = secuencia;
+        }
+        buffer.flip();
+        try {
+            escribirTodo(canal, buffer, fin);
+            canal.force(false);
+        } catch (IOException | RuntimeException e) {
+            try {
+                canal.truncate(fin); // Que no quede un registro a medias
+            } catch (IOException ex) {
+                // Al abrir se descarta igual el final inválido
+            }
+            LogicaException error = new LogicaException("No se pudo escribir en la bitácora " + path + ": " + e.getMessage());
+            for (Pedido p : grupo) {
+                p.error = error;
+            }
+            return;
+        }
+        fin += total;
+        ultimaSecuencia = secuencia;
+        cantidad += registros;
+    }
+
+    /**
+     * Elige cuánto espera el hilo de escritura, desde que llega el primer pedido de un
+     * grupo, antes de escribirlo (la ventana de confirmación). Con 0 (por defecto) se
+     * escribe enseguida y los grupos se forman sólo con lo que llega durante el force anterior.
+     * @param micros Microsegundos de espera (0 o más).
+     */
+    public void setVentanaMicros(long micros) {
+        if (micros < 0) {
+            throw new IllegalArgumentException("La ventana de confirmación no puede ser negativa.");
+        }
+        this.ventanaNanos = micros * 1000;
+    }
+
+    /**
+     * Devuelve el histograma de latencias de confirmación: desde que se llama a
+     * {@link #agregar} hasta que los registros están en disco, en microsegundos.
+     * @return El histograma.
+     */
+    public Histograma getLatencias() {
+        return latencias;
+    }
+
+    /**
+     * Devuelve el histograma de la cantidad de pedidos (llamadas a {@link #agregar})
+     * confirmados en cada escritura.
+     * @return El histograma.
+     */
+    public Histograma getTamaniosGrupo() {
+        return tamaniosGrupo;
+    }
+
+    private static ByteBuffer encabezado(long base) {
+        ByteBuffer encabezado = ByteBuffer.allocate(TAMANIO_ENCABEZADO).putInt(MAGICO).putInt(VERSION).putLong(base);
+        encabezado.flip();
+        return encabezado;
+    }
+
+    /**
+     * Descarta los registros con secuencia menor o igual a la indicada (compactación),
+     * porque sus datos ya están guardados en otro lado (ver {@link CompactadorBitacora}).
+     * Los registros posteriores se copian a un archivo nuevo, que luego reemplaza al
+     * actual con un renombrado atómico: si se corta antes, la bitácora queda como estaba.
+     * Mientras se copian no se pueden agregar registros.
+     *
+     * @param secuencia Última secuencia a descartar.
+     * @return Cantidad de registros descartados (0 si no había ninguno).
+     * @throws LogicaException Si no se pudo escribir la bitácora compactada (queda como estaba).
+     */
+    public synchronized long descartarHasta(long secuencia) throws LogicaException {
+        secuencia = Math.min(secuencia, ultimaSecuencia);
+        if (secuencia <= base) {
+            return 0;
+        }
+        Path temporal = Paths.get(path + SUFIJO_TEMPORAL);
+        long[] copiados = new long[1];
+        long largo;
+        try (FileChannel nuevo = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            escribirTodo(nuevo, encabezado(secuencia), 0);
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_LECTURA);
+            long[] posicion = { TAMANIO_ENCABEZADO };
+            CRC32 crcCopia = new CRC32();
+            recorrer(fin, secuencia, (sec, contenido) -> {
+                try {
+                    if (buffer.remaining() < CABECERA_REGISTRO + contenido.remaining() + 4) {
+                        buffer.flip();
+                        posicion[0] = escribirTodo(nuevo, buffer, posicion[0]);
+                        buffer.clear();
+                    }
+                    int p = buffer.position();
+                    buffer.putInt(contenido.remaining()).putLong(sec).put(contenido);
+                    crcCopia.reset();
+                    crcCopia.update(buffer.array(), p + 4, buffer.position() - p - 4);
+                    buffer.putInt((int) crcCopia.getValue());
+                    copiados[0]++;
+                } catch (IOException e) {
+                    throw new LogicaException(e.getMessage());
+                }
+            });
+            buffer.flip();
+            largo = escribirTodo(nuevo, buffer, posicion[0]);
+            nuevo.force(true);
+        } catch (IOException | LogicaException e) {
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException ex) {
+                // Se borra al abrir la bitácora
+            }
+            throw new LogicaException("No se pudo compactar la bitácora " + path + ": " + e.getMessage());
+        }
+        FileChannel anterior = canal;
+        try {
+            Files.move(temporal, Paths.get(path), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            canal = FileChannel.open(Paths.get(path), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new LogicaException("No se pudo reemplazar la bitácora " + path + " por la compactada: " + e.getMessage());
+        }
+        cerrar(anterior);
+        long descartados = cantidad - copiados[0];
+        inicio = TAMANIO_ENCABEZADO;
+        base = secuencia;
+        fin = largo;
+        cantidad = copiados[0];
+        return descartados;
+    }
+
+    /**
+     * Recorre los registros confirmados hasta ahora, en orden. Mientras tanto no se
+     * pueden agregar registros ni compactar.
+     *
+     * @param desdeSecuencia Se saltean los registros con secuencia menor o igual a ésta (0: todos).
+     * @param lector Recibe cada registro.
+     * @throws LogicaException Si el archivo no se puede leer o el lector falla.
+     */
+    public synchronized void recorrer(long desdeSecuencia, Lector lector) throws LogicaException {
+        try {
+            recorrer(fin, desdeSecuencia, lector);
+        } catch (IOException e) {
+            throw new LogicaException("Error al leer la bitácora " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lee los registros hasta la posición indicada. Sin lector (al abrir), además
+     * calcula el fin del último registro válido, la última secuencia y la cantidad.
+     */
+    private void recorrer(long hasta, long desdeSecuencia, Lector lector) throws IOException, LogicaException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_LECTURA);
+        buffer.flip();
+        CRC32 crcLectura = new CRC32();
+        long leido = inicio; // Posición del archivo que sigue a lo que está en el buffer
+        long valido = inicio;
+        long secuenciaAnterior = base;
+        long registros = 0;
+        while (true) {
+            if (buffer.remaining() < CABECERA_REGISTRO) {
+                leido = rellenar(buffer, leido, hasta);
+            }
+            if (buffer.remaining() < CABECERA_REGISTRO) {
+                break;
+            }
+            int largo = buffer.getInt(buffer.position());
+            if (largo <= 0 || largo > TAMANIO_MAXIMO_REGISTRO) {
+                break;
+            }
+            int total = CABECERA_REGISTRO + largo + 4;
+            if (buffer.remaining() < total) {
+                leido = rellenar(buffer, leido, hasta);
+                if (buffer.remaining() < total) {
+                    break;
+                }
+            }
+            int p = buffer.position();
+            long secuencia = buffer.getLong(p + 4);
+            crcLectura.reset();
+            crcLectura.update(buffer.array(), p + 4, 8 + largo);
+            if ((int) crcLectura.getValue() != buffer.getInt(p + CABECERA_REGISTRO + largo) || secuencia <= secuenciaAnterior) {
+                break;
+            }
+            if (lector != null && secuencia > desdeSecuencia) {
+                lector.registro(secuencia, ByteBuffer.wrap(buffer.array(), p + CABECERA_REGISTRO, largo).slice());
+            }
+            buffer.position(p + total);
+            valido += total;
+            secuenciaAnterior = secuencia;
+            registros++;
+        }
+        if (lector == null) {
+            this.fin = valido;
+            this.ultimaSecuencia = secuenciaAnterior;
+            this.cantidad = registros;
+        }
+    }
+
+    /** Mueve lo que queda del buffer al principio y lo completa con el archivo. */
+    private long rellenar(ByteBuffer buffer, long leido, long hasta) throws IOException {
+        buffer.compact();
+        while (buffer.hasRemaining() && leido < hasta) {
+            if (buffer.remaining() > hasta - leido) {
+                buffer.limit(buffer.position() + (int) (hasta - leido));
+            }
+            int n = canal.read(buffer, leido);
+            if (n <= 0) {
+                break;
+            }
+            leido += n;
+        }
+        buffer.limit(buffer.capacity());
+        buffer.flip();
+        return leido;
+    }
+
+    private static long escribirTodo(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        while (buffer.hasRemaining()) {
+            posicion += canal.write(buffer, posicion);
+        }
+        return posicion;
+    }
+
+    private static void cerrar(FileChannel canal) {
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                // Ya se informa el error original
+            }
+        }
+    }
+
+    /**
+     * Devuelve la secuencia del último registro confirmado.
+     * @return La secuencia (la base si la bitácora no tiene registros).
+     */
+    public synchronized long getUltimaSecuencia() {
+        return ultimaSecuencia;
+    }
+
+    /**
+     * Devuelve la secuencia hasta la que se compactó la bitácora.
+     * @return La última secuencia descartada (0 si nunca se compactó).
+     */
+    public synchronized long getSecuenciaBase() {
+        return base;
+    }
+
+    /**
+     * Devuelve cuántos registros tiene la bitácora.
+     * @return La cantidad de registros.
+     */
+    public synchronized long getCantidadRegistros() {
+        return cantidad;
+    }
+
+    /**
+     * Devuelve cuántos bytes incompletos (de una escritura interrumpida) se
+     * descartaron del final del archivo al abrirlo.
+     * @return La cantidad de bytes descartados (0 si el archivo estaba completo).
+     */
+    public long getBytesDescartados() {
+        return bytesDescartados;
+    }
+
+    /**
+     * Devuelve la ruta del archivo de la bitácora.
+     * @return La ruta.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Cierra el archivo, después de escribir lo que esté encolado. Los registros ya
+     * agregados quedan en disco.
+     */
+    @Override
+    public void close() {
+        Thread actual;
+        synchronized (cerrojoCola) {
+            cerrada = true;
+            cerrojoCola.notifyAll();
+            actual = escritor;
+        }
+        if (actual != null && actual != Thread.currentThread()) {
+            boolean interrumpido = false;
+            while (actual.isAlive()) {
+                try {
+                    actual.join();
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            cerrar(canal);
+        }
+    }
+}
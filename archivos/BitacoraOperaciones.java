@@ -0,0 +1,680 @@
+package archivos;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import clases.Auto;
+import clases.AutoPiloto;
+import clases.Carrera;
+import clases.Circuito;
+import clases.Escuderia;
+import clases.Especialidad;
+import clases.Mecanico;
+import clases.Pais;
+import clases.Piloto;
+import clases.PilotoEscuderia;
+import clases.ResultadoCarrera;
+import logica.LogicaException;
+
+/**
+ * Registro de las operaciones que modifican los datos de un {@link SistemaGestion}
+ * (altas de LogicaRegistro y asociaciones y resultados de LogicaGestion), guardadas
+ * en una {@link Bitacora} antes de aplicarlas en memoria.
+ * <p>
+ * Los CSV son la base y la bitácora, lo que pasó después: al cargar, el sistema lee
+ * los CSV (o el snapshot) y luego vuelve a aplicar cada operación de la bitácora con
+ * {@link #reproducir}, así lo confirmado en una sesión no se pierde al cerrar la aplicación.
+ * <p>
+ * Cada operación es un registro con un byte de tipo y sus campos en binario: enteros de
+ * 4 bytes y textos como {@code [short largo][UTF-8]}. Las entidades se referencian por
+ * su clave (ID de país, DNI, nombre, modelo, fecha y circuito de la carrera), igual que en los CSV.
+ * Mientras la bitácora no se abre (antes de la primera carga) las operaciones no se registran.
+ */
+public class BitacoraOperaciones implements AutoCloseable {
+    // Tipos de operación (no cambiar los valores: están en las bitácoras ya escritas)
+    private static final byte PAIS = 1;
+    private static final byte ESCUDERIA = 2;
+    private static final byte PILOTO = 3;
+    private static final byte MECANICO = 4;
+    private static final byte CIRCUITO = 5;
+    private static final byte AUTO = 6;
+    private static final byte CARRERA = 7;
+    private static final byte PARTICIPACION = 8;
+    private static final byte RESULTADO = 9;
+    private static final byte CONTRATO = 10;
+    private static final byte FIN_CONTRATO = 11;
+    private static final byte AUTO_ESCUDERIA = 12;
+    private static final byte MECANICO_ESCUDERIA = 13;
+    private static final byte POLE_POSITION = 14;
+
+    private static final short TEXTO_NULO = -1;
+
+    private final String path;
+    private volatile Bitacora bitacora; // null hasta la primera carga
+    private volatile EscritorDiferido escritor; // Recibe los cambios para escribir los CSV (o null)
+    private volatile long ventanaMicros; // Ventana de confirmación en grupo (ver Bitacora#setVentanaMicros)
+
+    /**
+     * Constructor de BitacoraOperaciones. No abre el archivo (ver {@link #reproducir}).
+     * @param path Ruta del archivo de la bitácora (ej. "datos/bitacora.bin").
+     */
+    BitacoraOperaciones(String path) {
+        this.path = path;
+    }
+
+    /**
+     * Indica si hay operaciones guardadas en el archivo, sin abrirlo.
+     * @return true si la bitácora existe y tiene al menos un registro.
+     */
+    boolean tieneOperaciones() {
+        Bitacora actual = bitacora;
+        if (actual != null) {
+            return actual.getCantidadRegistros() > 0;
+        }
+        return new java.io.File(path).length() > Bitacora.TAMANIO_ENCABEZADO;
+    }
+
+    /**
+     * Abre la bitácora (si todavía no se abrió) y aplica sus operaciones posteriores
+     * a los CSV sobre los datos recién cargados. Desde entonces las operaciones nuevas se registran.
+     *
+     * @param datos El sistema con los datos base (de los CSV o del snapshot).
+     * @param desdeSecuencia Última operación que ya está en los CSV (ver {@link EscritorDiferido}).
+     * @return Cantidad de operaciones aplicadas.
+     * @throws LogicaException Si la bitácora no se puede leer o una operación
+     * referencia datos que no existen.
+     */
+    long reproducir(SistemaGestion datos, long desdeSecuencia) throws LogicaException {
+        Bitacora actual = abrir();
+        EscritorDiferido actualEscritor = escritor;
+        if (actualEscritor != null) {
+            actualEscritor.reiniciar(); // Lo que falta escribir se vuelve a avisar al reproducir
+        }
+        long[] aplicadas = new long[1];
+        boolean[] relacionMecanicos = new boolean[1];
+        actual.recorrer(desdeSecuencia, (secuencia, contenido) -> {
+            try {
+                if (contenido.get(0) == MECANICO_ESCUDERIA && !relacionMecanicos[0]) {
+                    datos.cargarRelacionMecanicos(); // La operación se aplica sobre la relación ya leída
+                    relacionMecanicos[0] = true;
+                }
+                aplicar(datos, contenido);
+            } catch (LogicaException | RuntimeException e) {
+                throw new LogicaException("Error en la bitácora " + path + " (operación " + secuencia + "): " + e.getMessage());
+            }
+            aplicadas[0]++;
+        });
+        return aplicadas[0];
+    }
+
+    private synchronized Bitacora abrir() throws LogicaException {
+        if (bitacora == null) {
+            Bitacora nueva = Bitacora.abrir(path);
+            nueva.setVentanaMicros(ventanaMicros);
+            bitacora = nueva;
+        }
+        return bitacora;
+    }
+
+    /**
+     * Devuelve cuántos bytes incompletos se descartaron del final del archivo al abrirlo
+     * (ver {@link Bitacora#getBytesDescartados}); las operaciones que tenían no se confirmaron nunca.
+     * @return La cantidad de bytes descartados (0 si el archivo estaba completo o todavía no se abrió).
+     */
+    public long getBytesDescartados() {
+        Bitacora actual = bitacora;
+        return (actual != null) ? actual.getBytesDescartados() : 0;
+    }
+
+    /**
+     * Elige la ventana de confirmación en grupo de la bitácora (ver {@link Bitacora#setVentanaMicros}),
+     * ahora o cuando se abra.
+     * @param micros Microsegundos que se espera para juntar operaciones antes de forzarlas a disco (0 o más).
+     */
+    public synchronized void setVentanaMicros(long micros) {
+        if (micros < 0) {
+            throw new IllegalArgumentException("La ventana de confirmación no puede ser negativa.");
+        }
+        this.ventanaMicros = micros;
+        if (bitacora != null) {
+            bitacora.setVentanaMicros(micros);
+        }
+    }
+
+    // --- REGISTRO DE OPERACIONES ---
+
+    /**
+     * Registra el alta de un país.
+     * @param pais El país nuevo.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarPais(Pais pais) throws LogicaException {
+        registrar(new Escritor(PAIS).entero(pais.getIdPais()).texto(pais.getDescripcion()));
+        avisar(PAIS, pais);
+    }
+
+    /**
+     * Registra el alta de una escudería.
+     * @param escuderia La escudería nueva.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarEscuderia(Escuderia escuderia) throws LogicaException {
+        registrar(new Escritor(ESCUDERIA).texto(escuderia.getNombre()).pais(escuderia.getPais()));
+        avisar(ESCUDERIA, escuderia);
+    }
+
+    /**
+     * Registra el alta de un piloto (con sus estadísticas iniciales).
+     * @param piloto El piloto nuevo.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarPiloto(Piloto piloto) throws LogicaException {
+        registrar(piloto(piloto));
+        avisar(PILOTO, piloto);
+    }
+
+    /**
+     * Registra el alta de varios pilotos de una sola vez (ver {@link #registrarPiloto}).
+     * @param pilotos Los pilotos nuevos.
+     * @throws LogicaException Si no se pudo escribir la bitácora (no se registra ninguno).
+     */
+    public void registrarPilotos(List<Piloto> pilotos) throws LogicaException {
+        List<Escritor> operaciones = new ArrayList<>(pilotos.size());
+        for (Piloto p : pilotos) {
+            operaciones.add(piloto(p));
+        }
+        registrar(operaciones);
+        for (Piloto p : pilotos) {
+            avisar(PILOTO, p);
+        }
+    }
+
+    private static Escritor piloto(Piloto p) {
+        return new Escritor(PILOTO).texto(p.getDni()).texto(p.getNombre()).texto(p.getApellido()).pais(p.getPais())
+                .entero(p.getNumeroCompetencia()).entero(p.getVictorias()).entero(p.getPolePosition())
+                .entero(p.getVueltasRapidas()).entero(p.getPodios());
+    }
+
+    /**
+     * Registra el alta de un mecánico.
+     * @param mecanico El mecánico nuevo.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarMecanico(Mecanico mecanico) throws LogicaException {
+        registrar(new Escritor(MECANICO).texto(mecanico.getDni()).texto(mecanico.getNombre()).texto(mecanico.getApellido())
+                .pais(mecanico.getPais()).texto(mecanico.getEspecialidad().name()).entero(mecanico.getAniosExperiencia()));
+        avisar(MECANICO, mecanico);
+    }
+
+    /**
+     * Registra el alta de un circuito.
+     * @param circuito El circuito nuevo.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarCircuito(Circuito circuito) throws LogicaException {
+        registrar(new Escritor(CIRCUITO).texto(circuito.getNombre()).entero(circuito.getLongitud()).pais(circuito.getPais()));
+        avisar(CIRCUITO, circuito);
+    }
+
+    /**
+     * Registra el alta de un auto.
+     * @param auto El auto nuevo.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarAuto(Auto auto) throws LogicaException {
+        registrar(new Escritor(AUTO).texto(auto.getModelo()).texto(auto.getMotor()));
+        avisar(AUTO, auto);
+    }
+
+    /**
+     * Registra el alta de una carrera.
+     * @param carrera La carrera nueva.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarCarrera(Carrera carrera) throws LogicaException {
+        registrar(carrera(carrera));
+        avisar(CARRERA, carrera);
+    }
+
+    /**
+     * Registra el alta de varias carreras de una sola vez (ver {@link #registrarCarrera}).
+     * @param carreras Las carreras nuevas.
+     * @throws LogicaException Si no se pudo escribir la bitácora (no se registra ninguna).
+     */
+    public void registrarCarreras(List<Carrera> carreras) throws LogicaException {
+        List<Escritor> operaciones = new ArrayList<>(carreras.size());
+        for (Carrera c : carreras) {
+            operaciones.add(carrera(c));
+        }
+        registrar(operaciones);
+        for (Carrera c : carreras) {
+            avisar(CARRERA, c);
+        }
+    }
+
+    private static Escritor carrera(Carrera c) {
+        return new Escritor(CARRERA).texto(c.getFechaRealizacion()).entero(c.getNroVueltas()).texto(c.getHoraRealizacion())
+                .pais(c.getPais()).texto(c.getCircuito().getNombre());
+    }
+
+    /**
+     * Registra la participación de un piloto con un auto en una carrera.
+     * @param participacion La asociación piloto-auto-carrera.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarParticipacion(AutoPiloto participacion) throws LogicaException {
+        registrar(new Escritor(PARTICIPACION).carrera(participacion.getCarrera()).texto(participacion.getPiloto().getDni())
+                .texto(participacion.getAuto().getModelo()).texto(participacion.getFechaAsignacion()));
+        avisar(PARTICIPACION, participacion);
+    }
+
+    /**
+     * Registra un resultado de carrera. Al reproducirlo también se suman las
+     * estadísticas del piloto (ver {@link Piloto#sumarResultado}).
+     * @param resultado El resultado nuevo.
+     * @param tuvoVueltaRapida true si el piloto hizo la vuelta rápida.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarResultado(ResultadoCarrera resultado, boolean tuvoVueltaRapida) throws LogicaException {
+        registrar(resultado(resultado, tuvoVueltaRapida));
+        avisar(RESULTADO, resultado);
+    }
+
+    /**
+     * Registra varios resultados (sin vuelta rápida) de una sola vez (ver {@link #registrarResultado}).
+     * @param resultados Los resultados nuevos.
+     * @throws LogicaException Si no se pudo escribir la bitácora (no se registra ninguno).
+     */
+    public void registrarResultados(List<ResultadoCarrera> resultados) throws LogicaException {
+        List<Escritor> operaciones = new ArrayList<>(resultados.size());
+        for (ResultadoCarrera r : resultados) {
+            operaciones.add(resultado(r, false));
+        }
+        registrar(operaciones);
+        for (ResultadoCarrera r : resultados) {
+            avisar(RESULTADO, r);
+        }
+    }
+
+    private static Escritor resultado(ResultadoCarrera r, boolean tuvoVueltaRapida) {
+        return new Escritor(RESULTADO).carrera(r.getCarrera()).texto(r.getPiloto().getDni())
+                .entero(r.getPosicion()).logico(tuvoVueltaRapida);
+    }
+
+    /**
+     * Registra un contrato nuevo entre un piloto y una escudería.
+     * @param contrato El contrato (sin fecha de fin).
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarContrato(PilotoEscuderia contrato) throws LogicaException {
+        registrar(new Escritor(CONTRATO).texto(contrato.getPiloto().getDni()).texto(contrato.getEscuderia().getNombre())
+                .texto(contrato.getDesdeFecha()));
+        avisar(CONTRATO, contrato);
+    }
+
+    /**
+     * Registra el fin del contrato activo de un piloto con una escudería.
+     * @param contrato El contrato activo.
+     * @param hastaFecha La fecha de fin.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarFinContrato(PilotoEscuderia contrato, String hastaFecha) throws LogicaException {
+        registrar(new Escritor(FIN_CONTRATO).texto(contrato.getPiloto().getDni()).texto(contrato.getEscuderia().getNombre())
+                .texto(hastaFecha));
+        avisar(FIN_CONTRATO, contrato);
+    }
+
+    /**
+     * Registra que un auto pasa a ser de una escudería.
+     * @param auto El auto.
+     * @param escuderia La escudería.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarAutoEscuderia(Auto auto, Escuderia escuderia) throws LogicaException {
+        registrar(new Escritor(AUTO_ESCUDERIA).texto(auto.getModelo()).texto(escuderia.getNombre()));
+        avisar(AUTO_ESCUDERIA, auto);
+    }
+
+    /**
+     * Registra que un mecánico pasa a trabajar en una escudería.
+     * @param mecanico El mecánico.
+     * @param escuderia La escudería.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarMecanicoEscuderia(Mecanico mecanico, Escuderia escuderia) throws LogicaException {
+        registrar(new Escritor(MECANICO_ESCUDERIA).texto(mecanico.getDni()).texto(escuderia.getNombre()));
+        avisar(MECANICO_ESCUDERIA, Map.entry(mecanico, escuderia));
+    }
+
+    /**
+     * Registra una pole position de un piloto.
+     * @param piloto El piloto.
+     * @throws LogicaException Si no se pudo escribir la bitácora.
+     */
+    public void registrarPolePosition(Piloto piloto) throws LogicaException {
+        registrar(new Escritor(POLE_POSITION).texto(piloto.getDni()));
+        avisar(POLE_POSITION, piloto);
+    }
+
+    private void registrar(Escritor operacion) throws LogicaException {
+        registrar(List.of(operacion));
+    }
+
+    private void registrar(List<Escritor> operaciones) throws LogicaException {
+        Bitacora actual = bitacora;
+        if (actual == null || operaciones.isEmpty()) {
+            return; // Sin datos cargados no hay base sobre la cual reproducir
+        }
+        List<byte[]> contenidos = new ArrayList<>(operaciones.size());
+        for (Escritor e : operaciones) {
+            contenidos.add(e.bytes());
+        }
+        try {
+            actual.agregar(contenidos);
+        } catch (LogicaException e) {
+            throw new LogicaException("No se pudo registrar la operación en la bitácora: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Avisa al escritor de los CSV qué archivo cambia con una operación confirmada
+     * (o reproducida): las altas se agregan y las modificaciones reescriben el archivo.
+     */
+    private void avisar(byte tipo, Object entidad) {
+        EscritorDiferido e = escritor;
+        if (e == null) {
+            return;
+        }
+        switch (tipo) {
+            case PAIS: e.agregado(EscritorDiferido.Archivo.PAISES, entidad); break;
+            case ESCUDERIA: e.agregado(EscritorDiferido.Archivo.ESCUDERIAS, entidad); break;
+            case PILOTO: e.agregado(EscritorDiferido.Archivo.PILOTOS, entidad); break;
+            case MECANICO: e.agregado(EscritorDiferido.Archivo.MECANICOS, entidad); break;
+            case CIRCUITO: e.agregado(EscritorDiferido.Archivo.CIRCUITOS, entidad); break;
+            case AUTO: e.agregado(EscritorDiferido.Archivo.AUTOS, entidad); break;
+            case CARRERA: e.agregado(EscritorDiferido.Archivo.CARRERAS, entidad); break;
+            case PARTICIPACION: e.agregado(EscritorDiferido.Archivo.ASIGNACIONES_AUTOS, entidad); break;
+            case RESULTADO:
+                e.agregado(EscritorDiferido.Archivo.RESULTADOS, entidad);
+                e.modificado(EscritorDiferido.Archivo.PILOTOS); // Las estadísticas del piloto
+                break;
+            case CONTRATO: e.agregado(EscritorDiferido.Archivo.CONTRATOS, entidad); break;
+            case FIN_CONTRATO: e.actualizado(EscritorDiferido.Archivo.CONTRATOS, entidad); break;
+            case AUTO_ESCUDERIA: e.modificado(EscritorDiferido.Archivo.AUTOS); break;
+            case MECANICO_ESCUDERIA: e.agregado(EscritorDiferido.Archivo.MECANICO_ESCUDERIA, entidad); break;
+            case POLE_POSITION: e.modificado(EscritorDiferido.Archivo.PILOTOS); break;
+            default: break;
+        }
+    }
+
+    // --- REPRODUCCIÓN ---
+
+    /**
+     * Aplica una operación sobre los datos, igual que LogicaRegistro o LogicaGestion
+     * (pero sin validar: la operación ya se validó antes de registrarla).
+     */
+    private void aplicar(SistemaGestion datos, ByteBuffer b) throws LogicaException {
+        IndiceCarga indice = datos.getIndiceCarga();
+        byte tipo = b.get();
+        Object entidad; // La que se avisa al escritor de los CSV
+        switch (tipo) {
+            case PAIS: {
+                int id = b.getInt();
+                Pais pais = new Pais(id, texto(b), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+                datos.agregarPais(pais);
+                entidad = pais;
+                break;
+            }
+            case ESCUDERIA: {
+                Escuderia escuderia = new Escuderia(texto(b));
+                escuderia.setPais(pais(b, indice));
+                datos.agregarEscuderia(escuderia);
+                entidad = escuderia;
+                break;
+            }
+            case PILOTO: {
+                String dni = texto(b), nombre = texto(b), apellido = texto(b);
+                Pais pais = pais(b, indice);
+                Piloto piloto = new Piloto(dni, nombre, apellido, pais, b.getInt(), b.getInt(), b.getInt(), b.getInt(), b.getInt());
+                datos.agregarPiloto(piloto);
+                entidad = piloto;
+                break;
+            }
+            case MECANICO: {
+                String dni = texto(b), nombre = texto(b), apellido = texto(b);
+                Pais pais = pais(b, indice);
+                Especialidad especialidad = Especialidad.valueOf(texto(b));
+                Mecanico mecanico = new Mecanico(dni, nombre, apellido, pais, especialidad, b.getInt(), new ArrayList<>());
+                datos.agregarMecanico(mecanico);
+                entidad = mecanico;
+                break;
+            }
+            case CIRCUITO: {
+                String nombre = texto(b);
+                int longitud = b.getInt();
+                Circuito circuito = new Circuito(nombre, longitud, pais(b, indice));
+                datos.agregarCircuito(circuito);
+                entidad = circuito;
+                break;
+            }
+            case AUTO: {
+                Auto auto = new Auto(texto(b), texto(b));
+                datos.agregarAuto(auto);
+                entidad = auto;
+                break;
+            }
+            case CARRERA: {
+                String fecha = texto(b);
+                int vueltas = b.getInt();
+                String hora = texto(b);
+                Pais pais = pais(b, indice);
+                Carrera carrera = new Carrera(fecha, vueltas, hora, pais, indice.buscarCircuito(texto(b)));
+                datos.agregarCarrera(carrera);
+                entidad = carrera;
+                break;
+            }
+            case PARTICIPACION: {
+                Carrera carrera = carrera(b, datos);
+                Piloto piloto = indice.buscarPiloto(texto(b));
+                Auto auto = indice.buscarAuto(texto(b));
+                AutoPiloto ap = new AutoPiloto(texto(b), piloto, auto, carrera);
+                carrera.agregarParticipante(ap);
+                piloto.agregarAutoPiloto(ap);
+                auto.agregarAutoPiloto(ap);
+                entidad = ap;
+                break;
+            }
+            case RESULTADO: {
+                Carrera carrera = carrera(b, datos);
+                Piloto piloto = indice.buscarPiloto(texto(b));
+                int posicion = b.getInt();
+                ResultadoCarrera resultado = new ResultadoCarrera(piloto, posicion, carrera);
+                datos.agregarResultadoDeBitacora(resultado);
+                piloto.sumarResultado(posicion, b.get() != 0);
+                entidad = resultado;
+                break;
+            }
+            case CONTRATO: {
+                Piloto piloto = indice.buscarPiloto(texto(b));
+                Escuderia escuderia = indice.buscarEscuderia(texto(b));
+                PilotoEscuderia pe = new PilotoEscuderia(texto(b), "", piloto, escuderia);
+                piloto.agregarPilotoEscuderia(pe);
+                escuderia.agregarPilotoEscuderia(pe);
+                entidad = pe;
+                break;
+            }
+            case FIN_CONTRATO: {
+                Piloto piloto = indice.buscarPiloto(texto(b));
+                Escuderia escuderia = indice.buscarEscuderia(texto(b));
+                String hastaFecha = texto(b);
+                PilotoEscuderia pe = contratoActivo(piloto, escuderia);
+                pe.setHastaFecha(hastaFecha);
+                entidad = pe;
+                break;
+            }
+            case AUTO_ESCUDERIA: {
+                Auto auto = indice.buscarAuto(texto(b));
+                indice.buscarEscuderia(texto(b)).agregarAuto(auto);
+                entidad = auto;
+                break;
+            }
+            case MECANICO_ESCUDERIA: {
+                Mecanico mecanico = indice.buscarMecanico(texto(b));
+                Escuderia escuderia = indice.buscarEscuderia(texto(b));
+                escuderia.agregarMecanico(mecanico);
+                mecanico.agregarEscuderia(escuderia);
+                entidad = Map.entry(mecanico, escuderia);
+                break;
+            }
+            case POLE_POSITION: {
+                Piloto piloto = indice.buscarPiloto(texto(b));
+                piloto.setPolePosition(piloto.getPolePosition() + 1);
+                entidad = piloto;
+                break;
+            }
+            default:
+                throw new LogicaException("Tipo de operación " + tipo + " desconocido.");
+        }
+        avisar(tipo, entidad);
+    }
+
+    private static String texto(ByteBuffer b) {
+        short largo = b.getShort();
+        if (largo == TEXTO_NULO) {
+            return null;
+        }
+        String texto = new String(b.array(), b.arrayOffset() + b.position(), largo, StandardCharsets.UTF_8);
+        b.position(b.position() + largo);
+        return texto;
+    }
+
+    private static Pais pais(ByteBuffer b, IndiceCarga indice) throws LogicaException {
+        boolean tiene = b.get() != 0;
+        int id = b.getInt();
+        return tiene ? indice.buscarPais(id) : null;
+    }
+
+    /**
+     * Busca la carrera por fecha y circuito. El índice tiene una carrera por fecha:
+     * si en esa fecha hay otra, se busca en la lista.
+     */
+    private static Carrera carrera(ByteBuffer b, SistemaGestion datos) throws LogicaException {
+        String fecha = texto(b);
+        return datos.getIndiceCarga().buscarCarrera(fecha, texto(b));
+    }
+
+    private static PilotoEscuderia contratoActivo(Piloto piloto, Escuderia escuderia) throws LogicaException {
+        for (PilotoEscuderia pe : piloto.getPilotosEscuderias()) {
+            String hf = pe.getHastaFecha();
+            if (pe.getEscuderia().equals(escuderia) && (hf == null || hf.trim().isEmpty())) {
+                return pe;
+            }
+        }
+        throw new LogicaException("El piloto " + piloto.getDni() + " no tiene un contrato activo con " + escuderia.getNombre() + ".");
+    }
+
+    /**
+     * Indica a quién avisar los cambios para escribir los CSV (ver {@link EscritorDiferido}).
+     * @param escritor El escritor, o null para no avisar a nadie.
+     */
+    void setEscritor(EscritorDiferido escritor) {
+        this.escritor = escritor;
+    }
+
+    // --- GETTERS ---
+
+    /**
+     * Devuelve la bitácora abierta.
+     * @return La bitácora, o null si todavía no se cargaron los datos.
+     */
+    public Bitacora getBitacora() {
+        return bitacora;
+    }
+
+    /**
+     * Devuelve la ruta del archivo de la bitácora.
+     * @return La ruta.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Cierra el archivo de la bitácora. Las operaciones posteriores no se registran.
+     */
+    @Override
+    public synchronized void close() {
+        if (bitacora != null) {
+            bitacora.close();
+            bitacora = null;
+        }
+    }
+
+    /**
+     * Arma el contenido binario de una operación.
+     */
+    private static class Escritor {
+        private byte[] buffer = new byte[64];
+        private int largo;
+
+        Escritor(byte tipo) {
+            buffer[largo++] = tipo;
+        }
+
+        private void lugar(int n) {
+            if (largo + n > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, largo + n));
+            }
+        }
+
+        Escritor entero(int valor) {
+            lugar(4);
+            buffer[largo++] = (byte) (valor >>> 24);
+            buffer[largo++] = (byte) (valor >>> 16);
+            buffer[largo++] = (byte) (valor >>> 8);
+            buffer[largo++] = (byte) valor;
+            return this;
+        }
+
+        Escritor logico(boolean valor) {
+            lugar(1);
+            buffer[largo++] = (byte) (valor ? 1 : 0);
+            return this;
+        }
+
+        Escritor texto(String valor) {
+            if (valor == null) {
+                lugar(2);
+                buffer[largo++] = (byte) (TEXTO_NULO >>> 8);
+                buffer[largo++] = (byte) TEXTO_NULO;
+                return this;
+            }
+            byte[] utf8 = valor.getBytes(StandardCharsets.UTF_8);
+            if (utf8.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Texto demasiado largo para la bitácora (" + utf8.length + " bytes).");
+            }
+            lugar(2 + utf8.length);
+            buffer[largo++] = (byte) (utf8.length >>> 8);
+            buffer[largo++] = (byte) utf8.length;
+            System.arraycopy(utf8, 0, buffer, largo, utf8.length);
+            largo += utf8.length;
+            return this;
+        }
+
+        Escritor pais(Pais pais) {
+            logico(pais != null);
+            return entero(pais != null ? pais.getIdPais() : 0);
+        }
+
+        Escritor carrera(Carrera carrera) {
+            return texto(carrera.getFechaRealizacion()).texto(carrera.getCircuito().getNombre());
+        }
+
+        byte[] bytes() {
+            return Arrays.copyOf(buffer, largo);
+        }
+    }
+}
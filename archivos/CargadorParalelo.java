@@ -0,0 +1,160 @@
+package archivos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import logica.LogicaException;
+
+/**
+ * Ejecuta la carga de los archivos CSV por etapas, siguiendo el grafo de
+ * dependencias entre ellos (ej. países y escuderías no dependen de nadie;
+ * pilotos, mecánicos, circuitos y autos dependen sólo de ellos).
+ * <p>
+ * Los lectores de una misma etapa se ejecutan en paralelo sobre un pool de
+ * hilos acotado, y cada etapa espera a que terminen todos antes de pasar a
+ * la siguiente. Además, registra cuánto tardó cada archivo para poder
+ * comparar el tiempo total contra el que tomaría la carga secuencial.
+ */
+public class CargadorParalelo implements AutoCloseable {
+
+    /**
+     * Lector de un archivo CSV que puede fallar con una {@link LogicaException}.
+     */
+    public interface Lector {
+        /**
+         * Lee el archivo y guarda el resultado donde corresponda.
+         * @throws LogicaException Si el archivo no existe o tiene datos inválidos.
+         */
+        void leer() throws LogicaException;
+    }
+
+    /**
+     * Una tarea de carga: el nombre del archivo (para los tiempos) y su lector.
+     */
+    public static class Tarea {
+        private final String archivo;
+        private final Lector lector;
+
+        /**
+         * Constructor de Tarea.
+         * @param archivo Ruta del archivo que lee la tarea.
+         * @param lector El lector a ejecutar.
+         */
+        public Tarea(String archivo, Lector lector) {
+            this.archivo = archivo;
+            this.lector = lector;
+        }
+    }
+
+    private final ExecutorService pool;
+    private final Map<String, Long> tiemposPorArchivo; // nanosegundos por archivo, en orden de carga
+    private long inicioCarga;
+    private long duracionTotal;
+
+    /**
+     * Constructor de CargadorParalelo.
+     * @param hilos Cantidad máxima de lectores ejecutándose a la vez.
+     */
+    public CargadorParalelo(int hilos) {
+        this.pool = Executors.newFixedThreadPool(Math.max(1, hilos), r -> {
+            Thread t = new Thread(r, "cargador-csv");
+            t.setDaemon(true);
+            return t;
+        });
+        this.tiemposPorArchivo = Collections.synchronizedMap(new LinkedHashMap<>());
+        this.inicioCarga = System.nanoTime();
+    }
+
+    /**
+     * Ejecuta en paralelo todas las tareas de una etapa y espera a que terminen.
+     * <p>
+     * Si alguna falla, se lanza la excepción de la primera tarea (en el orden
+     * en que fueron pasadas) que haya fallado, para que el error reportado sea
+     * el mismo que en la carga secuencial.
+     *
+     * @param tareas Las tareas independientes entre sí de esta etapa.
+     * @throws LogicaException Si algún lector falla o la carga es interrumpida.
+     */
+    public void ejecutarEtapa(Tarea... tareas) throws LogicaException {
+        List<Future<?>> pendientes = new ArrayList<>();
+        for (Tarea t : tareas) {
+            pendientes.add(pool.submit(() -> {
+                long inicio = System.nanoTime();
+                t.lector.leer();
+                tiemposPorArchivo.put(t.archivo, System.nanoTime() - inicio);
+                return null;
+            }));
+        }
+
+        Throwable primerError = null;
+        for (Future<?> f : pendientes) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                if (primerError == null) {
+                    primerError = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LogicaException("La carga de datos fue interrumpida.");
+            }
+        }
+        duracionTotal = System.nanoTime() - inicioCarga;
+
+        if (primerError instanceof LogicaException) {
+            throw (LogicaException) primerError;
+        }
+        if (primerError instanceof RuntimeException) {
+            throw (RuntimeException) primerError;
+        }
+        if (primerError instanceof Error) {
+            throw (Error) primerError;
+        }
+    }
+
+    /**
+     * Devuelve cuánto tardó cada archivo, en milisegundos y en orden de carga.
+     * @return Mapa archivo -> milisegundos.
+     */
+    public Map<String, Long> getTiemposPorArchivo() {
+        Map<String, Long> ms = new LinkedHashMap<>();
+        synchronized (tiemposPorArchivo) {
+            for (Map.Entry<String, Long> e : tiemposPorArchivo.entrySet()) {
+                ms.put(e.getKey(), e.getValue() / 1_000_000);
+            }
+        }
+        return ms;
+    }
+
+    /**
+     * Arma un resumen de texto con el tiempo de cada archivo, el tiempo total
+     * real y la suma de tiempos (lo que hubiera tardado la carga secuencial).
+     * @return El resumen, una línea por archivo.
+     */
+    public String getResumenTiempos() {
+        StringBuilder sb = new StringBuilder("Tiempos de carga:\n");
+        long sumaNanos = 0;
+        synchronized (tiemposPorArchivo) {
+            for (Map.Entry<String, Long> e : tiemposPorArchivo.entrySet()) {
+                sb.append(String.format("  %-40s %6d ms%n", e.getKey(), e.getValue() / 1_000_000));
+                sumaNanos += e.getValue();
+            }
+        }
+        sb.append(String.format("  Total: %d ms (secuencial: %d ms)", duracionTotal / 1_000_000, sumaNanos / 1_000_000));
+        return sb.toString();
+    }
+
+    /**
+     * Libera los hilos del pool.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
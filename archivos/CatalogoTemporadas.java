@@ -0,0 +1,256 @@
+package archivos;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import clases.Piloto;
+import clases.ResultadoCarrera;
+import logica.LogicaException;
+
+/**
+ * Catálogo de varios conjuntos de datos (uno por temporada o campeonato), cada
+ * uno en su propio directorio con los mismos archivos que "datos".
+ * <p>
+ * Cada temporada se carga en un {@link SistemaGestion} independiente, y las
+ * temporadas se cargan en paralelo. Los países y circuitos iguales se comparten
+ * entre las temporadas (ver {@link ReferenciasCompartidas}), así no hay una copia
+ * por temporada. Las consultas sobre todas las temporadas se reparten entre sus
+ * sistemas con {@link #consultar}, también en paralelo.
+ */
+public class CatalogoTemporadas implements AutoCloseable {
+
+    /**
+     * Consulta que se hace sobre el sistema de una temporada.
+     * @param <R> El tipo del resultado.
+     */
+    public interface Consulta<R> {
+        /**
+         * Hace la consulta sobre una temporada.
+         * @param sistema El sistema de la temporada.
+         * @return El resultado para esa temporada.
+         * @throws LogicaException Si la consulta falla.
+         */
+        R consultar(SistemaGestion sistema) throws LogicaException;
+    }
+
+    private final Map<String, SistemaGestion> temporadas;
+    private final ReferenciasCompartidas referencias;
+    private final ExecutorService pool;
+
+    /**
+     * Constructor de CatalogoTemporadas. Crea un catálogo vacío.
+     * @param hilos Cantidad máxima de temporadas que se cargan o consultan a la vez.
+     */
+    public CatalogoTemporadas(int hilos) {
+        this.temporadas = new LinkedHashMap<>();
+        this.referencias = new ReferenciasCompartidas();
+        this.pool = Executors.newFixedThreadPool(Math.max(1, hilos), r -> {
+            Thread t = new Thread(r, "catalogo-temporadas");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Lee un catálogo desde un CSV con encabezado y una temporada por línea
+     * (nombre, directorio). Los directorios son relativos al directorio de trabajo,
+     * como "datos". Las temporadas no se cargan hasta llamar a {@link #cargar()}.
+     *
+     * @param path Ruta del archivo del catálogo.
+     * @param hilos Cantidad máxima de temporadas que se cargan o consultan a la vez.
+     * @return El catálogo con sus temporadas.
+     * @throws LogicaException Si el archivo no se puede leer o una línea es inválida.
+     */
+    public static CatalogoTemporadas leer(String path, int hilos) throws LogicaException {
+        CatalogoTemporadas catalogo = new CatalogoTemporadas(hilos);
+        int nroLinea = 1;
+        try (LectorCSV lector = LectorCSV.abrir(path, ModoLectura.BUFFER)) {
+            lector.siguienteLinea(); // Saltear encabezado
+            while (lector.siguienteLinea()) {
+                nroLinea++;
+                if (lector.lineaVacia()) continue;
+                if (lector.cantidadCampos() < 2) {
+                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Línea incompleta.");
+                }
+                catalogo.agregarTemporada(lector.campo(0), lector.campo(1));
+            }
+        } catch (IOException e) {
+            catalogo.close();
+            throw new LogicaException("Error al leer el archivo " + path + ": " + e.getMessage());
+        } catch (LogicaException e) {
+            catalogo.close();
+            throw e;
+        }
+        return catalogo;
+    }
+
+    /**
+     * Agrega una temporada al catálogo (sin cargarla).
+     * @param nombre Nombre de la temporada (ej. "2024").
+     * @param directorio Directorio con sus archivos CSV.
+     * @return El sistema de la temporada.
+     * @throws LogicaException Si ya hay una temporada con ese nombre.
+     */
+    public synchronized SistemaGestion agregarTemporada(String nombre, String directorio) throws LogicaException {
+        if (temporadas.containsKey(nombre)) {
+            throw new LogicaException("Ya existe la temporada " + nombre + " en el catálogo.");
+        }
+        SistemaGestion sistema = new SistemaGestion(directorio, referencias);
+        temporadas.put(nombre, sistema);
+        return sistema;
+    }
+
+    /**
+     * Carga todas las temporadas en paralelo (con {@link SistemaGestion#cargarDatos()}).
+     * Una temporada que falla no impide cargar las demás.
+     *
+     * @throws LogicaException Con los errores de todas las temporadas que fallaron.
+     */
+    public void cargar() throws LogicaException {
+        Map<String, String> errores = ejecutar(sistema -> {
+            sistema.cargarDatos();
+            return null;
+        }, new LinkedHashMap<>());
+        if (!errores.isEmpty()) {
+            StringBuilder sb = new StringBuilder("No se pudieron cargar " + errores.size() + " temporadas:");
+            for (Map.Entry<String, String> e : errores.entrySet()) {
+                sb.append(System.lineSeparator()).append("  ").append(e.getKey()).append(": ").append(e.getValue());
+            }
+            throw new LogicaException(sb.toString());
+        }
+    }
+
+    /**
+     * Hace una consulta sobre todas las temporadas en paralelo.
+     *
+     * @param consulta La consulta a hacer sobre cada temporada.
+     * @return Mapa temporada -> resultado, en el orden del catálogo.
+     * @throws LogicaException Si la consulta falla en alguna temporada (con el error de la primera).
+     */
+    public <R> Map<String, R> consultar(Consulta<R> consulta) throws LogicaException {
+        Map<String, R> resultados = new LinkedHashMap<>();
+        Map<String, String> errores = ejecutar(consulta, resultados);
+        if (!errores.isEmpty()) {
+            Map.Entry<String, String> primero = errores.entrySet().iterator().next();
+            throw new LogicaException("Temporada " + primero.getKey() + ": " + primero.getValue());
+        }
+        return resultados;
+    }
+
+    /**
+     * Ejecuta la consulta en cada temporada y espera a todas.
+     * @return Los mensajes de error por temporada (vacío si no hubo errores).
+     */
+    private <R> Map<String, String> ejecutar(Consulta<R> consulta, Map<String, R> resultados) throws LogicaException {
+        Map<String, Future<R>> pendientes = new LinkedHashMap<>();
+        for (Map.Entry<String, SistemaGestion> t : getTemporadas().entrySet()) {
+            pendientes.put(t.getKey(), pool.submit(() -> consulta.consultar(t.getValue())));
+        }
+        Map<String, String> errores = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<R>> p : pendientes.entrySet()) {
+            try {
+                resultados.put(p.getKey(), p.getValue().get());
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause();
+                if (causa instanceof Error) {
+                    throw (Error) causa;
+                }
+                errores.put(p.getKey(), causa.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LogicaException("La consulta de las temporadas fue interrumpida.");
+            }
+        }
+        return errores;
+    }
+
+    // --- CONSULTAS SOBRE TODAS LAS TEMPORADAS ---
+
+    /**
+     * Devuelve los resultados de las carreras corridas entre dos fechas en todas
+     * las temporadas (ver {@link SistemaGestion#getResultadosEntre}).
+     *
+     * @param fechaDesde Inicio del rango (formato "dd-MM-yyyy").
+     * @param fechaHasta Fin del rango (formato "dd-MM-yyyy").
+     * @return Los resultados, temporada por temporada en el orden del catálogo.
+     * @throws LogicaException Si alguna fecha es inválida o alguna temporada no se puede leer.
+     */
+    public List<ResultadoCarrera> getResultadosEntre(String fechaDesde, String fechaHasta) throws LogicaException {
+        List<ResultadoCarrera> todos = new ArrayList<>();
+        for (List<ResultadoCarrera> resultados : consultar(s -> s.getResultadosEntre(fechaDesde, fechaHasta)).values()) {
+            todos.addAll(resultados);
+        }
+        return todos;
+    }
+
+    /**
+     * Busca un piloto por DNI en todas las temporadas.
+     *
+     * @param dni El DNI del piloto.
+     * @return Mapa temporada -> piloto, sólo con las temporadas en las que está.
+     * @throws LogicaException Si la búsqueda es interrumpida.
+     */
+    public Map<String, Piloto> getPilotoPorTemporada(String dni) throws LogicaException {
+        Map<String, Piloto> pilotos = new LinkedHashMap<>();
+        Map<String, Piloto> encontrados = consultar(s -> {
+            try {
+                return s.getIndiceCarga().buscarPiloto(dni);
+            } catch (LogicaException e) {
+                return null; // No corrió en esta temporada
+            }
+        });
+        for (Map.Entry<String, Piloto> e : encontrados.entrySet()) {
+            if (e.getValue() != null) {
+                pilotos.put(e.getKey(), e.getValue());
+            }
+        }
+        return pilotos;
+    }
+
+    // --- GETTERS ---
+
+    /**
+     * Devuelve el sistema de una temporada.
+     * @param nombre Nombre de la temporada.
+     * @return El sistema de la temporada.
+     * @throws LogicaException Si no hay una temporada con ese nombre.
+     */
+    public synchronized SistemaGestion getTemporada(String nombre) throws LogicaException {
+        SistemaGestion sistema = temporadas.get(nombre);
+        if (sistema == null) {
+            throw new LogicaException("No existe la temporada " + nombre + " en el catálogo.");
+        }
+        return sistema;
+    }
+
+    /**
+     * Devuelve todas las temporadas del catálogo.
+     * @return Mapa (no modificable) nombre -> sistema, en el orden del catálogo.
+     */
+    public synchronized Map<String, SistemaGestion> getTemporadas() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(temporadas));
+    }
+
+    /**
+     * Devuelve los países y circuitos compartidos entre las temporadas.
+     * @return Las referencias compartidas.
+     */
+    public ReferenciasCompartidas getReferencias() {
+        return referencias;
+    }
+
+    /**
+     * Libera los hilos del catálogo. Los sistemas de las temporadas siguen disponibles.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
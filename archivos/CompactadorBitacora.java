@@ -0,0 +1,216 @@
+package archivos;
+
+import java.util.function.Consumer;
+import logica.LogicaException;
+
+/**
+ * Compacta periódicamente la bitácora de un {@link SistemaGestion}, para que no
+ * crezca sin límite ni tarde cada vez más en reproducirse al cargar.
+ * <p>
+ * El punto de control son los CSV que escribe el {@link EscritorDiferido}: cada lote
+ * cubre todas las operaciones hasta cierta secuencia. Al compactar se escribe lo
+ * pendiente, se copia un {@link SnapshotBinario} de los datos en uso con el capturador
+ * del escritor (como un lote, sin volver a leer los CSV) y se escribe a un temporal
+ * en el hilo del compactador. Recién entonces se toman los archivos por un momento:
+ * si los CSV siguen en la secuencia del snapshot, éste reemplaza al anterior, y se
+ * descartan de la bitácora las operaciones hasta la secuencia de los CSV
+ * (ver {@link Bitacora#descartarHasta}). Al cargar, {@link SistemaGestion#cargarDatos()}
+ * usa el snapshot si está al día (si no, los CSV) y reproduce sólo el resto de la bitácora.
+ * <p>
+ * Cada paso deja un estado válido si se corta: el snapshot y la bitácora compactada
+ * se escriben en temporales que se renombran, y los CSV siguen siendo el punto de
+ * control aunque falte el snapshot. Si entre la copia y el reemplazo se escribió otro
+ * lote, el snapshot se descarta (no coincidiría con los CSV) y sólo se compacta la
+ * bitácora. Mientras se copia el final de la bitácora no se pueden registrar
+ * operaciones (son pocas, porque se acaban de escribir).
+ */
+public class CompactadorBitacora implements AutoCloseable {
+    /** Intervalo por defecto entre revisiones, en milisegundos. */
+    public static final long INTERVALO_POR_DEFECTO_MS = 60_000;
+    /** Cantidad de operaciones por defecto a partir de la cual se compacta. */
+    public static final int MINIMO_POR_DEFECTO = 1000;
+
+    private final SistemaGestion sistema;
+    private final EscritorDiferido escritor;
+    private final long intervaloMs;
+    private final int minimoOperaciones;
+    private final Object cerrojoCompactacion = new Object(); // Una compactación a la vez
+    private Thread hilo;
+    private volatile boolean cerrado;
+    private volatile long compactaciones;
+    private volatile LogicaException ultimoError; // null si la última compactación terminó bien
+    private volatile Consumer<LogicaException> oyenteErrores;
+
+    /**
+     * Constructor de CompactadorBitacora con el intervalo y el mínimo por defecto.
+     * @param sistema El sistema cuya bitácora se compacta.
+     * @param escritor El que escribe los CSV del sistema.
+     */
+    public CompactadorBitacora(SistemaGestion sistema, EscritorDiferido escritor) {
+        this(sistema, escritor, INTERVALO_POR_DEFECTO_MS, MINIMO_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor de CompactadorBitacora.
+     * @param sistema El sistema cuya bitácora se compacta.
+     * @param escritor El que escribe los CSV del sistema (sin él, la bitácora no se
+     * puede compactar, porque sus operaciones no están en ningún otro lado).
+     * @param intervaloMs Milisegundos entre revisiones.
+     * @param minimoOperaciones Cantidad de operaciones en la bitácora a partir de la cual se compacta.
+     */
+    public CompactadorBitacora(SistemaGestion sistema, EscritorDiferido escritor, long intervaloMs, int minimoOperaciones) {
+        if (intervaloMs <= 0 || minimoOperaciones <= 0) {
+            throw new IllegalArgumentException("El intervalo y el mínimo de operaciones deben ser positivos.");
+        }
+        this.sistema = sistema;
+        this.escritor = escritor;
+        this.intervaloMs = intervaloMs;
+        this.minimoOperaciones = minimoOperaciones;
+    }
+
+    /**
+     * Empieza a revisar la bitácora en un hilo propio (daemon).
+     */
+    public synchronized void iniciar() {
+        if (hilo != null || cerrado) {
+            return;
+        }
+        hilo = new Thread(this::revisar, "compactador-bitacora");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void revisar() {
+        try {
+            while (!cerrado) {
+                Thread.sleep(intervaloMs);
+                Bitacora bitacora = sistema.getBitacora().getBitacora();
+                if (cerrado || bitacora == null || bitacora.getCantidadRegistros() < minimoOperaciones) {
+                    continue;
+                }
+                try {
+                    compactar();
+                } catch (LogicaException e) {
+                    registrarError(e); // Se reintenta en la próxima revisión
+                }
+            }
+        } catch (InterruptedException e) {
+            // Se cerró el compactador
+        }
+    }
+
+    /**
+     * Compacta ya mismo, en el hilo que llama (que no debe ser el que modifica los datos,
+     * porque espera a que el escritor copie lo pendiente).
+     *
+     * @return Cantidad de operaciones descartadas de la bitácora (0 si no había datos cargados
+     * o todas sus operaciones faltan escribir en los CSV).
+     * @throws LogicaException Si los CSV no se pudieron escribir o cargar, o la bitácora
+     * no se pudo reemplazar (queda como estaba).
+     */
+    public long compactar() throws LogicaException {
+        synchronized (cerrojoCompactacion) {
+            return compactarBitacora();
+        }
+    }
+
+    private long compactarBitacora() throws LogicaException {
+        Bitacora bitacora = sistema.getBitacora().getBitacora();
+        if (bitacora == null) {
+            return 0; // Todavía no se cargaron los datos
+        }
+        try {
+            escritor.escribirPendientes();
+        } catch (LogicaException e) {
+            // Lo informa el escritor; se compacta hasta donde llegan los CSV escritos
+        }
+        String directorio = sistema.getDirectorioDatos();
+        if (EscritorDiferido.secuenciaEscrita(directorio) <= bitacora.getSecuenciaBase()) {
+            ultimoError = null;
+            return 0;
+        }
+
+        // Fuera del cerrojo de los archivos: el escritor y la GUI siguen funcionando
+        String pathSnapshot = sistema.getPathSnapshot();
+        long[] secuenciaSnapshot = new long[1];
+        byte[] snapshot = escritor.capturar(() -> {
+            secuenciaSnapshot[0] = bitacora.getUltimaSecuencia();
+            return SnapshotBinario.copiar(sistema, secuenciaSnapshot[0]);
+        });
+        LogicaException errorSnapshot = null; // Los CSV ya tienen las operaciones: sólo la próxima carga será más lenta
+        try {
+            SnapshotBinario.escribirTemporal(snapshot, pathSnapshot);
+        } catch (LogicaException e) {
+            errorSnapshot = e;
+        }
+        boolean temporalEscrito = errorSnapshot == null;
+
+        synchronized (sistema.getCerrojoArchivos()) { // Sólo para el reemplazo: los CSV no cambian mientras tanto
+            long escritas = EscritorDiferido.secuenciaEscrita(directorio);
+            if (temporalEscrito && escritas == secuenciaSnapshot[0]) {
+                try {
+                    SnapshotBinario.reemplazar(pathSnapshot);
+                } catch (LogicaException e) {
+                    errorSnapshot = e;
+                }
+            } else if (temporalEscrito) {
+                SnapshotBinario.descartarTemporal(pathSnapshot); // Se escribió otro lote después de copiarlo
+            }
+            long descartadas = bitacora.descartarHasta(escritas);
+            compactaciones++;
+            if (errorSnapshot != null) {
+                registrarError(errorSnapshot);
+            } else {
+                ultimoError = null;
+            }
+            return descartadas;
+        }
+    }
+
+    /** Guarda el error y, si es distinto del anterior, se lo avisa al oyente con el capturador del escritor. */
+    private void registrarError(LogicaException e) {
+        LogicaException anterior = ultimoError;
+        ultimoError = e;
+        Consumer<LogicaException> oyente = oyenteErrores;
+        if (oyente != null && (anterior == null || !anterior.getMessage().equals(e.getMessage()))) {
+            escritor.getCapturador().execute(() -> oyente.accept(e));
+        }
+    }
+
+    /**
+     * Indica a quién avisar cuando una compactación falla o no puede guardar el snapshot.
+     * Se avisa con el capturador del escritor (ver {@link EscritorDiferido#setOyenteErrores}).
+     * @param oyente Recibe el error (null para no avisar).
+     */
+    public void setOyenteErrores(Consumer<LogicaException> oyente) {
+        this.oyenteErrores = oyente;
+    }
+
+    /**
+     * Devuelve el error de la última compactación, o null si terminó bien.
+     * @return El error, o null.
+     */
+    public LogicaException getUltimoError() {
+        return ultimoError;
+    }
+
+    /**
+     * Devuelve cuántas veces se compactó la bitácora desde que se creó.
+     * @return La cantidad de compactaciones.
+     */
+    public long getCompactaciones() {
+        return compactaciones;
+    }
+
+    /**
+     * Deja de revisar la bitácora. Si corta una compactación en curso, la bitácora queda como estaba.
+     */
+    @Override
+    public synchronized void close() {
+        cerrado = true;
+        if (hilo != null) {
+            hilo.interrupt();
+            hilo = null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package archivos;
+
+/**
+ * Enumeración de los conjuntos de datos que carga {@link SistemaGestion}.
+ * Cada uno tiene su propio aviso de "listo" (ver {@link SistemaGestion#cuandoListo}),
+ * así las pantallas que sólo usan datos ya cargados no esperan a los archivos grandes.
+ */
+public enum ConjuntoDatos {
+    /** Países (DatosPais.csv). */
+    PAISES,
+    /** Escuderías (DatosEscuderia.csv). */
+    ESCUDERIAS,
+    /** Pilotos (DatosPiloto.csv). */
+    PILOTOS,
+    /** Mecánicos (DatosMecanico.csv). */
+    MECANICOS,
+    /** Circuitos (DatosCircuito.csv). */
+    CIRCUITOS,
+    /** Autos (DatosAuto.csv). */
+    AUTOS,
+    /** Carreras (DatosCarrera.csv). */
+    CARRERAS,
+    /** Resultados de las carreras (DatosResultadoCarrera.csv o sus particiones). */
+    RESULTADOS
+}
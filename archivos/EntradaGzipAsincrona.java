@@ -0,0 +1,137 @@
+package archivos;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Flujo de entrada que descomprime un archivo gzip en un hilo aparte.
+ * <p>
+ * El hilo descompresor llena bloques de {@value #TAMANIO_BLOQUE} bytes y los deja
+ * en una cola acotada; quien lee (el tokenizador CSV) los va consumiendo. Así la
+ * lectura del disco y la descompresión se superponen con el parseo, y la cola
+ * limita cuánto se adelanta el descompresor (como mucho {@value #BLOQUES_EN_COLA} bloques).
+ * Lo usa {@link LectorCSV#abrir} para los archivos {@code .csv.gz}.
+ */
+class EntradaGzipAsincrona extends InputStream {
+    private static final int TAMANIO_BLOQUE = 1024 * 1024;
+    private static final int BLOQUES_EN_COLA = 4;
+    private static final int BUFFER_ARCHIVO = 256 * 1024;
+    /** Marca de fin de archivo (o de error) en la cola. */
+    private static final byte[] FIN = new byte[0];
+
+    private final BlockingQueue<byte[]> bloques;
+    private final Thread descompresor;
+    private volatile IOException error;
+    private volatile boolean cerrado;
+    private byte[] actual;
+    private int posicion;
+    private int limite;
+
+    /**
+     * Abre el archivo y empieza a descomprimirlo.
+     * @param path Ruta al archivo .gz.
+     * @throws IOException Si el archivo no se encuentra o no es gzip.
+     */
+    EntradaGzipAsincrona(String path) throws IOException {
+        FileInputStream archivo = new FileInputStream(path);
+        InputStream gzip;
+        try {
+            gzip = new GZIPInputStream(archivo, BUFFER_ARCHIVO); // Lee el encabezado: falla si no es gzip
+        } catch (IOException | RuntimeException e) {
+            archivo.close();
+            throw e;
+        }
+        this.bloques = new ArrayBlockingQueue<>(BLOQUES_EN_COLA);
+        this.descompresor = new Thread(() -> descomprimir(gzip), "descompresor-gzip");
+        this.descompresor.setDaemon(true);
+        this.descompresor.start();
+    }
+
+    private void descomprimir(InputStream gzip) {
+        try (InputStream in = gzip) {
+            while (!cerrado) {
+                byte[] bloque = new byte[TAMANIO_BLOQUE];
+                int llenos = 0;
+                int leidos;
+                while (llenos < bloque.length && (leidos = in.read(bloque, llenos, bloque.length - llenos)) > 0) {
+                    llenos += leidos;
+                }
+                if (llenos == 0) {
+                    break;
+                }
+                bloques.put(llenos == bloque.length ? bloque : Arrays.copyOf(bloque, llenos));
+            }
+        } catch (IOException e) {
+            error = e;
+        } catch (InterruptedException e) {
+            return; // Se cerró el flujo: nadie espera más bloques
+        }
+        try {
+            bloques.put(FIN);
+        } catch (InterruptedException e) {
+            // Se cerró el flujo
+        }
+    }
+
+    /**
+     * Pasa al siguiente bloque descomprimido, esperando si todavía no está listo.
+     * @return false al llegar al final del archivo.
+     */
+    private boolean siguienteBloque() throws IOException {
+        if (actual == FIN) {
+            if (error != null) {
+                throw error;
+            }
+            return false;
+        }
+        try {
+            actual = bloques.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("La lectura del archivo comprimido fue interrumpida.");
+        }
+        if (actual == FIN) {
+            if (error != null) {
+                throw error;
+            }
+            return false;
+        }
+        posicion = 0;
+        limite = actual.length;
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (posicion == limite && !siguienteBloque()) {
+            return -1;
+        }
+        return actual[posicion++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] destino, int desde, int cantidad) throws IOException {
+        if (cantidad == 0) {
+            return 0;
+        }
+        if (posicion == limite && !siguienteBloque()) {
+            return -1;
+        }
+        int n = Math.min(cantidad, limite - posicion);
+        System.arraycopy(actual, posicion, destino, desde, n);
+        posicion += n;
+        return n;
+    }
+
+    @Override
+    public void close() {
+        cerrado = true;
+        descompresor.interrupt(); // Por si está esperando lugar en la cola
+    }
+}
@@ -0,0 +1,52 @@
+package archivos;
+
+/**
+ * Un problema encontrado al validar un archivo CSV: en qué archivo, en qué
+ * línea y qué está mal (ej. número inválido, país inexistente).
+ */
+public class ErrorValidacion {
+    private final String archivo;
+    private final int linea;
+    private final String mensaje;
+
+    /**
+     * Constructor de ErrorValidacion.
+     * @param archivo Ruta del archivo con el error.
+     * @param linea Número de línea (la primera línea, el encabezado, es la 1).
+     * @param mensaje Descripción del problema.
+     */
+    public ErrorValidacion(String archivo, int linea, String mensaje) {
+        this.archivo = archivo;
+        this.linea = linea;
+        this.mensaje = mensaje;
+    }
+
+    /**
+     * Obtiene la ruta del archivo con el error.
+     * @return La ruta del archivo.
+     */
+    public String getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Obtiene el número de línea del error.
+     * @return El número de línea.
+     */
+    public int getLinea() {
+        return linea;
+    }
+
+    /**
+     * Obtiene la descripción del problema.
+     * @return El mensaje.
+     */
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    @Override
+    public String toString() {
+        return "Error en " + archivo + " (Línea " + linea + "): " + mensaje;
+    }
+}
@@ -0,0 +1,891 @@
+package archivos;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import clases.Auto;
+import clases.AutoPiloto;
+import clases.Carrera;
+import clases.Circuito;
+import clases.Escuderia;
+import clases.Mecanico;
+import clases.Pais;
+import clases.Piloto;
+import clases.PilotoEscuderia;
+import clases.ResultadoCarrera;
+import logica.LogicaException;
+
+/**
+ * Escritura diferida (write-behind) de los CSV de un {@link SistemaGestion}: las
+ * operaciones que registra la {@link BitacoraOperaciones} marcan sus archivos como
+ * pendientes, y un hilo propio los escribe de a lotes, así los CSV reflejan los datos
+ * en uso sin reescribir un archivo por cada alta.
+ * <p>
+ * Las altas se agregan al final del archivo; los archivos con filas modificadas
+ * (ej. las estadísticas de los pilotos al registrar un resultado) se reescriben
+ * completos en un temporal que luego se renombra. Los contratos y los autos asignados
+ * en cada carrera se guardan en archivos de registros de ancho fijo ({@link RegistrosFijos}):
+ * ahí una fila modificada (ej. un contrato que termina) reescribe sólo su registro. Si una fila no entra
+ * en su registro, ese archivo queda pendiente (y se informa el error) pero el resto del lote se escribe;
+ * sus datos quedan en el snapshot del {@link CompactadorBitacora}. Un lote se escribe cuando junta
+ * {@code tamanioLote} cambios o cuando el más viejo lleva {@code intervaloMs} esperando.
+ * <p>
+ * Cada lote cubre todas las operaciones de la bitácora hasta cierta secuencia, que se
+ * guarda en {@value #ARCHIVO_ESTADO}: al cargar, la bitácora se reproduce sólo desde
+ * ahí. Para que el lote sea atómico aunque toque varios archivos, primero se escriben
+ * los temporales, luego el estado con la lista de archivos pendientes (el punto de
+ * confirmación) y recién después se reemplazan los CSV. Si se corta en el medio,
+ * {@link #recuperar} completa el reemplazo antes de la próxima carga.
+ * <p>
+ * Los datos se copian a texto con el {@link Executor} indicado, que debe ser el del hilo
+ * que los modifica (en la GUI, {@code SwingUtilities::invokeLater}); el resto se hace
+ * en el hilo del escritor.
+ */
+public class EscritorDiferido implements AutoCloseable {
+    /** Milisegundos que espera un cambio, como máximo, antes de escribirse. */
+    public static final long INTERVALO_POR_DEFECTO_MS = 2000;
+    /** Cambios que disparan una escritura sin esperar el intervalo. */
+    public static final int LOTE_POR_DEFECTO = 500;
+    /** Archivo (dentro del directorio de datos) con la secuencia escrita y el lote en curso. */
+    static final String ARCHIVO_ESTADO = "escritura.estado";
+    private static final String ENCABEZADO_ESTADO = "operacion, archivo, valor";
+    private static final String SUFIJO_REEMPLAZO = ".tmp";
+    private static final String SUFIJO_AGREGADO = ".agregar";
+    private static final String SUFIJO_PARCHES = ".parches";
+
+    /**
+     * Archivos que escribe: los CSV, con el esquema de sus columnas y el formato de sus
+     * filas, y los de registros de ancho fijo, con su formato.
+     */
+    enum Archivo {
+        PAISES(GestorArchivos.ESQUEMA_PAISES, o -> GestorArchivos.filaPais((Pais) o)),
+        ESCUDERIAS(GestorArchivos.ESQUEMA_ESCUDERIAS, o -> GestorArchivos.filaEscuderia((Escuderia) o)),
+        PILOTOS(GestorArchivos.ESQUEMA_PILOTOS, o -> GestorArchivos.filaPiloto((Piloto) o)),
+        MECANICOS(GestorArchivos.ESQUEMA_MECANICOS, o -> GestorArchivos.filaMecanico((Mecanico) o)),
+        CIRCUITOS(GestorArchivos.ESQUEMA_CIRCUITOS, o -> GestorArchivos.filaCircuito((Circuito) o)),
+        AUTOS(GestorArchivos.ESQUEMA_AUTOS, o -> GestorArchivos.filaAuto((Auto) o)),
+        CARRERAS(GestorArchivos.ESQUEMA_CARRERAS, o -> GestorArchivos.filaCarrera((Carrera) o)),
+        MECANICO_ESCUDERIA(GestorArchivos.ESQUEMA_MECANICO_ESCUDERIA, o -> {
+            Map.Entry<?, ?> par = (Map.Entry<?, ?>) o;
+            return GestorArchivos.filaMecanicoEscuderia((Mecanico) par.getKey(), (Escuderia) par.getValue());
+        }),
+        RESULTADOS(GestorArchivos.ESQUEMA_RESULTADOS, o -> GestorArchivos.filaResultado((ResultadoCarrera) o)),
+        CONTRATOS(GestorArchivos.REGISTROS_CONTRATOS),
+        ASIGNACIONES_AUTOS(GestorArchivos.REGISTROS_ASIGNACIONES_AUTOS);
+
+        private final EsquemaCSV<?> esquema; // null en los archivos de registros
+        private final Function<Object, String> fila;
+        private final RegistrosFijos<Object> registros; // null en los CSV
+
+        Archivo(EsquemaCSV<?> esquema, Function<Object, String> fila) {
+            this.esquema = esquema;
+            this.fila = fila;
+            this.registros = null;
+        }
+
+        @SuppressWarnings("unchecked")
+        Archivo(RegistrosFijos<?> registros) {
+            this.esquema = null;
+            this.fila = null;
+            this.registros = (RegistrosFijos<Object>) registros;
+        }
+
+        String nombre() {
+            return registros != null ? registros.getArchivo() : esquema.getArchivo();
+        }
+
+        boolean binario() {
+            return registros != null;
+        }
+
+        static Archivo deNombre(String nombre) {
+            for (Archivo a : values()) {
+                if (a.nombre().equals(nombre)) {
+                    return a;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Cambios de un archivo que todavía no se escribieron. */
+    private static class Pendiente {
+        boolean reescribir;
+        final List<Object> agregados = new ArrayList<>();
+        final List<Object> actualizados = new ArrayList<>(); // Sólo en los archivos de registros
+    }
+
+    /**
+     * Lo copiado de un archivo para escribirlo: las filas a agregar o todas (en los CSV),
+     * o los registros a agregar o todos y los que se reemplazan (en los de registros).
+     */
+    private static class Copia {
+        final Archivo archivo;
+        final boolean reescribir;
+        final List<String> filas;
+        final List<byte[]> registros;
+        final List<byte[]> parches; // [int id][registro]
+
+        Copia(Archivo archivo, boolean reescribir, List<String> filas) {
+            this(archivo, reescribir, filas, List.of(), List.of());
+        }
+
+        Copia(Archivo archivo, boolean reescribir, List<String> filas, List<byte[]> registros, List<byte[]> parches) {
+            this.archivo = archivo;
+            this.reescribir = reescribir;
+            this.filas = filas;
+            this.registros = registros;
+            this.parches = parches;
+        }
+    }
+
+    /**
+     * Un lote copiado: sus archivos, la secuencia de la bitácora que cubre y los
+     * archivos de registros que no se pudieron copiar (con el motivo).
+     */
+    private static class Lote {
+        final long secuencia;
+        final List<Copia> copias;
+        final Map<Archivo, String> fallidos;
+
+        Lote(long secuencia, List<Copia> copias, Map<Archivo, String> fallidos) {
+            this.secuencia = secuencia;
+            this.copias = copias;
+            this.fallidos = fallidos;
+        }
+    }
+
+    private final SistemaGestion sistema;
+    private final Executor capturador;
+    private final long intervaloMs;
+    private final int tamanioLote;
+    private final String directorio;
+    private final Object cerrojo = new Object(); // Protege pendientes, cambios y desde
+    private final Object cerrojoLotes = new Object(); // Un lote a la vez, en orden de secuencia
+    private Map<Archivo, Pendiente> pendientes;
+    private int cambios;
+    private long desde; // Cuándo llegó el cambio más viejo sin escribir
+    private Thread hilo;
+    private volatile boolean cerrado;
+    private volatile long lotesEscritos;
+    private volatile LogicaException ultimoError; // null si el último lote se escribió bien
+    private volatile Consumer<LogicaException> oyenteErrores;
+
+    /**
+     * Constructor de EscritorDiferido con el intervalo y el tamaño de lote por defecto.
+     * @param sistema El sistema cuyos CSV se escriben.
+     * @param capturador Dónde se copian los datos (ej. {@code SwingUtilities::invokeLater}).
+     */
+    public EscritorDiferido(SistemaGestion sistema, Executor capturador) {
+        this(sistema, capturador, INTERVALO_POR_DEFECTO_MS, LOTE_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor de EscritorDiferido. Conviene crearlo antes de cargar los datos, así
+     * también escribe las operaciones que se reproducen de la bitácora; si se crea
+     * después y la bitácora tiene operaciones que los CSV no tienen, el primer lote
+     * reescribe todos los archivos.
+     *
+     * @param sistema El sistema cuyos CSV se escriben.
+     * @param capturador Dónde se copian los datos (ej. {@code SwingUtilities::invokeLater}).
+     * @param intervaloMs Milisegundos que espera un cambio, como máximo, antes de escribirse.
+     * @param tamanioLote Cantidad de cambios que dispara una escritura antes del intervalo.
+     */
+    public EscritorDiferido(SistemaGestion sistema, Executor capturador, long intervaloMs, int tamanioLote) {
+        if (intervaloMs <= 0 || tamanioLote <= 0) {
+            throw new IllegalArgumentException("El intervalo y el tamaño de lote deben ser positivos.");
+        }
+        this.sistema = sistema;
+        this.capturador = capturador;
+        this.intervaloMs = intervaloMs;
+        this.tamanioLote = tamanioLote;
+        this.directorio = sistema.getDirectorioDatos();
+        this.pendientes = new EnumMap<>(Archivo.class);
+        BitacoraOperaciones bitacora = sistema.getBitacora();
+        Bitacora abierta = bitacora.getBitacora();
+        if (abierta != null && abierta.getUltimaSecuencia() > secuenciaEscrita(directorio)) {
+            for (Archivo a : Archivo.values()) {
+                modificado(a);
+            }
+        }
+        bitacora.setEscritor(this);
+    }
+
+    /**
+     * Empieza a escribir en un hilo propio (daemon).
+     */
+    public synchronized void iniciar() {
+        if (hilo != null || cerrado) {
+            return;
+        }
+        hilo = new Thread(this::escribirLotes, "escritor-csv");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    // --- CAMBIOS (los avisa la bitácora) ---
+
+    /** Se agregó una fila al archivo. */
+    void agregado(Archivo archivo, Object fila) {
+        synchronized (cerrojo) {
+            Pendiente p = pendiente(archivo);
+            if (!p.reescribir) {
+                p.agregados.add(fila);
+            }
+            contarCambio();
+        }
+    }
+
+    /** Cambió alguna fila ya escrita del archivo: hay que reescribirlo. */
+    void modificado(Archivo archivo) {
+        synchronized (cerrojo) {
+            Pendiente p = pendiente(archivo);
+            p.reescribir = true;
+            p.agregados.clear(); // Se escriben todas las filas
+            p.actualizados.clear();
+            contarCambio();
+        }
+    }
+
+    /**
+     * Cambió una fila ya escrita: en un archivo de registros se reescribe sólo su
+     * registro; en un CSV, el archivo entero.
+     */
+    void actualizado(Archivo archivo, Object fila) {
+        if (!archivo.binario()) {
+            modificado(archivo);
+            return;
+        }
+        synchronized (cerrojo) {
+            Pendiente p = pendiente(archivo);
+            if (!p.reescribir) {
+                p.actualizados.add(fila);
+            }
+            contarCambio();
+        }
+    }
+
+    /**
+     * Los datos se vuelven a cargar: lo pendiente se descarta, porque la bitácora
+     * vuelve a avisar todas las operaciones que faltan escribir.
+     */
+    void reiniciar() {
+        synchronized (cerrojo) {
+            pendientes = new EnumMap<>(Archivo.class);
+            cambios = 0;
+        }
+    }
+
+    private Pendiente pendiente(Archivo archivo) {
+        return pendientes.computeIfAbsent(archivo, k -> new Pendiente());
+    }
+
+    private void contarCambio() {
+        if (cambios++ == 0) {
+            desde = System.currentTimeMillis();
+            cerrojo.notifyAll(); // Empieza a correr el intervalo
+        } else if (cambios >= tamanioLote) {
+            cerrojo.notifyAll();
+        }
+    }
+
+    // --- ESCRITURA ---
+
+    private void escribirLotes() {
+        try {
+            while (!cerrado) {
+                synchronized (cerrojo) {
+                    while (!cerrado && cambios == 0) {
+                        cerrojo.wait();
+                    }
+                    long espera;
+                    while (!cerrado && cambios < tamanioLote && (espera = desde + intervaloMs - System.currentTimeMillis()) > 0) {
+                        cerrojo.wait(espera);
+                    }
+                }
+                if (cerrado) {
+                    return;
+                }
+                if (!datosCargados()) {
+                    Thread.sleep(intervaloMs); // Se escribe cuando termine la carga
+                    continue;
+                }
+                try {
+                    escribirLote(capturador);
+                } catch (LogicaException e) {
+                    registrarError(e); // Se reintenta en el próximo lote
+                    Thread.sleep(intervaloMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Se cerró el escritor
+        }
+    }
+
+    private boolean datosCargados() {
+        for (ConjuntoDatos conjunto : ConjuntoDatos.values()) {
+            if (conjunto != ConjuntoDatos.RESULTADOS && !sistema.estaListo(conjunto)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Escribe ya mismo todos los cambios pendientes, copiando los datos en el hilo que
+     * llama (que debe ser el que los modifica).
+     * @throws LogicaException Si algún archivo no se pudo escribir (los cambios quedan pendientes).
+     */
+    public void vaciar() throws LogicaException {
+        escribirLote(Runnable::run);
+    }
+
+    /**
+     * Escribe ya mismo todos los cambios pendientes, copiando los datos con el
+     * capturador (lo usa {@link CompactadorBitacora} desde su propio hilo).
+     */
+    void escribirPendientes() throws LogicaException {
+        escribirLote(capturador);
+    }
+
+    private void escribirLote(Executor donde) throws LogicaException {
+        synchronized (cerrojoLotes) {
+            if (datosCargados()) {
+                escribirLoteCargado(donde);
+                ultimoError = null;
+            }
+        }
+    }
+
+    private void escribirLoteCargado(Executor donde) throws LogicaException {
+        Map<Archivo, Pendiente> tomados;
+        synchronized (cerrojo) {
+            if (cambios == 0) {
+                return;
+            }
+            tomados = pendientes;
+            pendientes = new EnumMap<>(Archivo.class);
+            cambios = 0;
+        }
+        Lote lote;
+        try {
+            // Lo que se lee la primera vez se lee en este hilo, antes de copiar
+            if (tomados.containsKey(Archivo.RESULTADOS)) {
+                sistema.cargarResultados(); // Junta los resultados de la bitácora con los del archivo, que todavía no cambió
+            }
+            if (tomados.containsKey(Archivo.MECANICO_ESCUDERIA) && tomados.get(Archivo.MECANICO_ESCUDERIA).reescribir) {
+                sistema.cargarRelacionMecanicos();
+            }
+            lote = capturar(donde, () -> copiar(tomados));
+            if (!lote.copias.isEmpty()) {
+                synchronized (sistema.getCerrojoArchivos()) {
+                    escribir(lote);
+                }
+                lotesEscritos++;
+            }
+        } catch (LogicaException | RuntimeException e) {
+            devolver(tomados);
+            throw e;
+        }
+        if (!lote.fallidos.isEmpty()) {
+            // Los demás archivos ya se escribieron: sólo éstos quedan pendientes
+            StringBuilder mensaje = new StringBuilder();
+            for (Map.Entry<Archivo, String> f : lote.fallidos.entrySet()) {
+                modificado(f.getKey());
+                mensaje.append(mensaje.length() == 0 ? "" : "; ").append(f.getKey().nombre()).append(": ").append(f.getValue());
+            }
+            throw new LogicaException("No se pudo escribir " + mensaje + " (los demás archivos se escribieron).");
+        }
+    }
+
+    /**
+     * Copia datos con el capturador y espera la copia (lo usa {@link CompactadorBitacora}
+     * para el snapshot: en el hilo que modifica los datos, éstos incluyen exactamente
+     * las operaciones de la bitácora hasta {@link Bitacora#getUltimaSecuencia()}).
+     */
+    <T> T capturar(Supplier<T> copia) throws LogicaException {
+        return capturar(capturador, copia);
+    }
+
+    private static <T> T capturar(Executor donde, Supplier<T> copia) throws LogicaException {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        donde.execute(() -> {
+            try {
+                resultado.complete(copia.get());
+            } catch (RuntimeException e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LogicaException("Se interrumpió la copia de los datos.");
+        } catch (ExecutionException e) {
+            throw new LogicaException("No se pudieron copiar los datos: " + e.getCause().getMessage());
+        }
+    }
+
+    /** Vuelve a dejar pendientes los archivos de un lote que no se pudo escribir. */
+    private void devolver(Map<Archivo, Pendiente> tomados) {
+        for (Archivo a : tomados.keySet()) {
+            modificado(a); // Lo agregado pudo quedar a medias: se reescribe completo
+        }
+    }
+
+    /** Copia a texto las filas del lote (en el hilo que modifica los datos). */
+    private Lote copiar(Map<Archivo, Pendiente> tomados) {
+        Bitacora bitacora = sistema.getBitacora().getBitacora();
+        long secuencia = bitacora != null ? bitacora.getUltimaSecuencia() : 0;
+        List<Copia> copias = new ArrayList<>();
+        Map<Archivo, String> fallidos = new EnumMap<>(Archivo.class);
+        for (Map.Entry<Archivo, Pendiente> e : tomados.entrySet()) {
+            Archivo a = e.getKey();
+            File destino = new File(directorio, a.nombre());
+            if (a.binario()) {
+                try {
+                    copias.add(copiarRegistros(a, destino, e.getValue()));
+                } catch (IllegalArgumentException ex) {
+                    fallidos.put(a, ex.getMessage()); // Una fila no entra en su registro: no frena al resto del lote
+                }
+                continue;
+            }
+            // Un archivo que no existe (o sólo comprimido) no se puede completar: se escribe entero
+            boolean reescribir = e.getValue().reescribir || !destino.isFile();
+            List<String> filas = new ArrayList<>();
+            for (Object fila : reescribir ? todas(a) : e.getValue().agregados) {
+                filas.add(a.fila.apply(fila));
+            }
+            copias.add(new Copia(a, reescribir, filas));
+        }
+        return new Lote(secuencia, copias, fallidos);
+    }
+
+    /**
+     * Copia los registros de un archivo de ancho fijo y anota en el índice el número
+     * de cada fila que se escribe, para poder reemplazar su registro más adelante.
+     */
+    private Copia copiarRegistros(Archivo a, File destino, Pendiente pendiente) {
+        IndiceCarga indice = sistema.getIndiceCarga();
+        boolean reescribir = pendiente.reescribir || !destino.isFile();
+        List<byte[]> parches = new ArrayList<>();
+        if (!reescribir) {
+            Map<Object, Boolean> nuevas = new IdentityHashMap<>();
+            for (Object fila : pendiente.agregados) {
+                nuevas.put(fila, true); // Se escriben ya con sus datos actuales
+            }
+            for (Object fila : pendiente.actualizados) {
+                if (nuevas.containsKey(fila)) continue;
+                Integer id = indice.idRegistro(fila);
+                if (id == null) {
+                    reescribir = true; // No se sabe en qué registro está (ej. se cargó del snapshot)
+                    break;
+                }
+                parches.add(ByteBuffer.allocate(4 + a.registros.getTamanioRegistro()).putInt(id).put(a.registros.codificar(fila)).array());
+            }
+        }
+        List<?> filas = reescribir ? todas(a) : pendiente.agregados;
+        int id = reescribir ? 0 : a.registros.cantidad(destino);
+        List<byte[]> registros = new ArrayList<>(filas.size());
+        for (Object fila : filas) {
+            registros.add(a.registros.codificar(fila));
+            indice.registrarIdRegistro(fila, id++);
+        }
+        return new Copia(a, reescribir, List.of(), registros, reescribir ? List.of() : parches);
+    }
+
+    /** Todas las filas actuales de un archivo. */
+    private List<?> todas(Archivo archivo) {
+        switch (archivo) {
+            case PAISES: return sistema.getPaises();
+            case ESCUDERIAS: return sistema.getEscuderias();
+            case PILOTOS: return sistema.getPilotos();
+            case MECANICOS: return sistema.getMecanicos();
+            case CIRCUITOS: return sistema.getCircuitos();
+            case AUTOS: return sistema.getAutos();
+            case CARRERAS: return sistema.getCarreras();
+            case RESULTADOS: return sistema.getResultadosCarreras();
+            case MECANICO_ESCUDERIA: {
+                List<Map.Entry<Mecanico, Escuderia>> pares = new ArrayList<>();
+                for (Escuderia e : sistema.getEscuderias()) {
+                    for (Mecanico m : e.getMecanicos()) {
+                        pares.add(Map.entry(m, e));
+                    }
+                }
+                return pares;
+            }
+            case CONTRATOS: {
+                List<PilotoEscuderia> contratos = new ArrayList<>();
+                for (Piloto p : sistema.getPilotos()) {
+                    contratos.addAll(p.getPilotosEscuderias());
+                }
+                return contratos;
+            }
+            case ASIGNACIONES_AUTOS: {
+                List<AutoPiloto> asignaciones = new ArrayList<>();
+                for (Carrera c : sistema.getCarreras()) {
+                    asignaciones.addAll(c.getParticipantes());
+                }
+                return asignaciones;
+            }
+            default:
+                throw new IllegalArgumentException(archivo.name());
+        }
+    }
+
+    /**
+     * Escribe un lote: temporales, estado con el lote pendiente (confirmación),
+     * reemplazo de los CSV y estado final.
+     */
+    private void escribir(Lote lote) throws LogicaException {
+        List<String[]> operaciones = new ArrayList<>();
+        try {
+            for (Copia c : lote.copias) {
+                File destino = new File(directorio, c.archivo.nombre());
+                if (c.archivo.binario()) {
+                    operaciones.addAll(escribirRegistros(c, destino));
+                } else if (c.reescribir) {
+                    escribirFilas(new File(destino.getPath() + SUFIJO_REEMPLAZO), encabezado(c.archivo, destino), c.filas);
+                    operaciones.add(new String[] { "reemplazar", c.archivo.nombre(), "" });
+                } else {
+                    long largo = destino.length();
+                    escribirFilas(new File(destino.getPath() + SUFIJO_AGREGADO), terminaEnLinea(destino, largo) ? null : "", c.filas);
+                    operaciones.add(new String[] { "agregar", c.archivo.nombre(), Long.toString(largo) });
+                }
+            }
+            escribirEstado(directorio, lote.secuencia, operaciones);
+        } catch (IOException e) {
+            borrarTemporales(directorio);
+            throw new LogicaException("Error al escribir los CSV de " + directorio + ": " + e.getMessage());
+        }
+        // Desde aquí el lote está confirmado: si algo falla se completa al cargar
+        try {
+            completar(directorio, operaciones);
+            escribirEstado(directorio, lote.secuencia, List.of());
+        } catch (IOException e) {
+            throw new LogicaException("Error al reemplazar los CSV de " + directorio + " (se completará al cargar): " + e.getMessage());
+        }
+        for (Copia c : lote.copias) {
+            sistema.registrarEscrituraPropia(new File(directorio, c.archivo.nombre()).getPath());
+        }
+    }
+
+    /** Escribe los temporales de un archivo de registros y devuelve sus operaciones. */
+    private static List<String[]> escribirRegistros(Copia c, File destino) throws IOException {
+        RegistrosFijos<Object> formato = c.archivo.registros;
+        List<String[]> operaciones = new ArrayList<>();
+        if (c.reescribir) {
+            escribirBytes(new File(destino.getPath() + SUFIJO_REEMPLAZO), formato.encabezado(), c.registros);
+            operaciones.add(new String[] { "reemplazar", c.archivo.nombre(), "" });
+            return operaciones;
+        }
+        if (!c.registros.isEmpty()) {
+            long largo = formato.posicion(formato.cantidad(destino)); // Sin un registro incompleto al final
+            escribirBytes(new File(destino.getPath() + SUFIJO_AGREGADO), null, c.registros);
+            operaciones.add(new String[] { "agregar", c.archivo.nombre(), Long.toString(largo) });
+        }
+        if (!c.parches.isEmpty()) {
+            escribirBytes(new File(destino.getPath() + SUFIJO_PARCHES), null, c.parches);
+            operaciones.add(new String[] { "parchear", c.archivo.nombre(), "" });
+        }
+        return operaciones;
+    }
+
+    /** El encabezado del archivo actual, o el del esquema si no existe. */
+    private static String encabezado(Archivo archivo, File destino) throws IOException {
+        if (destino.isFile()) {
+            try (BufferedReader r = new BufferedReader(new FileReader(destino, Charset.defaultCharset()))) {
+                String linea = r.readLine();
+                if (linea != null) {
+                    return linea;
+                }
+            }
+        }
+        return String.join(", ", archivo.esquema.getColumnas());
+    }
+
+    private static boolean terminaEnLinea(File archivo, long largo) throws IOException {
+        if (largo == 0) {
+            return true;
+        }
+        try (RandomAccessFile r = new RandomAccessFile(archivo, "r")) {
+            r.seek(largo - 1);
+            return r.read() == '\n';
+        }
+    }
+
+    /**
+     * Escribe las filas a un archivo y lo fuerza a disco.
+     * @param primera Línea a escribir antes de las filas (ej. el encabezado, o "" para
+     * terminar la última línea del archivo al que se agregan), o null.
+     */
+    private static void escribirFilas(File archivo, String primera, List<String> filas) throws IOException {
+        try (FileOutputStream salida = new FileOutputStream(archivo)) {
+            Writer w = new BufferedWriter(new OutputStreamWriter(salida, Charset.defaultCharset()), 1 << 16);
+            if (primera != null) {
+                w.write(primera);
+                w.write('\n');
+            }
+            for (String fila : filas) {
+                w.write(fila);
+                w.write('\n');
+            }
+            w.flush();
+            salida.getFD().sync();
+        }
+    }
+
+    /** Como {@link #escribirFilas}, pero con bytes. */
+    private static void escribirBytes(File archivo, byte[] primero, List<byte[]> bloques) throws IOException {
+        try (FileOutputStream salida = new FileOutputStream(archivo)) {
+            OutputStream o = new BufferedOutputStream(salida, 1 << 16);
+            if (primero != null) {
+                o.write(primero);
+            }
+            for (byte[] bloque : bloques) {
+                o.write(bloque);
+            }
+            o.flush();
+            salida.getFD().sync();
+        }
+    }
+
+    // --- ESTADO Y RECUPERACIÓN ---
+
+    private static void escribirEstado(String directorio, long secuencia, List<String[]> operaciones) throws IOException {
+        File estado = new File(directorio, ARCHIVO_ESTADO);
+        File temporal = new File(directorio, ARCHIVO_ESTADO + SUFIJO_REEMPLAZO);
+        List<String> filas = new ArrayList<>();
+        filas.add("secuencia, , " + secuencia);
+        for (String[] op : operaciones) {
+            filas.add(op[0] + ", " + op[1] + ", " + op[2]);
+        }
+        escribirFilas(temporal, ENCABEZADO_ESTADO, filas);
+        Files.move(temporal.toPath(), estado.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Reemplaza los archivos con los temporales que queden. Repetirlo no cambia nada. */
+    private static void completar(String directorio, List<String[]> operaciones) throws IOException {
+        for (String[] op : operaciones) {
+            File destino = new File(directorio, op[1]);
+            if (op[0].equals("reemplazar")) {
+                File temporal = new File(destino.getPath() + SUFIJO_REEMPLAZO);
+                if (temporal.isFile()) {
+                    Files.move(temporal.toPath(), destino.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } else if (op[0].equals("parchear")) {
+                File parches = new File(destino.getPath() + SUFIJO_PARCHES);
+                if (parches.isFile()) {
+                    RegistrosFijos<Object> formato = Archivo.deNombre(op[1]).registros;
+                    int tamanio = formato.getTamanioRegistro();
+                    ByteBuffer contenido = ByteBuffer.wrap(Files.readAllBytes(parches.toPath()));
+                    try (FileChannel canal = FileChannel.open(destino.toPath(), StandardOpenOption.WRITE)) {
+                        while (contenido.remaining() >= 4 + tamanio) {
+                            long posicion = formato.posicion(contenido.getInt()); // Cada registro va siempre al mismo lugar
+                            ByteBuffer registro = contenido.slice().limit(tamanio);
+                            while (registro.hasRemaining()) {
+                                posicion += canal.write(registro, posicion);
+                            }
+                            contenido.position(contenido.position() + tamanio);
+                        }
+                        canal.force(false);
+                    }
+                    Files.delete(parches.toPath());
+                }
+            } else {
+                File agregado = new File(destino.getPath() + SUFIJO_AGREGADO);
+                if (agregado.isFile()) {
+                    byte[] contenido = Files.readAllBytes(agregado.toPath());
+                    try (FileChannel canal = FileChannel.open(destino.toPath(), StandardOpenOption.WRITE)) {
+                        long largo = Long.parseLong(op[2]);
+                        canal.truncate(largo); // Si ya se había agregado una parte, se vuelve a escribir
+                        ByteBuffer buffer = ByteBuffer.wrap(contenido);
+                        while (buffer.hasRemaining()) {
+                            largo += canal.write(buffer, largo);
+                        }
+                        canal.force(false);
+                    }
+                    Files.delete(agregado.toPath());
+                }
+            }
+        }
+    }
+
+    private static void borrarTemporales(String directorio) {
+        for (Archivo a : Archivo.values()) {
+            new File(directorio, a.nombre() + SUFIJO_REEMPLAZO).delete();
+            new File(directorio, a.nombre() + SUFIJO_AGREGADO).delete();
+            new File(directorio, a.nombre() + SUFIJO_PARCHES).delete();
+        }
+    }
+
+    /**
+     * Completa el último lote si quedó confirmado pero sin aplicar (un corte en el
+     * medio de la escritura) y descarta los temporales de un lote sin confirmar.
+     * Se llama antes de leer los CSV.
+     *
+     * @param directorio Directorio de datos.
+     * @return La secuencia de la bitácora hasta la que llegan los CSV (0 si nunca se escribieron).
+     * @throws LogicaException Si el estado no se puede leer o el lote no se puede completar.
+     */
+    static long recuperar(String directorio) throws LogicaException {
+        File estado = new File(directorio, ARCHIVO_ESTADO);
+        if (!estado.isFile()) {
+            borrarTemporales(directorio);
+            return 0;
+        }
+        List<String[]> operaciones = new ArrayList<>();
+        long secuencia = leerEstado(estado, operaciones);
+        try {
+            if (!operaciones.isEmpty()) {
+                completar(directorio, operaciones);
+                escribirEstado(directorio, secuencia, List.of());
+            }
+        } catch (IOException e) {
+            throw new LogicaException("No se pudo completar la escritura de los CSV de " + directorio + ": " + e.getMessage());
+        }
+        borrarTemporales(directorio);
+        return secuencia;
+    }
+
+    /**
+     * Devuelve la secuencia hasta la que llegan los CSV según el estado, sin completar nada.
+     * @param directorio Directorio de datos.
+     * @return La secuencia (0 si no hay estado o no se puede leer).
+     */
+    static long secuenciaEscrita(String directorio) {
+        File estado = new File(directorio, ARCHIVO_ESTADO);
+        try {
+            return estado.isFile() ? leerEstado(estado, new ArrayList<>()) : 0;
+        } catch (LogicaException e) {
+            return 0;
+        }
+    }
+
+    /** Lee el estado: devuelve la secuencia y agrega las operaciones del lote pendiente. */
+    private static long leerEstado(File estado, List<String[]> operaciones) throws LogicaException {
+        long secuencia = 0;
+        try (LectorCSV lector = LectorCSV.abrir(estado.getPath(), ModoLectura.BUFFER)) {
+            lector.siguienteLinea(); // Saltear encabezado
+            while (lector.siguienteLinea()) {
+                if (lector.lineaVacia()) continue;
+                if (lector.cantidadCampos() < 3) throw new LogicaException("El archivo " + estado + " tiene una línea incompleta.");
+                String operacion = lector.campo(0);
+                if (operacion.equals("secuencia")) {
+                    secuencia = Long.parseLong(lector.campo(2));
+                } else if (Archivo.deNombre(lector.campo(1)) != null) {
+                    operaciones.add(new String[] { operacion, lector.campo(1), lector.campo(2) });
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new LogicaException("Error al leer " + estado + ": " + e.getMessage());
+        }
+        return secuencia;
+    }
+
+    /** Guarda el error y, si es distinto del anterior, se lo avisa al oyente con el capturador. */
+    private void registrarError(LogicaException e) {
+        LogicaException anterior = ultimoError;
+        ultimoError = e;
+        Consumer<LogicaException> oyente = oyenteErrores;
+        if (oyente != null && (anterior == null || !anterior.getMessage().equals(e.getMessage()))) {
+            capturador.execute(() -> oyente.accept(e));
+        }
+    }
+
+    // --- ERRORES ---
+
+    /**
+     * Indica a quién avisar cuando un lote no se puede escribir. Se avisa con el
+     * capturador y sólo la primera vez que aparece cada error, no en cada reintento.
+     * @param oyente Recibe el error (null para no avisar).
+     */
+    public void setOyenteErrores(Consumer<LogicaException> oyente) {
+        this.oyenteErrores = oyente;
+    }
+
+    /**
+     * Devuelve el error del último lote que no se pudo escribir (en segundo plano o
+     * al cerrar), o null si el último lote se escribió bien.
+     * @return El error, o null.
+     */
+    public LogicaException getUltimoError() {
+        return ultimoError;
+    }
+
+    // --- GETTERS ---
+
+    /**
+     * Devuelve dónde se copian los datos (el hilo que los modifica).
+     * @return El capturador.
+     */
+    Executor getCapturador() {
+        return capturador;
+    }
+
+    /**
+     * Devuelve cuántos lotes se escribieron desde que se creó.
+     * @return La cantidad de lotes.
+     */
+    public long getLotesEscritos() {
+        return lotesEscritos;
+    }
+
+    /**
+     * Devuelve la cantidad de cambios que esperan ser escritos.
+     * @return Los cambios pendientes.
+     */
+    public int getCambiosPendientes() {
+        synchronized (cerrojo) {
+            return cambios;
+        }
+    }
+
+    /**
+     * Deja de escribir en segundo plano y escribe lo pendiente en el hilo que llama
+     * (que debe ser el que modifica los datos). Lo que no se pueda escribir sigue
+     * en la bitácora y se escribirá en la próxima sesión; el error queda en
+     * {@link #getUltimoError()} (no se avisa al oyente, que puede no volver a correr).
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            cerrado = true;
+            if (hilo != null) {
+                hilo.interrupt();
+                hilo = null;
+            }
+        }
+        sistema.getBitacora().setEscritor(null);
+        try {
+            vaciar();
+        } catch (LogicaException e) {
+            ultimoError = e;
+        }
+    }
+}
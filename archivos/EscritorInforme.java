@@ -0,0 +1,261 @@
+package archivos;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BooleanSupplier;
+import logica.LogicaException;
+
+/**
+ * Escribe un informe fila por fila en CSV o JSON (ver {@link FormatoExportacion}).
+ * <p>
+ * Cada fila se codifica a UTF-8 directamente en un buffer de {@value #TAMANIO_BUFFER}
+ * bytes que se escribe al canal cuando se llena, así la memoria usada no depende
+ * del tamaño del informe.
+ * <p>
+ * Se escribe a un archivo temporal que recién reemplaza al destino en
+ * {@link #terminar()}: si la exportación falla o se cancela, {@link #close()} lo
+ * borra y el destino queda como estaba. Uso:
+ * <pre>
+ * try (EscritorInforme escritor = new EscritorInforme(path, formato, cancelado, "dni", "puntos")) {
+ *     escritor.fila(dni, puntos);
+ *     escritor.terminar();
+ * }
+ * </pre>
+ */
+public class EscritorInforme implements AutoCloseable {
+    /** Bytes del buffer de escritura. */
+    public static final int TAMANIO_BUFFER = 1 << 16;
+
+    private final String path;
+    private final FormatoExportacion formato;
+    private final BooleanSupplier cancelado;
+    private final String[] columnas;
+    private final File temporal;
+    private final FileChannel canal;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder codificador;
+    private final StringBuilder linea;
+    private long filas;
+    private boolean cerrado;
+
+    /**
+     * Crea el archivo temporal y escribe el encabezado.
+     *
+     * @param path Ruta del archivo destino.
+     * @param formato Formato del archivo.
+     * @param cancelado Se consulta antes de cada fila: si devuelve true la exportación se corta (puede ser null).
+     * @param columnas Nombres de las columnas (en JSON, las claves de cada objeto).
+     * @throws LogicaException Si no se puede crear el archivo.
+     */
+    public EscritorInforme(String path, FormatoExportacion formato, BooleanSupplier cancelado, String... columnas) throws LogicaException {
+        this.path = path;
+        this.formato = formato;
+        this.cancelado = cancelado;
+        this.columnas = columnas.clone();
+        this.temporal = new File(path + ".tmp");
+        this.buffer = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+        this.codificador = StandardCharsets.UTF_8.newEncoder();
+        this.linea = new StringBuilder(256);
+        try {
+            this.canal = FileChannel.open(temporal.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new LogicaException("Error al crear el archivo " + path + ": " + e.getMessage());
+        }
+        if (formato == FormatoExportacion.CSV) {
+            for (int i = 0; i < columnas.length; i++) {
+                if (i > 0) {
+                    linea.append(',');
+                }
+                agregarCSV(columnas[i]);
+            }
+            linea.append("\r\n");
+        } else {
+            linea.append('[');
+        }
+        escribirLinea();
+    }
+
+    /**
+     * Escribe una fila.
+     *
+     * @param valores Un valor por columna, en el orden del encabezado. Los números y
+     * booleanos se escriben tal cual; el resto como texto; null como vacío (CSV) o null (JSON).
+     * @throws LogicaException Si la exportación se canceló o no se puede escribir el archivo.
+     */
+    public void fila(Object... valores) throws LogicaException {
+        if (cerrado) {
+            throw new IllegalStateException("El informe " + path + " ya está cerrado.");
+        }
+        if (valores.length != columnas.length) {
+            throw new IllegalArgumentException("Se esperaban " + columnas.length + " valores y hay " + valores.length + ".");
+        }
+        if (cancelado != null && cancelado.getAsBoolean()) {
+            throw new LogicaException("Exportación de " + path + " cancelada después de " + filas + " filas.");
+        }
+        if (formato == FormatoExportacion.CSV) {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    linea.append(',');
+                }
+                if (valores[i] != null) {
+                    agregarCSV(valores[i].toString());
+                }
+            }
+            linea.append("\r\n");
+        } else {
+            linea.append(filas == 0 ? "\n  {" : ",\n  {");
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    linea.append(", ");
+                }
+                agregarJSON(columnas[i]);
+                linea.append(": ");
+                Object v = valores[i];
+                if (v == null || v instanceof Number || v instanceof Boolean) {
+                    linea.append(v);
+                } else {
+                    agregarJSON(v.toString());
+                }
+            }
+            linea.append('}');
+        }
+        escribirLinea();
+        filas++;
+    }
+
+    /**
+     * Devuelve cuántas filas se escribieron (sin contar el encabezado).
+     * @return La cantidad de filas.
+     */
+    public long getFilas() {
+        return filas;
+    }
+
+    /**
+     * Cierra el formato, escribe lo que queda en el buffer y reemplaza el archivo destino.
+     * @throws LogicaException Si no se puede escribir o reemplazar el archivo.
+     */
+    public void terminar() throws LogicaException {
+        if (cerrado) {
+            throw new IllegalStateException("El informe " + path + " ya está cerrado.");
+        }
+        if (formato == FormatoExportacion.JSON) {
+            linea.append(filas == 0 ? "]\n" : "\n]\n");
+            escribirLinea();
+        }
+        try {
+            vaciarBuffer();
+            canal.close();
+        } catch (IOException e) {
+            close();
+            throw new LogicaException("Error al escribir el archivo " + path + ": " + e.getMessage());
+        }
+        cerrado = true;
+        try {
+            Files.move(temporal.toPath(), new File(path).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temporal.delete();
+            throw new LogicaException("Error al reemplazar el archivo " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Si no se llamó a {@link #terminar()}, descarta el archivo temporal.
+     */
+    @Override
+    public void close() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        try {
+            canal.close();
+        } catch (IOException e) {
+            // Se borra igual
+        }
+        temporal.delete();
+    }
+
+    // --- CODIFICACIÓN ---
+
+    private void agregarCSV(String valor) {
+        boolean comillas = false;
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+            char c = valor.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            linea.append(valor);
+            return;
+        }
+        linea.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                linea.append('"');
+            }
+            linea.append(c);
+        }
+        linea.append('"');
+    }
+
+    private void agregarJSON(String valor) {
+        linea.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"': linea.append("\\\""); break;
+                case '\\': linea.append("\\\\"); break;
+                case '\n': linea.append("\\n"); break;
+                case '\r': linea.append("\\r"); break;
+                case '\t': linea.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        linea.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        linea.append(c);
+                    }
+            }
+        }
+        linea.append('"');
+    }
+
+    /** Codifica la línea armada al buffer (vaciándolo al canal cada vez que se llena). */
+    private void escribirLinea() throws LogicaException {
+        CharBuffer caracteres = CharBuffer.wrap(linea);
+        try {
+            while (true) {
+                CoderResult r = codificador.encode(caracteres, buffer, true);
+                if (r.isOverflow()) {
+                    vaciarBuffer();
+                } else if (r.isError()) {
+                    r.throwException();
+                } else {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new LogicaException("Error al escribir el archivo " + path + ": " + e.getMessage());
+        } finally {
+            codificador.reset();
+            linea.setLength(0);
+        }
+    }
+
+    private void vaciarBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,517 @@
+package archivos;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import clases.Auto;
+import clases.Carrera;
+import clases.Circuito;
+import clases.Escuderia;
+import clases.Mecanico;
+import clases.Pais;
+import clases.Piloto;
+import logica.LogicaException;
+
+/**
+ * Esquema declarativo de un archivo CSV de datos: qué columnas tiene, de qué tipo
+ * es cada una (texto, entero, enumerado o referencia a otra entidad del
+ * {@link IndiceCarga}) y con qué fábrica se crea la entidad de cada fila.
+ * <p>
+ * Al construir el esquema se arma una sola vez, con {@link MethodHandles}, el
+ * "binder" de la fila: un MethodHandle que lee cada columna con su conversión y
+ * pasa los valores a la fábrica. Cada esquema lo invoca desde su propia clase oculta
+ * ({@link InvocadorEsquema}), donde el binder es una constante: así la JVM puede
+ * compilar en línea el árbol de cada archivo por separado, y todos los archivos
+ * comparten el mismo ciclo de lectura.
+ * <p>
+ * Ejemplo (ver {@link GestorArchivos}):
+ * <pre>
+ * EsquemaCSV.de(Escuderia.class, "DatosEscuderia.csv")
+ *         .canonica("nombre")
+ *         .construir(constructor, (indice, e) -&gt; { indice.registrarEscuderia(e); return e; });
+ * </pre>
+ *
+ * @param <T> El tipo de entidad de cada fila.
+ */
+public final class EsquemaCSV<T> {
+
+    /**
+     * Lo que se hace con cada entidad recién creada (ej. registrarla en el índice).
+     * @param <T> El tipo de entidad.
+     */
+    public interface Registro<T> {
+        /**
+         * Registra una entidad leída.
+         * @param indice El índice de la carga.
+         * @param entidad La entidad creada por la fábrica.
+         * @return La entidad a guardar (puede ser otra instancia, ej. una compartida).
+         * @throws LogicaException Si la entidad no se puede registrar.
+         */
+        T registrar(IndiceCarga indice, T entidad) throws LogicaException;
+    }
+
+    /**
+     * Invoca el binder de un esquema (ver {@link InvocadorEsquema}).
+     */
+    interface Invocador {
+        /**
+         * Lee la fila actual y crea su entidad.
+         * @param lector El lector, posicionado en la fila.
+         * @param indice Índice de carga para resolver las referencias.
+         * @return La entidad creada por la fábrica.
+         * @throws Throwable Lo que lance alguna columna o la fábrica.
+         */
+        Object crear(LectorCSV lector, IndiceCarga indice) throws Throwable;
+    }
+
+    /** Un campo que no se puede convertir al tipo de su columna. */
+    private static final class CampoInvalido extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        CampoInvalido(String mensaje) {
+            super(mensaje, null, false, false); // Sin stack trace: sólo interesa el mensaje
+        }
+    }
+
+    private static final MethodType TIPO_BINDER = MethodType.methodType(Object.class, LectorCSV.class, IndiceCarga.class);
+    private static final MethodHandle CAMPO;
+    private static final MethodHandle CAMPO_OPCIONAL;
+    private static final MethodHandle CANONICA;
+    private static final MethodHandle ENTERO;
+    private static final MethodHandle ENUMERADO;
+    private static final MethodHandle PAIS;
+    private static final MethodHandle ESCUDERIA;
+    private static final MethodHandle ESCUDERIA_OPCIONAL;
+    private static final MethodHandle CIRCUITO;
+    private static final MethodHandle MECANICO;
+    private static final MethodHandle PILOTO;
+    private static final MethodHandle CARRERA;
+    private static final MethodHandle AUTO;
+    private static final byte[] PLANTILLA_INVOCADOR; // Bytes de InvocadorEsquema (null si no se encuentran)
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType texto = MethodType.methodType(String.class, LectorCSV.class, IndiceCarga.class, int.class);
+            MethodType conMensaje = MethodType.methodType(Object.class, LectorCSV.class, IndiceCarga.class, int.class, String.class);
+            MethodType referencia = MethodType.methodType(Object.class, LectorCSV.class, IndiceCarga.class, int.class);
+            CAMPO = lookup.findStatic(EsquemaCSV.class, "campo", texto);
+            CAMPO_OPCIONAL = lookup.findStatic(EsquemaCSV.class, "campoOpcional", texto);
+            CANONICA = lookup.findStatic(EsquemaCSV.class, "canonica", texto);
+            ENTERO = lookup.findStatic(EsquemaCSV.class, "entero", conMensaje.changeReturnType(int.class));
+            ENUMERADO = lookup.findStatic(EsquemaCSV.class, "enumerado",
+                    MethodType.methodType(Enum.class, LectorCSV.class, IndiceCarga.class, int.class, Class.class, String.class));
+            PAIS = lookup.findStatic(EsquemaCSV.class, "pais", conMensaje.changeReturnType(Pais.class));
+            ESCUDERIA = lookup.findStatic(EsquemaCSV.class, "escuderia", referencia.changeReturnType(Escuderia.class));
+            ESCUDERIA_OPCIONAL = lookup.findStatic(EsquemaCSV.class, "escuderiaOpcional", referencia.changeReturnType(Escuderia.class));
+            CIRCUITO = lookup.findStatic(EsquemaCSV.class, "circuito", referencia.changeReturnType(Circuito.class));
+            MECANICO = lookup.findStatic(EsquemaCSV.class, "mecanico", referencia.changeReturnType(Mecanico.class));
+            PILOTO = lookup.findStatic(EsquemaCSV.class, "piloto", referencia.changeReturnType(Piloto.class));
+            CARRERA = lookup.findStatic(EsquemaCSV.class, "carrera", referencia.changeReturnType(Carrera.class));
+            AUTO = lookup.findStatic(EsquemaCSV.class, "auto", referencia.changeReturnType(Auto.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        byte[] plantilla;
+        try (InputStream in = EsquemaCSV.class.getResourceAsStream("InvocadorEsquema.class")) {
+            plantilla = (in != null) ? in.readAllBytes() : null;
+        } catch (IOException e) {
+            plantilla = null;
+        }
+        PLANTILLA_INVOCADOR = plantilla;
+    }
+
+    private final String archivo;
+    private final List<String> nombres;
+    private final int camposMinimos;
+    private final Invocador invocador; // Llama al binder (LectorCSV, IndiceCarga) -> Object
+    private final Registro<T> registro;
+
+    private EsquemaCSV(String archivo, List<String> nombres, int camposMinimos, Invocador invocador, Registro<T> registro) {
+        this.archivo = archivo;
+        this.nombres = nombres;
+        this.camposMinimos = camposMinimos;
+        this.invocador = invocador;
+        this.registro = registro;
+    }
+
+    /**
+     * Define la clase oculta que invoca un binder desde su propia constante. Si no se
+     * puede (ej. no se encuentran los bytes de la plantilla), lo invoca directamente.
+     */
+    private static Invocador invocador(MethodHandle binder) {
+        if (PLANTILLA_INVOCADOR != null) {
+            try {
+                return (Invocador) MethodHandles.lookup()
+                        .defineHiddenClassWithClassData(PLANTILLA_INVOCADOR, binder, true)
+                        .lookupClass().getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Se usa el invocador genérico
+            }
+        }
+        return (lector, indice) -> (Object) binder.invokeExact(lector, indice);
+    }
+
+    /**
+     * Empieza la declaración del esquema de un archivo.
+     * @param tipo La clase de las entidades del archivo.
+     * @param archivo Nombre del archivo (ej. "DatosPiloto.csv").
+     * @return La declaración del esquema, para agregarle las columnas en orden.
+     */
+    public static <T> Declaracion<T> de(Class<T> tipo, String archivo) {
+        return new Declaracion<>(tipo, archivo);
+    }
+
+    /**
+     * Devuelve el mismo esquema con otro registro (ej. para leer sin vincular).
+     * @param otro El registro a usar.
+     * @return Un esquema con el mismo binder y el registro indicado.
+     */
+    public EsquemaCSV<T> conRegistro(Registro<T> otro) {
+        return new EsquemaCSV<>(archivo, nombres, camposMinimos, invocador, otro);
+    }
+
+    /**
+     * Devuelve el nombre del archivo que describe el esquema.
+     * @return El nombre (ej. "DatosPiloto.csv").
+     */
+    public String getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Devuelve los nombres de las columnas, en orden.
+     * @return Lista (no modificable) de nombres.
+     */
+    public List<String> getColumnas() {
+        return nombres;
+    }
+
+    // --- LECTURA ---
+
+    /**
+     * Lee el archivo completo: saltea el encabezado y las líneas en blanco, y crea
+     * y registra una entidad por fila.
+     *
+     * @param path Ruta al archivo.
+     * @param indice Índice de carga para resolver las referencias y registrar las entidades.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
+     * @return Las entidades, en el orden del archivo.
+     * @throws LogicaException Si el archivo no se encuentra o hay un error de formato o de referencias.
+     */
+    public List<T> leer(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        List<T> filas = new ArrayList<>();
+        int nroLinea = 1;
+        try (LectorCSV lector = LectorCSV.abrir(path, modo)) {
+            lector.siguienteLinea(); // Saltear encabezado
+            nroLinea++;
+            while (lector.siguienteLinea()) {
+                if (lector.lineaVacia()) { nroLinea++; continue; }
+                try {
+                    filas.add(crear(lector, indice));
+                } catch (CampoInvalido e) {
+                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): " + e.getMessage());
+                }
+                nroLinea++;
+            }
+        } catch (IOException e) {
+            throw new LogicaException("Error al leer el archivo " + path + ": " + e.getMessage());
+        }
+        return filas;
+    }
+
+    /**
+     * Crea y registra la entidad de la línea actual del lector.
+     *
+     * @param lector El lector, posicionado en una línea que no está en blanco.
+     * @param indice Índice de carga para resolver las referencias y registrar la entidad.
+     * @param ubicacion Archivo y línea (o posición) actual, para los mensajes de error;
+     * sólo se pide si hay un error.
+     * @return La entidad.
+     * @throws LogicaException Si falta algún campo, alguno no tiene el tipo de su
+     * columna o alguna referencia no existe.
+     */
+    public T leerFila(LectorCSV lector, IndiceCarga indice, Supplier<String> ubicacion) throws LogicaException {
+        try {
+            return crear(lector, indice);
+        } catch (CampoInvalido e) {
+            throw new LogicaException("Error en " + ubicacion.get() + ": " + e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T crear(LectorCSV lector, IndiceCarga indice) throws CampoInvalido, LogicaException {
+        if (lector.cantidadCampos() < camposMinimos) {
+            throw new CampoInvalido("La línea está incompleta.");
+        }
+        T entidad;
+        try {
+            entidad = (T) invocador.crear(lector, indice);
+        } catch (CampoInvalido | LogicaException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e); // Las columnas sólo lanzan las excepciones de arriba
+        }
+        return registro.registrar(indice, entidad);
+    }
+
+    // --- CONVERSIONES DE CADA TIPO DE COLUMNA ---
+
+    private static String campo(LectorCSV lector, IndiceCarga indice, int columna) {
+        return lector.campo(columna);
+    }
+
+    private static String campoOpcional(LectorCSV lector, IndiceCarga indice, int columna) {
+        return columna < lector.cantidadCampos() ? lector.campo(columna) : "";
+    }
+
+    private static String canonica(LectorCSV lector, IndiceCarga indice, int columna) {
+        return indice.getPoolCadenas().canonica(lector.campo(columna));
+    }
+
+    private static int entero(LectorCSV lector, IndiceCarga indice, int columna, String error) throws CampoInvalido {
+        try {
+            return lector.entero(columna);
+        } catch (NumberFormatException e) {
+            throw new CampoInvalido(String.format(error, lector.campo(columna)));
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Enum enumerado(LectorCSV lector, IndiceCarga indice, int columna, Class clase, String error) throws CampoInvalido {
+        try {
+            return Enum.valueOf(clase, lector.campo(columna).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new CampoInvalido(String.format(error, lector.campo(columna)));
+        }
+    }
+
+    private static Pais pais(LectorCSV lector, IndiceCarga indice, int columna, String error) throws CampoInvalido, LogicaException {
+        return indice.buscarPais(entero(lector, indice, columna, error));
+    }
+
+    private static Escuderia escuderia(LectorCSV lector, IndiceCarga indice, int columna) throws LogicaException {
+        return indice.buscarEscuderia(lector.campo(columna));
+    }
+
+    private static Escuderia escuderiaOpcional(LectorCSV lector, IndiceCarga indice, int columna) throws LogicaException {
+        String nombre = campoOpcional(lector, indice, columna);
+        return nombre.isEmpty() ? null : indice.buscarEscuderia(nombre);
+    }
+
+    private static Circuito circuito(LectorCSV lector, IndiceCarga indice, int columna) throws LogicaException {
+        return indice.buscarCircuito(lector.campo(columna));
+    }
+
+    private static Mecanico mecanico(LectorCSV lector, IndiceCarga indice, int columna) throws LogicaException {
+        return indice.buscarMecanico(lector.campo(columna));
+    }
+
+    private static Piloto piloto(LectorCSV lector, IndiceCarga indice, int columna) throws LogicaException {
+        return indice.buscarPiloto(lector.campo(columna));
+    }
+
+    private static Carrera carrera(LectorCSV lector, IndiceCarga indice, int columna) throws LogicaException {
+        return indice.buscarCarrera(lector.campo(columna));
+    }
+
+    private static Auto auto(LectorCSV lector, IndiceCarga indice, int columna) throws LogicaException {
+        return indice.buscarAuto(lector.campo(columna));
+    }
+
+    /**
+     * Declara las columnas de un esquema, en el orden del archivo, y arma el binder.
+     * @param <T> El tipo de entidad de cada fila.
+     */
+    public static final class Declaracion<T> {
+        private final Class<T> tipo;
+        private final String archivo;
+        private final List<String> nombres;
+        private final List<MethodHandle> columnas; // Cada una: (LectorCSV, IndiceCarga) -> valor
+        private int camposMinimos;
+
+        private Declaracion(Class<T> tipo, String archivo) {
+            this.tipo = tipo;
+            this.archivo = archivo;
+            this.nombres = new ArrayList<>();
+            this.columnas = new ArrayList<>();
+        }
+
+        private Declaracion<T> columna(String nombre, MethodHandle conversion, boolean obligatoria, Object... extras) {
+            int posicion = columnas.size();
+            MethodHandle h = MethodHandles.insertArguments(conversion, 2, posicion);
+            if (extras.length > 0) {
+                h = MethodHandles.insertArguments(h, 2, extras);
+            }
+            nombres.add(nombre);
+            columnas.add(h);
+            if (obligatoria) {
+                camposMinimos = posicion + 1;
+            }
+            return this;
+        }
+
+        /**
+         * Columna de texto, tal como está en el archivo (ej. un DNI).
+         * @param nombre Nombre de la columna.
+         * @return Esta declaración.
+         */
+        public Declaracion<T> texto(String nombre) {
+            return columna(nombre, CAMPO, true);
+        }
+
+        /**
+         * Columna de texto que puede faltar al final de la línea (vale "" si falta).
+         * @param nombre Nombre de la columna.
+         * @return Esta declaración.
+         */
+        public Declaracion<T> textoOpcional(String nombre) {
+            return columna(nombre, CAMPO_OPCIONAL, false);
+        }
+
+        /**
+         * Columna de texto con valores que se repiten (ej. nombres, motores): se
+         * guarda la instancia canónica del {@link PoolCadenas} de la carga.
+         * @param nombre Nombre de la columna.
+         * @return Esta declaración.
+         */
+        public Declaracion<T> canonica(String nombre) {
+            return columna(nombre, CANONICA, true);
+        }
+
+        /**
+         * Columna entera.
+         * @param nombre Nombre de la columna.
+         * @param error Mensaje si el campo no es un número ({@code %s} se reemplaza por el campo).
+         * @return Esta declaración.
+         */
+        public Declaracion<T> entero(String nombre, String error) {
+            return columna(nombre, ENTERO, true, error);
+        }
+
+        /**
+         * Columna con el nombre de una constante de un enumerado (sin importar mayúsculas).
+         * @param nombre Nombre de la columna.
+         * @param clase El enumerado.
+         * @param error Mensaje si el valor no es válido ({@code %s} se reemplaza por el campo).
+         * @return Esta declaración.
+         */
+        public <E extends Enum<E>> Declaracion<T> enumerado(String nombre, Class<E> clase, String error) {
+            MethodHandle conversion = ENUMERADO.asType(ENUMERADO.type().changeReturnType(clase));
+            return columna(nombre, conversion, true, clase, error);
+        }
+
+        /**
+         * Columna con el ID de un país ya cargado.
+         * @param nombre Nombre de la columna.
+         * @param error Mensaje si el ID no es un número ({@code %s} se reemplaza por el campo).
+         * @return Esta declaración.
+         */
+        public Declaracion<T> pais(String nombre, String error) {
+            return columna(nombre, PAIS, true, error);
+        }
+
+        /**
+         * Columna con el nombre de una escudería ya cargada.
+         * @param nombre Nombre de la columna.
+         * @return Esta declaración.
+         */
+        public Declaracion<T> escuderia(String nombre) {
+            return columna(nombre, ESCUDERIA, true);
+        }
+
+        /**
+         * Columna con el nombre de una escudería ya cargada, que puede estar vacía
+         * o faltar al final de la línea (vale null).
+         * @param nombre Nombre de la columna.
+         * @return Esta declaración.
+         */
+        public Declaracion<T> escuderiaOpcional(String nombre) {
+            return columna(nombre, ESCUDERIA_OPCIONAL, false);
+        }
+
+        /**
+         * Columna con el nombre de un circuito ya cargado.
+         * @param nombre Nombre de la columna.
+         * @return Esta declaración.
+         */
+        public Declaracion<T> circuito(String nombre) {
+            return columna(nombre, CIRCUITO, true);
+        }
+
+        /**
+         * Columna con el DNI de un mecánico ya cargado.
+         * @param nombre Nombre de la columna.
+         * @return Esta declaración.
+         */
+        public Declaracion<T> mecanico(String nombre) {
+            return columna(nombre, MECANICO, true);
+        }
+
+        /**
+         * Columna con el DNI de un piloto ya cargado.
+         * @param nombre Nombre de la columna.
+         * @return Esta declaración.
+         */
+        public Declaracion<T> piloto(String nombre) {
+            return columna(nombre, PILOTO, true);
+        }
+
+        /**
+         * Columna con la fecha de una carrera ya cargada.
+         * @param nombre Nombre de la columna.
+         * @return Esta declaración.
+         */
+        public Declaracion<T> carrera(String nombre) {
+            return columna(nombre, CARRERA, true);
+        }
+
+        /**
+         * Columna con el modelo de un auto ya cargado.
+         * @param nombre Nombre de la columna.
+         * @return Esta declaración.
+         */
+        public Declaracion<T> auto(String nombre) {
+            return columna(nombre, AUTO, true);
+        }
+
+        /**
+         * Arma el binder del esquema: cada columna se convierte en orden y los
+         * valores se pasan a la fábrica, que recibe un parámetro por columna.
+         *
+         * @param fabrica Constructor o método estático que crea la entidad
+         * (los parámetros pueden ser del tipo de la columna o de su clase envoltorio).
+         * @param registro Lo que se hace con cada entidad creada.
+         * @return El esquema.
+         * @throws IllegalArgumentException Si la fábrica no tiene un parámetro compatible por columna.
+         */
+        public EsquemaCSV<T> construir(MethodHandle fabrica, Registro<T> registro) {
+            int n = columnas.size();
+            if (fabrica.type().parameterCount() != n || !tipo.isAssignableFrom(fabrica.type().returnType())) {
+                throw new IllegalArgumentException("La fábrica de " + archivo + " no coincide con sus " + n + " columnas: " + fabrica.type());
+            }
+            Class<?>[] tipos = new Class<?>[n];
+            for (int i = 0; i < n; i++) {
+                tipos[i] = columnas.get(i).type().returnType();
+            }
+            MethodHandle binder = fabrica.asType(MethodType.methodType(Object.class, tipos));
+            // Se encadenan de la última a la primera columna, así se leen en el orden del archivo
+            for (int i = n - 1; i >= 0; i--) {
+                binder = MethodHandles.collectArguments(binder, i, columnas.get(i));
+            }
+            // Todas las columnas leen del mismo lector e índice
+            int[] orden = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                orden[2 * i] = 0;
+                orden[2 * i + 1] = 1;
+            }
+            binder = MethodHandles.permuteArguments(binder, TIPO_BINDER, orden);
+            return new EsquemaCSV<>(archivo, List.copyOf(nombres), camposMinimos, invocador(binder), registro);
+        }
+    }
+}
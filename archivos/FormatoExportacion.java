@@ -0,0 +1,19 @@
+package archivos;
+
+/**
+ * Enumeración que define el formato de los archivos que escribe {@link EscritorInforme}.
+ */
+public enum FormatoExportacion {
+    /** Valores separados por comas, con una fila de encabezado (RFC 4180). */
+    CSV,
+    /** Un arreglo JSON con un objeto por fila. */
+    JSON;
+
+    /**
+     * Devuelve la extensión de los archivos de este formato.
+     * @return La extensión, con el punto (ej. ".csv").
+     */
+    public String getExtension() {
+        return "." + name().toLowerCase();
+    }
+}
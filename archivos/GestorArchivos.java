@@ -1,13 +1,20 @@
 package archivos;
 
 import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import clases.Auto;
+import clases.AutoPiloto;
 import clases.Escuderia;
 import clases.Carrera;
 import clases.Circuito;
 import clases.Mecanico;
 import clases.Piloto;
+import clases.PilotoEscuderia;
 import clases.Pais;
 import clases.ResultadoCarrera;
 import clases.Especialidad;
@@ -17,110 +24,283 @@ import logica.LogicaException;
  * Clase de utilidad estática para manejar la lectura y escritura
  * de los archivos CSV (Capa de Persistencia).
  * Convierte líneas de texto de CSV en objetos de las 'clases' y viceversa.
+ * Cada archivo se describe con un {@link EsquemaCSV} (columnas, tipos y
+ * referencias a otras entidades), y todos se leen con el mismo binder generado.
+ * Las referencias entre archivos se resuelven con un {@link IndiceCarga}.
  */
 public class GestorArchivos {
 
-    // --- MÉTODOS HELPER (Buscadores) ---
-
-    /**Busca un País en la lista por su ID.
-     *
-     * @param paises Lista de países donde buscar.
-     * @param idPais ID a encontrar.
-     * @return El objeto Pais.
-     * @throws LogicaException Si el ID del país no se encuentra en la lista.
-     */
-    public static Pais buscarPaisPorId(List<Pais> paises, int idPais) throws LogicaException {
-        for (Pais p : paises) {
-            if (p.getIdPais() == idPais) {
-                return p;
-            }
+    // --- ESQUEMAS DE LOS ARCHIVOS ---
+
+    /** Esquema de "DatosPais.csv": idPais, descripcion. */
+    static final EsquemaCSV<Pais> ESQUEMA_PAISES;
+    /** Esquema de "DatosEscuderia.csv": nombre. */
+    static final EsquemaCSV<Escuderia> ESQUEMA_ESCUDERIAS;
+    /** Esquema de "DatosPiloto.csv": dni, nombre, apellido, idPais, nroCompetencia, victorias, polePosition, vueltasRapidas, podios. */
+    static final EsquemaCSV<Piloto> ESQUEMA_PILOTOS;
+    /** Esquema de "DatosMecanico.csv": dni, nombre, apellido, idPais, especialidad, aniosExperiencia. */
+    static final EsquemaCSV<Mecanico> ESQUEMA_MECANICOS;
+    /** Esquema de "DatosCircuito.csv": nombre, longitud, idPais. */
+    static final EsquemaCSV<Circuito> ESQUEMA_CIRCUITOS;
+    /** Esquema de "DatosAuto.csv": modelo, motor, nombreEscuderia (el auto se agrega a su escudería; vacía si no tiene). */
+    static final EsquemaCSV<Auto> ESQUEMA_AUTOS;
+    /** Esquema de "DatosCarrera.csv": fechaRealizacion, nroVueltas, horaRealizacion, nombreCircuito. */
+    static final EsquemaCSV<Carrera> ESQUEMA_CARRERAS;
+    /** Esquema de "DatosMecanicoEscuderia.csv": dniMecanico, nombreEscuderia. */
+    static final EsquemaCSV<Map.Entry<Mecanico, Escuderia>> ESQUEMA_MECANICO_ESCUDERIA;
+    /** Esquema de "DatosResultadoCarrera.csv": dniPiloto, fechaCarrera, posicion. */
+    static final EsquemaCSV<ResultadoCarrera> ESQUEMA_RESULTADOS;
+    /** Esquema de "DatosPilotoEscuderia.csv" (contratos): dniPiloto, nombreEscuderia, desdeFecha, hastaFecha (vacía si está activo). */
+    static final EsquemaCSV<PilotoEscuderia> ESQUEMA_CONTRATOS;
+    /** Esquema de "DatosAutoPiloto.csv" (autos asignados en cada carrera): fechaCarrera, dniPiloto, modeloAuto, fechaAsignacion. */
+    static final EsquemaCSV<AutoPiloto> ESQUEMA_ASIGNACIONES_AUTOS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            ESQUEMA_PAISES = EsquemaCSV.de(Pais.class, "DatosPais.csv")
+                    .entero("idPais", "ID de país no es un número.")
+                    .canonica("descripcion")
+                    .construir(lookup.findStatic(GestorArchivos.class, "nuevoPais", MethodType.methodType(Pais.class, int.class, String.class)),
+                            (indice, p) -> {
+                                Pais pais = indice.compartir(p);
+                                indice.registrarPais(pais);
+                                return pais;
+                            });
+
+            ESQUEMA_ESCUDERIAS = EsquemaCSV.de(Escuderia.class, "DatosEscuderia.csv")
+                    .canonica("nombre")
+                    .construir(lookup.findConstructor(Escuderia.class, MethodType.methodType(void.class, String.class)),
+                            (indice, e) -> {
+                                indice.registrarEscuderia(e);
+                                return e;
+                            });
+
+            String errorPiloto = "Dato numérico (ID, stats) inválido.";
+            ESQUEMA_PILOTOS = EsquemaCSV.de(Piloto.class, "DatosPiloto.csv")
+                    .texto("dni")
+                    .canonica("nombre")
+                    .canonica("apellido")
+                    .pais("idPais", errorPiloto)
+                    .entero("nroCompetencia", errorPiloto)
+                    .entero("victorias", errorPiloto)
+                    .entero("polePosition", errorPiloto)
+                    .entero("vueltasRapidas", errorPiloto)
+                    .entero("podios", errorPiloto)
+                    .construir(lookup.findConstructor(Piloto.class, MethodType.methodType(void.class, String.class, String.class, String.class,
+                            Pais.class, int.class, int.class, int.class, int.class, int.class)),
+                            (indice, p) -> {
+                                indice.registrarPiloto(p);
+                                return p;
+                            });
+
+            String errorMecanico = "ID de país o Años de exp. no son números.";
+            ESQUEMA_MECANICOS = EsquemaCSV.de(Mecanico.class, "DatosMecanico.csv")
+                    .texto("dni")
+                    .canonica("nombre")
+                    .canonica("apellido")
+                    .pais("idPais", errorMecanico)
+                    .enumerado("especialidad", Especialidad.class, "Especialidad '%s' no válida.")
+                    .entero("aniosExperiencia", errorMecanico)
+                    .construir(lookup.findStatic(GestorArchivos.class, "nuevoMecanico", MethodType.methodType(Mecanico.class, String.class,
+                            String.class, String.class, Pais.class, Especialidad.class, int.class)),
+                            (indice, m) -> {
+                                indice.registrarMecanico(m);
+                                return m;
+                            });
+
+            String errorCircuito = "Longitud (debe ser un entero) o ID de país no son números válidos.";
+            ESQUEMA_CIRCUITOS = EsquemaCSV.de(Circuito.class, "DatosCircuito.csv")
+                    .canonica("nombre")
+                    .entero("longitud", errorCircuito)
+                    .pais("idPais", errorCircuito)
+                    .construir(lookup.findConstructor(Circuito.class, MethodType.methodType(void.class, String.class, Integer.class, Pais.class)),
+                            (indice, c) -> {
+                                Circuito circuito = indice.compartir(c);
+                                indice.registrarCircuito(circuito);
+                                return circuito;
+                            });
+
+            ESQUEMA_AUTOS = EsquemaCSV.de(Auto.class, "DatosAuto.csv")
+                    .canonica("modelo")
+                    .canonica("motor")
+                    .escuderiaOpcional("nombreEscuderia")
+                    .construir(lookup.findStatic(GestorArchivos.class, "nuevoAuto", MethodType.methodType(Auto.class, String.class, String.class, Escuderia.class)),
+                            (indice, a) -> {
+                                if (a.getEscuderia() != null) {
+                                    a.getEscuderia().agregarAuto(a); // Establece relación bidireccional
+                                }
+                                indice.registrarAuto(a);
+                                return a;
+                            });
+
+            ESQUEMA_CARRERAS = EsquemaCSV.de(Carrera.class, "DatosCarrera.csv")
+                    .canonica("fechaRealizacion")
+                    .entero("nroVueltas", "Nro de vueltas no es un número.")
+                    .canonica("horaRealizacion")
+                    .circuito("nombreCircuito")
+                    .construir(lookup.findStatic(GestorArchivos.class, "nuevaCarrera", MethodType.methodType(Carrera.class, String.class, int.class,
+                            String.class, Circuito.class)),
+                            (indice, c) -> {
+                                indice.registrarCarrera(c);
+                                return c;
+                            });
+
+            @SuppressWarnings("unchecked")
+            Class<Map.Entry<Mecanico, Escuderia>> tipoPar = (Class<Map.Entry<Mecanico, Escuderia>>) (Class<?>) Map.Entry.class;
+            ESQUEMA_MECANICO_ESCUDERIA = EsquemaCSV.de(tipoPar, "DatosMecanicoEscuderia.csv")
+                    .mecanico("dniMecanico")
+                    .escuderia("nombreEscuderia")
+                    .construir(lookup.findStatic(Map.class, "entry", MethodType.methodType(Map.Entry.class, Object.class, Object.class)),
+                            (indice, par) -> par);
+
+            ESQUEMA_RESULTADOS = EsquemaCSV.de(ResultadoCarrera.class, "DatosResultadoCarrera.csv")
+                    .piloto("dniPiloto")
+                    .carrera("fechaCarrera")
+                    .entero("posicion", "La posición '%s' no es un número.")
+                    .construir(lookup.findStatic(GestorArchivos.class, "nuevoResultado", MethodType.methodType(ResultadoCarrera.class, Piloto.class,
+                            Carrera.class, int.class)),
+                            (indice, r) -> r);
+
+            ESQUEMA_CONTRATOS = EsquemaCSV.de(PilotoEscuderia.class, "DatosPilotoEscuderia.csv")
+                    .piloto("dniPiloto")
+                    .escuderia("nombreEscuderia")
+                    .canonica("desdeFecha")
+                    .textoOpcional("hastaFecha")
+                    .construir(lookup.findStatic(GestorArchivos.class, "nuevoContrato", MethodType.methodType(PilotoEscuderia.class, Piloto.class,
+                            Escuderia.class, String.class, String.class)),
+                            (indice, pe) -> {
+                                pe.getPiloto().agregarPilotoEscuderia(pe);
+                                pe.getEscuderia().agregarPilotoEscuderia(pe);
+                                return pe;
+                            });
+
+            ESQUEMA_ASIGNACIONES_AUTOS = EsquemaCSV.de(AutoPiloto.class, "DatosAutoPiloto.csv")
+                    .carrera("fechaCarrera")
+                    .piloto("dniPiloto")
+                    .auto("modeloAuto")
+                    .canonica("fechaAsignacion")
+                    .construir(lookup.findStatic(GestorArchivos.class, "nuevaAsignacion", MethodType.methodType(AutoPiloto.class, Carrera.class,
+                            Piloto.class, Auto.class, String.class)),
+                            (indice, ap) -> {
+                                ap.getCarrera().agregarParticipante(ap);
+                                ap.getPiloto().agregarAutoPiloto(ap);
+                                ap.getAuto().agregarAutoPiloto(ap);
+                                return ap;
+                            });
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
         }
-        //Lanza excepción si no se encuentra el país
-        throw new LogicaException("Error de integridad de datos: El ID de país '" + idPais + "' referenciado en un CSV no existe en DatosPais.csv");
     }
 
-    /** Busca un Circuito en la lista por su nombre (ignorando mayúsculas/minúsculas).
-     *
-     * @param circuitos Lista de circuitos donde buscar.
-     * @param nombre    Nombre a encontrar.
-     * @return El objeto Circuito.
-     * @throws LogicaException Si el nombre del circuito no se encuentra.
+    // --- REGISTROS DE ANCHO FIJO ---
+
+    /** Ancho de los campos con DNI o fecha en los archivos de registros. */
+    private static final int ANCHO_CLAVE = 16;
+    /** Ancho de los campos con nombre de escudería o modelo de auto en los archivos de registros. */
+    private static final int ANCHO_NOMBRE = 64;
+
+    /**
+     * Registros de "DatosPilotoEscuderia.bin" (contratos): dniPiloto, nombreEscuderia,
+     * desdeFecha, hastaFecha (null si está activo). Reemplaza a "DatosPilotoEscuderia.csv":
+     * terminar un contrato reescribe sólo su registro.
      */
-    public static Circuito buscarCircuitoPorNombre(List<Circuito> circuitos, String nombre) throws LogicaException {
-        for (Circuito c : circuitos) {
-            if (c.getNombre().equalsIgnoreCase(nombre.trim())) {
-                return c;
-            }
-        }
-        //Lanza excepción si no se encuentra el circuito
-        throw new LogicaException("Error de integridad de datos: El circuito con nombre '" + nombre + "' referenciado en DatosCarrera.csv no existe en DatosCircuito.csv");
-    }
+    static final RegistrosFijos<PilotoEscuderia> REGISTROS_CONTRATOS = new RegistrosFijos<>("DatosPilotoEscuderia.bin",
+            3 * ANCHO_CLAVE + ANCHO_NOMBRE,
+            (pe, r) -> {
+                RegistrosFijos.escribirTexto(r, pe.getPiloto().getDni(), ANCHO_CLAVE);
+                RegistrosFijos.escribirTexto(r, pe.getEscuderia().getNombre(), ANCHO_NOMBRE);
+                RegistrosFijos.escribirTexto(r, pe.getDesdeFecha(), ANCHO_CLAVE);
+                RegistrosFijos.escribirTexto(r, pe.getHastaFecha(), ANCHO_CLAVE);
+            },
+            (r, indice) -> {
+                Piloto piloto = indice.buscarPiloto(RegistrosFijos.leerTexto(r, ANCHO_CLAVE));
+                Escuderia escuderia = indice.buscarEscuderia(RegistrosFijos.leerTexto(r, ANCHO_NOMBRE));
+                String desdeFecha = RegistrosFijos.leerTexto(r, ANCHO_CLAVE);
+                return nuevoContrato(piloto, escuderia, desdeFecha, RegistrosFijos.leerTexto(r, ANCHO_CLAVE));
+            },
+            pe -> {
+                pe.getPiloto().agregarPilotoEscuderia(pe);
+                pe.getEscuderia().agregarPilotoEscuderia(pe);
+            });
 
-    /**Busca una Escudería en la lista por su nombre (ignorando mayúsculas/minúsculas).
-     *
-     * @param escuderias Lista de escuderías donde buscar.
-     * @param nombre     Nombre a encontrar.
-     * @return El objeto Escuderia.
-     * @throws LogicaException Si el nombre de la escudería no se encuentra.
+    /**
+     * Registros de "DatosAutoPiloto.bin" (autos asignados en cada carrera): fechaCarrera,
+     * nombreCircuito (puede haber dos carreras en la misma fecha), dniPiloto, modeloAuto,
+     * fechaAsignacion. Reemplaza a "DatosAutoPiloto.csv".
      */
-    public static Escuderia buscarEscuderiaPorNombre(List<Escuderia> escuderias, String nombre) throws LogicaException {
-        for (Escuderia e : escuderias) {
-            if (e.getNombre().equalsIgnoreCase(nombre.trim())) {
-                return e;
-            }
-        }
-        //Lanza excepción si no se encuentra la escudería
-        throw new LogicaException("Error de integridad de datos: La escudería con nombre '" + nombre + "' referenciada en un CSV no existe en DatosEscuderia.csv");
-    }
+    static final RegistrosFijos<AutoPiloto> REGISTROS_ASIGNACIONES_AUTOS = new RegistrosFijos<>("DatosAutoPiloto.bin",
+            3 * ANCHO_CLAVE + 2 * ANCHO_NOMBRE,
+            (ap, r) -> {
+                RegistrosFijos.escribirTexto(r, ap.getCarrera().getFechaRealizacion(), ANCHO_CLAVE);
+                RegistrosFijos.escribirTexto(r, ap.getCarrera().getCircuito().getNombre(), ANCHO_NOMBRE);
+                RegistrosFijos.escribirTexto(r, ap.getPiloto().getDni(), ANCHO_CLAVE);
+                RegistrosFijos.escribirTexto(r, ap.getAuto().getModelo(), ANCHO_NOMBRE);
+                RegistrosFijos.escribirTexto(r, ap.getFechaAsignacion(), ANCHO_CLAVE);
+            },
+            (r, indice) -> {
+                String fechaCarrera = RegistrosFijos.leerTexto(r, ANCHO_CLAVE);
+                Carrera carrera = indice.buscarCarrera(fechaCarrera, RegistrosFijos.leerTexto(r, ANCHO_NOMBRE));
+                Piloto piloto = indice.buscarPiloto(RegistrosFijos.leerTexto(r, ANCHO_CLAVE));
+                Auto auto = indice.buscarAuto(RegistrosFijos.leerTexto(r, ANCHO_NOMBRE));
+                return nuevaAsignacion(carrera, piloto, auto, RegistrosFijos.leerTexto(r, ANCHO_CLAVE));
+            },
+            ap -> {
+                ap.getCarrera().agregarParticipante(ap);
+                ap.getPiloto().agregarAutoPiloto(ap);
+                ap.getAuto().agregarAutoPiloto(ap);
+            });
 
-    /**Busca un Mecánico en la lista por su DNI.
-     *
-     * @param mecanicos Lista de mecánicos donde buscar.
-     * @param dni       DNI a encontrar.
-     * @return El objeto Mecanico.
-     * @throws LogicaException Si el DNI del mecánico no se encuentra.
+    /**
+     * Indica si un nombre de escudería o circuito, o un modelo de auto, entra en los
+     * archivos de registros de ancho fijo (contratos y autos asignados).
+     * @param nombre El nombre.
+     * @return true si entra.
      */
-    public static Mecanico buscarMecanicoPorDNI(List<Mecanico> mecanicos, String dni) throws LogicaException {
-        for (Mecanico m : mecanicos) {
-            if (m.getDni().equals(dni.trim())) {
-                return m;
-            }
-        }
-        //Lanza excepción si no se encuentra el mecánico
-        throw new LogicaException("Error de integridad de datos: El mecánico con DNI '" + dni + "' referenciado en DatosMecanicoEscuderia.csv no existe en DatosMecanico.csv");
+    public static boolean entraEnRegistros(String nombre) {
+        return RegistrosFijos.entra(nombre, ANCHO_NOMBRE);
     }
 
-    /**Busca un Piloto en la lista por su DNI.
-     *
-     * @param pilotos Lista de pilotos donde buscar.
-     * @param dni    DNI a encontrar.
-     * @return El objeto Piloto.
-     * @throws LogicaException Si el DNI del piloto no se encuentra.
+    /**
+     * Indica si un DNI o una fecha entra en los archivos de registros de ancho fijo.
+     * @param clave El DNI o la fecha.
+     * @return true si entra.
      */
-    public static Piloto buscarPilotoPorDNI(List<Piloto> pilotos, String dni) throws LogicaException {
-        for (Piloto p : pilotos) {
-            if (p.getDni().equals(dni.trim())) {
-                return p;
-            }
-        }
-        //Lanza excepción si no se encuentra el piloto
-        throw new LogicaException("Error de integridad de datos: El piloto con DNI '" + dni + "' referenciado en DatosResultadoCarrera.csv no existe en DatosPiloto.csv");
+    public static boolean entraClaveEnRegistros(String clave) {
+        return RegistrosFijos.entra(clave, ANCHO_CLAVE);
     }
 
-    /**Busca una Carrera por su fecha en una lista.
-     * @param carreras Lista de Carreras.
-     * @param fecha Fecha a buscar.
-     * @return La Carrera encontrada.
-     * @throws LogicaException Si no se encuentra una carrera con esa fecha.
-     */
-    private static Carrera buscarCarreraPorFecha(List<Carrera> carreras, String fecha) throws LogicaException {
-        for (Carrera c : carreras) {
-            if (c.getFechaRealizacion().equals(fecha.trim())) {
-                return c;
-            }
-        }
-        // MODIFICACIÓN: Lanza excepción en lugar de devolver null
-        throw new LogicaException("Error de integridad de datos: No se encontró la carrera con fecha '" + fecha + "' referenciada en el CSV.");
+    // Fábricas de las entidades cuyo constructor no coincide con las columnas del archivo
+
+    private static Pais nuevoPais(int idPais, String descripcion) {
+        return new Pais(idPais, descripcion, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    private static Mecanico nuevoMecanico(String dni, String nombre, String apellido, Pais pais, Especialidad especialidad, int aniosExperiencia) {
+        return new Mecanico(dni, nombre, apellido, pais, especialidad, aniosExperiencia, new ArrayList<>());
+    }
+
+    private static Auto nuevoAuto(String modelo, String motor, Escuderia escuderia) {
+        Auto a = new Auto(modelo, motor);
+        a.setEscuderia(escuderia);
+        return a;
+    }
+
+    private static Carrera nuevaCarrera(String fechaRealizacion, int nroVueltas, String horaRealizacion, Circuito circuito) {
+        return new Carrera(fechaRealizacion, nroVueltas, horaRealizacion, circuito.getPais(), circuito);
+    }
+
+    private static ResultadoCarrera nuevoResultado(Piloto piloto, Carrera carrera, int posicion) {
+        return new ResultadoCarrera(piloto, posicion, carrera);
+    }
+
+    private static PilotoEscuderia nuevoContrato(Piloto piloto, Escuderia escuderia, String desdeFecha, String hastaFecha) {
+        return new PilotoEscuderia(desdeFecha, hastaFecha, piloto, escuderia);
+    }
+
+    private static AutoPiloto nuevaAsignacion(Carrera carrera, Piloto piloto, Auto auto, String fechaAsignacion) {
+        return new AutoPiloto(fechaAsignacion, piloto, auto, carrera);
     }
 
     // --- MÉTODOS DE LECTURA (CSV a Objetos) ---
@@ -128,392 +308,282 @@ public class GestorArchivos {
     /**
      * Lee el archivo "DatosPaises.csv".
      * @param path Ruta al archivo.
+     * @param indice Índice de carga donde se registran los países leídos.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
      * @return Lista de objetos Pais.
      * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
      */
-    public static List<Pais> leerPaisesDesdeCSV(String path) throws LogicaException {
-        List<Pais> paises = new ArrayList<>();
-        int nroLinea = 1;
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String linea;
-            br.readLine(); // Saltear encabezado
-            nroLinea++;
-
-            while ((linea = br.readLine()) != null) {
-                if (linea.trim().isEmpty()) { nroLinea++; continue; }
-                String[] valores = linea.split(",");
-                if (valores.length < 2) throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Línea incompleta.");
-                
-                try {
-                    int idPais = Integer.parseInt(valores[0].trim());
-                    String descripcion = valores[1].trim();
-                    Pais p = new Pais(idPais, descripcion, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
-                    paises.add(p);
-                    nroLinea++;
-                } catch (NumberFormatException e) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): ID de país no es un número.");
-                }
-            }
-        } catch (IOException e) {
-            throw new LogicaException("Error  al leer el archivo " + path + ": " + e.getMessage());
-        }
-        return paises;
+    public static List<Pais> leerPaisesDesdeCSV(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        return ESQUEMA_PAISES.leer(path, indice, modo);
     }
 
     /**
      * Lee el archivo "DatosAutos.csv".
      * @param path Ruta al archivo.
-     * @param escuderias Lista de escuderías para asignar la relación.
+     * @param indice Índice de carga con las escuderías para asignar la relación.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
      * @return Lista de objetos Auto.
      * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
      */
-    public static List<Auto> leerAutosDesdeCSV(String path, List<Escuderia> escuderias) throws LogicaException {
-        List<Auto> autos = new ArrayList<>();
-        int nroLinea = 1;
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String linea;
-            br.readLine(); // Saltear encabezado
-            nroLinea++;
-
-            while ((linea = br.readLine()) != null) {
-                if (linea.trim().isEmpty()) { nroLinea++; continue; }
-                String[] valores = linea.split(",");
-                if (valores.length < 3) throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Línea incompleta.");
-
-                String modelo = valores[0].trim();
-                String motor = valores[1].trim();
-                String nombreEscuderia = valores[2].trim();
-
-                Auto a = new Auto(modelo, motor);
-                Escuderia escuderiaAsignada = buscarEscuderiaPorNombre(escuderias, nombreEscuderia);
-                
-                if (escuderiaAsignada == null) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): No se encontró la escudería '" + nombreEscuderia + "'.");
-                }
-                
-                escuderiaAsignada.agregarAuto(a); // Establece relación bidireccional
-                autos.add(a);
-                nroLinea++;
-            }
-        } catch (IOException e) {
-            throw new LogicaException("Error  al leer el archivo " + path + ": " + e.getMessage());
+    public static List<Auto> leerAutosDesdeCSV(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        return leerAutosDesdeCSV(path, indice, modo, true);
+    }
+
+    /**
+     * Lee el archivo "DatosAutos.csv", con la opción de no tocar las escuderías.
+     * @param vincular false para sólo asignar la escudería a cada auto, sin agregarlo
+     * a la lista de la escudería (lo usa {@link RecargaIncremental}, que vincula al publicar).
+     */
+    static List<Auto> leerAutosDesdeCSV(String path, IndiceCarga indice, ModoLectura modo, boolean vincular) throws LogicaException {
+        if (vincular) {
+            return ESQUEMA_AUTOS.leer(path, indice, modo);
         }
-        return autos;
+        return ESQUEMA_AUTOS.conRegistro((idx, a) -> {
+            idx.registrarAuto(a);
+            return a;
+        }).leer(path, indice, modo);
     }
 
     /**
      * Lee el archivo "DatosCircuitos.csv".
      * @param path Ruta al archivo.
-     * @param paises Lista de países para asignar la relación.
+     * @param indice Índice de carga con los países; también registra los circuitos leídos.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
      * @return Lista de objetos Circuito.
      * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
      */
-    public static List<Circuito> leerCircuitosDesdeCSV(String path, List<Pais> paises) throws LogicaException {
-        List<Circuito> circuitos = new ArrayList<>();
-        int nroLinea = 1;
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            br.readLine(); // Saltear encabezado
-            nroLinea++;
-            String linea;
-            while ((linea = br.readLine()) != null) {
-                if (linea.trim().isEmpty()) { nroLinea++; continue; }
-                String[] valores = linea.split(",");
-                if (valores.length < 3) throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Línea incompleta.");
-
-                try {
-                    String nombre = valores[0].trim();
-                    int longitud = Integer.parseInt(valores[1].trim());
-                    int idPais = Integer.parseInt(valores[2].trim());
-
-                    Pais paisAsignado = buscarPaisPorId(paises, idPais);
-                    if (paisAsignado == null) {
-                        throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): No se encontró el país con ID " + idPais);
-                    }
-                    
-                    Circuito c = new Circuito(nombre, longitud, paisAsignado);
-                    circuitos.add(c);
-                    nroLinea++;
-                } catch (NumberFormatException e) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Longitud (debe ser un entero) o ID de país no son números válidos.");
-                }
-            }
-        } catch (IOException e) {
-            throw new LogicaException("Error  al leer el archivo " + path + ": " + e.getMessage());
-        }
-        return circuitos;
+    public static List<Circuito> leerCircuitosDesdeCSV(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        return ESQUEMA_CIRCUITOS.leer(path, indice, modo);
     }
 
     /**
      * Lee el archivo "DatosCarreras.csv".
      * @param path Ruta al archivo.
-     * @param todosLosCircuitos Lista de circuitos para asignar la relación.
+     * @param indice Índice de carga con los circuitos; también registra las carreras leídas.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
      * @return Lista de objetos Carrera.
      * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
      */
-    public static List<Carrera> leerCarrerasDesdeCSV(String path, List<Circuito> todosLosCircuitos) throws LogicaException {
-        List<Carrera> carreras = new ArrayList<>();
-        int nroLinea = 1;
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            br.readLine(); // Saltear encabezado
-            nroLinea++;
-            String linea;
-            while ((linea = br.readLine()) != null) {
-                if (linea.trim().isEmpty()) { nroLinea++; continue; }
-                String[] valores = linea.split(",");
-                if (valores.length < 4) throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Línea incompleta.");
-
-                try {
-                    String fechaRealizacion = valores[0].trim();
-                    int nroVueltas = Integer.parseInt(valores[1].trim());
-                    String horaRealizacion = valores[2].trim();
-                    String nombreCircuito = valores[3].trim();
-
-                    Circuito circuitoAsignado = buscarCircuitoPorNombre(todosLosCircuitos, nombreCircuito);
-                    if (circuitoAsignado == null) {
-                        throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): No se encontró el circuito '" + nombreCircuito + "'.");
-                    }
-
-                    Pais paisAsignado = circuitoAsignado.getPais();
-                    Carrera c = new Carrera(fechaRealizacion, nroVueltas, horaRealizacion, paisAsignado, circuitoAsignado);
-                    carreras.add(c);
-                    nroLinea++;
-                } catch (NumberFormatException e) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Nro de vueltas no es un número.");
-                }
-            }
-        } catch (IOException e) {
-            throw new LogicaException("Error  al leer el archivo " + path + ": " + e.getMessage());
-        }
-        return carreras;
+    public static List<Carrera> leerCarrerasDesdeCSV(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        return ESQUEMA_CARRERAS.leer(path, indice, modo);
     }
 
     /**
      * Lee el archivo "DatosEscuderias.csv".
      * @param path Ruta al archivo.
+     * @param indice Índice de carga donde se registran las escuderías leídas.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
      * @return Lista de objetos Escuderia.
      * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
      */
-    public static List<Escuderia> leerEscuderiasDesdeCSV(String path) throws LogicaException {
-        List<Escuderia> escuderias = new ArrayList<>();
-        int nroLinea = 1;
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String linea;
-            br.readLine(); // Saltear encabezado
-            nroLinea++;
-
-            while ((linea = br.readLine()) != null) {
-                if (linea.trim().isEmpty()) { nroLinea++; continue; }
-                String[] valores = linea.split(",");
-                if (valores.length < 1) throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Línea incompleta.");
-
-                String nombre = valores[0].trim();
-                Escuderia e = new Escuderia(nombre);
-                escuderias.add(e);
-                nroLinea++;
-            }
-        } catch (IOException e) {
-            throw new LogicaException("Error  al leer el archivo " + path + ": " + e.getMessage());
-        }
-        return escuderias;
+    public static List<Escuderia> leerEscuderiasDesdeCSV(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        return ESQUEMA_ESCUDERIAS.leer(path, indice, modo);
     }
 
     /**
      * Lee el archivo "DatosMecanicos.csv".
      * @param path Ruta al archivo.
-     * @param paises Lista de países para asignar la relación.
+     * @param indice Índice de carga con los países; también registra los mecánicos leídos.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
      * @return Lista de objetos Mecanico.
      * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
      */
-    public static List<Mecanico> leerMecanicosDesdeCSV(String path, List<Pais> paises) throws LogicaException {
-        List<Mecanico> mecanicos = new ArrayList<>();
-        int nroLinea = 1;
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String linea;
-            br.readLine(); // Saltear encabezado
-            nroLinea++;
-
-            while ((linea = br.readLine()) != null) {
-                if (linea.trim().isEmpty()) { nroLinea++; continue; }
-                String[] valores = linea.split(",");
-                if (valores.length < 6) throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Línea incompleta.");
-
-                try {
-                    String dni = valores[0].trim();
-                    String nombre = valores[1].trim();
-                    String apellido = valores[2].trim();
-                    int idPais = Integer.parseInt(valores[3].trim());
-                    Especialidad esp = Especialidad.valueOf(valores[4].trim().toUpperCase()); // Convertir a mayúsculas
-                    int aniosExperiencia = Integer.parseInt(valores[5].trim());
-
-                    Pais paisAsignado = buscarPaisPorId(paises, idPais);
-                    if (paisAsignado == null) {
-                        throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): No se encontró el país con ID " + idPais);
-                    }
-                    
-                    Mecanico m = new Mecanico(dni, nombre, apellido, paisAsignado, esp, aniosExperiencia, new ArrayList<>());
-                    mecanicos.add(m);
-                    nroLinea++;
-                } catch (NumberFormatException e) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): ID de país o Años de exp. no son números.");
-                } catch (IllegalArgumentException e) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Especialidad '" + valores[4].trim() + "' no válida.");
-                }
-            }
-        } catch (IOException e) {
-            throw new LogicaException("Error  al leer el archivo " + path + ": " + e.getMessage());
-        }
-        return mecanicos;
+    public static List<Mecanico> leerMecanicosDesdeCSV(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        return ESQUEMA_MECANICOS.leer(path, indice, modo);
     }
 
     /**
      * Lee el archivo "DatosPilotos.csv".
      * @param path Ruta al archivo.
-     * @param paises Lista de países para asignar la relación.
+     * @param indice Índice de carga con los países; también registra los pilotos leídos.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
      * @return Lista de objetos Piloto.
      * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
      */
-    public static List<Piloto> leerPilotosDesdeCSV(String path, List<Pais> paises) throws LogicaException {
-        List<Piloto> pilotos = new ArrayList<>();
-        int nroLinea = 1;
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String linea;
-            br.readLine(); // Saltear encabezado
-            nroLinea++;
-
-            while ((linea = br.readLine()) != null) {
-                if (linea.trim().isEmpty()) { nroLinea++; continue; }
-                String[] valores = linea.split(",");
-                if (valores.length < 9) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): La línea está incompleta.");
-                }
-
-                try {
-                    String dni = valores[0].trim();
-                    String nombre = valores[1].trim();
-                    String apellido = valores[2].trim();
-                    int idPais = Integer.parseInt(valores[3].trim());
-                    int numeroCompetencia = Integer.parseInt(valores[4].trim());
-                    int victorias = Integer.parseInt(valores[5].trim());
-                    int polePosition = Integer.parseInt(valores[6].trim());
-                    int vueltasRapidas = Integer.parseInt(valores[7].trim());
-                    int podios = Integer.parseInt(valores[8].trim());
-
-                    Pais paisAsignado = buscarPaisPorId(paises, idPais);
-                    if (paisAsignado == null) {
-                        throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): No se encontró el país con ID " + idPais);
-                    }
-                    
-                    Piloto p = new Piloto(dni, nombre, apellido, paisAsignado, numeroCompetencia, victorias, polePosition, vueltasRapidas, podios);
-                    pilotos.add(p);
-                    nroLinea++;
-                } catch (NumberFormatException e) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Dato numérico (ID, stats) inválido.");
-                }
-            }
-        } catch (IOException e) {
-            throw new LogicaException("Error  al leer el archivo " + path + ": " + e.getMessage());
-        }
-        return pilotos;
+    public static List<Piloto> leerPilotosDesdeCSV(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        return ESQUEMA_PILOTOS.leer(path, indice, modo);
     }
 
     /**
      * Lee el archivo de unión "DatosMecanicoEscuderia.csv" y vincula las entidades.
      * @param path Ruta al archivo.
-     * @param todosLosMecanicos Lista de todos los mecánicos.
-     * @param todasLasEscuderias Lista de todas las escuderías.
+     * @param indice Índice de carga con los mecánicos y las escuderías.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
      * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
      */
-    public static void vincularMecanicosAEscuderias(String path, List<Mecanico> todosLosMecanicos, List<Escuderia> todasLasEscuderias) throws LogicaException {
-        int nroLinea = 1;
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String linea;
-            br.readLine(); // Saltear encabezado
-            nroLinea++;
-
-            while ((linea = br.readLine()) != null) {
-                if (linea.trim().isEmpty()) { nroLinea++; continue; }
-                String[] valores = linea.split(",");
-                if (valores.length < 2) throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Línea incompleta.");
-
-                String dniMecanico = valores[0].trim();
-                String nombreEscuderia = valores[1].trim();
-
-                Mecanico mecanico = buscarMecanicoPorDNI(todosLosMecanicos, dniMecanico);
-                Escuderia escuderia = buscarEscuderiaPorNombre(todasLasEscuderias, nombreEscuderia);
-
-                if (mecanico == null) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): No se encontró el mecánico con DNI " + dniMecanico);
-                }
-                if (escuderia == null) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): No se encontró la escudería '" + nombreEscuderia + "'.");
-                }
-                
-                mecanico.agregarEscuderia(escuderia);
-                escuderia.agregarMecanico(mecanico);
-                nroLinea++;
-            }
-        } catch (IOException e) {
-            throw new LogicaException("Error  al leer el archivo " + path + ": " + e.getMessage());
+    public static void vincularMecanicosAEscuderias(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        for (Map.Entry<Mecanico, Escuderia> par : leerRelacionMecanicos(path, indice, modo)) {
+            par.getKey().agregarEscuderia(par.getValue());
+            par.getValue().agregarMecanico(par.getKey());
         }
     }
 
+    /**
+     * Lee los pares (mecánico, escudería) de "DatosMecanicoEscuderia.csv" sin vincularlos.
+     * @param path Ruta al archivo.
+     * @param indice Índice de carga con los mecánicos y las escuderías.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
+     * @return Los pares, en el orden del archivo.
+     * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
+     */
+    static List<Map.Entry<Mecanico, Escuderia>> leerRelacionMecanicos(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        return ESQUEMA_MECANICO_ESCUDERIA.leer(path, indice, modo);
+    }
+
     /**
      * Lee el archivo "DatosResultadoCarrera.csv".
      * @param path Ruta al archivo.
-     * @param pilotos Lista de pilotos para asignar la relación.
-     * @param carreras Lista de carreras para asignar la relación.
+     * @param indice Índice de carga con los pilotos y las carreras para asignar la relación.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
      * @return Lista de objetos ResultadoCarrera.
      * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
      */
-    public static List<ResultadoCarrera> leerResultadosDesdeCSV(String path, List<Piloto> pilotos, List<Carrera> carreras)
+    public static List<ResultadoCarrera> leerResultadosDesdeCSV(String path, IndiceCarga indice, ModoLectura modo)
             throws LogicaException {
+        return ESQUEMA_RESULTADOS.leer(path, indice, modo);
+    }
 
-        List<ResultadoCarrera> resultados = new ArrayList<>();
-        int nroLinea = 1;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String linea;
-            br.readLine(); // Saltear encabezado
-            nroLinea++;
+    /**
+     * Lee el archivo de contratos "DatosPilotoEscuderia.csv" y agrega cada contrato
+     * a su piloto y a su escudería.
+     * @param path Ruta al archivo.
+     * @param indice Índice de carga con los pilotos y las escuderías.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
+     * @return Lista de contratos (PilotoEscuderia), en el orden del archivo.
+     * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
+     */
+    public static List<PilotoEscuderia> leerContratosDesdeCSV(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        return ESQUEMA_CONTRATOS.leer(path, indice, modo);
+    }
 
-            while ((linea = br.readLine()) != null) {
-                if (linea.trim().isEmpty()) {
-                    nroLinea++;
-                    continue;
-                }
+    /**
+     * Lee el archivo "DatosAutoPiloto.csv" (qué auto usó cada piloto en cada carrera)
+     * y agrega cada asignación a su carrera, a su piloto y a su auto.
+     * @param path Ruta al archivo.
+     * @param indice Índice de carga con las carreras, los pilotos y los autos.
+     * @param modo Modo de lectura del archivo (buffer o mapeado en memoria).
+     * @return Lista de asignaciones (AutoPiloto), en el orden del archivo.
+     * @throws LogicaException Si el archivo no se encuentra o hay un error de formato.
+     */
+    public static List<AutoPiloto> leerAsignacionesAutosDesdeCSV(String path, IndiceCarga indice, ModoLectura modo) throws LogicaException {
+        return ESQUEMA_ASIGNACIONES_AUTOS.leer(path, indice, modo);
+    }
 
-                String[] valores = linea.split(",");
-                if (valores.length < 3) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): La línea está incompleta.");
-                }
+    /**
+     * Lee el archivo de contratos "DatosPilotoEscuderia.bin" (ver {@link #REGISTROS_CONTRATOS})
+     * y agrega cada contrato a su piloto y a su escudería.
+     * @param path Ruta al archivo.
+     * @param indice Índice de carga con los pilotos y las escuderías.
+     * @return Lista de contratos (PilotoEscuderia), en el orden del archivo.
+     * @throws LogicaException Si el archivo no se puede leer o tiene un registro inválido.
+     */
+    public static List<PilotoEscuderia> leerContratosDesdeBinario(String path, IndiceCarga indice) throws LogicaException {
+        return REGISTROS_CONTRATOS.leer(path, indice);
+    }
 
-                String dniPiloto = valores[0].trim();
-                String fechaCarrera = valores[1].trim();
-                int posicion;
+    /**
+     * Lee el archivo "DatosAutoPiloto.bin" (ver {@link #REGISTROS_ASIGNACIONES_AUTOS})
+     * y agrega cada asignación a su carrera, a su piloto y a su auto.
+     * @param path Ruta al archivo.
+     * @param indice Índice de carga con las carreras, los pilotos y los autos.
+     * @return Lista de asignaciones (AutoPiloto), en el orden del archivo.
+     * @throws LogicaException Si el archivo no se puede leer o tiene un registro inválido.
+     */
+    public static List<AutoPiloto> leerAsignacionesAutosDesdeBinario(String path, IndiceCarga indice) throws LogicaException {
+        return REGISTROS_ASIGNACIONES_AUTOS.leer(path, indice);
+    }
 
+    /**
+     * Devuelve los resultados de "DatosResultadoCarrera.csv" como un Stream que
+     * lee el archivo a medida que se recorre, sin armar la lista completa
+     * (ver {@link SpliteratorResultados}). Sirve para agregar archivos más grandes que
+     * la memoria disponible, incluso con un Stream paralelo.
+     * <p>
+     * Conviene usarlo dentro de un try-with-resources para liberar el archivo
+     * si no se recorre completo. Los errores de datos se lanzan durante el recorrido
+     * como {@link logica.LogicaRuntimeException}.
+     * Si sólo existe el archivo comprimido ({@code .csv.gz}) se lee ese, sin dividirlo
+     * aunque se pida un Stream paralelo (las demás etapas sí corren en paralelo).
+     *
+     * @param path Ruta al archivo.
+     * @param indice Índice de carga con los pilotos y las carreras.
+     * @param paralelo true para obtener un Stream paralelo.
+     * @return El Stream de resultados.
+     * @throws LogicaException Si el archivo no se encuentra.
+     */
+    public static Stream<ResultadoCarrera> streamResultadosDesdeCSV(String path, IndiceCarga indice, boolean paralelo)
+            throws LogicaException {
+        String real = LectorCSV.resolver(path);
+        File archivo = new File(real);
+        if (!archivo.isFile()) {
+            throw new LogicaException("Error al leer el archivo " + path + ": no se encuentra el archivo.");
+        }
+        Queue<LectorCSV> abiertos = new ConcurrentLinkedQueue<>();
+        SpliteratorResultados spliterator = new SpliteratorResultados(real, indice, 0, archivo.length(), abiertos);
+        return StreamSupport.stream(spliterator, paralelo).onClose(() -> {
+            for (LectorCSV lector : abiertos) {
                 try {
-                    posicion = Integer.parseInt(valores[2].trim());
-                } catch (NumberFormatException e) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): La posición '" + valores[2].trim() + "' no es un número.");
+                    lector.close();
+                } catch (IOException e) {
+                    // Sólo se estaba leyendo: no hay nada que perder
                 }
+            }
+        });
+    }
 
-                Piloto pilotoAsignado = buscarPilotoPorDNI(pilotos, dniPiloto);
-                Carrera carreraAsignada = buscarCarreraPorFecha(carreras, fechaCarrera);
+    // --- MÉTODOS DE ESCRITURA (Objetos a CSV) ---
+    // Cada uno arma la línea (sin el salto de línea) con las columnas de su esquema
 
-                if (pilotoAsignado == null) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): No se encontró el piloto con DNI " + dniPiloto);
-                }
-                if (carreraAsignada == null) {
-                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): No se encontró la carrera con fecha " + fechaCarrera);
-                }
-                
-                ResultadoCarrera res = new ResultadoCarrera(pilotoAsignado, posicion, carreraAsignada);
-                resultados.add(res);
-                nroLinea++;
-            }
-        } catch (IOException e) {
-            throw new LogicaException("Error al leer el archivo " + path + ": " + e.getMessage());
+    static String filaPais(Pais p) {
+        return p.getIdPais() + "," + campoCSV(p.getDescripcion());
+    }
+
+    static String filaEscuderia(Escuderia e) {
+        return campoCSV(e.getNombre());
+    }
+
+    static String filaPiloto(Piloto p) {
+        return campoCSV(p.getDni()) + "," + campoCSV(p.getNombre()) + "," + campoCSV(p.getApellido()) + ","
+                + p.getPais().getIdPais() + "," + p.getNumeroCompetencia() + "," + p.getVictorias() + ","
+                + p.getPolePosition() + "," + p.getVueltasRapidas() + "," + p.getPodios();
+    }
+
+    static String filaMecanico(Mecanico m) {
+        return campoCSV(m.getDni()) + "," + campoCSV(m.getNombre()) + "," + campoCSV(m.getApellido()) + ","
+                + m.getPais().getIdPais() + "," + m.getEspecialidad().name() + "," + m.getAniosExperiencia();
+    }
+
+    static String filaCircuito(Circuito c) {
+        return campoCSV(c.getNombre()) + "," + c.getLongitud() + "," + c.getPais().getIdPais();
+    }
+
+    static String filaAuto(Auto a) {
+        return campoCSV(a.getModelo()) + "," + campoCSV(a.getMotor()) + ","
+                + (a.getEscuderia() != null ? campoCSV(a.getEscuderia().getNombre()) : "");
+    }
+
+    static String filaCarrera(Carrera c) {
+        return campoCSV(c.getFechaRealizacion()) + "," + c.getNroVueltas() + "," + campoCSV(c.getHoraRealizacion()) + ","
+                + campoCSV(c.getCircuito().getNombre());
+    }
+
+    static String filaMecanicoEscuderia(Mecanico m, Escuderia e) {
+        return campoCSV(m.getDni()) + "," + campoCSV(e.getNombre());
+    }
+
+    static String filaResultado(ResultadoCarrera r) {
+        return campoCSV(r.getPiloto().getDni()) + "," + campoCSV(r.getCarrera().getFechaRealizacion()) + "," + r.getPosicion();
+    }
+
+    /**
+     * Escribe un campo de texto como lo lee {@link LectorCSV}: entre comillas
+     * si tiene comas o comillas (null se escribe como campo vacío).
+     */
+    static String campoCSV(String valor) {
+        if (valor == null) {
+            return "";
         }
-        return resultados;
+        boolean comillas = valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0;
+        return comillas ? "\"" + valor.replace("\"", "\"\"") + "\"" : valor;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+package archivos;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de valores enteros no negativos (ej. latencias en microsegundos), con
+ * baldes de potencias de 2: el balde {@code i} cuenta los valores entre 2<sup>i-1</sup>
+ * y 2<sup>i</sup>-1 (el 0 cuenta el valor 0). Registrar un valor no bloquea, así se
+ * puede usar desde varios hilos a la vez.
+ */
+public class Histograma {
+    private static final int BALDES = 64;
+
+    private final String unidad;
+    private final AtomicLongArray cuentas;
+    private final LongAdder cantidad;
+    private final LongAdder suma;
+    private final LongAccumulator maximo;
+
+    /**
+     * Constructor de Histograma.
+     * @param unidad Unidad de los valores, para {@link #toString()} (ej. "µs").
+     */
+    public Histograma(String unidad) {
+        this.unidad = unidad;
+        this.cuentas = new AtomicLongArray(BALDES);
+        this.cantidad = new LongAdder();
+        this.suma = new LongAdder();
+        this.maximo = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Registra un valor (los negativos se cuentan como 0).
+     * @param valor El valor.
+     */
+    public void registrar(long valor) {
+        valor = Math.max(0, valor);
+        cuentas.incrementAndGet(balde(valor));
+        cantidad.increment();
+        suma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    private static int balde(long valor) {
+        return Math.min(BALDES - 1, 64 - Long.numberOfLeadingZeros(valor));
+    }
+
+    /** El mayor valor que cuenta el balde. */
+    private static long tope(int balde) {
+        return balde >= 63 ? Long.MAX_VALUE : (1L << balde) - 1;
+    }
+
+    /**
+     * Devuelve cuántos valores se registraron.
+     * @return La cantidad.
+     */
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    /**
+     * Devuelve el promedio de los valores registrados.
+     * @return El promedio (0 si no hay ninguno).
+     */
+    public double getPromedio() {
+        long n = cantidad.sum();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * Devuelve el mayor valor registrado.
+     * @return El máximo (0 si no hay ninguno).
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Devuelve una cota del percentil pedido: el tope del balde donde cae
+     * (a lo sumo el doble del valor real), sin pasar del máximo registrado.
+     * @param percentil Entre 0 y 100 (ej. 99).
+     * @return La cota (0 si no hay valores).
+     */
+    public long getPercentil(double percentil) {
+        long n = cantidad.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(n * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < BALDES; i++) {
+            acumulado += cuentas.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(tope(i), getMaximo());
+            }
+        }
+        return getMaximo();
+    }
+
+    /**
+     * Devuelve un resumen: cantidad, promedio, percentiles 50, 90 y 99, máximo, y los
+     * baldes que tienen valores.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("n=%d promedio=%.1f p50<=%d p90<=%d p99<=%d max=%d %s",
+                getCantidad(), getPromedio(), getPercentil(50), getPercentil(90), getPercentil(99), getMaximo(), unidad));
+        for (int i = 0; i < BALDES; i++) {
+            long c = cuentas.get(i);
+            if (c > 0) {
+                sb.append(String.format("%n  <= %-12d %d", tope(i), c));
+            }
+        }
+        return sb.toString();
+    }
+}
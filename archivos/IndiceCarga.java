@@ -0,0 +1,543 @@
+package archivos;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import clases.Auto;
+import clases.Carrera;
+import clases.Circuito;
+import clases.Escuderia;
+import clases.Mecanico;
+import clases.Pais;
+import clases.Piloto;
+import logica.LogicaException;
+
+/**
+ * Índices en memoria (tablas hash) usados para resolver las referencias
+ * entre archivos CSV en tiempo constante durante la carga.
+ * <p>
+ * Cada lector de {@link GestorArchivos} registra aquí las entidades que crea,
+ * y los lectores que dependen de ellas (ej. resultados que referencian pilotos
+ * y carreras) las buscan por clave en O(1) en lugar de recorrer las listas.
+ * Una vez terminada la carga, el índice queda en {@link SistemaGestion} para
+ * ser reutilizado.
+ * <p>
+ * Las claves son:
+ * <ul>
+ * <li>Países: por ID.</li>
+ * <li>Circuitos y escuderías: por nombre normalizado (sin espacios extremos y en minúsculas).</li>
+ * <li>Pilotos y mecánicos: por DNI (sin espacios extremos).</li>
+ * <li>Carreras: por fecha de realización (sin espacios extremos).</li>
+ * <li>Autos: por modelo normalizado.</li>
+ * </ul>
+ * Si hay claves repetidas se conserva la primera entidad registrada, igual que
+ * hacía la búsqueda lineal original.
+ * <p>
+ * Además guarda las claves únicas que controla {@link logica.LogicaRegistro} antes
+ * de registrar una entidad (ver los métodos {@code existe*}), así esos controles no
+ * recorren las listas:
+ * <ul>
+ * <li>Pilotos: también por nombre y apellido normalizados.</li>
+ * <li>Países: también por descripción normalizada.</li>
+ * <li>Carreras: por fecha y nombre normalizado del circuito.</li>
+ * </ul>
+ * Como {@link SistemaGestion} registra aquí cada entidad que agrega, los índices
+ * siempre corresponden a sus listas.
+ * Los mapas son concurrentes para que los lectores de una misma etapa de
+ * {@link CargadorParalelo} puedan registrar y buscar a la vez.
+ */
+public class IndiceCarga {
+    private final Map<Integer, Pais> paisesPorId;
+    private final Map<String, Circuito> circuitosPorNombre;
+    private final Map<String, Escuderia> escuderiasPorNombre;
+    private final Map<String, Mecanico> mecanicosPorDni;
+    private final Map<String, Piloto> pilotosPorDni;
+    private final Map<String, Carrera> carrerasPorFecha;
+    private final Map<String, Auto> autosPorModelo;
+    private final Map<String, Piloto> pilotosPorNombre;
+    private final Map<String, Pais> paisesPorDescripcion;
+    private final Map<String, Carrera> carrerasPorFechaYCircuito;
+    private final Map<Object, Integer> idsRegistros; // Número de registro de cada fila de un RegistrosFijos
+    private final PoolCadenas poolCadenas; // Cadenas repetidas de esta carga
+    private final ReferenciasCompartidas referencias; // null si la carga no es parte de un catálogo
+
+    /**
+     * Constructor de IndiceCarga.
+     * Inicializa todos los índices vacíos, con un pool de cadenas nuevo.
+     */
+    public IndiceCarga() {
+        this(new PoolCadenas(), null);
+    }
+
+    /**
+     * Crea un índice vacío cuyos países y circuitos se comparten con otras
+     * cargas (las temporadas de un {@link CatalogoTemporadas}).
+     * @param referencias Las entidades compartidas, o null para no compartir.
+     */
+    IndiceCarga(ReferenciasCompartidas referencias) {
+        this(new PoolCadenas(), referencias);
+    }
+
+    private IndiceCarga(PoolCadenas poolCadenas, ReferenciasCompartidas referencias) {
+        this.paisesPorId = new ConcurrentHashMap<>();
+        this.circuitosPorNombre = new ConcurrentHashMap<>();
+        this.escuderiasPorNombre = new ConcurrentHashMap<>();
+        this.mecanicosPorDni = new ConcurrentHashMap<>();
+        this.pilotosPorDni = new ConcurrentHashMap<>();
+        this.carrerasPorFecha = new ConcurrentHashMap<>();
+        this.autosPorModelo = new ConcurrentHashMap<>();
+        this.pilotosPorNombre = new ConcurrentHashMap<>();
+        this.paisesPorDescripcion = new ConcurrentHashMap<>();
+        this.carrerasPorFechaYCircuito = new ConcurrentHashMap<>();
+        this.idsRegistros = Collections.synchronizedMap(new IdentityHashMap<>());
+        this.poolCadenas = poolCadenas;
+        this.referencias = referencias;
+    }
+
+    /**
+     * Devuelve el pool de cadenas de esta carga, que usan los lectores de
+     * {@link GestorArchivos} para no repetir valores iguales en memoria.
+     * @return El pool de cadenas.
+     */
+    public PoolCadenas getPoolCadenas() {
+        return poolCadenas;
+    }
+
+    /**
+     * Devuelve una copia de este índice: registrar en la copia no modifica el original.
+     * La usa {@link RecargaIncremental} para leer archivos nuevos sin tocar el índice en uso.
+     * @return Un índice nuevo con las mismas entradas.
+     */
+    IndiceCarga copiar() {
+        IndiceCarga copia = new IndiceCarga(poolCadenas, referencias); // Las recargas comparten el pool
+        copia.paisesPorId.putAll(paisesPorId);
+        copia.circuitosPorNombre.putAll(circuitosPorNombre);
+        copia.escuderiasPorNombre.putAll(escuderiasPorNombre);
+        copia.mecanicosPorDni.putAll(mecanicosPorDni);
+        copia.pilotosPorDni.putAll(pilotosPorDni);
+        copia.carrerasPorFecha.putAll(carrerasPorFecha);
+        copia.autosPorModelo.putAll(autosPorModelo);
+        copia.pilotosPorNombre.putAll(pilotosPorNombre);
+        copia.paisesPorDescripcion.putAll(paisesPorDescripcion);
+        copia.carrerasPorFechaYCircuito.putAll(carrerasPorFechaYCircuito);
+        return copia;
+    }
+
+    /**
+     * Normaliza un nombre para usarlo como clave (trim + minúsculas).
+     * Las minúsculas no dependen del idioma del sistema (ej. en turco "I" no pasa a "ı").
+     * @param nombre El nombre original.
+     * @return El nombre normalizado.
+     */
+    public static String normalizar(String nombre) {
+        return nombre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Devuelve la clave única de una persona: nombre y apellido normalizados
+     * (el separador no aparece en los nombres).
+     * @param nombre El nombre.
+     * @param apellido El apellido.
+     * @return La clave.
+     */
+    public static String clavePersona(String nombre, String apellido) {
+        return normalizar(nombre == null ? "" : nombre) + '\0' + normalizar(apellido == null ? "" : apellido);
+    }
+
+    /**
+     * Devuelve la clave única de una carrera: fecha y nombre normalizado del circuito.
+     * @param fecha La fecha de realización.
+     * @param circuito El circuito.
+     * @return La clave.
+     */
+    public static String claveCarrera(String fecha, Circuito circuito) {
+        return claveCarrera(fecha, circuito.getNombre());
+    }
+
+    private static String claveCarrera(String fecha, String nombreCircuito) {
+        return fecha.trim() + '\0' + normalizar(nombreCircuito);
+    }
+
+    /**
+     * Devuelve la instancia de un país recién leído que hay que registrar: la
+     * compartida con otras temporadas si la hay, o el mismo país.
+     * @param pais El país leído.
+     * @return El país a usar.
+     */
+    Pais compartir(Pais pais) {
+        return referencias == null ? pais : referencias.compartir(pais);
+    }
+
+    /**
+     * Devuelve la instancia de un circuito recién leído que hay que registrar: el
+     * compartido con otras temporadas si lo hay, o el mismo circuito.
+     * @param circuito El circuito leído (con su país ya resuelto en este índice).
+     * @return El circuito a usar.
+     */
+    Circuito compartir(Circuito circuito) {
+        return referencias == null ? circuito : referencias.compartir(circuito);
+    }
+
+    /**
+     * Indica si un país es compartido con otras temporadas (y no se debe modificar).
+     * @param pais El país.
+     * @return true si es compartido.
+     */
+    boolean esCompartido(Pais pais) {
+        return referencias != null && referencias.esCompartido(pais);
+    }
+
+    /**
+     * Indica si un circuito es compartido con otras temporadas (y no se debe modificar).
+     * @param circuito El circuito.
+     * @return true si es compartido.
+     */
+    boolean esCompartido(Circuito circuito) {
+        return referencias != null && referencias.esCompartido(circuito);
+    }
+
+    /**
+     * Reemplaza en el índice un país compartido por la copia propia de esta temporada.
+     * @param compartido El país compartido.
+     * @param copia La copia con los datos de esta temporada (mismo ID).
+     */
+    void reemplazarPais(Pais compartido, Pais copia) {
+        paisesPorId.replace(copia.getIdPais(), compartido, copia);
+    }
+
+    /**
+     * Reemplaza en el índice un circuito compartido por la copia propia de esta temporada.
+     * @param compartido El circuito compartido.
+     * @param copia La copia con los datos de esta temporada (mismo nombre).
+     */
+    void reemplazarCircuito(Circuito compartido, Circuito copia) {
+        circuitosPorNombre.replace(normalizar(copia.getNombre()), compartido, copia);
+    }
+
+    // --- REGISTRO ---
+
+    /**
+     * Registra un país en el índice por su ID y por su descripción.
+     * @param pais El Pais a registrar.
+     */
+    public void registrarPais(Pais pais) {
+        paisesPorId.putIfAbsent(pais.getIdPais(), pais);
+        if (pais.getDescripcion() != null) {
+            paisesPorDescripcion.putIfAbsent(normalizar(pais.getDescripcion()), pais);
+        }
+    }
+
+    /**
+     * Registra un circuito en el índice por su nombre normalizado.
+     * @param circuito El Circuito a registrar.
+     */
+    public void registrarCircuito(Circuito circuito) {
+        circuitosPorNombre.putIfAbsent(normalizar(circuito.getNombre()), circuito);
+    }
+
+    /**
+     * Registra una escudería en el índice por su nombre normalizado.
+     * @param escuderia La Escuderia a registrar.
+     */
+    public void registrarEscuderia(Escuderia escuderia) {
+        escuderiasPorNombre.putIfAbsent(normalizar(escuderia.getNombre()), escuderia);
+    }
+
+    /**
+     * Registra un mecánico en el índice por su DNI.
+     * @param mecanico El Mecanico a registrar.
+     */
+    public void registrarMecanico(Mecanico mecanico) {
+        mecanicosPorDni.putIfAbsent(mecanico.getDni().trim(), mecanico);
+    }
+
+    /**
+     * Registra un piloto en el índice por su DNI y por su nombre completo.
+     * @param piloto El Piloto a registrar.
+     */
+    public void registrarPiloto(Piloto piloto) {
+        pilotosPorDni.putIfAbsent(piloto.getDni().trim(), piloto);
+        pilotosPorNombre.putIfAbsent(clavePersona(piloto.getNombre(), piloto.getApellido()), piloto);
+    }
+
+    /**
+     * Registra una carrera en el índice por su fecha de realización, y por fecha y circuito.
+     * @param carrera La Carrera a registrar.
+     */
+    public void registrarCarrera(Carrera carrera) {
+        carrerasPorFecha.putIfAbsent(carrera.getFechaRealizacion().trim(), carrera);
+        if (carrera.getCircuito() != null) {
+            carrerasPorFechaYCircuito.putIfAbsent(claveCarrera(carrera.getFechaRealizacion(), carrera.getCircuito()), carrera);
+        }
+    }
+
+    /**
+     * Registra un auto en el índice por su modelo normalizado.
+     * @param auto El Auto a registrar.
+     */
+    public void registrarAuto(Auto auto) {
+        autosPorModelo.putIfAbsent(normalizar(auto.getModelo()), auto);
+    }
+
+    /**
+     * Vuelve a armar las claves de los países que no son su ID (la recarga incremental
+     * puede cambiar la descripción de un país en uso).
+     * @param paises Los países en uso, en orden.
+     */
+    void reindexarPaises(List<Pais> paises) {
+        paisesPorDescripcion.clear();
+        for (Pais p : paises) {
+            if (p.getDescripcion() != null) {
+                paisesPorDescripcion.putIfAbsent(normalizar(p.getDescripcion()), p);
+            }
+        }
+    }
+
+    /**
+     * Vuelve a armar el índice de pilotos por nombre (la recarga incremental puede
+     * cambiar el nombre de un piloto en uso).
+     * @param pilotos Los pilotos en uso, en orden.
+     */
+    void reindexarPilotos(List<Piloto> pilotos) {
+        pilotosPorNombre.clear();
+        for (Piloto p : pilotos) {
+            pilotosPorNombre.putIfAbsent(clavePersona(p.getNombre(), p.getApellido()), p);
+        }
+    }
+
+    /**
+     * Vuelve a armar el índice de carreras por fecha y circuito (la recarga
+     * incremental puede cambiar el circuito de una carrera en uso).
+     * @param carreras Las carreras en uso, en orden.
+     */
+    void reindexarCarreras(List<Carrera> carreras) {
+        carrerasPorFechaYCircuito.clear();
+        for (Carrera c : carreras) {
+            if (c.getCircuito() != null) {
+                carrerasPorFechaYCircuito.putIfAbsent(claveCarrera(c.getFechaRealizacion(), c.getCircuito()), c);
+            }
+        }
+    }
+
+    /**
+     * Anota en qué registro de su archivo de ancho fijo está una fila (un contrato o
+     * un auto asignado), para poder reescribir sólo ese registro (ver {@link RegistrosFijos}).
+     * @param fila La fila (se compara por identidad).
+     * @param id Número de registro.
+     */
+    void registrarIdRegistro(Object fila, int id) {
+        idsRegistros.put(fila, id);
+    }
+
+    /**
+     * Devuelve el número de registro de una fila anotado con {@link #registrarIdRegistro}.
+     * @param fila La fila.
+     * @return El número, o null si no se conoce (ej. los datos vienen del snapshot).
+     */
+    Integer idRegistro(Object fila) {
+        return idsRegistros.get(fila);
+    }
+
+    // --- BÚSQUEDAS (O(1)) ---
+
+    /**
+     * Busca un País por su ID.
+     *
+     * @param idPais ID a encontrar.
+     * @return El objeto Pais.
+     * @throws LogicaException Si el ID del país no se encuentra en el índice.
+     */
+    public Pais buscarPais(int idPais) throws LogicaException {
+        Pais p = paisesPorId.get(idPais);
+        if (p == null) {
+            throw new LogicaException("Error de integridad de datos: El ID de país '" + idPais + "' referenciado en un CSV no existe en DatosPais.csv");
+        }
+        return p;
+    }
+
+    /**
+     * Busca un Circuito por su nombre (ignorando mayúsculas/minúsculas).
+     *
+     * @param nombre Nombre a encontrar.
+     * @return El objeto Circuito.
+     * @throws LogicaException Si el nombre del circuito no se encuentra.
+     */
+    public Circuito buscarCircuito(String nombre) throws LogicaException {
+        Circuito c = circuitosPorNombre.get(normalizar(nombre));
+        if (c == null) {
+            throw new LogicaException("Error de integridad de datos: El circuito con nombre '" + nombre + "' referenciado en DatosCarrera.csv no existe en DatosCircuito.csv");
+        }
+        return c;
+    }
+
+    /**
+     * Busca una Escudería por su nombre (ignorando mayúsculas/minúsculas).
+     *
+     * @param nombre Nombre a encontrar.
+     * @return El objeto Escuderia.
+     * @throws LogicaException Si el nombre de la escudería no se encuentra.
+     */
+    public Escuderia buscarEscuderia(String nombre) throws LogicaException {
+        Escuderia e = escuderiasPorNombre.get(normalizar(nombre));
+        if (e == null) {
+            throw new LogicaException("Error de integridad de datos: La escudería con nombre '" + nombre + "' referenciada en un CSV no existe en DatosEscuderia.csv");
+        }
+        return e;
+    }
+
+    /**
+     * Busca un Mecánico por su DNI.
+     *
+     * @param dni DNI a encontrar.
+     * @return El objeto Mecanico.
+     * @throws LogicaException Si el DNI del mecánico no se encuentra.
+     */
+    public Mecanico buscarMecanico(String dni) throws LogicaException {
+        Mecanico m = mecanicosPorDni.get(dni.trim());
+        if (m == null) {
+            throw new LogicaException("Error de integridad de datos: El mecánico con DNI '" + dni + "' referenciado en DatosMecanicoEscuderia.csv no existe en DatosMecanico.csv");
+        }
+        return m;
+    }
+
+    /**
+     * Busca un Piloto por su DNI.
+     *
+     * @param dni DNI a encontrar.
+     * @return El objeto Piloto.
+     * @throws LogicaException Si el DNI del piloto no se encuentra.
+     */
+    public Piloto buscarPiloto(String dni) throws LogicaException {
+        Piloto p = pilotosPorDni.get(dni.trim());
+        if (p == null) {
+            throw new LogicaException("Error de integridad de datos: El piloto con DNI '" + dni + "' referenciado en DatosResultadoCarrera.csv no existe en DatosPiloto.csv");
+        }
+        return p;
+    }
+
+    /**
+     * Busca una Carrera por su fecha.
+     *
+     * @param fecha Fecha a buscar.
+     * @return La Carrera encontrada.
+     * @throws LogicaException Si no se encuentra una carrera con esa fecha.
+     */
+    public Carrera buscarCarrera(String fecha) throws LogicaException {
+        Carrera c = carrerasPorFecha.get(fecha.trim());
+        if (c == null) {
+            throw new LogicaException("Error de integridad de datos: No se encontró la carrera con fecha '" + fecha + "' referenciada en el CSV.");
+        }
+        return c;
+    }
+
+    /**
+     * Busca una Carrera por su fecha y su circuito (puede haber varias carreras en
+     * la misma fecha, en distintos circuitos).
+     *
+     * @param fecha Fecha de realización.
+     * @param nombreCircuito Nombre del circuito (ignorando mayúsculas/minúsculas).
+     * @return La Carrera encontrada.
+     * @throws LogicaException Si no hay una carrera en ese circuito en esa fecha.
+     */
+    public Carrera buscarCarrera(String fecha, String nombreCircuito) throws LogicaException {
+        Carrera c = carrerasPorFechaYCircuito.get(claveCarrera(fecha, nombreCircuito));
+        if (c == null) {
+            throw new LogicaException("Error de integridad de datos: No se encontró la carrera del '" + fecha + "' en el circuito '" + nombreCircuito + "'.");
+        }
+        return c;
+    }
+
+    /**
+     * Busca un Auto por su modelo (ignorando mayúsculas/minúsculas).
+     *
+     * @param modelo Modelo a encontrar.
+     * @return El objeto Auto.
+     * @throws LogicaException Si el modelo del auto no se encuentra.
+     */
+    public Auto buscarAuto(String modelo) throws LogicaException {
+        Auto a = autosPorModelo.get(normalizar(modelo));
+        if (a == null) {
+            throw new LogicaException("Error de integridad de datos: El auto con modelo '" + modelo + "' referenciado en un CSV no existe en DatosAuto.csv");
+        }
+        return a;
+    }
+
+    // --- RESTRICCIONES DE UNICIDAD (O(1)) ---
+
+    /**
+     * Indica si hay un piloto con un DNI.
+     * @param dni El DNI.
+     * @return true si ya está registrado.
+     */
+    public boolean existePiloto(String dni) {
+        return pilotosPorDni.containsKey(dni.trim());
+    }
+
+    /**
+     * Indica si hay un piloto con un nombre y apellido (ignorando mayúsculas/minúsculas).
+     * @param nombre El nombre.
+     * @param apellido El apellido.
+     * @return true si ya está registrado.
+     */
+    public boolean existePilotoConNombre(String nombre, String apellido) {
+        return pilotosPorNombre.containsKey(clavePersona(nombre, apellido));
+    }
+
+    /**
+     * Indica si hay un mecánico con un DNI.
+     * @param dni El DNI.
+     * @return true si ya está registrado.
+     */
+    public boolean existeMecanico(String dni) {
+        return mecanicosPorDni.containsKey(dni.trim());
+    }
+
+    /**
+     * Indica si hay una escudería con un nombre (ignorando mayúsculas/minúsculas).
+     * @param nombre El nombre.
+     * @return true si ya está registrada.
+     */
+    public boolean existeEscuderia(String nombre) {
+        return escuderiasPorNombre.containsKey(normalizar(nombre));
+    }
+
+    /**
+     * Indica si hay un circuito con un nombre (ignorando mayúsculas/minúsculas).
+     * @param nombre El nombre.
+     * @return true si ya está registrado.
+     */
+    public boolean existeCircuito(String nombre) {
+        return circuitosPorNombre.containsKey(normalizar(nombre));
+    }
+
+    /**
+     * Indica si hay un país con un ID.
+     * @param idPais El ID.
+     * @return true si ya está registrado.
+     */
+    public boolean existePais(int idPais) {
+        return paisesPorId.containsKey(idPais);
+    }
+
+    /**
+     * Indica si hay un país con una descripción (ignorando mayúsculas/minúsculas).
+     * @param descripcion La descripción.
+     * @return true si ya está registrado.
+     */
+    public boolean existePaisConDescripcion(String descripcion) {
+        return paisesPorDescripcion.containsKey(normalizar(descripcion));
+    }
+
+    /**
+     * Indica si hay una carrera en un circuito en una fecha.
+     * @param fecha La fecha de realización.
+     * @param circuito El circuito.
+     * @return true si ya está registrada.
+     */
+    public boolean existeCarrera(String fecha, Circuito circuito) {
+        return carrerasPorFechaYCircuito.containsKey(claveCarrera(fecha, circuito));
+    }
+}
@@ -0,0 +1,32 @@
+package archivos;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Plantilla de los invocadores de {@link EsquemaCSV}: no se usa directamente.
+ * <p>
+ * Cada esquema define con sus bytes una clase oculta propia
+ * ({@link MethodHandles.Lookup#defineHiddenClassWithClassData}) cuyo dato de clase es
+ * el binder del esquema. Así cada esquema tiene su binder en una constante
+ * {@code static final} y su propio sitio {@code invokeExact}, que la JVM puede
+ * compilar en línea con todo el árbol de MethodHandles del archivo. Con un solo
+ * sitio compartido por todos los esquemas, el binder no es constante y no se compila en línea.
+ */
+final class InvocadorEsquema implements EsquemaCSV.Invocador {
+    private static final MethodHandle BINDER;
+
+    static {
+        try {
+            BINDER = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public Object crear(LectorCSV lector, IndiceCarga indice) throws Throwable {
+        return (Object) BINDER.invokeExact(lector, indice);
+    }
+}
@@ -0,0 +1,300 @@
+package archivos;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Lector (tokenizador) de archivos CSV tipo cursor, independiente de cómo se accede al archivo.
+ * <p>
+ * Los métodos leer* de {@link GestorArchivos} usan esta clase para recorrer los
+ * archivos, de modo que el mismo código sirve para todos los {@link ModoLectura}:
+ * <ul>
+ * <li>{@link LectorCSVBuffer}: lee el archivo a un buffer de caracteres reutilizable.</li>
+ * <li>{@link LectorCSVMapeado}: trabaja directamente sobre los bytes del archivo
+ * mapeado en memoria.</li>
+ * </ul>
+ * Las subclases sólo ubican cada línea dentro de su buffer; el separado en campos,
+ * el recorte de espacios y la conversión a entero se hacen aquí, anotando posiciones
+ * dentro del buffer en lugar de crear un arreglo y un String por cada campo
+ * (como hacían {@code split(",")} y {@code trim()}). Sólo se crea un String cuando
+ * se pide un campo de texto con {@link #campo(int)}.
+ * <p>
+ * Si en lugar del CSV existe el mismo archivo comprimido ({@code .csv.gz}),
+ * {@link #abrir} lo descomprime al vuelo en otro hilo (ver {@link EntradaGzipAsincrona}).
+ * <p>
+ * Soporta campos entre comillas dobles que contienen comas (ej. {@code "Red Bull, Racing"}),
+ * con {@code ""} para representar una comilla dentro del campo. Un campo entre
+ * comillas no puede contener saltos de línea.
+ */
+public abstract class LectorCSV implements Closeable {
+    /** Extensión de los archivos comprimidos que se leen en forma transparente. */
+    public static final String EXTENSION_GZIP = ".gz";
+
+    // Línea actual (posiciones dentro del buffer de la subclase)
+    protected int inicioLinea;
+    protected int finLinea;
+
+    // Campos de la línea actual: contenido recortado, sin las comillas
+    private int[] inicios = new int[16];
+    private int[] fines = new int[16];
+    private boolean[] crudoVacio = new boolean[16];   // Campo sin comillas y sin ningún carácter
+    private boolean[] comillasEscapadas = new boolean[16]; // Campo con "" dentro de las comillas
+    private int cantCampos;
+
+    /**
+     * Abre un archivo CSV con el modo de lectura indicado.
+     *
+     * @param path Ruta al archivo.
+     * @param modo El modo de lectura.
+     * @return El lector, posicionado antes de la primera línea.
+     * @throws IOException Si el archivo no se puede abrir.
+     */
+    public static LectorCSV abrir(String path, ModoLectura modo) throws IOException {
+        String real = resolver(path);
+        if (estaComprimido(real)) {
+            // Un archivo comprimido no se puede mapear: siempre se lee como flujo
+            return new LectorCSVBuffer(new InputStreamReader(new EntradaGzipAsincrona(real), Charset.defaultCharset()));
+        }
+        if (modo == ModoLectura.MAPEADO) {
+            return new LectorCSVMapeado(real);
+        }
+        return new LectorCSVBuffer(real);
+    }
+
+    /**
+     * Devuelve la ruta real de un archivo de datos: la misma si existe, o la del
+     * archivo comprimido ({@code path + ".gz"}) si sólo existe ese.
+     * Así los archivos de temporadas archivadas se pueden dejar comprimidos.
+     *
+     * @param path Ruta del CSV (ej. "datos/DatosResultadoCarrera.csv").
+     * @return La ruta a abrir (la original si no existe ninguno de los dos).
+     */
+    public static String resolver(String path) {
+        if (!new File(path).exists() && new File(path + EXTENSION_GZIP).isFile()) {
+            return path + EXTENSION_GZIP;
+        }
+        return path;
+    }
+
+    /**
+     * Indica si una ruta corresponde a un archivo comprimido con gzip.
+     * @param path La ruta (ya resuelta con {@link #resolver}).
+     * @return true si termina en {@value #EXTENSION_GZIP}.
+     */
+    public static boolean estaComprimido(String path) {
+        return path.endsWith(EXTENSION_GZIP);
+    }
+
+    // --- A IMPLEMENTAR POR CADA MODO ---
+
+    /**
+     * Ubica la siguiente línea en el buffer y deja sus límites en
+     * {@link #inicioLinea} y {@link #finLinea} (sin el salto de línea).
+     * Los saltos \n, \r y \r\n terminan la línea, igual que en BufferedReader.
+     *
+     * @return false si ya no hay más líneas.
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    protected abstract boolean cargarLinea() throws IOException;
+
+    /**
+     * Devuelve el carácter (o byte sin signo) en una posición del buffer.
+     * @param posicion La posición dentro del buffer.
+     * @return El código del carácter.
+     */
+    protected abstract int caracter(int posicion);
+
+    /**
+     * Crea el String de un rango del buffer.
+     * @param desde Posición inicial (inclusive).
+     * @param hasta Posición final (exclusive).
+     * @return El texto del rango.
+     */
+    protected abstract String texto(int desde, int hasta);
+
+    // --- CURSOR ---
+
+    /**
+     * Avanza a la siguiente línea del archivo y la separa en campos.
+     * @return false si ya no hay más líneas.
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    public boolean siguienteLinea() throws IOException {
+        if (!cargarLinea()) {
+            return false;
+        }
+        separarCampos();
+        return true;
+    }
+
+    /**
+     * Indica si la línea actual está vacía (o sólo tiene espacios).
+     * @return true si la línea está en blanco.
+     */
+    public boolean lineaVacia() {
+        for (int i = inicioLinea; i < finLinea; i++) {
+            if (caracter(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cantidad de campos de la línea actual. Igual que el {@code split(",")} que se
+     * usaba antes, no cuenta los campos vacíos (sin comillas) del final de la línea.
+     * @return La cantidad de campos.
+     */
+    public int cantidadCampos() {
+        return cantCampos;
+    }
+
+    /**
+     * Devuelve un campo de la línea actual como texto, sin espacios al principio
+     * ni al final y sin las comillas que lo rodean.
+     * @param indice Posición del campo (desde 0).
+     * @return El texto del campo.
+     */
+    public String campo(int indice) {
+        verificarIndice(indice);
+        String valor = texto(inicios[indice], fines[indice]);
+        if (comillasEscapadas[indice]) {
+            valor = valor.replace("\"\"", "\"");
+        }
+        return valor;
+    }
+
+    /**
+     * Convierte un campo de la línea actual a entero leyendo directamente los
+     * caracteres del buffer (equivalente a {@code Integer.parseInt(campo.trim())},
+     * pero sin crear Strings intermedios).
+     *
+     * @param indice Posición del campo (desde 0).
+     * @return El valor entero.
+     * @throws NumberFormatException Si el campo no es un entero válido.
+     */
+    public int entero(int indice) {
+        verificarIndice(indice);
+        int i = inicios[indice];
+        int fin = fines[indice];
+        if (i >= fin) {
+            throw new NumberFormatException("For input string: \"\"");
+        }
+        boolean negativo = false;
+        int c = caracter(i);
+        if (c == '-' || c == '+') {
+            negativo = c == '-';
+            i++;
+            if (i == fin) {
+                throw errorNumero(indice);
+            }
+        }
+        // Se acumula en negativo para poder representar Integer.MIN_VALUE
+        int limite = negativo ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int multMin = limite / 10;
+        int resultado = 0;
+        while (i < fin) {
+            int digito = caracter(i++) - '0';
+            if (digito < 0 || digito > 9 || resultado < multMin) {
+                throw errorNumero(indice);
+            }
+            resultado *= 10;
+            if (resultado < limite + digito) {
+                throw errorNumero(indice);
+            }
+            resultado -= digito;
+        }
+        return negativo ? resultado : -resultado;
+    }
+
+    // --- TOKENIZADOR ---
+
+    /**
+     * Recorre la línea actual una sola vez anotando dónde empieza y termina cada campo.
+     */
+    private void separarCampos() {
+        cantCampos = 0;
+        int i = inicioLinea;
+        int fin = finLinea;
+        while (true) {
+            int j = i;
+            while (j < fin && caracter(j) <= ' ') {
+                j++;
+            }
+            int k;
+            if (j < fin && caracter(j) == '"') {
+                // Campo entre comillas: puede contener comas
+                int contenido = j + 1;
+                boolean escapadas = false;
+                k = contenido;
+                while (k < fin) {
+                    if (caracter(k) == '"') {
+                        if (k + 1 < fin && caracter(k + 1) == '"') {
+                            escapadas = true;
+                            k += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    k++;
+                }
+                int finContenido = k;
+                while (k < fin && caracter(k) != ',') {
+                    k++; // Se ignora lo que haya entre la comilla de cierre y la coma
+                }
+                agregarCampo(contenido, finContenido, false, escapadas);
+            } else {
+                k = i;
+                while (k < fin && caracter(k) != ',') {
+                    k++;
+                }
+                int a = j;
+                int b = k;
+                while (b > a && caracter(b - 1) <= ' ') {
+                    b--;
+                }
+                agregarCampo(a, b, k == i, false);
+            }
+            if (k >= fin) {
+                break;
+            }
+            i = k + 1;
+        }
+        // Como split(","), se descartan los campos vacíos del final (si hubo alguna coma)
+        if (cantCampos > 1) {
+            while (cantCampos > 0 && crudoVacio[cantCampos - 1]) {
+                cantCampos--;
+            }
+        }
+    }
+
+    private void agregarCampo(int inicio, int fin, boolean vacio, boolean escapadas) {
+        if (cantCampos == inicios.length) {
+            int nuevo = inicios.length * 2;
+            inicios = Arrays.copyOf(inicios, nuevo);
+            fines = Arrays.copyOf(fines, nuevo);
+            crudoVacio = Arrays.copyOf(crudoVacio, nuevo);
+            comillasEscapadas = Arrays.copyOf(comillasEscapadas, nuevo);
+        }
+        inicios[cantCampos] = inicio;
+        fines[cantCampos] = fin;
+        crudoVacio[cantCampos] = vacio;
+        comillasEscapadas[cantCampos] = escapadas;
+        cantCampos++;
+    }
+
+    private void verificarIndice(int indice) {
+        if (indice < 0 || indice >= cantCampos) {
+            throw new ArrayIndexOutOfBoundsException(indice);
+        }
+    }
+
+    private NumberFormatException errorNumero(int indice) {
+        // Sólo en el caso de error se crea el String para el mensaje
+        return new NumberFormatException("For input string: \"" + campo(indice) + "\"");
+    }
+}
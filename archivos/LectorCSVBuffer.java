@@ -0,0 +1,111 @@
+package archivos;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lector CSV tradicional: lee el archivo con un {@link FileReader} hacia un buffer
+ * de caracteres que se reutiliza para todas las líneas (no se crea un String por línea).
+ */
+public class LectorCSVBuffer extends LectorCSV {
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private final Reader reader;
+    private char[] buffer = new char[TAMANIO_BUFFER];
+    private int limite;       // Cantidad de caracteres válidos en el buffer
+    private int posicion;     // Inicio de la próxima línea
+    private boolean finArchivo;
+
+    /**
+     * Abre el archivo para lectura.
+     * @param path Ruta al archivo.
+     * @throws IOException Si el archivo no se encuentra.
+     */
+    public LectorCSVBuffer(String path) throws IOException {
+        this.reader = new FileReader(path);
+    }
+
+    /**
+     * Lee de un Reader ya abierto (ej. un archivo comprimido que se descomprime al vuelo).
+     * @param reader El Reader; se cierra junto con el lector.
+     */
+    LectorCSVBuffer(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    protected boolean cargarLinea() throws IOException {
+        int desde = posicion; // Hasta dónde ya se buscó el fin de línea
+        while (true) {
+            for (int i = desde; i < limite; i++) {
+                char c = buffer[i];
+                if (c == '\n' || c == '\r') {
+                    if (c == '\r' && i + 1 == limite && !finArchivo) {
+                        break; // Hay que leer más para saber si sigue un \n
+                    }
+                    inicioLinea = posicion;
+                    finLinea = i;
+                    int siguiente = i + 1;
+                    if (c == '\r' && siguiente < limite && buffer[siguiente] == '\n') {
+                        siguiente++;
+                    }
+                    posicion = siguiente;
+                    return true;
+                }
+                desde = i + 1;
+            }
+            if (finArchivo) {
+                if (posicion < limite) {
+                    // Última línea sin salto de línea final
+                    inicioLinea = posicion;
+                    finLinea = limite;
+                    posicion = limite;
+                    return true;
+                }
+                return false;
+            }
+            desde -= posicion;
+            rellenar();
+        }
+    }
+
+    /**
+     * Mueve la línea incompleta al principio del buffer (agrandándolo si hace falta)
+     * y lee más caracteres del archivo a continuación.
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    private void rellenar() throws IOException {
+        int pendiente = limite - posicion;
+        if (pendiente == buffer.length) {
+            char[] nuevo = new char[buffer.length * 2];
+            System.arraycopy(buffer, posicion, nuevo, 0, pendiente);
+            buffer = nuevo;
+        } else if (posicion > 0) {
+            System.arraycopy(buffer, posicion, buffer, 0, pendiente);
+        }
+        posicion = 0;
+        limite = pendiente;
+        int leidos = reader.read(buffer, limite, buffer.length - limite);
+        if (leidos < 0) {
+            finArchivo = true;
+        } else {
+            limite += leidos;
+        }
+    }
+
+    @Override
+    protected int caracter(int posicion) {
+        return buffer[posicion];
+    }
+
+    @Override
+    protected String texto(int desde, int hasta) {
+        return new String(buffer, desde, hasta - desde);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,199 @@
+package archivos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lector CSV que trabaja sobre el archivo mapeado en memoria con {@link FileChannel#map}.
+ * <p>
+ * Pensado para los archivos muy grandes (resultados, participaciones): en lugar de
+ * decodificar cada línea a un String, busca los fines de línea directamente sobre los
+ * bytes del archivo (el separado en campos lo hace {@link LectorCSV}) y sólo decodifica
+ * un String cuando se pide un campo con {@link #campo(int)}.
+ * <p>
+ * El archivo se mapea por ventanas de {@value #TAMANIO_VENTANA} bytes; si una línea
+ * queda cortada al final de una ventana, se vuelve a mapear desde el inicio de esa línea.
+ * Los separadores (coma, comillas, \n, \r) se buscan byte a byte, lo cual es válido para cualquier
+ * codificación compatible con ASCII (como UTF-8).
+ * <p>
+ * También puede leer sólo un rango de bytes del archivo (ver {@link ValidadorDatos},
+ * que valida un archivo grande en partes en paralelo).
+ */
+public class LectorCSVMapeado extends LectorCSV {
+    private static final long TAMANIO_VENTANA = 64L * 1024 * 1024;
+
+    private final FileChannel canal;
+    private final long tamanioArchivo; // Fin del rango a leer (el tamaño del archivo si se lee completo)
+    private final Charset charset;
+
+    private MappedByteBuffer ventana;
+    private long inicioVentana; // Posición en el archivo del byte 0 de la ventana
+    private long posicion;      // Posición en el archivo de la próxima línea a leer
+
+    private byte[] bytesCampo = new byte[128]; // Se reutiliza para decodificar cada campo
+
+    /**
+     * Abre y mapea el archivo para lectura.
+     * @param path Ruta al archivo.
+     * @throws IOException Si el archivo no se encuentra o no se puede mapear.
+     */
+    public LectorCSVMapeado(String path) throws IOException {
+        this.canal = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        this.tamanioArchivo = canal.size();
+        this.charset = Charset.defaultCharset(); // El mismo que usa FileReader
+        this.posicion = 0;
+    }
+
+    /**
+     * Abre el archivo para leer sólo un rango de bytes.
+     * El rango debe empezar al principio de una línea; la última línea del rango
+     * termina en {@code hasta} aunque no tenga salto de línea.
+     *
+     * @param path Ruta al archivo.
+     * @param desde Posición inicial (inclusive).
+     * @param hasta Posición final (exclusive).
+     * @throws IOException Si el archivo no se encuentra o no se puede mapear.
+     */
+    public LectorCSVMapeado(String path, long desde, long hasta) throws IOException {
+        this.canal = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        this.tamanioArchivo = Math.min(hasta, canal.size());
+        this.charset = Charset.defaultCharset();
+        this.posicion = desde;
+    }
+
+    @Override
+    protected boolean cargarLinea() throws IOException {
+        if (posicion >= tamanioArchivo) {
+            return false;
+        }
+        if (ventana == null || posicion >= inicioVentana + ventana.limit()) {
+            mapear(posicion, TAMANIO_VENTANA);
+        }
+        while (!buscarFinDeLinea()) {
+            // La línea no entra en la ventana actual: se mapea de nuevo desde su inicio
+            long disponible = inicioVentana + ventana.limit() - posicion;
+            mapear(posicion, Math.max(TAMANIO_VENTANA, 2 * disponible));
+        }
+        return true;
+    }
+
+    /**
+     * Mapea una ventana del archivo.
+     * @param desde Posición inicial en el archivo.
+     * @param tamanio Tamaño deseado (se recorta al final del archivo).
+     * @throws IOException Si no se puede mapear.
+     */
+    private void mapear(long desde, long tamanio) throws IOException {
+        long real = Math.min(Math.min(tamanio, tamanioArchivo - desde), Integer.MAX_VALUE);
+        ventana = canal.map(FileChannel.MapMode.READ_ONLY, desde, real);
+        inicioVentana = desde;
+    }
+
+    /**
+     * Busca el fin de la línea que empieza en {@code posicion}.
+     * @return false si la línea queda cortada por el final de la ventana.
+     */
+    private boolean buscarFinDeLinea() {
+        int limite = ventana.limit();
+        boolean finArchivo = inicioVentana + limite == tamanioArchivo;
+        int i = (int) (posicion - inicioVentana);
+        inicioLinea = i;
+
+        while (i < limite) {
+            byte b = ventana.get(i);
+            if (b == '\n' || b == '\r') {
+                int siguiente = i + 1;
+                if (b == '\r') {
+                    if (siguiente == limite && !finArchivo) {
+                        return false; // Hay que ver el próximo byte para saber si sigue un \n
+                    }
+                    if (siguiente < limite && ventana.get(siguiente) == '\n') {
+                        siguiente++;
+                    }
+                }
+                finLinea = i;
+                posicion = inicioVentana + siguiente;
+                return true;
+            }
+            i++;
+        }
+        if (!finArchivo) {
+            return false;
+        }
+        // Última línea sin salto de línea final
+        finLinea = limite;
+        posicion = tamanioArchivo;
+        return true;
+    }
+
+    /**
+     * Devuelve la posición en el archivo (en bytes) donde empieza la línea actual.
+     * @return La posición de la línea actual.
+     */
+    public long posicionLinea() {
+        return inicioVentana + inicioLinea;
+    }
+
+    /**
+     * Busca el primer salto de línea (\n, \r o \r\n) desde una posición y
+     * devuelve la posición siguiente a él (o el tamaño si no hay más saltos).
+     * Sirve para cortar un archivo en rangos que empiecen al principio de una línea.
+     *
+     * @param canal Canal abierto sobre el archivo.
+     * @param desde Posición desde donde buscar.
+     * @param tamanio Tamaño del archivo.
+     * @return La posición del inicio de la línea siguiente.
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    static long inicioDeLineaSiguiente(FileChannel canal, long desde, long tamanio) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long posicion = desde;
+        boolean despuesDeCR = false;
+        while (posicion < tamanio) {
+            buffer.clear();
+            int leidos = canal.read(buffer, posicion);
+            if (leidos <= 0) {
+                break;
+            }
+            for (int i = 0; i < leidos; i++) {
+                byte b = buffer.get(i);
+                if (despuesDeCR) {
+                    return b == '\n' ? posicion + i + 1 : posicion + i;
+                }
+                if (b == '\n') {
+                    return posicion + i + 1;
+                }
+                if (b == '\r') {
+                    despuesDeCR = true;
+                }
+            }
+            posicion += leidos;
+        }
+        return tamanio;
+    }
+
+    @Override
+    protected int caracter(int posicion) {
+        return ventana.get(posicion) & 0xFF;
+    }
+
+    @Override
+    protected String texto(int desde, int hasta) {
+        int largo = hasta - desde;
+        if (largo > bytesCampo.length) {
+            bytesCampo = new byte[Math.max(largo, bytesCampo.length * 2)];
+        }
+        ventana.get(desde, bytesCampo, 0, largo);
+        return new String(bytesCampo, 0, largo, charset);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
@@ -0,0 +1,11 @@
+package archivos;
+
+/**
+ * Enumeración que define cómo se lee un archivo CSV.
+ */
+public enum ModoLectura {
+    /** Lectura con un FileReader hacia un buffer de caracteres reutilizado ({@link LectorCSVBuffer}, modo por defecto). */
+    BUFFER,
+    /** Lectura sobre el archivo mapeado en memoria (FileChannel.map), para archivos muy grandes. */
+    MAPEADO
+}
@@ -0,0 +1,17 @@
+package archivos;
+
+/**
+ * Enumeración que define dónde se guardan los resultados de carreras mientras se
+ * usan (ver {@link AlmacenResultados} y {@link SistemaGestion#setMotorResultados}).
+ * En todos los casos el archivo de datos sigue siendo DatosResultadoCarrera.csv.
+ */
+public enum MotorAlmacenamiento {
+    /** Todos los resultados en una lista en memoria (modo por defecto). */
+    MEMORIA,
+    /** Sólo la posición de cada fila del CSV en memoria; las filas se leen del archivo al pedirlas. */
+    CSV,
+    /** Un archivo de páginas de tamaño fijo con índices B+ por DNI y por fecha, leído a través de un pool de páginas. */
+    PAGINAS,
+    /** Todos los resultados en memoria fuera del heap, como registros empaquetados en buffers directos. */
+    DIRECTO
+}
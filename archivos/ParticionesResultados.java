@@ -0,0 +1,341 @@
+package archivos;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import clases.ResultadoCarrera;
+import logica.LogicaException;
+import logica.LogicaRuntimeException;
+import logica.Utilidades;
+
+/**
+ * Resultados de carreras guardados en una partición (archivo CSV) por temporada,
+ * más un manifiesto chico con el rango de fechas de cada una.
+ * <p>
+ * Estructura del directorio:
+ * <ul>
+ * <li>{@code resultados-<anio>.csv}: mismo formato que DatosResultadoCarrera.csv
+ * (dni, fecha, posición), con los resultados de las carreras de ese año.</li>
+ * <li>{@value #MANIFIESTO}: una línea por partición con
+ * {@code anio, archivo, fechaMin, fechaMax, filas} (fechas en formato "yyyy-MM-dd").</li>
+ * </ul>
+ * Una consulta por rango de fechas sólo abre las particiones cuyo rango
+ * [fechaMin, fechaMax] se superpone con el pedido (poda de particiones).
+ * El manifiesto se escribe al final, así que una partición a medio escribir
+ * nunca queda referenciada.
+ */
+public class ParticionesResultados {
+    /** Nombre del archivo de manifiesto dentro del directorio de particiones. */
+    public static final String MANIFIESTO = "manifiesto.csv";
+    private static final String ENCABEZADO_PARTICION = "dni_piloto, fecha_carrera, posicion";
+    private static final String ENCABEZADO_MANIFIESTO = "anio, archivo, fechaMin, fechaMax, filas";
+
+    /**
+     * Una partición (temporada) y su entrada del manifiesto.
+     */
+    public static class Particion {
+        private final int anio;
+        private final String path;
+        private final String fechaMin;
+        private final String fechaMax;
+        private final long filas;
+
+        /**
+         * Constructor de Particion.
+         * @param anio Año de la temporada.
+         * @param path Ruta del archivo de la partición.
+         * @param fechaMin Fecha de la primera carrera ("yyyy-MM-dd").
+         * @param fechaMax Fecha de la última carrera ("yyyy-MM-dd").
+         * @param filas Cantidad de resultados.
+         */
+        public Particion(int anio, String path, String fechaMin, String fechaMax, long filas) {
+            this.anio = anio;
+            this.path = path;
+            this.fechaMin = fechaMin;
+            this.fechaMax = fechaMax;
+            this.filas = filas;
+        }
+
+        /**
+         * Obtiene el año de la temporada.
+         * @return El año.
+         */
+        public int getAnio() {
+            return anio;
+        }
+
+        /**
+         * Obtiene la ruta del archivo de la partición.
+         * @return La ruta.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Obtiene la fecha de la primera carrera de la partición.
+         * @return La fecha en formato "yyyy-MM-dd".
+         */
+        public String getFechaMin() {
+            return fechaMin;
+        }
+
+        /**
+         * Obtiene la fecha de la última carrera de la partición.
+         * @return La fecha en formato "yyyy-MM-dd".
+         */
+        public String getFechaMax() {
+            return fechaMax;
+        }
+
+        /**
+         * Obtiene la cantidad de resultados de la partición.
+         * @return La cantidad de filas.
+         */
+        public long getFilas() {
+            return filas;
+        }
+
+        /**
+         * Indica si el rango de fechas de la partición se superpone con otro.
+         * @param desde Inicio del rango ("yyyy-MM-dd", inclusive).
+         * @param hasta Fin del rango ("yyyy-MM-dd", inclusive).
+         * @return true si hay que revisar esta partición.
+         */
+        public boolean seSuperponeCon(String desde, String hasta) {
+            return fechaMax.compareTo(desde) >= 0 && fechaMin.compareTo(hasta) <= 0;
+        }
+    }
+
+    private final String directorio;
+    private final List<Particion> particiones;
+
+    private ParticionesResultados(String directorio, List<Particion> particiones) {
+        this.directorio = directorio;
+        this.particiones = Collections.unmodifiableList(particiones);
+    }
+
+    /**
+     * Indica si el directorio tiene un manifiesto más nuevo que el archivo de origen
+     * (o si no hay archivo de origen y el manifiesto existe).
+     *
+     * @param directorio Directorio de las particiones.
+     * @param pathOrigen Ruta del DatosResultadoCarrera.csv del que se generaron.
+     * @return true si las particiones se pueden usar tal como están.
+     */
+    public static boolean estaActualizado(String directorio, String pathOrigen) {
+        File manifiesto = new File(directorio, MANIFIESTO);
+        File origen = new File(LectorCSV.resolver(pathOrigen));
+        return manifiesto.isFile() && (!origen.exists() || manifiesto.lastModified() >= origen.lastModified());
+    }
+
+    /**
+     * Lee el manifiesto de un directorio de particiones.
+     *
+     * @param directorio Directorio de las particiones.
+     * @return Las particiones, ordenadas por año.
+     * @throws LogicaException Si el manifiesto no existe o tiene un formato inválido.
+     */
+    public static ParticionesResultados abrir(String directorio) throws LogicaException {
+        String path = new File(directorio, MANIFIESTO).getPath();
+        List<Particion> particiones = new ArrayList<>();
+        int nroLinea = 1;
+        try (LectorCSV lector = LectorCSV.abrir(path, ModoLectura.BUFFER)) {
+            lector.siguienteLinea(); // Saltear encabezado
+            nroLinea++;
+            while (lector.siguienteLinea()) {
+                if (lector.lineaVacia()) { nroLinea++; continue; }
+                if (lector.cantidadCampos() < 5) throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Línea incompleta.");
+                try {
+                    particiones.add(new Particion(lector.entero(0), new File(directorio, lector.campo(1)).getPath(),
+                            lector.campo(2), lector.campo(3), Long.parseLong(lector.campo(4))));
+                } catch (NumberFormatException e) {
+                    throw new LogicaException("Error en " + path + " (Línea " + nroLinea + "): Año o cantidad de filas no son números.");
+                }
+                nroLinea++;
+            }
+        } catch (IOException e) {
+            throw new LogicaException("Error al leer el archivo " + path + ": " + e.getMessage());
+        }
+        return new ParticionesResultados(directorio, particiones);
+    }
+
+    /**
+     * Reparte los resultados de un archivo único en una partición por temporada
+     * y escribe el manifiesto. Las particiones anteriores se reemplazan.
+     * Las líneas se copian sin resolver pilotos ni carreras (eso se controla al leerlas).
+     *
+     * @param pathOrigen Ruta de DatosResultadoCarrera.csv.
+     * @param directorio Directorio donde se escriben las particiones.
+     * @param modo Modo de lectura del archivo de origen.
+     * @return Las particiones generadas.
+     * @throws LogicaException Si hay un error de lectura/escritura o una fecha inválida.
+     */
+    public static ParticionesResultados particionar(String pathOrigen, String directorio, ModoLectura modo) throws LogicaException {
+        File dir = new File(directorio);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new LogicaException("No se pudo crear el directorio " + directorio);
+        }
+        Map<Integer, Writer> escritores = new TreeMap<>();
+        Map<Integer, String[]> rangos = new TreeMap<>(); // anio -> {fechaMin, fechaMax}
+        Map<Integer, Long> filas = new TreeMap<>();
+        int nroLinea = 1;
+        try {
+            try (LectorCSV lector = LectorCSV.abrir(pathOrigen, modo)) {
+                lector.siguienteLinea(); // Saltear encabezado
+                nroLinea++;
+                while (lector.siguienteLinea()) {
+                    if (lector.lineaVacia()) { nroLinea++; continue; }
+                    if (lector.cantidadCampos() < 3) {
+                        throw new LogicaException("Error en " + pathOrigen + " (Línea " + nroLinea + "): La línea está incompleta.");
+                    }
+                    String fecha = lector.campo(1);
+                    String fechaIso = Utilidades.formatearFecha(fecha);
+                    int anio;
+                    try {
+                        anio = Integer.parseInt(fechaIso.substring(0, 4));
+                    } catch (RuntimeException e) {
+                        throw new LogicaException("Error en " + pathOrigen + " (Línea " + nroLinea + "): La fecha '" + fecha + "' no es válida.");
+                    }
+
+                    Writer w = escritores.get(anio);
+                    if (w == null) {
+                        w = new BufferedWriter(new FileWriter(temporal(directorio, anio)), 1 << 16);
+                        w.write(ENCABEZADO_PARTICION);
+                        w.write('\n');
+                        escritores.put(anio, w);
+                        rangos.put(anio, new String[] { fechaIso, fechaIso });
+                        filas.put(anio, 0L);
+                    }
+                    w.write(lector.campo(0));
+                    w.write(", ");
+                    w.write(fecha);
+                    w.write(", ");
+                    w.write(lector.campo(2));
+                    w.write('\n');
+
+                    String[] rango = rangos.get(anio);
+                    if (fechaIso.compareTo(rango[0]) < 0) rango[0] = fechaIso;
+                    if (fechaIso.compareTo(rango[1]) > 0) rango[1] = fechaIso;
+                    filas.put(anio, filas.get(anio) + 1);
+                    nroLinea++;
+                }
+            } finally {
+                for (Writer w : escritores.values()) {
+                    w.close();
+                }
+            }
+
+            // Las particiones completas reemplazan a las anteriores
+            List<Particion> particiones = new ArrayList<>();
+            for (Integer anio : escritores.keySet()) {
+                File destino = new File(directorio, nombreParticion(anio));
+                Files.move(temporal(directorio, anio).toPath(), destino.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                String[] rango = rangos.get(anio);
+                particiones.add(new Particion(anio, destino.getPath(), rango[0], rango[1], filas.get(anio)));
+            }
+            List<Particion> anteriores = new File(directorio, MANIFIESTO).isFile() ? abrir(directorio).particiones : new ArrayList<>();
+            escribirManifiesto(directorio, particiones);
+
+            // Borrar las particiones de temporadas que ya no tienen resultados
+            for (Particion p : anteriores) {
+                if (!escritores.containsKey(p.getAnio())) {
+                    new File(p.getPath()).delete();
+                }
+            }
+            return new ParticionesResultados(directorio, particiones);
+        } catch (IOException e) {
+            for (Integer anio : escritores.keySet()) {
+                temporal(directorio, anio).delete();
+            }
+            throw new LogicaException("Error al particionar el archivo " + pathOrigen + ": " + e.getMessage());
+        }
+    }
+
+    private static void escribirManifiesto(String directorio, List<Particion> particiones) throws IOException {
+        File manifiesto = new File(directorio, MANIFIESTO);
+        File temporal = new File(directorio, MANIFIESTO + ".tmp");
+        try (Writer w = new BufferedWriter(new FileWriter(temporal))) {
+            w.write(ENCABEZADO_MANIFIESTO);
+            w.write('\n');
+            for (Particion p : particiones) {
+                w.write(p.getAnio() + ", " + new File(p.getPath()).getName() + ", " + p.getFechaMin() + ", "
+                        + p.getFechaMax() + ", " + p.getFilas() + "\n");
+            }
+        }
+        Files.move(temporal.toPath(), manifiesto.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String nombreParticion(int anio) {
+        return "resultados-" + anio + ".csv";
+    }
+
+    private static File temporal(String directorio, int anio) {
+        return new File(directorio, nombreParticion(anio) + ".tmp");
+    }
+
+    // --- CONSULTAS ---
+
+    /**
+     * Devuelve el directorio de las particiones.
+     * @return La ruta del directorio.
+     */
+    public String getDirectorio() {
+        return directorio;
+    }
+
+    /**
+     * Devuelve todas las particiones, ordenadas por año.
+     * @return Lista (no modificable) de particiones.
+     */
+    public List<Particion> getParticiones() {
+        return particiones;
+    }
+
+    /**
+     * Devuelve sólo las particiones cuyo rango de fechas se superpone con el pedido.
+     *
+     * @param desde Inicio del rango ("yyyy-MM-dd", inclusive).
+     * @param hasta Fin del rango ("yyyy-MM-dd", inclusive).
+     * @return Las particiones a revisar, ordenadas por año.
+     */
+    public List<Particion> particionesEntre(String desde, String hasta) {
+        List<Particion> resultado = new ArrayList<>();
+        for (Particion p : particiones) {
+            if (p.seSuperponeCon(desde, hasta)) {
+                resultado.add(p);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Recorre como Stream los resultados de las particiones indicadas, una tras otra.
+     * Los errores de datos se lanzan durante el recorrido como {@link LogicaRuntimeException}.
+     *
+     * @param seleccion Particiones a recorrer (ej. las de {@link #particionesEntre}).
+     * @param indice Índice de carga con los pilotos y las carreras.
+     * @param paralelo true para obtener un Stream paralelo.
+     * @return El Stream de resultados.
+     */
+    public static Stream<ResultadoCarrera> stream(List<Particion> seleccion, IndiceCarga indice, boolean paralelo) {
+        Stream<Particion> partes = paralelo ? seleccion.parallelStream() : seleccion.stream();
+        return partes.flatMap(p -> {
+            try {
+                return GestorArchivos.streamResultadosDesdeCSV(p.getPath(), indice, paralelo);
+            } catch (LogicaException e) {
+                throw new LogicaRuntimeException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package archivos;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de cadenas canónicas para una carga de datos: cada valor repetido
+ * (ej. la hora "5:00" de muchas carreras, el motor de varios autos, nombres
+ * de pila) queda en memoria una sola vez en lugar de una copia por fila.
+ * <p>
+ * Está respaldado por un {@link ConcurrentHashMap}: la consulta de un valor que
+ * ya está en el pool no toma ningún lock, así los lectores de {@link CargadorParalelo}
+ * lo comparten sin esperarse. Vive lo mismo que el {@link IndiceCarga} de la carga.
+ * <p>
+ * Lleva la cuenta del tamaño retenido aproximado (objeto String más su arreglo
+ * de bytes) de todas las cadenas que pasaron por el pool y de las que quedaron,
+ * para medir el ahorro.
+ */
+public class PoolCadenas {
+    private final ConcurrentHashMap<String, String> cadenas;
+    private final LongAdder consultas;
+    private final LongAdder bytesAntes;
+    private final LongAdder bytesDespues;
+
+    /**
+     * Constructor de PoolCadenas. Crea un pool vacío.
+     */
+    public PoolCadenas() {
+        this.cadenas = new ConcurrentHashMap<>();
+        this.consultas = new LongAdder();
+        this.bytesAntes = new LongAdder();
+        this.bytesDespues = new LongAdder();
+    }
+
+    /**
+     * Devuelve la instancia canónica de una cadena: la primera igual que se pasó
+     * al pool, o la misma cadena si es la primera vez.
+     *
+     * @param cadena La cadena leída (puede ser null).
+     * @return La cadena canónica (null si la cadena es null).
+     */
+    public String canonica(String cadena) {
+        if (cadena == null) {
+            return null;
+        }
+        long tamanio = tamanioRetenido(cadena);
+        consultas.increment();
+        bytesAntes.add(tamanio);
+        String canonica = cadenas.get(cadena); // Camino común: ya está, sin locks
+        if (canonica != null) {
+            return canonica;
+        }
+        canonica = cadenas.putIfAbsent(cadena, cadena);
+        if (canonica != null) {
+            return canonica; // Otro hilo la agregó primero
+        }
+        bytesDespues.add(tamanio);
+        return cadena;
+    }
+
+    /**
+     * Tamaño aproximado en el heap de una cadena Latin-1 con punteros comprimidos:
+     * 24 bytes del String más el arreglo (16 de cabecera + 1 por carácter), alineado a 8.
+     */
+    private static long tamanioRetenido(String cadena) {
+        return 24 + ((16 + cadena.length() + 7) & ~7L);
+    }
+
+    /**
+     * Devuelve cuántas cadenas pasaron por el pool.
+     * @return La cantidad de consultas.
+     */
+    public long getConsultas() {
+        return consultas.sum();
+    }
+
+    /**
+     * Devuelve cuántas cadenas distintas tiene el pool.
+     * @return La cantidad de cadenas canónicas.
+     */
+    public int getCadenasDistintas() {
+        return cadenas.size();
+    }
+
+    /**
+     * Tamaño retenido aproximado que tendrían las cadenas sin el pool (una copia por fila).
+     * @return Bytes.
+     */
+    public long getBytesAntes() {
+        return bytesAntes.sum();
+    }
+
+    /**
+     * Tamaño retenido aproximado de las cadenas con el pool (una copia por valor).
+     * @return Bytes.
+     */
+    public long getBytesDespues() {
+        return bytesDespues.sum();
+    }
+
+    /**
+     * Resumen de las métricas del pool.
+     */
+    @Override
+    public String toString() {
+        long antes = getBytesAntes();
+        long despues = getBytesDespues();
+        return String.format("Cadenas: %d leídas, %d distintas; %d bytes -> %d bytes (ahorro %d bytes)",
+                getConsultas(), getCadenasDistintas(), antes, despues, antes - despues);
+    }
+}
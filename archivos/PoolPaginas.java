@@ -0,0 +1,157 @@
+package archivos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Pool de páginas en memoria de uno o varios {@link ArchivoPaginas}: guarda hasta
+ * cierta cantidad de páginas y, cuando se llena, desaloja la usada hace más tiempo
+ * (LRU), escribiéndola antes si se modificó.
+ * <p>
+ * Las páginas que devuelve son del pool: sólo se pueden usar hasta el próximo pedido
+ * de otra página que no esté en el pool. Como una operación usa a lo sumo
+ * {@value #MINIMO_PAGINAS} páginas a la vez, las que está usando nunca son las que se desalojan.
+ */
+class PoolPaginas {
+    /** Cantidad mínima de páginas del pool. */
+    static final int MINIMO_PAGINAS = 8;
+
+    /**
+     * Una página en el pool.
+     */
+    static final class Pagina {
+        final ArchivoPaginas archivo;
+        final int numero;
+        final ByteBuffer datos;
+        boolean modificada;
+
+        private Pagina(ArchivoPaginas archivo, int numero, ByteBuffer datos) {
+            this.archivo = archivo;
+            this.numero = numero;
+            this.datos = datos;
+        }
+    }
+
+    private final int capacidad;
+    private final LinkedHashMap<Long, Pagina> paginas; // En orden de uso: la primera es la usada hace más tiempo
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+
+    /**
+     * Constructor de PoolPaginas.
+     * @param capacidad Cantidad máxima de páginas en memoria (al menos {@value #MINIMO_PAGINAS}).
+     */
+    PoolPaginas(int capacidad) {
+        this.capacidad = Math.max(MINIMO_PAGINAS, capacidad);
+        this.paginas = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private static long clave(ArchivoPaginas archivo, int numero) {
+        return ((long) archivo.getId() << 32) | (numero & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Devuelve una página, leyéndola del archivo si no está en el pool.
+     * @param archivo El archivo.
+     * @param numero Número de página.
+     * @return La página.
+     * @throws IOException Si hay que leerla (o desalojar otra) y ocurre un error.
+     */
+    synchronized Pagina obtener(ArchivoPaginas archivo, int numero) throws IOException {
+        Pagina pagina = paginas.get(clave(archivo, numero));
+        if (pagina != null) {
+            aciertos++;
+            return pagina;
+        }
+        fallos++;
+        pagina = new Pagina(archivo, numero, ByteBuffer.allocate(ArchivoPaginas.TAMANIO_PAGINA));
+        archivo.leer(numero, pagina.datos);
+        poner(pagina);
+        return pagina;
+    }
+
+    /**
+     * Agrega una página vacía al final del archivo (se escribe al desalojarla o con
+     * {@link #escribirModificadas}).
+     * @param archivo El archivo.
+     * @return La página nueva, ya marcada como modificada.
+     * @throws IOException Si hay que desalojar otra y ocurre un error.
+     */
+    synchronized Pagina nueva(ArchivoPaginas archivo) throws IOException {
+        Pagina pagina = new Pagina(archivo, archivo.reservarPagina(), ByteBuffer.allocate(ArchivoPaginas.TAMANIO_PAGINA));
+        pagina.modificada = true;
+        poner(pagina);
+        return pagina;
+    }
+
+    private void poner(Pagina pagina) throws IOException {
+        if (paginas.size() >= capacidad) {
+            Iterator<Pagina> it = paginas.values().iterator();
+            Pagina vieja = it.next();
+            if (vieja.modificada) {
+                vieja.archivo.escribir(vieja.numero, vieja.datos);
+            }
+            it.remove();
+            desalojos++;
+        }
+        paginas.put(clave(pagina.archivo, pagina.numero), pagina);
+    }
+
+    /**
+     * Escribe las páginas modificadas de un archivo, en orden (sin forzarlas a disco).
+     * @param archivo El archivo.
+     * @throws IOException Si ocurre un error de escritura.
+     */
+    synchronized void escribirModificadas(ArchivoPaginas archivo) throws IOException {
+        List<Pagina> modificadas = new ArrayList<>();
+        for (Pagina p : paginas.values()) {
+            if (p.archivo == archivo && p.modificada) {
+                modificadas.add(p);
+            }
+        }
+        modificadas.sort((a, b) -> Integer.compare(a.numero, b.numero));
+        for (Pagina p : modificadas) {
+            p.archivo.escribir(p.numero, p.datos);
+            p.modificada = false;
+        }
+    }
+
+    /**
+     * Saca del pool las páginas de un archivo sin escribirlas (ej. al cerrarlo o vaciarlo).
+     * @param archivo El archivo.
+     */
+    synchronized void descartar(ArchivoPaginas archivo) {
+        paginas.values().removeIf(p -> p.archivo == archivo);
+    }
+
+    /**
+     * Devuelve cuántas veces se pidió una página que ya estaba en el pool.
+     * @return La cantidad de aciertos.
+     */
+    synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * Devuelve cuántas veces hubo que leer una página del archivo.
+     * @return La cantidad de fallos.
+     */
+    synchronized long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * Devuelve un resumen: capacidad, páginas en uso, aciertos, fallos y desalojos.
+     */
+    @Override
+    public synchronized String toString() {
+        long pedidos = aciertos + fallos;
+        return String.format("Pool de páginas: %d/%d páginas, %d aciertos (%.1f%%), %d fallos, %d desalojos",
+                paginas.size(), capacidad, aciertos, pedidos == 0 ? 0.0 : 100.0 * aciertos / pedidos, fallos, desalojos);
+    }
+}
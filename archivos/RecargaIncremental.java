@@ -0,0 +1,343 @@
+package archivos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import clases.Auto;
+import clases.Carrera;
+import clases.Circuito;
+import clases.Escuderia;
+import clases.Mecanico;
+import clases.Pais;
+import clases.Piloto;
+import clases.ResultadoCarrera;
+
+/**
+ * Recarga de algunos archivos de datos sobre un {@link SistemaGestion} ya cargado,
+ * en dos pasos:
+ * <ol>
+ * <li>{@link SistemaGestion#prepararRecarga}: lee sólo los archivos que cambiaron,
+ * con una copia del índice en uso, así las filas nuevas se resuelven contra las
+ * entidades vivas sin modificarlas. Es la parte lenta y se hace fuera de la GUI.</li>
+ * <li>{@link SistemaGestion#publicarRecarga}: fusiona lo leído por clave
+ * (ID de país, nombre de escudería/circuito, DNI, modelo de auto, fecha de carrera).
+ * Las entidades existentes conservan su identidad y se les copian los datos que
+ * cambiaron, así las relaciones que las apuntan siguen valiendo; sólo se vuelven
+ * a vincular las relaciones afectadas (país de la carrera si cambió el del circuito,
+ * escudería de un auto). Las listas con filas nuevas se reemplazan por copias
+ * (copy-on-write): quien estaba recorriendo la lista anterior no ve cambios a medias.</li>
+ * </ol>
+ * Los países y circuitos compartidos con otras temporadas ({@link ReferenciasCompartidas})
+ * no se modifican: si cambiaron, la temporada recargada pasa a usar la entidad leída,
+ * que es su propia copia, y se le cambian las referencias ({@link #revincularReemplazos}).
+ * Las otras temporadas siguen usando la compartida.
+ * La fusión sólo agrega y actualiza: una fila que desaparece de un archivo no se
+ * borra (para eso hay que volver a cargar todo con {@link SistemaGestion#cargarDesdeCSV()}).
+ * Si un archivo repite una clave, vale la primera fila, como en el índice.
+ */
+class RecargaIncremental {
+    private final IndiceCarga base;
+    private final Set<String> archivos;
+    private int filasNuevas;
+    private int filasActualizadas;
+    private final Map<Object, Object> reemplazos = new IdentityHashMap<>(); // Compartida -> copia propia
+
+    // Lo leído de cada archivo que cambió (null si no cambió o no hace falta leerlo)
+    List<Pais> paises;
+    List<Escuderia> escuderias;
+    List<Piloto> pilotos;
+    List<Mecanico> mecanicos;
+    List<Circuito> circuitos;
+    List<Auto> autos;
+    List<Carrera> carreras;
+    List<Map.Entry<Mecanico, Escuderia>> relacionMecanicos;
+    List<ResultadoCarrera> resultados;
+
+    /**
+     * Constructor de RecargaIncremental.
+     * @param base Índice en uso cuando se prepara la recarga.
+     * @param archivos Rutas de los archivos que cambiaron.
+     */
+    RecargaIncremental(IndiceCarga base, Set<String> archivos) {
+        this.base = base;
+        this.archivos = Collections.unmodifiableSet(archivos);
+    }
+
+    /**
+     * Devuelve el índice sobre el que se preparó la recarga. Si al publicar el sistema
+     * ya tiene otro (hubo una carga completa en el medio), la recarga se descarta.
+     */
+    IndiceCarga getBase() {
+        return base;
+    }
+
+    /**
+     * Devuelve las rutas de los archivos recargados.
+     * @return Conjunto (no modificable) de rutas.
+     */
+    Set<String> getArchivos() {
+        return archivos;
+    }
+
+    // --- FUSIÓN (se llama al publicar) ---
+
+    /**
+     * Fusiona por clave las filas leídas con la lista en uso.
+     *
+     * @param vivos La lista en uso.
+     * @param leidos Lo leído del archivo.
+     * @param clave Clave de cada entidad.
+     * @param actualizar Copia en la entidad viva los datos leídos, o la reemplaza (ver
+     * {@link #actualizarPais}); devuelve true si algo cambió.
+     * @param registrar Registra una entidad nueva (índice, relaciones).
+     * @return La lista en uso si no hubo filas nuevas ni reemplazos, o una copia con los
+     * reemplazos en su lugar y las filas nuevas al final.
+     */
+    <T> List<T> fusionar(List<T> vivos, List<T> leidos, Function<T, Object> clave, BiPredicate<T, T> actualizar,
+            Consumer<T> registrar) {
+        Map<Object, T> vivosPorClave = new HashMap<>();
+        for (T vivo : vivos) {
+            vivosPorClave.putIfAbsent(clave.apply(vivo), vivo);
+        }
+        List<T> nuevos = new ArrayList<>();
+        boolean reemplazados = false;
+        Set<Object> vistas = new HashSet<>();
+        for (T leido : leidos) {
+            Object k = clave.apply(leido);
+            if (!vistas.add(k)) {
+                continue; // Clave repetida en el archivo: vale la primera
+            }
+            T vivo = vivosPorClave.get(k);
+            if (vivo == null) {
+                nuevos.add(leido);
+            } else if (actualizar.test(vivo, leido)) {
+                filasActualizadas++;
+                reemplazados |= reemplazos.containsKey(vivo);
+            }
+        }
+        if (nuevos.isEmpty() && !reemplazados) {
+            return vivos;
+        }
+        List<T> resultado = new ArrayList<>(vivos.size() + nuevos.size());
+        for (T vivo : vivos) {
+            resultado.add(reemplazado(vivo));
+        }
+        for (T nuevo : nuevos) {
+            registrar.accept(nuevo);
+            resultado.add(nuevo);
+        }
+        filasNuevas += nuevos.size();
+        return resultado;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T reemplazado(T entidad) {
+        Object copia = reemplazos.get(entidad);
+        return copia == null ? entidad : (T) copia;
+    }
+
+    /**
+     * Copia en el país vivo la descripción leída; si el vivo es compartido con otras
+     * temporadas, en lugar de modificarlo lo reemplaza por el leído.
+     */
+    boolean actualizarPais(Pais vivo, Pais leido) {
+        if (Objects.equals(vivo.getDescripcion(), leido.getDescripcion())) {
+            return false;
+        }
+        if (base.esCompartido(vivo)) {
+            reemplazos.put(vivo, leido);
+            base.reemplazarPais(vivo, leido);
+            return true;
+        }
+        vivo.setDescripcion(leido.getDescripcion());
+        return true;
+    }
+
+    static boolean actualizarPiloto(Piloto vivo, Piloto leido) {
+        boolean cambio = actualizarPersona(vivo.getNombre(), vivo.getApellido(), vivo.getPais(), leido.getNombre(), leido.getApellido(), leido.getPais())
+                || vivo.getNumeroCompetencia() != leido.getNumeroCompetencia() || vivo.getVictorias() != leido.getVictorias()
+                || vivo.getPolePosition() != leido.getPolePosition() || vivo.getVueltasRapidas() != leido.getVueltasRapidas()
+                || vivo.getPodios() != leido.getPodios();
+        if (cambio) {
+            vivo.setNombre(leido.getNombre());
+            vivo.setApellido(leido.getApellido());
+            vivo.setPais(leido.getPais());
+            vivo.setNumeroCompetencia(leido.getNumeroCompetencia());
+            vivo.setVictorias(leido.getVictorias());
+            vivo.setPolePosition(leido.getPolePosition());
+            vivo.setVueltasRapidas(leido.getVueltasRapidas());
+            vivo.setPodios(leido.getPodios());
+        }
+        return cambio;
+    }
+
+    static boolean actualizarMecanico(Mecanico vivo, Mecanico leido) {
+        boolean cambio = actualizarPersona(vivo.getNombre(), vivo.getApellido(), vivo.getPais(), leido.getNombre(), leido.getApellido(), leido.getPais())
+                || vivo.getEspecialidad() != leido.getEspecialidad() || vivo.getAniosExperiencia() != leido.getAniosExperiencia();
+        if (cambio) {
+            vivo.setNombre(leido.getNombre());
+            vivo.setApellido(leido.getApellido());
+            vivo.setPais(leido.getPais());
+            vivo.setEspecialidad(leido.getEspecialidad());
+            vivo.setAniosExperiencia(leido.getAniosExperiencia());
+        }
+        return cambio;
+    }
+
+    private static boolean actualizarPersona(String nombre, String apellido, Pais pais, String nombreLeido, String apellidoLeido, Pais paisLeido) {
+        return !Objects.equals(nombre, nombreLeido) || !Objects.equals(apellido, apellidoLeido) || pais != paisLeido;
+    }
+
+    /**
+     * Copia en el circuito vivo los datos leídos; si el vivo es compartido con otras
+     * temporadas, en lugar de modificarlo lo reemplaza por el leído.
+     */
+    boolean actualizarCircuito(Circuito vivo, Circuito leido) {
+        if (vivo.getLongitud() == leido.getLongitud() && vivo.getPais() == leido.getPais()) {
+            return false;
+        }
+        if (base.esCompartido(vivo)) {
+            reemplazos.put(vivo, leido);
+            base.reemplazarCircuito(vivo, leido);
+            return true;
+        }
+        vivo.setLongitud(leido.getLongitud());
+        vivo.setPais(leido.getPais());
+        return true;
+    }
+
+    static boolean actualizarAuto(Auto vivo, Auto leido) {
+        if (Objects.equals(vivo.getMotor(), leido.getMotor()) && vivo.getEscuderia() == leido.getEscuderia()) {
+            return false;
+        }
+        vivo.setMotor(leido.getMotor());
+        if (vivo.getEscuderia() != leido.getEscuderia()) {
+            // Cambió de escudería: se mueve de una lista a la otra
+            if (vivo.getEscuderia() != null) {
+                vivo.getEscuderia().getAutos().remove(vivo);
+            }
+            if (leido.getEscuderia() != null) {
+                leido.getEscuderia().agregarAuto(vivo);
+            } else {
+                vivo.setEscuderia(null);
+            }
+        }
+        return true;
+    }
+
+    static boolean actualizarCarrera(Carrera vivo, Carrera leido) {
+        if (vivo.getNroVueltas() == leido.getNroVueltas() && Objects.equals(vivo.getHoraRealizacion(), leido.getHoraRealizacion())
+                && vivo.getCircuito() == leido.getCircuito()) {
+            return false;
+        }
+        vivo.setNroVueltas(leido.getNroVueltas());
+        vivo.setHoraRealizacion(leido.getHoraRealizacion());
+        vivo.setCircuito(leido.getCircuito());
+        vivo.setPais(leido.getCircuito().getPais());
+        return true;
+    }
+
+    /**
+     * Cambia las referencias de esta temporada a los países y circuitos compartidos que
+     * se reemplazaron por una copia propia (incluidas las de las filas nuevas).
+     */
+    void revincularReemplazos(List<Escuderia> escuderias, List<Piloto> pilotos, List<Mecanico> mecanicos,
+            List<Circuito> circuitos, List<Carrera> carreras) {
+        if (reemplazos.isEmpty()) {
+            return;
+        }
+        for (Escuderia e : escuderias) {
+            e.setPais(reemplazado(e.getPais()));
+        }
+        for (Piloto p : pilotos) {
+            p.setPais(reemplazado(p.getPais()));
+        }
+        for (Mecanico m : mecanicos) {
+            m.setPais(reemplazado(m.getPais()));
+        }
+        for (Circuito c : circuitos) {
+            c.setPais(reemplazado(c.getPais()));
+        }
+        for (Carrera c : carreras) {
+            c.setPais(reemplazado(c.getPais()));
+            c.setCircuito(reemplazado(c.getCircuito()));
+        }
+    }
+
+    /**
+     * Vuelve a tomar el país de cada carrera de su circuito (por si cambió el del circuito).
+     * @param carreras Las carreras en uso.
+     */
+    void revincularPaisesDeCarreras(List<Carrera> carreras) {
+        for (Carrera c : carreras) {
+            if (c.getCircuito() != null && c.getPais() != c.getCircuito().getPais()) {
+                c.setPais(c.getCircuito().getPais());
+            }
+        }
+    }
+
+    /**
+     * Agrega los vínculos mecánico-escudería que todavía no existen.
+     */
+    void vincularMecanicos() {
+        for (Map.Entry<Mecanico, Escuderia> par : relacionMecanicos) {
+            if (!par.getKey().getEscuderias().contains(par.getValue())) {
+                par.getKey().agregarEscuderia(par.getValue());
+                par.getValue().agregarMecanico(par.getKey());
+                filasNuevas++;
+            }
+        }
+    }
+
+    /**
+     * Fusiona los resultados leídos con los cargados, por (carrera, piloto): un resultado
+     * con otra posición reemplaza al anterior en su lugar, y los nuevos van al final.
+     * Los resultados agregados en esta sesión que no están en el archivo se conservan.
+     *
+     * @param vivos Los resultados en uso.
+     * @return Una lista nueva con los resultados fusionados.
+     */
+    List<ResultadoCarrera> fusionarResultados(List<ResultadoCarrera> vivos) {
+        Map<Carrera, Map<Piloto, ResultadoCarrera>> leidosPorCarrera = new IdentityHashMap<>();
+        for (ResultadoCarrera r : resultados) {
+            leidosPorCarrera.computeIfAbsent(r.getCarrera(), k -> new IdentityHashMap<>()).putIfAbsent(r.getPiloto(), r);
+        }
+        List<ResultadoCarrera> fusion = new ArrayList<>(Math.max(vivos.size(), resultados.size()));
+        for (ResultadoCarrera vivo : vivos) {
+            Map<Piloto, ResultadoCarrera> leidos = leidosPorCarrera.get(vivo.getCarrera());
+            ResultadoCarrera leido = leidos == null ? null : leidos.remove(vivo.getPiloto());
+            if (leido != null && leido.getPosicion() != vivo.getPosicion()) {
+                fusion.add(leido);
+                filasActualizadas++;
+            } else {
+                fusion.add(vivo);
+            }
+        }
+        for (ResultadoCarrera r : resultados) {
+            Map<Piloto, ResultadoCarrera> leidos = leidosPorCarrera.get(r.getCarrera());
+            if (leidos.get(r.getPiloto()) == r) {
+                leidos.remove(r.getPiloto());
+                fusion.add(r);
+                filasNuevas++;
+            }
+        }
+        return fusion;
+    }
+
+    /**
+     * Resumen de la recarga: archivos, filas nuevas y filas actualizadas.
+     */
+    @Override
+    public String toString() {
+        return "Recarga de " + archivos + ": " + filasNuevas + " filas nuevas, " + filasActualizadas + " actualizadas";
+    }
+}
@@ -0,0 +1,107 @@
+package archivos;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import clases.Circuito;
+import clases.Pais;
+
+/**
+ * Entidades de referencia (países y circuitos) compartidas entre los
+ * {@link SistemaGestion} de un {@link CatalogoTemporadas}: si dos temporadas
+ * leen el mismo país o el mismo circuito, las dos usan la misma instancia.
+ * <p>
+ * Un país se comparte si tiene el mismo ID y la misma descripción; un circuito,
+ * si tiene el mismo nombre (normalizado), la misma longitud y el mismo país
+ * (ya compartido). Si una temporada tiene otros datos para la misma clave,
+ * conserva su propia instancia.
+ * <p>
+ * Los mapas son concurrentes porque las temporadas se cargan en paralelo.
+ * Como las instancias son las mismas, un país o un circuito compartido no se
+ * modifica nunca: si una recarga incremental le cambia los datos en una temporada,
+ * ésta pasa a usar su propia copia (ver {@link RecargaIncremental}) y las demás
+ * siguen con la compartida.
+ */
+public class ReferenciasCompartidas {
+    private final ConcurrentHashMap<Integer, Pais> paises;
+    private final ConcurrentHashMap<String, Circuito> circuitos;
+    private final LongAdder reutilizadas;
+
+    /**
+     * Constructor de ReferenciasCompartidas. Crea un registro vacío.
+     */
+    public ReferenciasCompartidas() {
+        this.paises = new ConcurrentHashMap<>();
+        this.circuitos = new ConcurrentHashMap<>();
+        this.reutilizadas = new LongAdder();
+    }
+
+    /**
+     * Devuelve la instancia compartida de un país leído.
+     * @param leido El país recién leído.
+     * @return El país compartido igual a él, o el mismo si es el primero (o si difiere del compartido).
+     */
+    Pais compartir(Pais leido) {
+        Pais compartido = paises.putIfAbsent(leido.getIdPais(), leido);
+        if (compartido == null) {
+            return leido;
+        }
+        if (!Objects.equals(compartido.getDescripcion(), leido.getDescripcion())) {
+            return leido;
+        }
+        reutilizadas.increment();
+        return compartido;
+    }
+
+    /**
+     * Devuelve la instancia compartida de un circuito leído.
+     * @param leido El circuito recién leído (con su país ya compartido).
+     * @return El circuito compartido igual a él, o el mismo si es el primero (o si difiere del compartido).
+     */
+    Circuito compartir(Circuito leido) {
+        Circuito compartido = circuitos.putIfAbsent(IndiceCarga.normalizar(leido.getNombre()), leido);
+        if (compartido == null) {
+            return leido;
+        }
+        if (compartido.getLongitud() != leido.getLongitud() || compartido.getPais() != leido.getPais()) {
+            return leido;
+        }
+        reutilizadas.increment();
+        return compartido;
+    }
+
+    /**
+     * Indica si un país es la instancia compartida (la que no se debe modificar).
+     * @param pais El país.
+     * @return true si es el compartido.
+     */
+    boolean esCompartido(Pais pais) {
+        return paises.get(pais.getIdPais()) == pais;
+    }
+
+    /**
+     * Indica si un circuito es la instancia compartida (la que no se debe modificar).
+     * @param circuito El circuito.
+     * @return true si es el compartido.
+     */
+    boolean esCompartido(Circuito circuito) {
+        return circuitos.get(IndiceCarga.normalizar(circuito.getNombre())) == circuito;
+    }
+
+    /**
+     * Devuelve cuántas entidades leídas se reemplazaron por una compartida.
+     * @return La cantidad de entidades reutilizadas.
+     */
+    public long getReutilizadas() {
+        return reutilizadas.sum();
+    }
+
+    /**
+     * Resumen del registro: entidades distintas y reutilizadas.
+     */
+    @Override
+    public String toString() {
+        return "Referencias compartidas: " + paises.size() + " países, " + circuitos.size() + " circuitos, "
+                + getReutilizadas() + " reutilizadas";
+    }
+}
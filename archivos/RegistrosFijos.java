@@ -0,0 +1,268 @@
+package archivos;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import logica.LogicaException;
+
+/**
+ * Formato de un archivo binario de registros de ancho fijo (ej. los contratos en
+ * "DatosPilotoEscuderia.bin", ver {@link GestorArchivos#REGISTROS_CONTRATOS}).
+ * Como todos los registros miden lo mismo, el registro {@code id} está siempre en
+ * {@link #posicion(int)}: agregar uno es escribir al final y leer o reemplazar uno
+ * es un solo acceso, sin recorrer el archivo.
+ * <p>
+ * Formato: un encabezado {@code [int MAGICO][int VERSION][int tamanioRegistro][int 0]}
+ * y luego los registros, cada uno {@code [campos][int CRC32]}. Los textos ocupan un
+ * ancho fijo: {@code [short largo][bytes UTF-8][relleno]} (largo -1 para null).
+ * Si el archivo termina con un registro incompleto, se ignora.
+ * <p>
+ * Los registros se escriben con el {@link EscritorDiferido}, en el mismo lote que los CSV.
+ *
+ * @param <T> El tipo de las filas.
+ */
+public class RegistrosFijos<T> {
+    private static final int MAGICO = 0x52454746; // "REGF"
+    private static final int VERSION = 1;
+    /** Bytes del encabezado del archivo. */
+    static final int TAMANIO_ENCABEZADO = 16;
+    private static final short TEXTO_NULO = -1;
+    private static final int BUFFER_LECTURA = 1 << 16;
+
+    /**
+     * Escribe los campos de una fila en su registro.
+     * @param <T> El tipo de las filas.
+     */
+    interface Codificador<T> {
+        void escribir(T fila, ByteBuffer registro);
+    }
+
+    /**
+     * Arma la fila de un registro, buscando en el índice las entidades que referencia.
+     * @param <T> El tipo de las filas.
+     */
+    interface Decodificador<T> {
+        T leer(ByteBuffer registro, IndiceCarga indice) throws LogicaException;
+    }
+
+    private final String archivo;
+    private final int tamanioRegistro;
+    private final Codificador<T> codificador;
+    private final Decodificador<T> decodificador;
+    private final Consumer<T> vinculador;
+
+    /**
+     * Constructor de RegistrosFijos.
+     * @param archivo Nombre del archivo (ej. "DatosAutoPiloto.bin").
+     * @param tamanioCampos Bytes de los campos de cada registro (sin el CRC).
+     * @param codificador Escribe los campos de una fila.
+     * @param decodificador Lee los campos y arma la fila.
+     * @param vinculador Agrega la fila leída a las entidades que referencia (al leer todo el archivo).
+     */
+    RegistrosFijos(String archivo, int tamanioCampos, Codificador<T> codificador, Decodificador<T> decodificador, Consumer<T> vinculador) {
+        this.archivo = archivo;
+        this.tamanioRegistro = tamanioCampos + 4;
+        this.codificador = codificador;
+        this.decodificador = decodificador;
+        this.vinculador = vinculador;
+    }
+
+    /**
+     * Devuelve el nombre del archivo.
+     * @return El nombre (sin directorio).
+     */
+    public String getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Devuelve los bytes que ocupa cada registro, incluido el CRC.
+     * @return El tamaño del registro.
+     */
+    public int getTamanioRegistro() {
+        return tamanioRegistro;
+    }
+
+    /**
+     * Devuelve la posición del registro en el archivo.
+     * @param id Número de registro (desde 0).
+     * @return La posición en bytes.
+     */
+    long posicion(int id) {
+        return TAMANIO_ENCABEZADO + (long) id * tamanioRegistro;
+    }
+
+    /**
+     * Devuelve cuántos registros completos tiene el archivo (0 si no existe).
+     * @param archivo El archivo.
+     * @return La cantidad de registros.
+     */
+    int cantidad(File archivo) {
+        long largo = archivo.length();
+        return largo <= TAMANIO_ENCABEZADO ? 0 : (int) ((largo - TAMANIO_ENCABEZADO) / tamanioRegistro);
+    }
+
+    /** El encabezado de un archivo nuevo. */
+    byte[] encabezado() {
+        return ByteBuffer.allocate(TAMANIO_ENCABEZADO).putInt(MAGICO).putInt(VERSION).putInt(tamanioRegistro).putInt(0).array();
+    }
+
+    /**
+     * Arma el registro de una fila, con su CRC.
+     * @param fila La fila.
+     * @return Los bytes del registro ({@link #getTamanioRegistro()}).
+     * @throws IllegalArgumentException Si algún texto no entra en su campo.
+     */
+    byte[] codificar(T fila) {
+        ByteBuffer registro = ByteBuffer.allocate(tamanioRegistro);
+        codificador.escribir(fila, registro);
+        CRC32 crc = new CRC32();
+        crc.update(registro.array(), 0, tamanioRegistro - 4);
+        registro.putInt(tamanioRegistro - 4, (int) crc.getValue());
+        return registro.array();
+    }
+
+    // --- LECTURA ---
+
+    /**
+     * Lee todos los registros del archivo, en orden, y anota el número de cada fila
+     * en el índice (ver {@link IndiceCarga#registrarIdRegistro}).
+     *
+     * @param path Ruta del archivo.
+     * @param indice Índice con las entidades que referencian los registros.
+     * @return Las filas, vinculadas con sus entidades.
+     * @throws LogicaException Si el archivo no se puede leer, no tiene este formato,
+     * algún registro está dañado o referencia datos que no existen.
+     */
+    public List<T> leer(String path, IndiceCarga indice) throws LogicaException {
+        List<T> filas = new ArrayList<>();
+        try (FileChannel canal = abrir(path)) {
+            int cantidad = cantidad(new File(path));
+            int porBuffer = Math.max(1, BUFFER_LECTURA / tamanioRegistro);
+            ByteBuffer buffer = ByteBuffer.allocate(porBuffer * tamanioRegistro);
+            for (int id = 0; id < cantidad; id += porBuffer) {
+                buffer.clear();
+                buffer.limit(Math.min(porBuffer, cantidad - id) * tamanioRegistro);
+                leerTodo(canal, buffer, posicion(id));
+                for (int i = 0; buffer.position() + tamanioRegistro <= buffer.limit(); i++) {
+                    ByteBuffer registro = buffer.slice().limit(tamanioRegistro);
+                    T fila = armar(registro, id + i, path, indice);
+                    vinculador.accept(fila);
+                    indice.registrarIdRegistro(fila, id + i);
+                    filas.add(fila);
+                    buffer.position(buffer.position() + tamanioRegistro);
+                }
+            }
+        } catch (IOException e) {
+            throw new LogicaException("Error al leer " + path + ": " + e.getMessage());
+        }
+        return filas;
+    }
+
+    /**
+     * Lee un solo registro, sin recorrer el archivo.
+     *
+     * @param path Ruta del archivo.
+     * @param id Número de registro (desde 0).
+     * @param indice Índice con las entidades que referencia el registro.
+     * @return La fila (sin agregarla a las entidades que referencia).
+     * @throws LogicaException Si el registro no existe, está dañado o referencia datos que no existen.
+     */
+    public T leer(String path, int id, IndiceCarga indice) throws LogicaException {
+        if (id < 0 || id >= cantidad(new File(path))) {
+            throw new LogicaException("El archivo " + path + " no tiene el registro " + id + ".");
+        }
+        try (FileChannel canal = abrir(path)) {
+            ByteBuffer registro = ByteBuffer.allocate(tamanioRegistro);
+            leerTodo(canal, registro, posicion(id));
+            return armar(registro, id, path, indice);
+        } catch (IOException e) {
+            throw new LogicaException("Error al leer " + path + ": " + e.getMessage());
+        }
+    }
+
+    private FileChannel abrir(String path) throws IOException, LogicaException {
+        FileChannel canal = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        ByteBuffer encabezado = ByteBuffer.allocate(TAMANIO_ENCABEZADO);
+        leerTodo(canal, encabezado, 0);
+        if (encabezado.limit() < TAMANIO_ENCABEZADO || encabezado.getInt(0) != MAGICO
+                || encabezado.getInt(4) != VERSION || encabezado.getInt(8) != tamanioRegistro) {
+            canal.close();
+            throw new LogicaException("El archivo " + path + " no es un archivo de registros válido.");
+        }
+        return canal;
+    }
+
+    /** Verifica el CRC del registro (que empieza en la posición 0) y arma la fila. */
+    private T armar(ByteBuffer registro, int id, String path, IndiceCarga indice) throws LogicaException {
+        CRC32 crc = new CRC32();
+        crc.update(registro.duplicate().position(0).limit(tamanioRegistro - 4));
+        if ((int) crc.getValue() != registro.getInt(tamanioRegistro - 4)) {
+            throw new LogicaException("El registro " + id + " de " + path + " está dañado.");
+        }
+        try {
+            return decodificador.leer(registro.duplicate().position(0), indice);
+        } catch (LogicaException e) {
+            throw new LogicaException("Error en el registro " + id + " de " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static void leerTodo(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = canal.read(buffer, posicion);
+            if (n <= 0) {
+                break;
+            }
+            posicion += n;
+        }
+        buffer.flip();
+    }
+
+    // --- CAMPOS DE TEXTO ---
+
+    /**
+     * Escribe un texto en un campo de ancho fijo.
+     * @throws IllegalArgumentException Si el texto no entra.
+     */
+    static void escribirTexto(ByteBuffer registro, String texto, int ancho) {
+        int inicio = registro.position();
+        if (texto == null) {
+            registro.putShort(TEXTO_NULO);
+        } else {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > ancho - 2) {
+                throw new IllegalArgumentException("El texto '" + texto + "' no entra en un campo de " + (ancho - 2) + " bytes.");
+            }
+            registro.putShort((short) bytes.length).put(bytes);
+        }
+        registro.position(inicio + ancho);
+    }
+
+    /** Lee un texto de un campo de ancho fijo. */
+    static String leerTexto(ByteBuffer registro, int ancho) throws LogicaException {
+        int inicio = registro.position();
+        short largo = registro.getShort();
+        String texto = null;
+        if (largo != TEXTO_NULO) {
+            if (largo < 0 || largo > ancho - 2) {
+                throw new LogicaException("Campo de texto con largo inválido (" + largo + ").");
+            }
+            texto = new String(registro.array(), registro.arrayOffset() + registro.position(), largo, StandardCharsets.UTF_8);
+        }
+        registro.position(inicio + ancho);
+        return texto;
+    }
+
+    /** Indica si un texto entra en un campo de ancho fijo. */
+    static boolean entra(String texto, int ancho) {
+        return texto == null || texto.getBytes(StandardCharsets.UTF_8).length <= ancho - 2;
+    }
+}
@@ -0,0 +1,78 @@
+package archivos;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de validar todos los archivos de datos con {@link ValidadorDatos}:
+ * la lista completa de errores, ordenada por archivo y número de línea.
+ */
+public class ReporteValidacion {
+    /** Cantidad máxima de errores que se muestran en {@link #toString()}. */
+    private static final int MAX_ERRORES_TEXTO = 50;
+
+    private final List<ErrorValidacion> errores;
+    private final long lineasValidadas;
+    private final long milisegundos;
+
+    /**
+     * Constructor de ReporteValidacion.
+     * @param errores Errores encontrados, ya ordenados.
+     * @param lineasValidadas Cantidad total de líneas revisadas.
+     * @param milisegundos Tiempo que tomó la validación.
+     */
+    public ReporteValidacion(List<ErrorValidacion> errores, long lineasValidadas, long milisegundos) {
+        this.errores = Collections.unmodifiableList(errores);
+        this.lineasValidadas = lineasValidadas;
+        this.milisegundos = milisegundos;
+    }
+
+    /**
+     * Indica si se encontró al menos un error.
+     * @return true si los datos no se pueden cargar.
+     */
+    public boolean hayErrores() {
+        return !errores.isEmpty();
+    }
+
+    /**
+     * Devuelve todos los errores encontrados.
+     * @return Lista (no modificable) de errores, por archivo y línea.
+     */
+    public List<ErrorValidacion> getErrores() {
+        return errores;
+    }
+
+    /**
+     * Devuelve la cantidad de líneas revisadas en todos los archivos.
+     * @return La cantidad de líneas.
+     */
+    public long getLineasValidadas() {
+        return lineasValidadas;
+    }
+
+    /**
+     * Devuelve cuántos milisegundos tomó la validación.
+     * @return Los milisegundos.
+     */
+    public long getMilisegundos() {
+        return milisegundos;
+    }
+
+    /**
+     * Resumen del reporte, con los primeros {@value #MAX_ERRORES_TEXTO} errores.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Validación: ").append(lineasValidadas).append(" líneas, ")
+          .append(errores.size()).append(" errores (").append(milisegundos).append(" ms)");
+        for (int i = 0; i < errores.size() && i < MAX_ERRORES_TEXTO; i++) {
+            sb.append("\n").append(errores.get(i));
+        }
+        if (errores.size() > MAX_ERRORES_TEXTO) {
+            sb.append("\n... y ").append(errores.size() - MAX_ERRORES_TEXTO).append(" errores más.");
+        }
+        return sb.toString();
+    }
+}
@@ -1,6 +1,8 @@
 package archivos;
 
 import logica.LogicaException;
+import logica.LogicaRuntimeException;
+import logica.Utilidades;
 
 import clases.Pais;
 import clases.Auto;
@@ -12,6 +14,17 @@ import clases.Piloto;
 import clases.ResultadoCarrera;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.EnumMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.io.File;
 
 
 /**
@@ -21,20 +34,131 @@ import java.util.ArrayList;
  * Esta clase es el "corazón" de los datos de la aplicación.
  */
 public class SistemaGestion {
-    private List<Pais> paises;
-    private List<Auto> autos;
-    private List<Carrera> carreras;
-    private List<Circuito> circuitos;
-    private List<Escuderia> escuderias;
-    private List<Mecanico> mecanicos;
-    private List<Piloto> pilotos;
-    private List<ResultadoCarrera> resultadosCarreras;
+    // volatile: una recarga incremental publica listas nuevas (ver RecargaIncremental)
+    private volatile List<Pais> paises;
+    private volatile List<Auto> autos;
+    private volatile List<Carrera> carreras;
+    private volatile List<Circuito> circuitos;
+    private volatile List<Escuderia> escuderias;
+    private volatile List<Mecanico> mecanicos;
+    private volatile List<Piloto> pilotos;
+    private volatile List<ResultadoCarrera> resultadosCarreras; // null hasta que se pide por primera vez
+    private volatile boolean relacionMecanicosCargada;
+    private final Object cerrojoResultados = new Object();
+    private final Object cerrojoRelacionMecanicos = new Object();
+    private volatile ParticionesResultados particiones; // Se generan la primera vez que se consultan
+    private final Object cerrojoParticiones = new Object();
+    private volatile IndiceCarga indice; // Índices hash construidos durante la carga
+    private Map<String, Long> tiemposCarga; // Milisegundos por archivo de la última carga
+    private String resumenTiemposCarga;
+    private Map<String, ModoLectura> modosLectura; // Modo de lectura elegido por archivo
+    private final Map<ConjuntoDatos, CompletableFuture<Void>> listos; // Se completa cada uno al terminar su primera carga
+    private volatile boolean avisosDiferidos; // true mientras falta aplicar la bitácora sobre lo cargado
+    private final BitacoraOperaciones bitacora;
+    private final List<ResultadoCarrera> resultadosBitacora; // Resultados de la bitácora, hasta que se carguen los del CSV
+    private final List<ResultadoCarrera> resultadosRecargados; // Agregados en la sesión a un almacén que se cerró por una recarga
+    private volatile MotorAlmacenamiento motorResultados = MotorAlmacenamiento.MEMORIA;
+    private final Object cerrojoArchivos = new Object(); // Una carga completa no lee los CSV mientras se escriben
+    private final Map<String, Long> escriturasPropias = new java.util.concurrent.ConcurrentHashMap<>(); // Path -> fecha de modificación
+
+    /** Cantidad máxima de archivos que se leen a la vez (la etapa más ancha tiene 4). */
+    private static final int HILOS_CARGA = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /** Directorio de los archivos de datos por defecto. */
+    static final String DIRECTORIO_DATOS = "datos";
+
+    // Nombres de los archivos de datos (dentro del directorio de datos)
+    private static final String ARCHIVO_PAISES = "DatosPais.csv";
+    private static final String ARCHIVO_AUTOS = "DatosAuto.csv";
+    private static final String ARCHIVO_CARRERAS = "DatosCarrera.csv";
+    private static final String ARCHIVO_CIRCUITOS = "DatosCircuito.csv";
+    private static final String ARCHIVO_ESCUDERIAS = "DatosEscuderia.csv";
+    private static final String ARCHIVO_MECANICOS = "DatosMecanico.csv";
+    private static final String ARCHIVO_PILOTOS = "DatosPiloto.csv";
+    private static final String ARCHIVO_MECANICO_ESCUDERIA = "DatosMecanicoEscuderia.csv";
+    private static final String ARCHIVO_RESULTADOS = "DatosResultadoCarrera.csv";
+    private static final String ARCHIVO_CONTRATOS = "DatosPilotoEscuderia.csv";
+    private static final String ARCHIVO_ASIGNACIONES_AUTOS = "DatosAutoPiloto.csv";
+    private static final String ARCHIVO_CONTRATOS_BINARIO = "DatosPilotoEscuderia.bin";
+    private static final String ARCHIVO_ASIGNACIONES_AUTOS_BINARIO = "DatosAutoPiloto.bin";
+
+    // Rutas de los archivos de datos
+    private final String directorioDatos;
+    private final String pathPaises;
+    private final String pathAutos;
+    private final String pathCarreras;
+    private final String pathCircuitos;
+    private final String pathEscuderias;
+    private final String pathMecanicos;
+    private final String pathPilotos;
+    private final String pathMecanicoEscuderia;
+    private final String pathResultados;
+    /** Contratos piloto-escudería (opcional: si no existe, no se carga). */
+    private final String pathContratos;
+    /** Autos asignados a cada piloto en cada carrera (opcional: si no existe, no se carga). */
+    private final String pathAsignacionesAutos;
+    /** Contratos en registros de ancho fijo (ver {@link RegistrosFijos}); si existe, se usa en lugar del CSV. */
+    private final String pathContratosBinario;
+    /** Autos asignados en registros de ancho fijo; si existe, se usa en lugar del CSV. */
+    private final String pathAsignacionesAutosBinario;
+    /** Resultados particionados por temporada (ver {@link ParticionesResultados}). */
+    private final String pathParticiones;
+    /** Snapshot binario generado a partir de los CSV (ver {@link SnapshotBinario}). */
+    private final String pathSnapshot;
+    /** Bitácora de las operaciones confirmadas después de los CSV (ver {@link BitacoraOperaciones}). */
+    private final String pathBitacora;
+    private final String[] pathsCsv;
+    /** Todos los archivos que guarda el snapshot (los de {@link #pathsCsv} más los opcionales). */
+    private final String[] pathsSnapshot;
+    private final ReferenciasCompartidas referencias; // null si no es parte de un catálogo
 
     /**
      * Constructor de SistemaGestion.
-     * Inicializa todas las listas internas como vacías (ArrayLists)
+     * Inicializa todas las listas internas como vacías (ArrayLists).
+     * Los datos se leen del directorio "datos".
      */
     public SistemaGestion() {
+        this(DIRECTORIO_DATOS);
+    }
+
+    /**
+     * Constructor de SistemaGestion para un directorio de datos en particular
+     * (ej. el de una temporada, ver {@link CatalogoTemporadas}).
+     * @param directorioDatos Directorio con los archivos CSV.
+     */
+    public SistemaGestion(String directorioDatos) {
+        this(directorioDatos, null);
+    }
+
+    /**
+     * Constructor de SistemaGestion para una temporada de un catálogo.
+     * @param directorioDatos Directorio con los archivos CSV.
+     * @param referencias Países y circuitos compartidos con las otras temporadas (o null).
+     */
+    SistemaGestion(String directorioDatos, ReferenciasCompartidas referencias) {
+        this.directorioDatos = directorioDatos;
+        this.pathPaises = directorioDatos + "/" + ARCHIVO_PAISES;
+        this.pathAutos = directorioDatos + "/" + ARCHIVO_AUTOS;
+        this.pathCarreras = directorioDatos + "/" + ARCHIVO_CARRERAS;
+        this.pathCircuitos = directorioDatos + "/" + ARCHIVO_CIRCUITOS;
+        this.pathEscuderias = directorioDatos + "/" + ARCHIVO_ESCUDERIAS;
+        this.pathMecanicos = directorioDatos + "/" + ARCHIVO_MECANICOS;
+        this.pathPilotos = directorioDatos + "/" + ARCHIVO_PILOTOS;
+        this.pathMecanicoEscuderia = directorioDatos + "/" + ARCHIVO_MECANICO_ESCUDERIA;
+        this.pathResultados = directorioDatos + "/" + ARCHIVO_RESULTADOS;
+        this.pathContratos = directorioDatos + "/" + ARCHIVO_CONTRATOS;
+        this.pathAsignacionesAutos = directorioDatos + "/" + ARCHIVO_ASIGNACIONES_AUTOS;
+        this.pathContratosBinario = directorioDatos + "/" + ARCHIVO_CONTRATOS_BINARIO;
+        this.pathAsignacionesAutosBinario = directorioDatos + "/" + ARCHIVO_ASIGNACIONES_AUTOS_BINARIO;
+        this.pathParticiones = directorioDatos + "/resultados";
+        this.pathSnapshot = directorioDatos + "/snapshot.bin";
+        this.pathBitacora = directorioDatos + "/bitacora.bin";
+        this.pathsCsv = new String[] { pathPaises, pathAutos, pathCarreras, pathCircuitos,
+                pathEscuderias, pathMecanicos, pathPilotos, pathMecanicoEscuderia, pathResultados };
+        this.pathsSnapshot = new String[] { pathPaises, pathAutos, pathCarreras, pathCircuitos,
+                pathEscuderias, pathMecanicos, pathPilotos, pathMecanicoEscuderia, pathResultados,
+                pathContratos, pathAsignacionesAutos, pathContratosBinario, pathAsignacionesAutosBinario };
+        this.referencias = referencias;
         this.paises = new ArrayList<>();
         this.autos = new ArrayList<>();
         this.carreras = new ArrayList<>();
@@ -43,49 +167,807 @@ public class SistemaGestion {
         this.mecanicos = new ArrayList<>();
         this.pilotos = new ArrayList<>();
         this.resultadosCarreras = new ArrayList<>();
+        this.relacionMecanicosCargada = true; // Sin datos cargados no hay nada pendiente
+        this.indice = nuevoIndiceCarga();
+        this.tiemposCarga = new LinkedHashMap<>();
+        this.resumenTiemposCarga = "";
+        this.modosLectura = new HashMap<>();
+        this.listos = new EnumMap<>(ConjuntoDatos.class);
+        for (ConjuntoDatos conjunto : ConjuntoDatos.values()) {
+            this.listos.put(conjunto, new CompletableFuture<>());
+        }
+        this.bitacora = new BitacoraOperaciones(pathBitacora);
+        this.resultadosBitacora = new ArrayList<>();
+        this.resultadosRecargados = new ArrayList<>();
+    }
+
+    /**
+     * Elige el modo de lectura de un archivo de datos en particular.
+     * Por defecto todos los archivos se leen con {@link ModoLectura#BUFFER};
+     * para archivos muy grandes (ej. resultados) conviene {@link ModoLectura#MAPEADO}.
+     *
+     * @param path Ruta del archivo (ej. "datos/DatosResultadoCarrera.csv").
+     * @param modo El modo de lectura a usar en la próxima carga.
+     */
+    public void setModoLectura(String path, ModoLectura modo) {
+        this.modosLectura.put(path, modo);
+    }
+
+    /**
+     * Devuelve el modo de lectura elegido para un archivo.
+     * @param path Ruta del archivo.
+     * @return El modo de lectura (BUFFER si no se eligió ninguno).
+     */
+    public ModoLectura getModoLectura(String path) {
+        return this.modosLectura.getOrDefault(path, ModoLectura.BUFFER);
+    }
+
+    /**
+     * Elige dónde se guardan los resultados de carreras (ver {@link AlmacenResultados}).
+     * Por defecto se cargan todos en memoria ({@link MotorAlmacenamiento#MEMORIA});
+     * con {@link MotorAlmacenamiento#CSV} o {@link MotorAlmacenamiento#PAGINAS} se leen
+     * del disco a medida que se recorren, para historiales que no entran en memoria;
+     * con {@link MotorAlmacenamiento#DIRECTO} se guardan fuera del heap.
+     * Se aplica en la próxima carga de resultados. Si sólo existe el archivo comprimido (con CSV o
+     * PAGINAS) o las particiones por temporada, los resultados se cargan en memoria igual.
+     *
+     * @param motor El motor de almacenamiento.
+     */
+    public void setMotorResultados(MotorAlmacenamiento motor) {
+        this.motorResultados = motor;
+    }
+
+    /**
+     * Devuelve dónde se guardan los resultados de carreras.
+     * @return El motor elegido.
+     */
+    public MotorAlmacenamiento getMotorResultados() {
+        return motorResultados;
+    }
+
+    /**
+     * Devuelve el directorio de donde se leen los archivos de datos.
+     * @return El directorio (ej. "datos").
+     */
+    public String getDirectorioDatos() {
+        return directorioDatos;
+    }
+
+    /**
+     * Crea un índice vacío para una carga nueva (desde los CSV o desde el snapshot),
+     * que comparte países y circuitos con las otras temporadas si el sistema es parte
+     * de un {@link CatalogoTemporadas}.
+     */
+    IndiceCarga nuevoIndiceCarga() {
+        return new IndiceCarga(referencias);
     }
     
     
     /**
-     * Carga todos los datos iniciales desde los archivos CSV a la memoria.
-     * Sigue el orden de dependencias: países y escuderías primero,
-     * luego pilotos, mecánicos, autos, y finalmente carreras y resultados.
-     * Este método es llamado por la GUI al iniciar la aplicación.
+     * Carga los datos iniciales a la memoria.
+     * Si existe un snapshot binario más nuevo que todos los CSV, se carga desde él
+     * (mucho más rápido, porque los datos ya vienen vinculados). Si no, se leen los
+     * CSV con {@link #cargarDesdeCSV()} y se guarda un snapshot nuevo para el próximo inicio.
+     * Un snapshot dañado o de otra versión se ignora y se vuelve a los CSV.
+     * Sobre esos datos se aplican después las operaciones de la bitácora
+     * (ver {@link BitacoraOperaciones}), que desde entonces registra las nuevas;
+     * si un {@link EscritorDiferido} ya escribió parte de ellas en los CSV, sólo las que faltan.
+     * <p>
+     * Los resultados de carreras y la relación mecánico-escudería (los archivos que
+     * crecen con el historial) no se cargan aquí: se leen la primera vez que se piden,
+     * con {@link #getResultadosCarreras()} y {@link #cargarRelacionMecanicos()}.
+     * La GUI lo llama en segundo plano, con {@link #iniciarCarga()}.
      *
      * @throws LogicaException Si alguno de los archivos CSV no se encuentra,
-     * está corrupto o contiene datos inválidos (ej. DNI no encontrado).
+     * está corrupto o contiene datos inválidos (ej. DNI no encontrado), o si la
+     * bitácora no se puede aplicar.
      * La GUI debe capturar (catch) esta excepción y mostrarla al usuario.
      */
     public void cargarDatos() throws LogicaException {
-        // Define las rutas de los archivos de datos
-        String pathPaises = "datos/DatosPais.csv";
-        String pathAutos = "datos/DatosAuto.csv";
-        String pathCarreras = "datos/DatosCarrera.csv";
-        String pathCircuitos = "datos/DatosCircuito.csv";
-        String pathEscuderias = "datos/DatosEscuderia.csv";
-        String pathMecanicos = "datos/DatosMecanico.csv";
-        String pathPilotos = "datos/DatosPiloto.csv";
-        String pathMecanicoEscuderia = "datos/DatosMecanicoEscuderia.csv";
-        String pathResultados = "datos/DatosResultadoCarrera.csv";
-
-        // 1. Cargar entidades SIN dependencias
-        this.paises = GestorArchivos.leerPaisesDesdeCSV(pathPaises);
-        this.escuderias = GestorArchivos.leerEscuderiasDesdeCSV(pathEscuderias);
-
-        // 2. Cargar entidades que dependen de País o Escudería
-        this.pilotos = GestorArchivos.leerPilotosDesdeCSV(pathPilotos, this.paises);
-        this.mecanicos = GestorArchivos.leerMecanicosDesdeCSV(pathMecanicos, this.paises);
-        this.circuitos = GestorArchivos.leerCircuitosDesdeCSV(pathCircuitos, this.paises);
-        this.autos = GestorArchivos.leerAutosDesdeCSV(pathAutos, this.escuderias);
-
-        // 3. Cargar entidades que dependen de las anteriores
-        this.carreras = GestorArchivos.leerCarrerasDesdeCSV(pathCarreras, this.circuitos);
-        
-        // 4. VINCULAR M-N (Mecánicos <-> Escuderías)
-        GestorArchivos.vincularMecanicosAEscuderias(pathMecanicoEscuderia, this.mecanicos, this.escuderias);
-        
-        // 5. Cargar Resultados de Carreras (depende de Pilotos y Carreras)
-        this.resultadosCarreras = GestorArchivos.leerResultadosDesdeCSV(pathResultados, this.pilotos, this.carreras);
+        synchronized (cerrojoArchivos) {
+            long escritas = EscritorDiferido.recuperar(directorioDatos); // Completa una escritura cortada
+            avisosDiferidos = bitacora.tieneOperaciones(); // Los datos no están listos hasta aplicar la bitácora
+            try {
+                cargarBase(escritas);
+                aplicarBitacora(escritas);
+            } finally {
+                avisosDiferidos = false;
+            }
+        }
+        marcarEntidadesListas();
+    }
+
+    /**
+     * Carga los datos base de {@link #cargarDatos()}: el snapshot si está al día, o los CSV.
+     * El snapshot se guarda antes de aplicar la bitácora, así sólo tiene lo de los CSV.
+     * Sólo se usa si incluye exactamente las operaciones de los CSV ({@code escritas}):
+     * los resultados y la relación mecánico-escudería se siguen leyendo de los CSV.
+     * Si el snapshot no se puede leer o guardar, el motivo queda en el resumen de la carga.
+     */
+    private void cargarBase(long escritas) throws LogicaException {
+        String avisoSnapshot = null;
+        if (SnapshotBinario.estaActualizado(pathSnapshot, pathsSnapshot)) {
+            try {
+                long inicio = System.nanoTime();
+                if (SnapshotBinario.leer(pathSnapshot, this) != escritas) {
+                    throw new LogicaException("El snapshot " + pathSnapshot + " no tiene las mismas operaciones que los CSV");
+                }
+                long ms = (System.nanoTime() - inicio) / 1_000_000;
+                this.tiemposCarga = new LinkedHashMap<>();
+                this.tiemposCarga.put(pathSnapshot, ms);
+                this.resumenTiemposCarga = String.format("Tiempos de carga:%n  %-40s %6d ms", pathSnapshot, ms);
+                return;
+            } catch (LogicaException e) {
+                avisoSnapshot = e.getMessage() + " - Se cargaron los archivos CSV.";
+            }
+        }
+
+        cargarDesdeCSV();
+
+        try {
+            guardarSnapshot();
+        } catch (LogicaException e) {
+            // No impide usar la aplicación: sólo el próximo inicio será más lento
+            avisoSnapshot = (avisoSnapshot == null) ? e.getMessage() : avisoSnapshot + System.lineSeparator() + "  " + e.getMessage();
+        }
+        if (avisoSnapshot != null) {
+            this.resumenTiemposCarga += String.format("%n  Snapshot: %s", avisoSnapshot);
+        }
+    }
+
+    /**
+     * Empieza la carga de los datos en un hilo aparte y vuelve enseguida.
+     * Primero carga las entidades con {@link #cargarDatos()} y después, en el mismo
+     * hilo, los resultados ({@link #cargarResultados()}), que son el archivo más grande.
+     * Cada conjunto de datos avisa cuando está listo (ver {@link #cuandoListo}),
+     * así se pueden usar los que ya se cargaron mientras se leen los demás.
+     * <p>
+     * Si la carga de las entidades falla, el aviso devuelto y los de los conjuntos
+     * que no llegaron a cargarse terminan con la LogicaException. Si sólo fallan
+     * los resultados, termina con error el aviso de {@link ConjuntoDatos#RESULTADOS}
+     * y se volverán a leer la próxima vez que se pidan.
+     *
+     * @return Aviso que se completa cuando terminó {@link #cargarDatos()}
+     * (todas las entidades cargadas, sin contar los resultados).
+     */
+    public CompletableFuture<SistemaGestion> iniciarCarga() {
+        CompletableFuture<SistemaGestion> carga = new CompletableFuture<>();
+        Thread hilo = new Thread(() -> {
+            try {
+                cargarDatos();
+                carga.complete(this);
+            } catch (LogicaException | RuntimeException e) {
+                carga.completeExceptionally(e);
+                fallarPendientes(e);
+                return;
+            }
+            try {
+                cargarResultados();
+            } catch (LogicaException | RuntimeException e) {
+                listos.get(ConjuntoDatos.RESULTADOS).completeExceptionally(e);
+            }
+        }, "carga-datos");
+        hilo.setDaemon(true);
+        hilo.start();
+        return carga;
+    }
+
+    /**
+     * Devuelve un aviso que se completa cuando los conjuntos de datos indicados
+     * terminaron su primera carga (con {@link #cargarDatos()}, {@link #cargarDesdeCSV()}
+     * o {@link #cargarResultados()}). Las acciones encadenadas al aviso ven las
+     * listas ya cargadas.
+     *
+     * @param conjuntos Los conjuntos que se necesitan (ninguno: todos).
+     * @return El aviso (ya completo si los conjuntos ya están cargados).
+     */
+    public CompletableFuture<Void> cuandoListo(ConjuntoDatos... conjuntos) {
+        if (conjuntos.length == 0) {
+            conjuntos = ConjuntoDatos.values();
+        }
+        if (conjuntos.length == 1) {
+            return listos.get(conjuntos[0]).copy(); // Copia: quien la recibe no puede completar la original
+        }
+        CompletableFuture<?>[] avisos = new CompletableFuture<?>[conjuntos.length];
+        for (int i = 0; i < conjuntos.length; i++) {
+            avisos[i] = listos.get(conjuntos[i]);
+        }
+        return CompletableFuture.allOf(avisos);
+    }
+
+    /**
+     * Indica si un conjunto de datos ya terminó su primera carga sin errores.
+     * @param conjunto El conjunto de datos.
+     * @return true si ya se puede usar.
+     */
+    public boolean estaListo(ConjuntoDatos conjunto) {
+        CompletableFuture<Void> aviso = listos.get(conjunto);
+        return aviso.isDone() && !aviso.isCompletedExceptionally();
+    }
+
+    private void marcarListo(ConjuntoDatos conjunto) {
+        if (!avisosDiferidos) {
+            listos.get(conjunto).complete(null); // Si ya estaba completo (ej. una recarga) no hace nada
+        }
+    }
+
+    private void marcarEntidadesListas() {
+        for (ConjuntoDatos conjunto : ConjuntoDatos.values()) {
+            if (conjunto != ConjuntoDatos.RESULTADOS) {
+                marcarListo(conjunto);
+            }
+        }
+    }
+
+    /**
+     * Aplica las operaciones de la bitácora posteriores a {@code escritas} sobre
+     * los datos recién cargados y suma su tiempo a los de la carga.
+     */
+    private void aplicarBitacora(long escritas) throws LogicaException {
+        synchronized (cerrojoResultados) {
+            resultadosBitacora.clear(); // Los de una carga anterior ya no corresponden
+        }
+        long inicio = System.nanoTime();
+        long aplicadas = bitacora.reproducir(this, escritas);
+        if (aplicadas > 0) {
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+            Map<String, Long> tiempos = new LinkedHashMap<>(tiemposCarga);
+            tiempos.put(pathBitacora, ms);
+            this.tiemposCarga = tiempos;
+            this.resumenTiemposCarga += String.format("%n  %-40s %6d ms (%d operaciones)", pathBitacora, ms, aplicadas);
+        }
+    }
+
+    private void fallarPendientes(Throwable error) {
+        for (CompletableFuture<Void> aviso : listos.values()) {
+            aviso.completeExceptionally(error); // Los que ya estaban completos no cambian
+        }
+    }
+
+    /**
+     * Carga las entidades principales desde los archivos CSV, ignorando el snapshot
+     * y sin aplicar la bitácora (sólo los datos base).
+     * Sigue el orden de dependencias: países y escuderías primero,
+     * luego pilotos, mecánicos, autos, carreras y, si existen sus archivos,
+     * los contratos y los autos asignados en cada carrera (de sus archivos de registros
+     * de ancho fijo, o de los CSV si todavía no se escribieron).
+     * Los resultados y la relación mecánico-escudería quedan pendientes (carga diferida).
+     * Los archivos de una misma etapa se leen en paralelo con un
+     * {@link CargadorParalelo}, que además mide el tiempo de cada archivo.
+     * Las referencias entre archivos se resuelven con un {@link IndiceCarga}
+     * nuevo, que luego queda disponible en {@link #getIndiceCarga()}.
+     *
+     * @throws LogicaException Si alguno de los archivos CSV no se encuentra,
+     * está corrupto o contiene datos inválidos.
+     */
+    public void cargarDesdeCSV() throws LogicaException {
+        IndiceCarga nuevoIndice = nuevoIndiceCarga();
+        if (!listos.get(ConjuntoDatos.CARRERAS).isDone()) {
+            // Primera carga: el índice se publica enseguida para que quien ya tiene
+            // sus datos (ver cuandoListo) pueda buscar en él mientras se carga el resto
+            this.indice = nuevoIndice;
+        }
+
+        try (CargadorParalelo cargador = new CargadorParalelo(HILOS_CARGA)) {
+            // 1. Cargar entidades SIN dependencias
+            cargador.ejecutarEtapa(
+                    new CargadorParalelo.Tarea(pathPaises, () -> {
+                        this.paises = GestorArchivos.leerPaisesDesdeCSV(pathPaises, nuevoIndice, getModoLectura(pathPaises));
+                        marcarListo(ConjuntoDatos.PAISES);
+                    }),
+                    new CargadorParalelo.Tarea(pathEscuderias, () -> {
+                        this.escuderias = GestorArchivos.leerEscuderiasDesdeCSV(pathEscuderias, nuevoIndice, getModoLectura(pathEscuderias));
+                        marcarListo(ConjuntoDatos.ESCUDERIAS);
+                    }));
+
+            // 2. Cargar entidades que dependen de País o Escudería
+            cargador.ejecutarEtapa(
+                    new CargadorParalelo.Tarea(pathPilotos, () -> {
+                        this.pilotos = GestorArchivos.leerPilotosDesdeCSV(pathPilotos, nuevoIndice, getModoLectura(pathPilotos));
+                        marcarListo(ConjuntoDatos.PILOTOS);
+                    }),
+                    new CargadorParalelo.Tarea(pathMecanicos, () -> {
+                        this.mecanicos = GestorArchivos.leerMecanicosDesdeCSV(pathMecanicos, nuevoIndice, getModoLectura(pathMecanicos));
+                        marcarListo(ConjuntoDatos.MECANICOS);
+                    }),
+                    new CargadorParalelo.Tarea(pathCircuitos, () -> {
+                        this.circuitos = GestorArchivos.leerCircuitosDesdeCSV(pathCircuitos, nuevoIndice, getModoLectura(pathCircuitos));
+                        marcarListo(ConjuntoDatos.CIRCUITOS);
+                    }),
+                    new CargadorParalelo.Tarea(pathAutos, () -> {
+                        this.autos = GestorArchivos.leerAutosDesdeCSV(pathAutos, nuevoIndice, getModoLectura(pathAutos));
+                        marcarListo(ConjuntoDatos.AUTOS);
+                    }));
+
+            // 3. Cargar carreras (dependen de País y Circuito)
+            cargador.ejecutarEtapa(
+                    new CargadorParalelo.Tarea(pathCarreras, () -> {
+                        this.carreras = GestorArchivos.leerCarrerasDesdeCSV(pathCarreras, nuevoIndice, getModoLectura(pathCarreras));
+                        marcarListo(ConjuntoDatos.CARRERAS);
+                    }));
+
+            // 4. Cargar contratos y autos asignados en cada carrera, si los archivos existen
+            // (los de registros, que escribe el EscritorDiferido, reemplazan a los CSV)
+            List<CargadorParalelo.Tarea> relaciones = new ArrayList<>();
+            if (new File(pathContratosBinario).isFile()) {
+                relaciones.add(new CargadorParalelo.Tarea(pathContratosBinario, () -> GestorArchivos.leerContratosDesdeBinario(pathContratosBinario, nuevoIndice)));
+            } else if (new File(LectorCSV.resolver(pathContratos)).exists()) {
+                relaciones.add(new CargadorParalelo.Tarea(pathContratos, () -> GestorArchivos.leerContratosDesdeCSV(pathContratos, nuevoIndice, getModoLectura(pathContratos))));
+            }
+            if (new File(pathAsignacionesAutosBinario).isFile()) {
+                relaciones.add(new CargadorParalelo.Tarea(pathAsignacionesAutosBinario, () -> GestorArchivos.leerAsignacionesAutosDesdeBinario(pathAsignacionesAutosBinario, nuevoIndice)));
+            } else if (new File(LectorCSV.resolver(pathAsignacionesAutos)).exists()) {
+                relaciones.add(new CargadorParalelo.Tarea(pathAsignacionesAutos, () -> GestorArchivos.leerAsignacionesAutosDesdeCSV(pathAsignacionesAutos, nuevoIndice, getModoLectura(pathAsignacionesAutos))));
+            }
+            if (!relaciones.isEmpty()) {
+                cargador.ejecutarEtapa(relaciones.toArray(new CargadorParalelo.Tarea[0]));
+            }
+
+            this.tiemposCarga = cargador.getTiemposPorArchivo();
+            this.resumenTiemposCarga = cargador.getResumenTiempos() + System.lineSeparator() + nuevoIndice.getPoolCadenas();
+        }
+
+        // 5. Conservar los índices para reutilizarlos después de la carga (y en la carga diferida)
+        this.indice = nuevoIndice;
+        descartarResultados();
+        this.relacionMecanicosCargada = false;
+    }
+
+    /**
+     * Vincula los mecánicos con sus escuderías leyendo DatosMecanicoEscuderia.csv,
+     * si todavía no se hizo. Es seguro llamarlo varias veces y desde varios hilos:
+     * el archivo se lee una sola vez.
+     * Hay que llamarlo antes de usar {@code Escuderia.getMecanicos()} o {@code Mecanico.getEscuderias()}.
+     *
+     * @throws LogicaException Si el archivo no se encuentra o tiene datos inválidos
+     * (en ese caso se volverá a intentar en la próxima llamada).
+     */
+    public void cargarRelacionMecanicos() throws LogicaException {
+        if (relacionMecanicosCargada) {
+            return;
+        }
+        synchronized (cerrojoRelacionMecanicos) {
+            if (!relacionMecanicosCargada) {
+                GestorArchivos.vincularMecanicosAEscuderias(pathMecanicoEscuderia, indice, getModoLectura(pathMecanicoEscuderia));
+                relacionMecanicosCargada = true;
+            }
+        }
+    }
+
+    /**
+     * Valida todos los archivos CSV (incluidos los de carga diferida) con un
+     * {@link ValidadorDatos}, juntando todos los errores en un solo reporte.
+     * No modifica los datos cargados.
+     *
+     * @return El reporte con todos los errores encontrados (vacío si los datos son válidos).
+     * @throws LogicaException Si algún archivo no se puede leer.
+     */
+    public ReporteValidacion validarDatos() throws LogicaException {
+        ValidadorDatos validador = new ValidadorDatos(pathPaises, pathEscuderias, pathPilotos, pathMecanicos,
+                pathCircuitos, pathCarreras, pathAutos, pathMecanicoEscuderia, pathResultados);
+        return validador.validar();
+    }
+
+    /**
+     * Valida todos los archivos CSV y, sólo si no hay ningún error, los carga
+     * desde cero (sin usar el snapshot) y les aplica la bitácora.
+     * Si hay errores, los datos actuales no se tocan.
+     *
+     * @return El reporte de validación (sin errores).
+     * @throws LogicaException Con el reporte completo si algún archivo tiene errores.
+     */
+    public ReporteValidacion cargarDatosValidados() throws LogicaException {
+        ReporteValidacion reporte;
+        synchronized (cerrojoArchivos) {
+            long escritas = EscritorDiferido.recuperar(directorioDatos);
+            reporte = validarDatos();
+            if (reporte.hayErrores()) {
+                throw new LogicaException(reporte.toString());
+            }
+            avisosDiferidos = bitacora.tieneOperaciones();
+            try {
+                cargarDesdeCSV();
+                aplicarBitacora(escritas);
+            } finally {
+                avisosDiferidos = false;
+            }
+        }
+        marcarEntidadesListas();
+        return reporte;
+    }
+
+    /**
+     * Guarda un snapshot binario con todos los datos actuales, para que el
+     * próximo {@link #cargarDatos()} no tenga que leer los CSV.
+     * Como al cargarlo se vuelve a aplicar la bitácora, sólo debe guardarse con
+     * los datos base (antes de aplicarla, como hace {@link #cargarDatos()}).
+     *
+     * @throws LogicaException Si no se puede escribir el snapshot.
+     */
+    public void guardarSnapshot() throws LogicaException {
+        SnapshotBinario.escribir(this, pathSnapshot, EscritorDiferido.secuenciaEscrita(directorioDatos));
+    }
+
+    /**
+     * Devuelve la ruta del snapshot binario (ver {@link CompactadorBitacora}).
+     * @return La ruta.
+     */
+    String getPathSnapshot() {
+        return pathSnapshot;
+    }
+
+    /**
+     * Vuelve a leer sólo los archivos indicados y fusiona sus filas nuevas y modificadas
+     * con los datos en uso, sin volver a cargar todo (ver {@link RecargaIncremental}).
+     * Prepara y publica la recarga en el hilo que llama; {@link VigilanteDatos} hace
+     * lo mismo pero publica en el hilo que se le indique (ej. el de la GUI).
+     *
+     * @param paths Rutas de los archivos que cambiaron (ej. "datos/DatosPiloto.csv").
+     * Las que no son archivos de datos se ignoran.
+     * @return Un resumen de la recarga (archivos, filas nuevas y actualizadas).
+     * @throws LogicaException Si algún archivo no se puede leer o tiene datos inválidos
+     * (en ese caso los datos en uso no se modifican).
+     */
+    public String recargarArchivos(Collection<String> paths) throws LogicaException {
+        Set<String> archivos = new LinkedHashSet<>();
+        for (String path : paths) {
+            String conocido = pathDeArchivo(new File(path).getName());
+            if (conocido != null) {
+                archivos.add(conocido);
+            }
+        }
+        RecargaIncremental recarga = prepararRecarga(archivos);
+        if (!publicarRecarga(recarga)) {
+            return "Recarga descartada: los datos se volvieron a cargar completos.";
+        }
+        return recarga.toString();
+    }
+
+    /**
+     * Devuelve la ruta del archivo de datos con ese nombre (ej. "DatosPiloto.csv"
+     * o su versión comprimida "DatosPiloto.csv.gz").
+     * @param nombre Nombre del archivo, sin directorio.
+     * @return La ruta (sin ".gz"), o null si no es un archivo de datos.
+     */
+    String pathDeArchivo(String nombre) {
+        if (LectorCSV.estaComprimido(nombre)) {
+            nombre = nombre.substring(0, nombre.length() - LectorCSV.EXTENSION_GZIP.length());
+        }
+        for (String path : pathsCsv) {
+            if (new File(path).getName().equals(nombre)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Primer paso de la recarga incremental: lee los archivos que cambiaron con una
+     * copia del índice, sin modificar los datos en uso. Se puede llamar desde cualquier hilo.
+     * La relación mecánico-escudería y los resultados sólo se leen si ya estaban
+     * cargados (si no, su carga diferida leerá el archivo nuevo).
+     *
+     * @param archivos Rutas (las que devuelve {@link #pathDeArchivo}) de los archivos que cambiaron.
+     * @return La recarga lista para publicar.
+     * @throws LogicaException Si algún archivo no se puede leer o tiene datos inválidos.
+     */
+    RecargaIncremental prepararRecarga(Set<String> archivos) throws LogicaException {
+        IndiceCarga base = indice;
+        RecargaIncremental recarga = new RecargaIncremental(base, archivos);
+        IndiceCarga copia = base.copiar();
+        // En el mismo orden que la carga completa, para resolver las referencias
+        if (archivos.contains(pathPaises)) {
+            recarga.paises = GestorArchivos.leerPaisesDesdeCSV(pathPaises, copia, getModoLectura(pathPaises));
+        }
+        if (archivos.contains(pathEscuderias)) {
+            recarga.escuderias = GestorArchivos.leerEscuderiasDesdeCSV(pathEscuderias, copia, getModoLectura(pathEscuderias));
+        }
+        if (archivos.contains(pathPilotos)) {
+            recarga.pilotos = GestorArchivos.leerPilotosDesdeCSV(pathPilotos, copia, getModoLectura(pathPilotos));
+        }
+        if (archivos.contains(pathMecanicos)) {
+            recarga.mecanicos = GestorArchivos.leerMecanicosDesdeCSV(pathMecanicos, copia, getModoLectura(pathMecanicos));
+        }
+        if (archivos.contains(pathCircuitos)) {
+            recarga.circuitos = GestorArchivos.leerCircuitosDesdeCSV(pathCircuitos, copia, getModoLectura(pathCircuitos));
+        }
+        if (archivos.contains(pathAutos)) {
+            recarga.autos = GestorArchivos.leerAutosDesdeCSV(pathAutos, copia, getModoLectura(pathAutos), false);
+        }
+        if (archivos.contains(pathCarreras)) {
+            recarga.carreras = GestorArchivos.leerCarrerasDesdeCSV(pathCarreras, copia, getModoLectura(pathCarreras));
+        }
+        if (archivos.contains(pathMecanicoEscuderia) && relacionMecanicosCargada) {
+            recarga.relacionMecanicos = GestorArchivos.leerRelacionMecanicos(pathMecanicoEscuderia, copia, getModoLectura(pathMecanicoEscuderia));
+        }
+        if (archivos.contains(pathResultados) && resultadosCarreras != null && !(resultadosCarreras instanceof VistaResultados)) {
+            recarga.resultados = GestorArchivos.leerResultadosDesdeCSV(pathResultados, copia, getModoLectura(pathResultados));
+        }
+        return recarga;
+    }
+
+    /**
+     * Segundo paso de la recarga incremental: fusiona lo leído con los datos en uso.
+     * Es rápido (sólo recorre las filas recargadas y las listas afectadas), y conviene
+     * llamarlo en el mismo hilo que modifica los datos (el de la GUI), así nunca se
+     * ve una recarga a medias.
+     *
+     * @param recarga La recarga preparada con {@link #prepararRecarga}.
+     * @return false si se descartó porque hubo una carga completa después de prepararla.
+     */
+    synchronized boolean publicarRecarga(RecargaIncremental recarga) {
+        if (recarga.getBase() != indice) {
+            return false;
+        }
+        IndiceCarga idx = indice;
+        if (recarga.paises != null) {
+            paises = recarga.fusionar(paises, recarga.paises, Pais::getIdPais, recarga::actualizarPais, idx::registrarPais);
+        }
+        if (recarga.escuderias != null) {
+            escuderias = recarga.fusionar(escuderias, recarga.escuderias, e -> IndiceCarga.normalizar(e.getNombre()), (vivo, leido) -> false, idx::registrarEscuderia);
+        }
+        if (recarga.pilotos != null) {
+            pilotos = recarga.fusionar(pilotos, recarga.pilotos, p -> p.getDni().trim(), RecargaIncremental::actualizarPiloto, idx::registrarPiloto);
+        }
+        if (recarga.mecanicos != null) {
+            mecanicos = recarga.fusionar(mecanicos, recarga.mecanicos, m -> m.getDni().trim(), RecargaIncremental::actualizarMecanico, idx::registrarMecanico);
+        }
+        if (recarga.circuitos != null) {
+            circuitos = recarga.fusionar(circuitos, recarga.circuitos, c -> IndiceCarga.normalizar(c.getNombre()), recarga::actualizarCircuito, idx::registrarCircuito);
+        }
+        if (recarga.autos != null) {
+            autos = recarga.fusionar(autos, recarga.autos, a -> IndiceCarga.normalizar(a.getModelo()), RecargaIncremental::actualizarAuto, a -> {
+                if (a.getEscuderia() != null) {
+                    a.getEscuderia().agregarAuto(a);
+                }
+                idx.registrarAuto(a);
+            });
+        }
+        if (recarga.carreras != null) {
+            carreras = recarga.fusionar(carreras, recarga.carreras, c -> c.getFechaRealizacion().trim(), RecargaIncremental::actualizarCarrera, idx::registrarCarrera);
+        }
+        recarga.revincularReemplazos(escuderias, pilotos, mecanicos, circuitos, carreras);
+        if (recarga.circuitos != null) {
+            recarga.revincularPaisesDeCarreras(carreras); // El país de la carrera sale del circuito
+        }
+        // Las claves únicas que no son la de la fusión pueden haber cambiado en las filas actualizadas
+        if (recarga.paises != null) {
+            idx.reindexarPaises(paises);
+        }
+        if (recarga.pilotos != null) {
+            idx.reindexarPilotos(pilotos);
+        }
+        if (recarga.carreras != null) {
+            idx.reindexarCarreras(carreras);
+        }
+        if (recarga.relacionMecanicos != null) {
+            recarga.vincularMecanicos();
+        }
+        List<ResultadoCarrera> resultados = resultadosCarreras;
+        if (recarga.resultados != null && resultados != null) {
+            resultadosCarreras = recarga.fusionarResultados(resultados);
+        } else if (resultados instanceof VistaResultados && recarga.getArchivos().contains(pathResultados)) {
+            // El almacén sólo ve el archivo como estaba al abrirse: se vuelve a abrir en la
+            // próxima consulta, conservando los resultados agregados en la sesión
+            synchronized (cerrojoResultados) {
+                AlmacenResultados almacen = ((VistaResultados) resultados).getAlmacen();
+                resultadosRecargados.addAll(almacen.getAgregados());
+                resultadosCarreras = null;
+                almacen.close();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Deja los resultados pendientes de carga diferida, cerrando su almacén si tiene
+     * archivos abiertos (quien lo esté recorriendo recibe un error de lectura).
+     */
+    private void descartarResultados() {
+        synchronized (cerrojoResultados) {
+            List<ResultadoCarrera> resultados = resultadosCarreras;
+            resultadosCarreras = null;
+            resultadosRecargados.clear();
+            if (resultados instanceof VistaResultados) {
+                ((VistaResultados) resultados).getAlmacen().close();
+            }
+        }
+    }
+
+    /**
+     * Reemplaza las entidades principales en memoria de una sola vez (usado al leer un snapshot).
+     * Los resultados y la relación mecánico-escudería quedan pendientes de carga diferida.
+     */
+    void reemplazarDatos(List<Pais> paises, List<Escuderia> escuderias, List<Piloto> pilotos, List<Mecanico> mecanicos,
+            List<Circuito> circuitos, List<Auto> autos, List<Carrera> carreras, IndiceCarga indice) {
+        this.paises = paises;
+        this.escuderias = escuderias;
+        this.pilotos = pilotos;
+        this.mecanicos = mecanicos;
+        this.circuitos = circuitos;
+        this.autos = autos;
+        this.carreras = carreras;
+        this.indice = indice;
+        descartarResultados();
+        this.relacionMecanicosCargada = false;
+        marcarEntidadesListas();
+    }
+
+    /**
+     * Devuelve todos los resultados de carreras como un Stream, sin obligar a
+     * cargarlos en memoria: si la lista ya está cargada se recorre la lista
+     * (que incluye los resultados agregados en esta sesión); si no, se recorre
+     * el archivo a medida que se consume el Stream.
+     * Conviene usarlo dentro de un try-with-resources.
+     *
+     * @param paralelo true para obtener un Stream paralelo.
+     * @return El Stream de resultados.
+     * @throws LogicaException Si el archivo de resultados no se encuentra.
+     */
+    public Stream<ResultadoCarrera> streamResultados(boolean paralelo) throws LogicaException {
+        List<ResultadoCarrera> resultados = resultadosCarreras;
+        if (resultados != null) {
+            return paralelo ? resultados.parallelStream() : resultados.stream();
+        }
+        return conResultadosBitacora(GestorArchivos.streamResultadosDesdeCSV(pathResultados, indice, paralelo), paralelo);
+    }
+
+    /**
+     * Agrega al Stream de resultados leídos de los archivos los de la bitácora
+     * que todavía esperan la carga de la lista.
+     */
+    private Stream<ResultadoCarrera> conResultadosBitacora(Stream<ResultadoCarrera> delArchivo, boolean paralelo) {
+        List<ResultadoCarrera> pendientes;
+        synchronized (cerrojoResultados) {
+            pendientes = resultadosBitacora.isEmpty() ? List.of() : new ArrayList<>(resultadosBitacora);
+        }
+        if (pendientes.isEmpty()) {
+            return delArchivo;
+        }
+        return Stream.concat(delArchivo, paralelo ? pendientes.parallelStream() : pendientes.stream());
+    }
+
+    /**
+     * Devuelve las particiones por temporada de los resultados. Si no existen o
+     * DatosResultadoCarrera.csv es más nuevo que su manifiesto, se vuelven a generar
+     * a partir de ese archivo.
+     *
+     * @return Las particiones de resultados.
+     * @throws LogicaException Si no se pueden leer o generar las particiones.
+     */
+    public ParticionesResultados getParticionesResultados() throws LogicaException {
+        ParticionesResultados actuales = particiones;
+        if (actuales == null || !ParticionesResultados.estaActualizado(pathParticiones, pathResultados)) {
+            synchronized (cerrojoParticiones) {
+                actuales = particiones;
+                if (actuales == null || !ParticionesResultados.estaActualizado(pathParticiones, pathResultados)) {
+                    if (ParticionesResultados.estaActualizado(pathParticiones, pathResultados)) {
+                        actuales = ParticionesResultados.abrir(pathParticiones);
+                    } else {
+                        actuales = ParticionesResultados.particionar(pathResultados, pathParticiones, getModoLectura(pathResultados));
+                    }
+                    particiones = actuales;
+                }
+            }
+        }
+        return actuales;
+    }
+
+    /**
+     * Devuelve como Stream los resultados de las carreras corridas entre dos fechas
+     * (inclusive). Si la lista de resultados ya está en memoria se filtra la lista
+     * (o, con otro {@link MotorAlmacenamiento}, se consulta su almacén, que puede usar un
+     * índice por fecha); si no, sólo se leen las particiones de las temporadas que se
+     * superponen con el rango.
+     * Conviene usarlo dentro de un try-with-resources.
+     *
+     * @param fechaDesde Inicio del rango (formato "dd-MM-yyyy").
+     * @param fechaHasta Fin del rango (formato "dd-MM-yyyy").
+     * @param paralelo true para obtener un Stream paralelo.
+     * @return El Stream de resultados dentro del rango.
+     * @throws LogicaException Si alguna fecha es inválida o no se pueden leer las particiones.
+     */
+    public Stream<ResultadoCarrera> streamResultadosEntre(String fechaDesde, String fechaHasta, boolean paralelo) throws LogicaException {
+        String desde = Utilidades.formatearFecha(fechaDesde);
+        String hasta = Utilidades.formatearFecha(fechaHasta);
+        if (desde == null || hasta == null) {
+            throw new LogicaException("Las fechas del rango no son válidas.");
+        }
+        Stream<ResultadoCarrera> candidatos;
+        List<ResultadoCarrera> resultados = resultadosCarreras;
+        if (resultados instanceof VistaResultados) {
+            Stream<ResultadoCarrera> enRango = ((VistaResultados) resultados).getAlmacen().entreFechas(desde, hasta);
+            candidatos = paralelo ? enRango.parallel() : enRango;
+        } else if (resultados != null) {
+            candidatos = paralelo ? resultados.parallelStream() : resultados.stream();
+        } else {
+            ParticionesResultados todas = getParticionesResultados();
+            candidatos = conResultadosBitacora(ParticionesResultados.stream(todas.particionesEntre(desde, hasta), indice, paralelo), paralelo);
+        }
+        // La poda es por temporada: dentro de cada partición se filtra por fecha exacta
+        return candidatos.filter(r -> {
+            String fecha = Utilidades.formatearFecha(r.getCarrera().getFechaRealizacion());
+            return fecha != null && fecha.compareTo(desde) >= 0 && fecha.compareTo(hasta) <= 0;
+        });
+    }
+
+    /**
+     * Devuelve los resultados de las carreras corridas entre dos fechas (inclusive),
+     * leyendo sólo las temporadas necesarias (ver {@link #streamResultadosEntre}).
+     *
+     * @param fechaDesde Inicio del rango (formato "dd-MM-yyyy").
+     * @param fechaHasta Fin del rango (formato "dd-MM-yyyy").
+     * @return Lista de resultados dentro del rango, en el orden en que están guardados.
+     * @throws LogicaException Si alguna fecha es inválida o no se pueden leer las particiones.
+     */
+    public List<ResultadoCarrera> getResultadosEntre(String fechaDesde, String fechaHasta) throws LogicaException {
+        try (Stream<ResultadoCarrera> resultados = streamResultadosEntre(fechaDesde, fechaHasta, true)) {
+            return resultados.collect(Collectors.toCollection(ArrayList::new));
+        } catch (LogicaRuntimeException e) {
+            throw e.getLogicaException();
+        }
+    }
+
+    /**
+     * Lee DatosResultadoCarrera.csv si todavía no se hizo. Es seguro llamarlo varias
+     * veces y desde varios hilos: el archivo se lee una sola vez.
+     *
+     * @return La lista de resultados cargada.
+     * @throws LogicaException Si el archivo no se encuentra o tiene datos inválidos
+     * (en ese caso se volverá a intentar en la próxima llamada).
+     */
+    public List<ResultadoCarrera> cargarResultados() throws LogicaException {
+        List<ResultadoCarrera> resultados = resultadosCarreras;
+        if (resultados == null) {
+            synchronized (cerrojoResultados) {
+                resultados = resultadosCarreras;
+                if (resultados == null) {
+                    if (!new File(LectorCSV.resolver(pathResultados)).exists() && ParticionesResultados.estaActualizado(pathParticiones, pathResultados)) {
+                        // Sin archivo único: los resultados están sólo en las particiones
+                        resultados = new ArrayList<>();
+                        for (ParticionesResultados.Particion p : getParticionesResultados().getParticiones()) {
+                            resultados.addAll(GestorArchivos.leerResultadosDesdeCSV(p.getPath(), indice, getModoLectura(pathResultados)));
+                        }
+                    } else {
+                        MotorAlmacenamiento motor = motorResultados;
+                        if ((motor == MotorAlmacenamiento.CSV || motor == MotorAlmacenamiento.PAGINAS)
+                                && LectorCSV.estaComprimido(LectorCSV.resolver(pathResultados))) {
+                            motor = MotorAlmacenamiento.MEMORIA; // Un .csv.gz no se puede leer por posición
+                        }
+                        resultados = AlmacenResultados.abrir(motor, pathResultados, indice, getModoLectura(pathResultados)).comoLista();
+                        if (!resultadosRecargados.isEmpty()) {
+                            agregarFaltantes(resultados, resultadosRecargados);
+                            resultadosRecargados.clear();
+                        }
+                    }
+                    resultados.addAll(resultadosBitacora); // Los que ya se aplicaron de la bitácora
+                    resultadosBitacora.clear();
+                    resultadosCarreras = resultados;
+                    marcarListo(ConjuntoDatos.RESULTADOS);
+                }
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Agrega a los resultados recién abiertos los de la sesión anterior a una recarga
+     * que el archivo no tiene (los que el escritor todavía no había escrito).
+     * Recorre el almacén una vez; sólo guarda en memoria los pendientes.
+     */
+    private static void agregarFaltantes(List<ResultadoCarrera> resultados, List<ResultadoCarrera> pendientes) {
+        Map<String, ResultadoCarrera> faltantes = new LinkedHashMap<>();
+        for (ResultadoCarrera r : pendientes) {
+            faltantes.put(claveResultado(r), r);
+        }
+        try (Stream<ResultadoCarrera> guardados = resultados.stream()) {
+            guardados.forEach(r -> faltantes.remove(claveResultado(r)));
+        }
+        resultados.addAll(faltantes.values());
+    }
+
+    private static String claveResultado(ResultadoCarrera r) {
+        return r.getPiloto().getDni().trim() + "|" + r.getCarrera().getFechaRealizacion().trim();
     }
 
     // --- GETTERS ---
@@ -141,65 +1023,165 @@ public class SistemaGestion {
     
     /**
      * Devuelve la lista de todos los resultados de carreras.
+     * La primera llamada después de {@link #cargarDatos()} lee DatosResultadoCarrera.csv
+     * (ver {@link #cargarResultados()}). Con un {@link MotorAlmacenamiento} distinto de
+     * MEMORIA la lista arma cada resultado del almacén al pedirlo (ver {@link VistaResultados}).
      * @return Una lista de objetos ResultadoCarrera.
+     * @throws LogicaRuntimeException Si el archivo de resultados no se puede leer
+     * (se volverá a intentar en la próxima llamada).
      */
     public List<ResultadoCarrera> getResultadosCarreras() {
-        return resultadosCarreras; }
+        List<ResultadoCarrera> resultados = resultadosCarreras;
+        if (resultados == null) {
+            try {
+                resultados = cargarResultados();
+            } catch (LogicaException e) {
+                throw new LogicaRuntimeException(e);
+            }
+        }
+        return resultados; }
+
+    /**
+     * Devuelve los índices hash (por ID, DNI, nombre y fecha) construidos
+     * durante la carga y mantenidos al día por los métodos agregar*.
+     * @return El IndiceCarga del sistema.
+     */
+    public IndiceCarga getIndiceCarga() {
+        return indice; }
+
+    /**
+     * Devuelve cuántos milisegundos tardó cada archivo en la última carga.
+     * @return Mapa archivo -> milisegundos, en orden de carga.
+     */
+    public Map<String, Long> getTiemposCarga() {
+        return tiemposCarga; }
+
+    /**
+     * Devuelve un resumen de texto de los tiempos de la última carga,
+     * incluyendo el total real y lo que hubiera tardado en forma secuencial.
+     * @return El resumen de tiempos.
+     */
+    public String getResumenTiemposCarga() {
+        return resumenTiemposCarga; }
+
+    /**
+     * Devuelve el cerrojo que toman la carga completa y el {@link EscritorDiferido}
+     * al escribir, para no leer un CSV a medio reemplazar.
+     * @return El cerrojo.
+     */
+    Object getCerrojoArchivos() {
+        return cerrojoArchivos; }
+
+    /**
+     * Anota que un archivo de datos lo acaba de escribir la aplicación, para que
+     * {@link VigilanteDatos} no lo recargue (ya tiene los datos en uso).
+     * @param path Ruta del archivo.
+     */
+    void registrarEscrituraPropia(String path) {
+        escriturasPropias.put(path, new File(path).lastModified()); }
+
+    /**
+     * Indica si un archivo no cambió desde la última vez que lo escribió la aplicación.
+     * @param path Ruta del archivo.
+     * @return true si la última modificación es la propia.
+     */
+    boolean esEscrituraPropia(String path) {
+        Long propia = escriturasPropias.get(path);
+        return propia != null && propia == new File(path).lastModified(); }
+
+    /**
+     * Devuelve la bitácora donde se registran las operaciones antes de aplicarlas.
+     * @return La bitácora de operaciones del sistema.
+     */
+    public BitacoraOperaciones getBitacora() {
+        return bitacora; }
 
     // --- ADDERS (Mutators) ---
+    // Cada alta se registra también en el IndiceCarga, que guarda las claves únicas que controla LogicaRegistro
 
     /**
      * Agrega un nuevo país a la lista en memoria.
      * @param pais El objeto Pais a agregar.
      */
-    public void agregarPais(Pais pais) { this.paises.add(pais); }
+    public void agregarPais(Pais pais) {
+        this.paises.add(pais);
+        this.indice.registrarPais(pais); }
     
     /**
      * Agrega un nuevo mecánico a la lista en memoria.
      * @param mecanico El objeto Mecanico a agregar.
      */
     public void agregarMecanico(Mecanico mecanico) {
-        this.mecanicos.add(mecanico); }
+        this.mecanicos.add(mecanico);
+        this.indice.registrarMecanico(mecanico); }
     
     /**
      * Agrega un nuevo piloto a la lista en memoria.
      * @param piloto El objeto Piloto a agregar.
      */
     public void agregarPiloto(Piloto piloto) {
-        this.pilotos.add(piloto); }
+        this.pilotos.add(piloto);
+        this.indice.registrarPiloto(piloto); }
     
     /**
      * Agrega una nueva escudería a la lista en memoria.
      * @param escuderia El objeto Escuderia a agregar.
      */
     public void agregarEscuderia(Escuderia escuderia) {
-        this.escuderias.add(escuderia); }
+        this.escuderias.add(escuderia);
+        this.indice.registrarEscuderia(escuderia); }
     
     /**
      * Agrega un nuevo auto a la lista en memoria.
      * @param auto El objeto Auto a agregar.
      */
     public void agregarAuto(Auto auto) {
-        this.autos.add(auto); }
+        this.autos.add(auto);
+        this.indice.registrarAuto(auto); }
     
     /**
      * Agrega un nuevo circuito a la lista en memoria.
      * @param circuito El objeto Circuito a agregar.
      */
     public void agregarCircuito(Circuito circuito) {
-        this.circuitos.add(circuito); }
+        this.circuitos.add(circuito);
+        this.indice.registrarCircuito(circuito); }
     
     /**
      * Agrega una nueva carrera a la lista en memoria.
      * @param carrera El objeto Carrera a agregar.
      */
     public void agregarCarrera(Carrera carrera) {
-        this.carreras.add(carrera); }
+        this.carreras.add(carrera);
+        this.indice.registrarCarrera(carrera); }
     
     /**
      * Agrega un nuevo resultado de carrera a la lista en memoria.
      * @param resultado El objeto ResultadoCarrera a agregar.
      */
     public void agregarResultadoCarrera(ResultadoCarrera resultado) {
-        this.resultadosCarreras.add(resultado); }
+        getResultadosCarreras().add(resultado); }
+
+    /**
+     * Agrega de una vez varios resultados de carrera a la lista en memoria.
+     * @param resultados Los resultados a agregar, en orden.
+     */
+    public void agregarResultadosCarreras(List<ResultadoCarrera> resultados) {
+        getResultadosCarreras().addAll(resultados); }
+
+    /**
+     * Agrega un resultado aplicado desde la bitácora sin obligar a leer los resultados
+     * del CSV: si todavía no se cargaron, queda aparte hasta que se carguen.
+     * @param resultado El resultado a agregar.
+     */
+    void agregarResultadoDeBitacora(ResultadoCarrera resultado) {
+        synchronized (cerrojoResultados) {
+            List<ResultadoCarrera> resultados = resultadosCarreras;
+            if (resultados != null) {
+                resultados.add(resultado);
+            } else {
+                resultadosBitacora.add(resultado);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,604 @@
+package archivos;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import clases.Auto;
+import clases.AutoPiloto;
+import clases.Carrera;
+import clases.Circuito;
+import clases.Escuderia;
+import clases.Especialidad;
+import clases.Mecanico;
+import clases.Pais;
+import clases.Piloto;
+import clases.PilotoEscuderia;
+import logica.LogicaException;
+
+/**
+ * Guarda y lee una "foto" (snapshot) binaria de las entidades principales de un
+ * {@link SistemaGestion}, ya vinculadas entre sí, para no tener que volver a
+ * leer y vincular todos los CSV en cada inicio.
+ * <p>
+ * Los resultados de carreras y la relación mecánico-escudería no forman parte
+ * del snapshot: {@link SistemaGestion} los carga en forma diferida desde sus CSV,
+ * así el inicio depende de la cantidad de entidades y no del tamaño del historial.
+ * <p>
+ * Formato del archivo:
+ * <ol>
+ * <li>Encabezado: número mágico {@value #MAGICO}, versión del formato y la última
+ * operación de la bitácora que incluye (ver {@link EscritorDiferido#secuenciaEscrita}).</li>
+ * <li>Tabla de Strings: cada texto se guarda una sola vez y las entidades lo referencian por número.</li>
+ * <li>Entidades, en orden de dependencias. Las referencias entre entidades se guardan
+ * como la posición (ID) de la entidad en su lista, no como objetos.</li>
+ * <li>Relaciones (autos, contratos, participaciones), guardando el orden de cada lado.</li>
+ * </ol>
+ * Si se cambia el formato hay que incrementar {@link #VERSION}: los snapshots de
+ * otra versión se descartan y se vuelve a cargar desde los CSV.
+ */
+public class SnapshotBinario {
+    private static final int MAGICO = 0x46315347; // "F1SG"
+    private static final int VERSION = 3;
+    private static final int SIN_REFERENCIA = -1;
+
+    /**
+     * Indica si el snapshot existe y es más nuevo que todos los archivos CSV.
+     *
+     * @param pathSnapshot Ruta del snapshot.
+     * @param pathsCsv Rutas de los CSV de los que se generó.
+     * @return true si se puede cargar el snapshot en lugar de los CSV.
+     */
+    public static boolean estaActualizado(String pathSnapshot, String... pathsCsv) {
+        File snapshot = new File(pathSnapshot);
+        if (!snapshot.isFile()) {
+            return false;
+        }
+        for (String path : pathsCsv) {
+            File csv = new File(LectorCSV.resolver(path));
+            if (csv.exists() && csv.lastModified() >= snapshot.lastModified()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- ESCRITURA ---
+
+    /**
+     * Escribe el snapshot de todos los datos del sistema.
+     * Se escribe primero a un archivo temporal y luego se renombra, para que
+     * nunca quede un snapshot a medio escribir.
+     *
+     * @param datos El sistema a guardar.
+     * @param path Ruta del snapshot.
+     * @param secuencia Última operación de la bitácora incluida en los datos.
+     * @throws LogicaException Si no se puede escribir el archivo.
+     */
+    public static void escribir(SistemaGestion datos, String path, long secuencia) throws LogicaException {
+        File temporal = new File(path + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporal), 1 << 16))) {
+            escribir(datos, out, secuencia);
+        } catch (IOException e) {
+            temporal.delete();
+            throw new LogicaException("Error al escribir el snapshot " + path + ": " + e.getMessage());
+        }
+        reemplazar(path);
+    }
+
+    /**
+     * Copia el snapshot de los datos a memoria, para escribirlo después desde otro
+     * hilo con {@link #escribirTemporal}. Debe llamarse en el hilo que modifica los datos.
+     *
+     * @param datos El sistema a guardar.
+     * @param secuencia Última operación de la bitácora incluida en los datos.
+     * @return El contenido del snapshot.
+     */
+    static byte[] copiar(SistemaGestion datos, long secuencia) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            escribir(datos, out, secuencia);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // No pasa en memoria
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Escribe un snapshot copiado con {@link #copiar} al temporal de {@code path}, sin
+     * tocar el snapshot actual: {@link #reemplazar} lo pone en su lugar.
+     *
+     * @param contenido El snapshot copiado.
+     * @param path Ruta del snapshot.
+     * @throws LogicaException Si no se puede escribir el temporal.
+     */
+    static void escribirTemporal(byte[] contenido, String path) throws LogicaException {
+        File temporal = new File(path + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temporal)) {
+            out.write(contenido);
+        } catch (IOException e) {
+            temporal.delete();
+            throw new LogicaException("Error al escribir el snapshot " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reemplaza el snapshot por su temporal (ver {@link #escribirTemporal}).
+     * @param path Ruta del snapshot.
+     * @throws LogicaException Si no se puede reemplazar el archivo (el temporal se borra).
+     */
+    static void reemplazar(String path) throws LogicaException {
+        File temporal = new File(path + ".tmp");
+        try {
+            Files.move(temporal.toPath(), new File(path).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temporal.delete();
+            throw new LogicaException("Error al reemplazar el snapshot " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Borra el temporal de un snapshot que no se va a usar (ver {@link #escribirTemporal}).
+     * @param path Ruta del snapshot.
+     */
+    static void descartarTemporal(String path) {
+        new File(path + ".tmp").delete();
+    }
+
+    /**
+     * Escribe el snapshot en un flujo de datos.
+     * @param datos El sistema a guardar.
+     * @param out El flujo destino.
+     * @param secuencia Última operación de la bitácora incluida en los datos.
+     * @throws IOException Si falla la escritura.
+     */
+    public static void escribir(SistemaGestion datos, DataOutputStream out, long secuencia) throws IOException {
+        List<Pais> paises = datos.getPaises();
+        List<Escuderia> escuderias = datos.getEscuderias();
+        List<Piloto> pilotos = datos.getPilotos();
+        List<Mecanico> mecanicos = datos.getMecanicos();
+        List<Circuito> circuitos = datos.getCircuitos();
+        List<Auto> autos = datos.getAutos();
+        List<Carrera> carreras = datos.getCarreras();
+
+        // Los contratos y participaciones no tienen lista propia: se juntan desde sus dueños
+        List<PilotoEscuderia> contratos = new ArrayList<>();
+        Map<Object, Integer> idsContratos = new IdentityHashMap<>();
+        for (Piloto p : pilotos) {
+            juntar(p.getPilotosEscuderias(), contratos, idsContratos);
+        }
+        for (Escuderia e : escuderias) {
+            juntar(e.getPilotosEscuderias(), contratos, idsContratos);
+        }
+        List<AutoPiloto> participaciones = new ArrayList<>();
+        Map<Object, Integer> idsParticipaciones = new IdentityHashMap<>();
+        for (Carrera c : carreras) {
+            juntar(c.getParticipantes(), participaciones, idsParticipaciones);
+        }
+        for (Piloto p : pilotos) {
+            juntar(p.getAutosPiloto(), participaciones, idsParticipaciones);
+        }
+        for (Auto a : autos) {
+            juntar(a.getAutosPiloto(), participaciones, idsParticipaciones);
+        }
+
+        Map<Object, Integer> idsPaises = ids(paises);
+        Map<Object, Integer> idsEscuderias = ids(escuderias);
+        Map<Object, Integer> idsPilotos = ids(pilotos);
+        Map<Object, Integer> idsCircuitos = ids(circuitos);
+        Map<Object, Integer> idsAutos = ids(autos);
+        Map<Object, Integer> idsCarreras = ids(carreras);
+
+        // 1. Tabla de Strings
+        TablaStrings tabla = new TablaStrings();
+        for (Pais p : paises) {
+            tabla.agregar(p.getDescripcion());
+        }
+        for (Escuderia e : escuderias) {
+            tabla.agregar(e.getNombre());
+        }
+        for (Piloto p : pilotos) {
+            tabla.agregar(p.getDni());
+            tabla.agregar(p.getNombre());
+            tabla.agregar(p.getApellido());
+        }
+        for (Mecanico m : mecanicos) {
+            tabla.agregar(m.getDni());
+            tabla.agregar(m.getNombre());
+            tabla.agregar(m.getApellido());
+        }
+        for (Circuito c : circuitos) {
+            tabla.agregar(c.getNombre());
+        }
+        for (Auto a : autos) {
+            tabla.agregar(a.getModelo());
+            tabla.agregar(a.getMotor());
+        }
+        for (Carrera c : carreras) {
+            tabla.agregar(c.getFechaRealizacion());
+            tabla.agregar(c.getHoraRealizacion());
+        }
+        for (PilotoEscuderia pe : contratos) {
+            tabla.agregar(pe.getDesdeFecha());
+            tabla.agregar(pe.getHastaFecha());
+        }
+        for (AutoPiloto ap : participaciones) {
+            tabla.agregar(ap.getFechaAsignacion());
+        }
+
+        out.writeInt(MAGICO);
+        out.writeInt(VERSION);
+        out.writeLong(secuencia);
+        tabla.escribir(out);
+
+        // 2. Entidades
+        out.writeInt(paises.size());
+        for (Pais p : paises) {
+            out.writeInt(p.getIdPais());
+            out.writeInt(tabla.id(p.getDescripcion()));
+        }
+        out.writeInt(escuderias.size());
+        for (Escuderia e : escuderias) {
+            out.writeInt(tabla.id(e.getNombre()));
+            out.writeInt(ref(idsPaises, e.getPais()));
+        }
+        out.writeInt(pilotos.size());
+        for (Piloto p : pilotos) {
+            out.writeInt(tabla.id(p.getDni()));
+            out.writeInt(tabla.id(p.getNombre()));
+            out.writeInt(tabla.id(p.getApellido()));
+            out.writeInt(ref(idsPaises, p.getPais()));
+            out.writeInt(p.getNumeroCompetencia());
+            out.writeInt(p.getVictorias());
+            out.writeInt(p.getPolePosition());
+            out.writeInt(p.getVueltasRapidas());
+            out.writeInt(p.getPodios());
+        }
+        out.writeInt(mecanicos.size());
+        for (Mecanico m : mecanicos) {
+            out.writeInt(tabla.id(m.getDni()));
+            out.writeInt(tabla.id(m.getNombre()));
+            out.writeInt(tabla.id(m.getApellido()));
+            out.writeInt(ref(idsPaises, m.getPais()));
+            out.writeInt(m.getEspecialidad() == null ? SIN_REFERENCIA : m.getEspecialidad().ordinal());
+            out.writeInt(m.getAniosExperiencia());
+        }
+        out.writeInt(circuitos.size());
+        for (Circuito c : circuitos) {
+            out.writeInt(tabla.id(c.getNombre()));
+            out.writeInt(c.getLongitud());
+            out.writeInt(ref(idsPaises, c.getPais()));
+        }
+        out.writeInt(autos.size());
+        for (Auto a : autos) {
+            out.writeInt(tabla.id(a.getModelo()));
+            out.writeInt(tabla.id(a.getMotor()));
+            out.writeInt(ref(idsEscuderias, a.getEscuderia()));
+        }
+        out.writeInt(carreras.size());
+        for (Carrera c : carreras) {
+            out.writeInt(tabla.id(c.getFechaRealizacion()));
+            out.writeInt(c.getNroVueltas());
+            out.writeInt(tabla.id(c.getHoraRealizacion()));
+            out.writeInt(ref(idsPaises, c.getPais()));
+            out.writeInt(ref(idsCircuitos, c.getCircuito()));
+        }
+        out.writeInt(contratos.size());
+        for (PilotoEscuderia pe : contratos) {
+            out.writeInt(tabla.id(pe.getDesdeFecha()));
+            out.writeInt(tabla.id(pe.getHastaFecha()));
+            out.writeInt(ref(idsPilotos, pe.getPiloto()));
+            out.writeInt(ref(idsEscuderias, pe.getEscuderia()));
+        }
+        out.writeInt(participaciones.size());
+        for (AutoPiloto ap : participaciones) {
+            out.writeInt(tabla.id(ap.getFechaAsignacion()));
+            out.writeInt(ref(idsPilotos, ap.getPiloto()));
+            out.writeInt(ref(idsAutos, ap.getAuto()));
+            out.writeInt(ref(idsCarreras, ap.getCarrera()));
+        }
+
+        // 3. Relaciones (se guarda cada lado para conservar el orden de las listas)
+        for (Escuderia e : escuderias) {
+            escribirRefs(out, idsAutos, e.getAutos());
+            escribirRefs(out, idsContratos, e.getPilotosEscuderias());
+        }
+        for (Piloto p : pilotos) {
+            escribirRefs(out, idsContratos, p.getPilotosEscuderias());
+            escribirRefs(out, idsParticipaciones, p.getAutosPiloto());
+        }
+        for (Auto a : autos) {
+            escribirRefs(out, idsParticipaciones, a.getAutosPiloto());
+        }
+        for (Carrera c : carreras) {
+            escribirRefs(out, idsParticipaciones, c.getParticipantes());
+        }
+    }
+
+    // --- LECTURA ---
+
+    /**
+     * Lee un snapshot y reemplaza con su contenido las entidades principales del sistema.
+     * Los índices de carga se reconstruyen a medida que se leen las entidades (los países
+     * y circuitos, al final: ver {@link #leer(DataInputStream, SistemaGestion)}).
+     *
+     * @param path Ruta del snapshot.
+     * @param destino El sistema donde se cargan los datos.
+     * @return La última operación de la bitácora incluida en el snapshot.
+     * @throws LogicaException Si el archivo no existe, es de otra versión o está dañado.
+     */
+    public static long leer(String path, SistemaGestion destino) throws LogicaException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16))) {
+            return leer(in, destino);
+        } catch (EOFException e) {
+            throw new LogicaException("Error al leer el snapshot " + path + ": el archivo está incompleto.");
+        } catch (IOException | RuntimeException e) {
+            // RuntimeException: una referencia fuera de rango indica un archivo dañado
+            throw new LogicaException("Error al leer el snapshot " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lee un snapshot desde un flujo de datos.
+     * El sistema destino sólo se modifica si el snapshot se leyó completo. Los países y
+     * circuitos se comparten con las otras temporadas ({@link ReferenciasCompartidas})
+     * también recién entonces, para que un snapshot incompleto o dañado no deje nada en el registro compartido.
+     *
+     * @param in El flujo origen.
+     * @param destino El sistema donde se cargan los datos.
+     * @return La última operación de la bitácora incluida en el snapshot.
+     * @throws IOException Si falla la lectura o el formato no es válido.
+     */
+    public static long leer(DataInputStream in, SistemaGestion destino) throws IOException {
+        if (in.readInt() != MAGICO) {
+            throw new IOException("no es un snapshot válido");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("versión " + version + " no soportada (se esperaba " + VERSION + ")");
+        }
+        long secuencia = in.readLong();
+        String[] tabla = TablaStrings.leer(in);
+        IndiceCarga indice = destino.nuevoIndiceCarga();
+
+        // 2. Entidades
+        int n = in.readInt();
+        List<Pais> paises = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            paises.add(new Pais(in.readInt(), str(tabla, in.readInt()), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        }
+        n = in.readInt();
+        List<Escuderia> escuderias = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Escuderia e = new Escuderia(str(tabla, in.readInt()));
+            e.setPais(obj(paises, in.readInt()));
+            escuderias.add(e);
+            indice.registrarEscuderia(e);
+        }
+        n = in.readInt();
+        List<Piloto> pilotos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Piloto p = new Piloto(str(tabla, in.readInt()), str(tabla, in.readInt()), str(tabla, in.readInt()),
+                    obj(paises, in.readInt()), in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt());
+            pilotos.add(p);
+            indice.registrarPiloto(p);
+        }
+        n = in.readInt();
+        List<Mecanico> mecanicos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String dni = str(tabla, in.readInt());
+            String nombre = str(tabla, in.readInt());
+            String apellido = str(tabla, in.readInt());
+            Pais pais = obj(paises, in.readInt());
+            int especialidad = in.readInt();
+            Mecanico m = new Mecanico(dni, nombre, apellido, pais,
+                    especialidad == SIN_REFERENCIA ? null : Especialidad.values()[especialidad], in.readInt(), new ArrayList<>());
+            mecanicos.add(m);
+            indice.registrarMecanico(m);
+        }
+        n = in.readInt();
+        List<Circuito> circuitos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            circuitos.add(new Circuito(str(tabla, in.readInt()), in.readInt(), obj(paises, in.readInt())));
+        }
+        n = in.readInt();
+        List<Auto> autos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Auto a = new Auto(str(tabla, in.readInt()), str(tabla, in.readInt()));
+            a.setEscuderia(obj(escuderias, in.readInt())); // La lista de la escudería se arma con las relaciones
+            autos.add(a);
+            indice.registrarAuto(a);
+        }
+        n = in.readInt();
+        List<Carrera> carreras = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String fecha = str(tabla, in.readInt());
+            int vueltas = in.readInt();
+            String hora = str(tabla, in.readInt());
+            Carrera c = new Carrera(fecha, vueltas, hora, obj(paises, in.readInt()), obj(circuitos, in.readInt()));
+            carreras.add(c);
+            indice.registrarCarrera(c);
+        }
+        n = in.readInt();
+        List<PilotoEscuderia> contratos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String desde = str(tabla, in.readInt());
+            String hasta = str(tabla, in.readInt());
+            contratos.add(new PilotoEscuderia(desde, hasta, obj(pilotos, in.readInt()), obj(escuderias, in.readInt())));
+        }
+        n = in.readInt();
+        List<AutoPiloto> participaciones = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String fecha = str(tabla, in.readInt());
+            Piloto piloto = obj(pilotos, in.readInt());
+            Auto auto = obj(autos, in.readInt());
+            participaciones.add(new AutoPiloto(fecha, piloto, auto, obj(carreras, in.readInt())));
+        }
+
+        // 3. Relaciones (se agregan directo a las listas: las referencias ya están asignadas)
+        for (Escuderia e : escuderias) {
+            leerRefs(in, autos, e.getAutos());
+            leerRefs(in, contratos, e.getPilotosEscuderias());
+        }
+        for (Piloto p : pilotos) {
+            leerRefs(in, contratos, p.getPilotosEscuderias());
+            leerRefs(in, participaciones, p.getAutosPiloto());
+        }
+        for (Auto a : autos) {
+            leerRefs(in, participaciones, a.getAutosPiloto());
+        }
+        for (Carrera c : carreras) {
+            leerRefs(in, participaciones, c.getParticipantes());
+        }
+
+        // 4. Países y circuitos compartidos, recién con el archivo leído completo
+        compartirReferencias(indice, paises, escuderias, pilotos, mecanicos, circuitos, carreras);
+
+        destino.reemplazarDatos(paises, escuderias, pilotos, mecanicos, circuitos, autos, carreras, indice);
+        return secuencia;
+    }
+
+    /**
+     * Reemplaza los países y circuitos leídos por los compartidos con las otras temporadas
+     * (si hay uno igual), cambia las referencias de las demás entidades y los registra en el índice.
+     */
+    private static void compartirReferencias(IndiceCarga indice, List<Pais> paises, List<Escuderia> escuderias,
+            List<Piloto> pilotos, List<Mecanico> mecanicos, List<Circuito> circuitos, List<Carrera> carreras) {
+        Map<Object, Object> compartidos = new IdentityHashMap<>(); // Leído -> compartido
+        for (int i = 0; i < paises.size(); i++) {
+            Pais leido = paises.get(i);
+            Pais p = indice.compartir(leido);
+            if (p != leido) {
+                compartidos.put(leido, p);
+                paises.set(i, p);
+            }
+            indice.registrarPais(p);
+        }
+        for (int i = 0; i < circuitos.size(); i++) {
+            Circuito leido = circuitos.get(i);
+            leido.setPais(compartido(compartidos, leido.getPais())); // Antes de compartirlo: se compara por su país
+            Circuito c = indice.compartir(leido);
+            if (c != leido) {
+                compartidos.put(leido, c);
+                circuitos.set(i, c);
+            }
+            indice.registrarCircuito(c);
+        }
+        if (compartidos.isEmpty()) {
+            return;
+        }
+        for (Escuderia e : escuderias) {
+            e.setPais(compartido(compartidos, e.getPais()));
+        }
+        for (Piloto p : pilotos) {
+            p.setPais(compartido(compartidos, p.getPais()));
+        }
+        for (Mecanico m : mecanicos) {
+            m.setPais(compartido(compartidos, m.getPais()));
+        }
+        for (Carrera c : carreras) {
+            c.setPais(compartido(compartidos, c.getPais()));
+            c.setCircuito(compartido(compartidos, c.getCircuito()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T compartido(Map<Object, Object> compartidos, T leido) {
+        Object c = compartidos.get(leido);
+        return (c != null) ? (T) c : leido;
+    }
+
+    // --- AUXILIARES ---
+
+    private static <T> void juntar(List<T> origen, List<T> destino, Map<Object, Integer> ids) {
+        for (T t : origen) {
+            if (!ids.containsKey(t)) {
+                ids.put(t, destino.size());
+                destino.add(t);
+            }
+        }
+    }
+
+    private static Map<Object, Integer> ids(List<?> lista) {
+        Map<Object, Integer> ids = new IdentityHashMap<>(lista.size() * 2);
+        for (int i = 0; i < lista.size(); i++) {
+            ids.put(lista.get(i), i);
+        }
+        return ids;
+    }
+
+    private static int ref(Map<Object, Integer> ids, Object entidad) {
+        if (entidad == null) {
+            return SIN_REFERENCIA;
+        }
+        Integer id = ids.get(entidad);
+        return id == null ? SIN_REFERENCIA : id;
+    }
+
+    private static void escribirRefs(DataOutputStream out, Map<Object, Integer> ids, List<?> lista) throws IOException {
+        out.writeInt(lista.size());
+        for (Object o : lista) {
+            out.writeInt(ref(ids, o));
+        }
+    }
+
+    private static <T> void leerRefs(DataInputStream in, List<T> origen, List<T> destino) throws IOException {
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            destino.add(obj(origen, in.readInt()));
+        }
+    }
+
+    private static String str(String[] tabla, int id) {
+        return id == SIN_REFERENCIA ? null : tabla[id];
+    }
+
+    private static <T> T obj(List<T> lista, int id) {
+        return id == SIN_REFERENCIA ? null : lista.get(id);
+    }
+
+    /**
+     * Tabla de Strings del snapshot: cada texto distinto se guarda una sola vez.
+     */
+    private static class TablaStrings {
+        private final Map<String, Integer> ids = new LinkedHashMap<>();
+
+        void agregar(String s) {
+            if (s != null) {
+                ids.putIfAbsent(s, ids.size());
+            }
+        }
+
+        int id(String s) {
+            return s == null ? SIN_REFERENCIA : ids.get(s);
+        }
+
+        void escribir(DataOutputStream out) throws IOException {
+            out.writeInt(ids.size());
+            for (String s : ids.keySet()) {
+                out.writeUTF(s);
+            }
+        }
+
+        static String[] leer(DataInputStream in) throws IOException {
+            String[] tabla = new String[in.readInt()];
+            for (int i = 0; i < tabla.length; i++) {
+                tabla[i] = in.readUTF();
+            }
+            return tabla;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package archivos;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import clases.Carrera;
+import clases.Piloto;
+import clases.ResultadoCarrera;
+import logica.LogicaException;
+import logica.LogicaRuntimeException;
+
+/**
+ * Spliterator que recorre DatosResultadoCarrera.csv sin cargarlo entero en memoria:
+ * cada resultado se crea recién cuando el Stream lo pide.
+ * <p>
+ * Trabaja sobre un rango de bytes del archivo con un {@link LectorCSVMapeado}.
+ * Mientras no empezó a recorrer, {@link #trySplit()} puede partir su rango a la
+ * mitad (en un inicio de línea), lo que permite usarlo con Streams paralelos.
+ * Se obtiene con {@link GestorArchivos#streamResultadosDesdeCSV}.
+ * <p>
+ * Los errores de datos se lanzan como {@link LogicaRuntimeException}, porque las
+ * operaciones de un Stream no pueden lanzar excepciones verificadas. Como una parte
+ * no sabe cuántas líneas tienen las anteriores, el error indica la posición en bytes.
+ * <p>
+ * Un archivo comprimido ({@code .csv.gz}) no admite posiciones: se recorre entero
+ * con {@link LectorCSV#abrir} (que lo descomprime en otro hilo), sin dividirse, y
+ * los errores indican el número de línea.
+ */
+public class SpliteratorResultados implements Spliterator<ResultadoCarrera> {
+    /** Una parte más chica que esto ya no se divide. */
+    private static final long TAMANIO_MINIMO_PARTE = 1L * 1024 * 1024;
+    /** Bytes por línea supuestos para estimar la cantidad de resultados. */
+    private static final long BYTES_POR_LINEA = 32;
+    /** Relación de compresión supuesta para estimar el tamaño de un .csv.gz. */
+    private static final long FACTOR_COMPRESION = 4;
+
+    private final String path;
+    private final IndiceCarga indice;
+    private final Queue<LectorCSV> abiertos; // Compartida por todas las partes, para cerrarlas con el Stream
+    private long desde;
+    private final long hasta;
+    private final boolean comprimido;
+    private LectorCSV lector;
+    private long linea;
+
+    /**
+     * Crea el spliterator para el rango indicado del archivo.
+     *
+     * @param path Ruta al archivo de resultados (ya resuelta con {@link LectorCSV#resolver}).
+     * @param indice Índice con los pilotos y las carreras.
+     * @param desde Posición inicial (un inicio de línea; 0 incluye el encabezado).
+     * @param hasta Posición final (exclusive).
+     * @param abiertos Donde se anotan los lectores abiertos, para cerrarlos al cerrar el Stream.
+     */
+    SpliteratorResultados(String path, IndiceCarga indice, long desde, long hasta, Queue<LectorCSV> abiertos) {
+        this.path = path;
+        this.indice = indice;
+        this.desde = desde;
+        this.hasta = hasta;
+        this.abiertos = abiertos;
+        this.comprimido = LectorCSV.estaComprimido(path);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super ResultadoCarrera> accion) {
+        try {
+            if (lector == null) {
+                if (desde >= hasta) {
+                    return false;
+                }
+                lector = comprimido ? LectorCSV.abrir(path, ModoLectura.BUFFER) : new LectorCSVMapeado(path, desde, hasta);
+                abiertos.add(lector);
+                if (desde == 0 && lector.siguienteLinea()) {
+                    linea++; // Saltear encabezado
+                }
+            }
+            while (lector.siguienteLinea()) {
+                linea++;
+                if (!lector.lineaVacia()) {
+                    accion.accept(crearResultado());
+                    return true;
+                }
+            }
+            cerrar();
+            return false;
+        } catch (IOException e) {
+            cerrar();
+            throw new LogicaRuntimeException(new LogicaException("Error al leer el archivo " + path + ": " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Crea el resultado de la línea actual con el mismo esquema que
+     * {@link GestorArchivos#leerResultadosDesdeCSV}.
+     */
+    private ResultadoCarrera crearResultado() {
+        try {
+            return GestorArchivos.ESQUEMA_RESULTADOS.leerFila(lector, indice, this::ubicacion);
+        } catch (LogicaException e) {
+            cerrar();
+            throw new LogicaRuntimeException(e);
+        }
+    }
+
+    private String ubicacion() {
+        if (comprimido) {
+            return path + " (línea " + linea + ")";
+        }
+        return path + " (byte " + ((LectorCSVMapeado) lector).posicionLinea() + ")";
+    }
+
+    private void cerrar() {
+        if (lector != null) {
+            try {
+                lector.close();
+            } catch (IOException e) {
+                // Sólo se estaba leyendo: no hay nada que perder
+            }
+            abiertos.remove(lector);
+        }
+        desde = hasta; // No queda nada por recorrer
+    }
+
+    /**
+     * Divide el rango a la mitad, en un inicio de línea. La primera mitad queda en
+     * el spliterator devuelto (como pide el contrato para Streams ordenados).
+     * Sólo se divide antes de empezar a recorrer.
+     */
+    @Override
+    public Spliterator<ResultadoCarrera> trySplit() {
+        if (comprimido || lector != null || hasta - desde < 2 * TAMANIO_MINIMO_PARTE) {
+            return null;
+        }
+        long corte;
+        try (FileChannel canal = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            corte = LectorCSVMapeado.inicioDeLineaSiguiente(canal, desde + (hasta - desde) / 2, hasta);
+        } catch (IOException e) {
+            return null; // Si no se puede dividir, se recorre entero
+        }
+        if (corte <= desde || corte >= hasta) {
+            return null;
+        }
+        SpliteratorResultados prefijo = new SpliteratorResultados(path, indice, desde, corte, abiertos);
+        this.desde = corte;
+        return prefijo;
+    }
+
+    /**
+     * Estima la cantidad de resultados por el tamaño del rango (en un archivo
+     * comprimido, por el tamaño comprimido, que para estos CSV es unas 4 veces menor).
+     */
+    @Override
+    public long estimateSize() {
+        long bytes = Math.max(0, hasta - desde);
+        return (comprimido ? bytes * FACTOR_COMPRESION : bytes) / BYTES_POR_LINEA;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
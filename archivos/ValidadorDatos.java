@@ -0,0 +1,396 @@
+package archivos;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import clases.Especialidad;
+import logica.LogicaException;
+
+/**
+ * Valida todos los archivos de datos de una sola pasada, juntando TODOS los
+ * errores (con archivo y número de línea) en un {@link ReporteValidacion},
+ * en lugar de cortar en el primero como hace {@link GestorArchivos}.
+ * <p>
+ * Cada archivo se divide en partes de al menos {@value #TAMANIO_MINIMO_PARTE} bytes
+ * que empiezan al principio de una línea, y las partes se revisan en paralelo con un
+ * {@link LectorCSVMapeado} sobre su rango. Cada parte cuenta sus propias líneas; al
+ * final se suman las de las partes anteriores para obtener el número de línea real.
+ * Un archivo comprimido ({@code .csv.gz}) se revisa entero en una sola parte.
+ * <p>
+ * Se hace en dos etapas:
+ * <ol>
+ * <li>Archivos de entidades (países, escuderías, pilotos, mecánicos, circuitos, carreras):
+ * se revisa el formato y se juntan sus claves. Las referencias entre ellos
+ * (ej. país de un piloto) se anotan y se verifican al terminar la etapa.
+ * La clave se registra aunque el resto de la línea tenga errores, para no
+ * reportar además cada referencia a ella.</li>
+ * <li>Archivos de relaciones (autos, mecánico-escudería, resultados): se revisa el
+ * formato y las referencias directamente contra las claves de la etapa 1.</li>
+ * </ol>
+ * Los controles son los mismos que hacen los lectores de {@link GestorArchivos}.
+ */
+public class ValidadorDatos {
+    private static final long TAMANIO_MINIMO_PARTE = 4L * 1024 * 1024;
+
+    /**
+     * Revisa una línea (ya separada en campos) de un archivo.
+     */
+    private interface ReglaLinea {
+        void validar(LectorCSV lector, Parte parte, int linea);
+    }
+
+    /**
+     * Un archivo a validar y la regla para cada una de sus líneas.
+     */
+    private static class Archivo {
+        private final String path;
+        private final ReglaLinea regla;
+
+        Archivo(String path, ReglaLinea regla) {
+            this.path = LectorCSV.resolver(path);
+            this.regla = regla;
+        }
+    }
+
+    /**
+     * Una referencia a otra entidad que se verifica al terminar la etapa.
+     */
+    private static class Pendiente {
+        private final Set<?> claves;
+        private final Object clave;
+        private final String mensaje;
+        private final int linea;
+
+        Pendiente(Set<?> claves, Object clave, String mensaje, int linea) {
+            this.claves = claves;
+            this.clave = clave;
+            this.mensaje = mensaje;
+            this.linea = linea;
+        }
+    }
+
+    /**
+     * Una parte (rango de bytes) de un archivo y lo que se encontró en ella.
+     * Los números de línea son relativos al inicio de la parte (desde 1).
+     */
+    private static class Parte {
+        private final Archivo archivo;
+        private final long desde;
+        private final long hasta;
+        private final boolean diferirReferencias;
+        private final List<ErrorValidacion> errores = new ArrayList<>();
+        private final List<Pendiente> pendientes = new ArrayList<>();
+        private int lineas;
+
+        Parte(Archivo archivo, long desde, long hasta, boolean diferirReferencias) {
+            this.archivo = archivo;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.diferirReferencias = diferirReferencias;
+        }
+
+        void error(int linea, String mensaje) {
+            errores.add(new ErrorValidacion(archivo.path, linea, mensaje));
+        }
+
+        /**
+         * Verifica que una clave exista (o la anota para después, en la etapa 1).
+         */
+        void referencia(Set<?> claves, Object clave, int linea, String mensaje) {
+            if (diferirReferencias) {
+                pendientes.add(new Pendiente(claves, clave, mensaje, linea));
+            } else if (!claves.contains(clave)) {
+                error(linea, mensaje);
+            }
+        }
+    }
+
+    // Claves de las entidades, para verificar las referencias
+    private final Set<Integer> paises = ConcurrentHashMap.newKeySet();
+    private final Set<String> escuderias = ConcurrentHashMap.newKeySet();
+    private final Set<String> circuitos = ConcurrentHashMap.newKeySet();
+    private final Set<String> mecanicos = ConcurrentHashMap.newKeySet();
+    private final Set<String> pilotos = ConcurrentHashMap.newKeySet();
+    private final Set<String> carreras = ConcurrentHashMap.newKeySet();
+
+    private final List<Archivo> entidades = new ArrayList<>();
+    private final List<Archivo> relaciones = new ArrayList<>();
+    private final int hilos;
+
+    /**
+     * Constructor de ValidadorDatos.
+     *
+     * @param pathPaises Ruta de DatosPais.csv.
+     * @param pathEscuderias Ruta de DatosEscuderia.csv.
+     * @param pathPilotos Ruta de DatosPiloto.csv.
+     * @param pathMecanicos Ruta de DatosMecanico.csv.
+     * @param pathCircuitos Ruta de DatosCircuito.csv.
+     * @param pathCarreras Ruta de DatosCarrera.csv.
+     * @param pathAutos Ruta de DatosAuto.csv.
+     * @param pathMecanicoEscuderia Ruta de DatosMecanicoEscuderia.csv.
+     * @param pathResultados Ruta de DatosResultadoCarrera.csv.
+     */
+    public ValidadorDatos(String pathPaises, String pathEscuderias, String pathPilotos, String pathMecanicos,
+            String pathCircuitos, String pathCarreras, String pathAutos, String pathMecanicoEscuderia, String pathResultados) {
+        this.hilos = Runtime.getRuntime().availableProcessors();
+        String archivoPaises = new File(pathPaises).getName();
+        String archivoEscuderias = new File(pathEscuderias).getName();
+        String archivoPilotos = new File(pathPilotos).getName();
+        String archivoMecanicos = new File(pathMecanicos).getName();
+        String archivoCircuitos = new File(pathCircuitos).getName();
+        String archivoCarreras = new File(pathCarreras).getName();
+
+        // --- Etapa 1: entidades ---
+        entidades.add(new Archivo(pathPaises, (l, p, linea) -> {
+            if (l.cantidadCampos() < 2) { p.error(linea, "Línea incompleta."); return; }
+            try {
+                paises.add(l.entero(0));
+            } catch (NumberFormatException e) {
+                p.error(linea, "ID de país no es un número.");
+            }
+        }));
+        entidades.add(new Archivo(pathEscuderias, (l, p, linea) -> {
+            if (l.cantidadCampos() < 1) { p.error(linea, "Línea incompleta."); return; }
+            escuderias.add(IndiceCarga.normalizar(l.campo(0)));
+        }));
+        entidades.add(new Archivo(pathPilotos, (l, p, linea) -> {
+            if (l.cantidadCampos() < 9) { p.error(linea, "La línea está incompleta."); return; }
+            pilotos.add(l.campo(0));
+            int idPais;
+            try {
+                idPais = l.entero(3);
+                for (int i = 4; i <= 8; i++) {
+                    l.entero(i);
+                }
+            } catch (NumberFormatException e) {
+                p.error(linea, "Dato numérico (ID, stats) inválido.");
+                return;
+            }
+            p.referencia(paises, idPais, linea, "El ID de país '" + idPais + "' no existe en " + archivoPaises + ".");
+        }));
+        entidades.add(new Archivo(pathMecanicos, (l, p, linea) -> {
+            if (l.cantidadCampos() < 6) { p.error(linea, "Línea incompleta."); return; }
+            mecanicos.add(l.campo(0));
+            int idPais;
+            try {
+                idPais = l.entero(3);
+                Especialidad.valueOf(l.campo(4).toUpperCase());
+                l.entero(5);
+            } catch (NumberFormatException e) {
+                p.error(linea, "ID de país o Años de exp. no son números.");
+                return;
+            } catch (IllegalArgumentException e) {
+                p.error(linea, "Especialidad '" + l.campo(4) + "' no válida.");
+                return;
+            }
+            p.referencia(paises, idPais, linea, "El ID de país '" + idPais + "' no existe en " + archivoPaises + ".");
+        }));
+        entidades.add(new Archivo(pathCircuitos, (l, p, linea) -> {
+            if (l.cantidadCampos() < 3) { p.error(linea, "Línea incompleta."); return; }
+            circuitos.add(IndiceCarga.normalizar(l.campo(0)));
+            int idPais;
+            try {
+                l.entero(1);
+                idPais = l.entero(2);
+            } catch (NumberFormatException e) {
+                p.error(linea, "Longitud (debe ser un entero) o ID de país no son números válidos.");
+                return;
+            }
+            p.referencia(paises, idPais, linea, "El ID de país '" + idPais + "' no existe en " + archivoPaises + ".");
+        }));
+        entidades.add(new Archivo(pathCarreras, (l, p, linea) -> {
+            if (l.cantidadCampos() < 4) { p.error(linea, "Línea incompleta."); return; }
+            carreras.add(l.campo(0));
+            try {
+                l.entero(1);
+            } catch (NumberFormatException e) {
+                p.error(linea, "Nro de vueltas no es un número.");
+                return;
+            }
+            String circuito = l.campo(3);
+            p.referencia(circuitos, IndiceCarga.normalizar(circuito), linea,
+                    "El circuito '" + circuito + "' no existe en " + archivoCircuitos + ".");
+        }));
+
+        // --- Etapa 2: relaciones ---
+        relaciones.add(new Archivo(pathAutos, (l, p, linea) -> {
+            if (l.cantidadCampos() < 2) { p.error(linea, "Línea incompleta."); return; }
+            String escuderia = l.cantidadCampos() > 2 ? l.campo(2) : "";
+            if (escuderia.isEmpty()) {
+                return; // Auto sin escudería
+            }
+            p.referencia(escuderias, IndiceCarga.normalizar(escuderia), linea,
+                    "La escudería '" + escuderia + "' no existe en " + archivoEscuderias + ".");
+        }));
+        relaciones.add(new Archivo(pathMecanicoEscuderia, (l, p, linea) -> {
+            if (l.cantidadCampos() < 2) { p.error(linea, "Línea incompleta."); return; }
+            String dni = l.campo(0);
+            String escuderia = l.campo(1);
+            p.referencia(mecanicos, dni, linea, "El mecánico con DNI '" + dni + "' no existe en " + archivoMecanicos + ".");
+            p.referencia(escuderias, IndiceCarga.normalizar(escuderia), linea,
+                    "La escudería '" + escuderia + "' no existe en " + archivoEscuderias + ".");
+        }));
+        relaciones.add(new Archivo(pathResultados, (l, p, linea) -> {
+            if (l.cantidadCampos() < 3) { p.error(linea, "La línea está incompleta."); return; }
+            try {
+                l.entero(2);
+            } catch (NumberFormatException e) {
+                p.error(linea, "La posición '" + l.campo(2) + "' no es un número.");
+            }
+            String dni = l.campo(0);
+            String fecha = l.campo(1);
+            p.referencia(pilotos, dni, linea, "El piloto con DNI '" + dni + "' no existe en " + archivoPilotos + ".");
+            p.referencia(carreras, fecha, linea, "No existe una carrera con fecha '" + fecha + "' en " + archivoCarreras + ".");
+        }));
+    }
+
+    /**
+     * Valida todos los archivos y devuelve el reporte con todos los errores.
+     * No modifica ningún dato del sistema.
+     *
+     * @return El reporte de validación.
+     * @throws LogicaException Si algún archivo no se puede leer o la validación es interrumpida.
+     */
+    public ReporteValidacion validar() throws LogicaException {
+        long inicio = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "validador-csv");
+            t.setDaemon(true);
+            return t;
+        });
+        List<Parte> partes = new ArrayList<>();
+        try {
+            List<Parte> etapa1 = ejecutar(pool, entidades, true);
+            for (Parte p : etapa1) {
+                for (Pendiente r : p.pendientes) {
+                    if (!r.claves.contains(r.clave)) {
+                        p.error(r.linea, r.mensaje);
+                    }
+                }
+            }
+            partes.addAll(etapa1);
+            partes.addAll(ejecutar(pool, relaciones, false));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Pasar los números de línea de cada parte a números de línea del archivo
+        List<ErrorValidacion> errores = new ArrayList<>();
+        long lineasTotales = 0;
+        Archivo actual = null;
+        int lineasAnteriores = 0;
+        for (Parte p : partes) {
+            if (p.archivo != actual) {
+                actual = p.archivo;
+                lineasAnteriores = 0;
+            }
+            for (ErrorValidacion e : p.errores) {
+                errores.add(new ErrorValidacion(e.getArchivo(), lineasAnteriores + e.getLinea(), e.getMensaje()));
+            }
+            lineasAnteriores += p.lineas;
+            lineasTotales += p.lineas;
+        }
+        List<String> orden = new ArrayList<>();
+        for (Archivo a : entidades) orden.add(a.path);
+        for (Archivo a : relaciones) orden.add(a.path);
+        errores.sort(Comparator.comparingInt((ErrorValidacion e) -> orden.indexOf(e.getArchivo()))
+                .thenComparingInt(ErrorValidacion::getLinea));
+
+        return new ReporteValidacion(errores, lineasTotales, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Divide los archivos de una etapa en partes y las valida en paralelo.
+     * @return Las partes, en orden de archivo y de posición dentro del archivo.
+     */
+    private List<Parte> ejecutar(ExecutorService pool, List<Archivo> archivos, boolean diferir) throws LogicaException {
+        List<Parte> partes = new ArrayList<>();
+        for (Archivo a : archivos) {
+            try {
+                long[] cortes = dividir(a.path);
+                for (int i = 0; i + 1 < cortes.length; i++) {
+                    partes.add(new Parte(a, cortes[i], cortes[i + 1], diferir));
+                }
+            } catch (IOException e) {
+                throw new LogicaException("Error al leer el archivo " + a.path + ": " + e.getMessage());
+            }
+        }
+
+        List<Future<?>> pendientes = new ArrayList<>();
+        for (Parte p : partes) {
+            pendientes.add(pool.submit(() -> {
+                validarParte(p);
+                return null;
+            }));
+        }
+        for (int i = 0; i < pendientes.size(); i++) {
+            try {
+                pendientes.get(i).get();
+            } catch (ExecutionException e) {
+                throw new LogicaException("Error al leer el archivo " + partes.get(i).archivo.path + ": " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LogicaException("La validación de datos fue interrumpida.");
+            }
+        }
+        return partes;
+    }
+
+    /**
+     * Recorre las líneas de una parte aplicando la regla de su archivo.
+     */
+    private static void validarParte(Parte p) throws IOException {
+        try (LectorCSV lector = LectorCSV.estaComprimido(p.archivo.path) ? LectorCSV.abrir(p.archivo.path, ModoLectura.BUFFER)
+                : new LectorCSVMapeado(p.archivo.path, p.desde, p.hasta)) {
+            if (p.desde == 0 && lector.siguienteLinea()) {
+                p.lineas++; // Encabezado
+            }
+            while (lector.siguienteLinea()) {
+                p.lineas++;
+                if (!lector.lineaVacia()) {
+                    p.archivo.regla.validar(lector, p, p.lineas);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calcula dónde cortar un archivo en partes, siempre al principio de una línea.
+     * Un archivo comprimido no se puede cortar: queda en una sola parte.
+     * @return Las posiciones de corte, empezando en 0 y terminando en el tamaño del archivo.
+     */
+    private long[] dividir(String path) throws IOException {
+        if (LectorCSV.estaComprimido(path)) {
+            return new long[] { 0, 1 };
+        }
+        try (FileChannel canal = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            int cantidad = (int) Math.max(1, Math.min(hilos * 4L, tamanio / TAMANIO_MINIMO_PARTE));
+            List<Long> cortes = new ArrayList<>();
+            cortes.add(0L);
+            for (int i = 1; i < cantidad; i++) {
+                long corte = LectorCSVMapeado.inicioDeLineaSiguiente(canal, tamanio * i / cantidad, tamanio);
+                if (corte > cortes.get(cortes.size() - 1) && corte < tamanio) {
+                    cortes.add(corte);
+                }
+            }
+            cortes.add(tamanio);
+            long[] resultado = new long[cortes.size()];
+            for (int i = 0; i < resultado.length; i++) {
+                resultado[i] = cortes.get(i);
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package archivos;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import logica.LogicaException;
+
+/**
+ * Vigila el directorio de datos de un sistema con un {@link WatchService} y, cuando cambia
+ * algún CSV, recarga sólo esos archivos sobre el {@link SistemaGestion} en uso
+ * (ver {@link RecargaIncremental}), sin reiniciar la aplicación.
+ * <p>
+ * Como un archivo grande se escribe en varias partes, se espera a que el directorio
+ * quede {@value #ESPERA_MS} ms sin cambios antes de recargar (los cambios de ese
+ * lapso se juntan en una sola recarga). Los archivos se leen en el hilo del vigilante;
+ * la fusión con los datos en uso se hace con el {@link Executor} indicado, que en la
+ * GUI es el hilo de Swing ({@code SwingUtilities::invokeLater}).
+ */
+public class VigilanteDatos implements AutoCloseable {
+    /** Milisegundos sin cambios que se esperan antes de recargar. */
+    private static final long ESPERA_MS = 500;
+
+    /**
+     * Recibe el resultado de cada recarga. Se llama desde el {@link Executor} de publicación.
+     */
+    public interface Oyente {
+        /**
+         * Los archivos indicados se fusionaron con los datos en uso.
+         * @param archivos Rutas de los archivos recargados.
+         * @param resumen Filas nuevas y actualizadas.
+         */
+        void datosRecargados(Set<String> archivos, String resumen);
+
+        /**
+         * Algún archivo no se pudo recargar; los datos en uso no se modificaron.
+         * Por defecto no hace nada.
+         * @param error El error de lectura o de datos.
+         */
+        default void errorDeRecarga(LogicaException error) {
+        }
+    }
+
+    private final SistemaGestion sistema;
+    private final Executor publicador;
+    private final List<Oyente> oyentes;
+    private final Path directorio;
+    private WatchService servicio;
+    private Thread hilo;
+
+    /**
+     * Constructor de VigilanteDatos.
+     * @param sistema El sistema cuyos datos se recargan.
+     * @param publicador Dónde se fusionan las recargas con los datos en uso
+     * (ej. {@code SwingUtilities::invokeLater}).
+     */
+    public VigilanteDatos(SistemaGestion sistema, Executor publicador) {
+        this.sistema = sistema;
+        this.publicador = publicador;
+        this.oyentes = new CopyOnWriteArrayList<>();
+        this.directorio = Paths.get(sistema.getDirectorioDatos());
+    }
+
+    /**
+     * Agrega un oyente de las recargas.
+     * @param oyente El oyente.
+     */
+    public void agregarOyente(Oyente oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Empieza a vigilar el directorio de datos en un hilo propio (daemon).
+     * @throws LogicaException Si el directorio no se puede vigilar.
+     */
+    public synchronized void iniciar() throws LogicaException {
+        if (hilo != null) {
+            return;
+        }
+        try {
+            servicio = FileSystems.getDefault().newWatchService();
+            directorio.register(servicio, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new LogicaException("No se puede vigilar el directorio " + directorio + ": " + e.getMessage());
+        }
+        hilo = new Thread(this::vigilar, "vigilante-datos");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void vigilar() {
+        try {
+            while (true) {
+                Set<String> cambiados = new LinkedHashSet<>();
+                WatchKey clave = servicio.take();
+                // Juntar los cambios hasta que el directorio quede quieto
+                while (clave != null) {
+                    for (WatchEvent<?> evento : clave.pollEvents()) {
+                        if (evento.context() instanceof Path) {
+                            String path = sistema.pathDeArchivo(((Path) evento.context()).getFileName().toString());
+                            if (path != null) {
+                                cambiados.add(path);
+                            }
+                        }
+                    }
+                    clave.reset();
+                    clave = servicio.poll(ESPERA_MS, TimeUnit.MILLISECONDS);
+                }
+                if (!cambiados.isEmpty()) {
+                    recargar(cambiados);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Se cerró el vigilante
+        }
+    }
+
+    private void recargar(Set<String> cambiados) {
+        cambiados.removeIf(sistema::esEscrituraPropia); // Los escribió el EscritorDiferido con los datos en uso
+        if (cambiados.isEmpty()) {
+            return;
+        }
+        RecargaIncremental recarga;
+        try {
+            recarga = sistema.prepararRecarga(cambiados);
+        } catch (LogicaException e) {
+            publicador.execute(() -> {
+                for (Oyente o : oyentes) {
+                    o.errorDeRecarga(e);
+                }
+            });
+            return;
+        }
+        publicador.execute(() -> {
+            if (sistema.publicarRecarga(recarga)) {
+                for (Oyente o : oyentes) {
+                    o.datosRecargados(recarga.getArchivos(), recarga.toString());
+                }
+            }
+        });
+    }
+
+    /**
+     * Deja de vigilar el directorio.
+     */
+    @Override
+    public synchronized void close() {
+        if (hilo == null) {
+            return;
+        }
+        hilo.interrupt();
+        try {
+            servicio.close();
+        } catch (IOException e) {
+            // Ya no se vigila nada
+        }
+        hilo = null;
+    }
+}
@@ -0,0 +1,69 @@
+package archivos;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
+import clases.ResultadoCarrera;
+import logica.LogicaException;
+import logica.LogicaRuntimeException;
+
+/**
+ * Lista de resultados respaldada por un {@link AlmacenResultados} que no los tiene
+ * todos en memoria: cada elemento se lee del almacén cuando se pide, y agregar uno
+ * lo agrega al almacén. Así {@link SistemaGestion#getResultadosCarreras()} sigue
+ * devolviendo una lista con cualquier motor.
+ * <p>
+ * Cada llamada a {@link #get(int)} crea un resultado nuevo (con el mismo piloto y
+ * la misma carrera), por lo que no hay que comparar resultados por identidad.
+ * Los errores de lectura se lanzan como {@link LogicaRuntimeException}.
+ */
+public class VistaResultados extends AbstractList<ResultadoCarrera> implements RandomAccess {
+    private final AlmacenResultados almacen;
+
+    /**
+     * Constructor de VistaResultados.
+     * @param almacen El almacén con los resultados.
+     */
+    public VistaResultados(AlmacenResultados almacen) {
+        this.almacen = almacen;
+    }
+
+    /**
+     * Devuelve el almacén de la lista.
+     * @return El almacén.
+     */
+    public AlmacenResultados getAlmacen() {
+        return almacen;
+    }
+
+    @Override
+    public ResultadoCarrera get(int posicion) {
+        try {
+            return almacen.obtener(posicion);
+        } catch (LogicaException e) {
+            throw new LogicaRuntimeException(e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return almacen.cantidad();
+    }
+
+    @Override
+    public boolean add(ResultadoCarrera resultado) {
+        almacen.agregar(resultado);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Stream<ResultadoCarrera> stream() {
+        return almacen.stream(false);
+    }
+
+    @Override
+    public Stream<ResultadoCarrera> parallelStream() {
+        return almacen.stream(true);
+    }
+}
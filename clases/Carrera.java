@@ -68,6 +68,30 @@ public class Carrera {
         return pais;
     }
 
+    /**
+     * Establece el número de vueltas de la carrera.
+     * @param nroVueltas El nuevo número de vueltas.
+     */
+    public void setNroVueltas(int nroVueltas) {
+        this.nroVueltas = nroVueltas;
+    }
+
+    /**
+     * Establece la hora de realización de la carrera.
+     * @param horaRealizacion La nueva hora.
+     */
+    public void setHoraRealizacion(String horaRealizacion) {
+        this.horaRealizacion = horaRealizacion;
+    }
+
+    /**
+     * Establece el país donde se realiza la carrera.
+     * @param pais El nuevo Pais.
+     */
+    public void setPais(Pais pais) {
+        this.pais = pais;
+    }
+
     /**
      * Obtiene el circuito de la carrera.
      * @return El Circuito.
@@ -212,4 +212,22 @@ public class Piloto extends Persona {
     public void agregarPilotoEscuderia(PilotoEscuderia pilotoEscuderia) {
         this.pilotosEscuderias.add(pilotoEscuderia);
     }
+
+    /**
+     * Suma a las estadísticas la victoria, el podio y la vuelta rápida que
+     * correspondan a un resultado.
+     * @param posicion La posición final en la carrera.
+     * @param tuvoVueltaRapida true si hizo la vuelta rápida.
+     */
+    public void sumarResultado(int posicion, boolean tuvoVueltaRapida) {
+        if (posicion == 1) {
+            this.victorias++;
+        }
+        if (posicion <= 3) {
+            this.podios++;
+        }
+        if (tuvoVueltaRapida) {
+            this.vueltasRapidas++;
+        }
+    }
 }
\ No newline at end of file
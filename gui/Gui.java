@@ -1,7 +1,14 @@
 package gui; // Declaración del paquete
 
 // Importaciones de la Lógica y Persistencia
+import archivos.ConjuntoDatos;
+import archivos.CompactadorBitacora;
+import archivos.EscritorDiferido;
 import archivos.SistemaGestion;
+import archivos.ReporteValidacion;
+import archivos.VigilanteDatos;
+import archivos.FormatoExportacion;
+import logica.ExportadorInformes;
 import logica.LogicaException;
 import logica.LogicaGestion;
 import logica.LogicaInformes;
@@ -18,8 +25,14 @@ import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.List;
+import java.util.Set;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 // Nuevas importaciones para la Fuente Personalizada y Gráficos 2D
 import java.io.File;
@@ -54,6 +67,13 @@ public class Gui extends JFrame {
     private LogicaRegistro logicaRegistro;
     private LogicaGestion logicaGestion;
     private LogicaInformes logicaInformes;
+    private ExportadorInformes exportador;
+    private VigilanteDatos vigilante; // Recarga los CSV que cambian con la aplicación abierta
+    private EscritorDiferido escritor; // Lleva a los CSV lo que se registra con la aplicación abierta
+    private CompactadorBitacora compactador; // Descarta de la bitácora lo que ya está en los CSV
+    private CompletableFuture<SistemaGestion> cargaDatos; // Se completa cuando están todas las entidades
+    private JTextArea bienvenida; // Se actualiza a medida que se cargan los datos
+    private String ultimaRecarga; // Resumen de la última recarga de los CSV (null si no hubo)
 
     // --- Componentes GUI Principales ---
     private CardLayout cardLayout;
@@ -134,12 +154,15 @@ public class Gui extends JFrame {
      * Constructor de la GUI.
      * <ul>
      * <li>Inicializa las capas de lógica (SistemaGestion, LogicaRegistro, etc.).</li>
-     * <li>Invoca la carga de datos desde CSV ({@link SistemaGestion#cargarDatos()}).</li>
+     * <li>Empieza a escribir los cambios en los CSV de a lotes ({@link EscritorDiferido}).</li>
+     * <li>Compacta la bitácora cada tanto ({@link CompactadorBitacora}).</li>
+     * <li>Empieza la carga de datos en segundo plano ({@link SistemaGestion#iniciarCarga()}).</li>
      * <li>Configura las propiedades principales del JFrame (título, tamaño, etc.).</li>
      * <li>Llama a {@link #construirGUIMain()} para ensamblar la interfaz.</li>
      * </ul>
-     * En caso de un error crítico durante la carga de datos, muestra un error
-     * y termina la aplicación (System.exit(1)).
+     * La ventana se arma sin esperar a los datos: cada botón se habilita cuando
+     * están cargados los datos que usa. En caso de un error crítico durante la
+     * carga de datos, muestra un error y termina la aplicación (System.exit(1)).
      */
     public Gui() {
         // 1. Inicializar las capas
@@ -147,26 +170,125 @@ public class Gui extends JFrame {
         logicaRegistro = new LogicaRegistro();
         logicaGestion = new LogicaGestion();
         logicaInformes = new LogicaInformes();
-
-        // 2. Cargar datos
-        try {
-            sistema.cargarDatos();
-        } catch (LogicaException e) {
-            mostrarError("Error crítico al cargar los datos:\n" + e.getMessage() +
-                    "\nLa aplicación se cerrará.");
-            System.exit(1);
-        }
+        exportador = new ExportadorInformes(logicaInformes);
+
+        // 2. Escribir los cambios en los CSV (los datos se copian en el hilo de Swing) y
+        // empezar a cargar los datos (los resultados, el archivo más grande, se cargan al final)
+        escritor = new EscritorDiferido(sistema, SwingUtilities::invokeLater);
+        escritor.setOyenteErrores(error -> mostrarError("No se pudieron guardar los cambios en los CSV:\n" +
+                error.getMessage() + "\nSe reintentará en el próximo lote (los cambios siguen en la bitácora)."));
+        escritor.iniciar();
+        compactador = new CompactadorBitacora(sistema, escritor);
+        compactador.setOyenteErrores(error -> mostrarError("Error al compactar la bitácora o guardar su snapshot:\n" +
+                error.getMessage() + "\nLos datos no se pierden; se reintentará más tarde."));
+        compactador.iniciar();
+        cargaDatos = sistema.iniciarCarga();
 
         // 3. Configurar la Ventana Principal (JFrame)
         setTitle("Sistema de Gestión F1 - Escuderías Unidas");
         setSize(1280, 800);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                compactador.close();
+                escritor.close(); // Escribe lo pendiente antes de salir
+                if (escritor.getUltimoError() != null) {
+                    mostrarError("No se pudieron guardar los cambios en los CSV:\n" + escritor.getUltimoError().getMessage() +
+                            "\nSe aplicarán desde la bitácora la próxima vez que se abra la aplicación.");
+                }
+            }
+        });
         setLocationRelativeTo(null);
         getContentPane().setBackground(COLOR_FONDO_PRINCIPAL);
         setLayout(new BorderLayout(10, 10));
 
         // 4. Construir la GUI principal
         construirGUIMain();
+
+        // 5. Al terminar cada parte de la carga, seguir en el hilo de Swing
+        cargaDatos.whenComplete((s, error) -> SwingUtilities.invokeLater(() -> terminarCargaEntidades(error)));
+        sistema.cuandoListo(ConjuntoDatos.RESULTADOS).whenComplete((v, error) -> SwingUtilities.invokeLater(() -> {
+            actualizarBienvenida();
+            if (error != null) {
+                Throwable causa = (error instanceof CompletionException) ? error.getCause() : error;
+                mostrarError("No se pudieron cargar los resultados de las carreras:\n" + causa.getMessage() +
+                        "\nSe volverán a leer al pedir un informe.");
+            }
+        }));
+    }
+
+    /**
+     * Se llama (en el hilo de Swing) cuando terminó la carga de las entidades.
+     * Si falló, muestra el error y cierra la aplicación; si no, empieza a vigilar
+     * la carpeta datos.
+     *
+     * @param error El error de la carga, o null si terminó bien.
+     */
+    private void terminarCargaEntidades(Throwable error) {
+        if (error != null) {
+            String detalle = (error instanceof LogicaException) ? describirErroresCarga((LogicaException) error) : error.getMessage();
+            mostrarError("Error crítico al cargar los datos:\n" + detalle +
+                    "\nLa aplicación se cerrará.");
+            System.exit(1);
+        }
+        actualizarBienvenida(); // Incluye los tiempos de carga de cada archivo
+        long descartados = sistema.getBitacora().getBytesDescartados();
+        if (descartados > 0) {
+            mostrarInfo("Se descartaron " + descartados + " bytes incompletos al final de la bitácora\n" +
+                    "(una operación que se interrumpió antes de confirmarse).");
+        }
+
+        // Vigilar la carpeta datos: los CSV modificados se fusionan en el hilo de Swing
+        vigilante = new VigilanteDatos(sistema, SwingUtilities::invokeLater);
+        vigilante.agregarOyente(new VigilanteDatos.Oyente() {
+            @Override
+            public void datosRecargados(Set<String> archivos, String resumen) {
+                ultimaRecarga = resumen;
+                actualizarBienvenida();
+            }
+
+            @Override
+            public void errorDeRecarga(LogicaException error) {
+                mostrarError("No se pudieron recargar los datos:\n" + error.getMessage() +
+                        "\nSe siguen usando los datos anteriores.");
+            }
+        });
+        try {
+            vigilante.iniciar();
+        } catch (LogicaException e) {
+            mostrarError(e.getMessage() + "\nLos cambios en los CSV se verán al reiniciar.");
+        }
+    }
+
+    /**
+     * Deshabilita un botón hasta que se complete el aviso de carga indicado
+     * (si ya está completo, no lo toca). Si la carga falla el botón se habilita
+     * igual, para que la acción muestre el error al usarla.
+     *
+     * @param boton El botón.
+     * @param aviso El aviso de los datos que usa la acción del botón.
+     * @return El mismo botón.
+     */
+    private JButton habilitarCuandoListo(JButton boton, CompletableFuture<?> aviso) {
+        if (aviso.isDone()) {
+            return boton;
+        }
+        boton.setEnabled(false);
+        boton.setToolTipText("Cargando datos...");
+        aviso.whenComplete((r, error) -> SwingUtilities.invokeLater(() -> {
+            boton.setEnabled(true);
+            boton.setToolTipText(null);
+        }));
+        return boton;
+    }
+
+    /**
+     * Igual que {@link #habilitarCuandoListo(JButton, CompletableFuture)}, esperando
+     * a que estén cargados los conjuntos de datos indicados.
+     */
+    private JButton habilitarCuandoListo(JButton boton, ConjuntoDatos... conjuntos) {
+        return habilitarCuandoListo(boton, sistema.cuandoListo(conjuntos));
     }
 
     /**
@@ -286,17 +408,7 @@ public class Gui extends JFrame {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(COLOR_FONDO_PRINCIPAL);
 
-        String texto = "Bienvenido al Sistema de Gestión de F1 'Escuderías Unidas'.\n\n" +
-                "Use el menú de la izquierda para navegar por los módulos:\n\n" +
-                " • Registrar: Dar de alta nuevos pilotos, escuderías, circuitos, etc.\n" +
-                " • Gestionar: Realizar asociaciones, registrar contratos y resultados de carreras.\n" +
-                " • Informes: Visualizar rankings, históricos y estadísticas.\n\n" +
-                "Datos cargados exitosamente:\n" +
-                " > " + sistema.getPilotos().size() + " pilotos\n" +
-                " > " + sistema.getEscuderias().size() + " escuderías\n" +
-                " > " + sistema.getCarreras().size() + " carreras\n";
-
-        JTextArea bienvenida = new JTextArea(texto);
+        bienvenida = new JTextArea();
         bienvenida.setEditable(false);
         bienvenida.setFont(FONT_BIENVENIDA); // Fuente RACING_SANS_ONE
         bienvenida.setForeground(COLOR_TEXTO_SECUNDARIO);
@@ -304,11 +416,45 @@ public class Gui extends JFrame {
         bienvenida.setMargin(new Insets(20, 20, 20, 20));
         bienvenida.setLineWrap(true);
         bienvenida.setWrapStyleWord(true);
+        actualizarBienvenida();
 
-        panel.add(bienvenida, BorderLayout.CENTER);
+        JScrollPane desplazable = new JScrollPane(bienvenida); // Los tiempos de carga pueden no entrar
+        desplazable.setBorder(BorderFactory.createEmptyBorder());
+        desplazable.getViewport().setBackground(COLOR_FONDO_PRINCIPAL);
+        panel.add(desplazable, BorderLayout.CENTER);
         return panel;
     }
 
+    /**
+     * Actualiza el texto de bienvenida con el estado de la carga de datos
+     * (o con las estadísticas básicas, si ya terminó).
+     */
+    private void actualizarBienvenida() {
+        String texto = "Bienvenido al Sistema de Gestión de F1 'Escuderías Unidas'.\n\n" +
+                "Use el menú de la izquierda para navegar por los módulos:\n\n" +
+                " • Registrar: Dar de alta nuevos pilotos, escuderías, circuitos, etc.\n" +
+                " • Gestionar: Realizar asociaciones, registrar contratos y resultados de carreras.\n" +
+                " • Informes: Visualizar rankings, históricos y estadísticas.\n\n";
+        if (!cargaDatos.isDone() || cargaDatos.isCompletedExceptionally()) {
+            texto += "Cargando datos... Las acciones se habilitan a medida que se cargan sus datos.\n";
+        } else {
+            texto += "Datos cargados exitosamente:\n" +
+                    " > " + sistema.getPilotos().size() + " pilotos\n" +
+                    " > " + sistema.getEscuderias().size() + " escuderías\n" +
+                    " > " + sistema.getCarreras().size() + " carreras\n";
+            if (!sistema.estaListo(ConjuntoDatos.RESULTADOS)) {
+                texto += " > Cargando los resultados de las carreras...\n";
+            }
+            if (!sistema.getResumenTiemposCarga().isEmpty()) {
+                texto += "\n" + sistema.getResumenTiemposCarga() + "\n"; // Ya empieza con "Tiempos de carga:"
+            }
+            if (ultimaRecarga != null) {
+                texto += "\nÚltima recarga de los CSV:\n" + ultimaRecarga + "\n";
+            }
+        }
+        bienvenida.setText(texto);
+    }
+
     // -----------------------------------------------------------------
     // --- Paneles de Módulo (Registro, Gestión, Informes) ---
     // --- (MODIFICADOS PARA APARECER EN 1 COLUMNA) ---
@@ -370,13 +516,14 @@ public class Gui extends JFrame {
      */
     private JScrollPane crearPanelRegistro() {
         List<JButton> botones = new ArrayList<>();
-        botones.add(new BotonAccionRedondeado("Registrar Piloto", e -> testRegistrarPiloto()));
-        botones.add(new BotonAccionRedondeado("Registrar Mecánico", e -> testRegistrarMecanico()));
-        botones.add(new BotonAccionRedondeado("Registrar Auto", e -> testRegistrarAuto()));
-        botones.add(new BotonAccionRedondeado("Registrar Escudería", e -> testRegistrarEscuderia()));
-        botones.add(new BotonAccionRedondeado("Registrar País", e -> registrarPais()));
-        botones.add(new BotonAccionRedondeado("Registrar Circuito", e -> testRegistrarCircuito()));
-        botones.add(new BotonAccionRedondeado("Registrar Carrera", e -> testRegistrarCarrera()));
+        // Las altas agregan a las listas del sistema: esperan a que termine la carga de todas las entidades
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Registrar Piloto", e -> testRegistrarPiloto()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Registrar Mecánico", e -> testRegistrarMecanico()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Registrar Auto", e -> testRegistrarAuto()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Registrar Escudería", e -> testRegistrarEscuderia()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Registrar País", e -> registrarPais()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Registrar Circuito", e -> testRegistrarCircuito()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Registrar Carrera", e -> testRegistrarCarrera()), cargaDatos));
 
 
 
@@ -391,13 +538,13 @@ public class Gui extends JFrame {
      */
     private JScrollPane crearPanelGestion() {
         List<JButton> botones = new ArrayList<>();
-        botones.add(new BotonAccionRedondeado("Asociar Piloto a Escudería (Contrato)", e -> testAsociarPilotoEscuderia()));
-        botones.add(new BotonAccionRedondeado("Desvincular Piloto (Fin Contrato)", e -> testDesvincularPilotoEscuderia()));
-        botones.add(new BotonAccionRedondeado("Asociar Auto a Escudería", e -> testAsociarAutoAEscuderia()));
-        botones.add(new BotonAccionRedondeado("Asociar Mecánico a Escudería", e -> testAsociarMecanicoAEscuderia()));
-        botones.add(new BotonAccionRedondeado("Asociar Piloto a Auto en Carrera", e -> testAsociarPilotoAutoCarrera()));
-        botones.add(new BotonAccionRedondeado("Registrar Resultado de Carrera", e -> testRegistrarResultado()));
-        botones.add(new BotonAccionRedondeado("Asignar Pole Position", e -> testAsignarPolePosition()));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Asociar Piloto a Escudería (Contrato)", e -> testAsociarPilotoEscuderia()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Desvincular Piloto (Fin Contrato)", e -> testDesvincularPilotoEscuderia()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Asociar Auto a Escudería", e -> testAsociarAutoAEscuderia()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Asociar Mecánico a Escudería", e -> testAsociarMecanicoAEscuderia()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Asociar Piloto a Auto en Carrera", e -> testAsociarPilotoAutoCarrera()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Registrar Resultado de Carrera", e -> testRegistrarResultado()), ConjuntoDatos.RESULTADOS));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Asignar Pole Position", e -> testAsignarPolePosition()), cargaDatos));
 
 
         return crearPanelDeAccionUnicaColumna("Módulo de Gestión", botones);
@@ -411,14 +558,16 @@ public class Gui extends JFrame {
      */
     private JScrollPane crearPanelInformes() {
         List<JButton> botones = new ArrayList<>();
-        botones.add(new BotonAccionRedondeado("Ranking de Pilotos", e -> testRankingPilotos()));
-        botones.add(new BotonAccionRedondeado("Resultados de Carreras por Fechas", e -> testReporteResultadosPorFecha()));
-        botones.add(new BotonAccionRedondeado("Histórico de un Piloto", e -> testHistoricoPiloto()));
-        botones.add(new BotonAccionRedondeado("Histórico de todos los Pilotos", e -> testHistoricoTodosLosPilotos()));
-        botones.add(new BotonAccionRedondeado("Reporte de Autos por Escudería", e -> testReporteAutosPorEscuderia()));
-        botones.add(new BotonAccionRedondeado("Reporte de Mecánicos por Escudería", e -> testReporteMecanicosPorEscuderia()));
-        botones.add(new BotonAccionRedondeado("Contador de veces que un Piloto corrió en un Circuito", e -> testContadorPilotoEnCircuito()));
-        botones.add(new BotonAccionRedondeado("Contador de Carreras por Circuito", e -> testContadorCarrerasEnCircuito()));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Ranking de Pilotos", e -> testRankingPilotos()), ConjuntoDatos.RESULTADOS));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Resultados de Carreras por Fechas", e -> testReporteResultadosPorFecha()), ConjuntoDatos.RESULTADOS));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Histórico de un Piloto", e -> testHistoricoPiloto()), ConjuntoDatos.PILOTOS));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Histórico de todos los Pilotos", e -> testHistoricoTodosLosPilotos()), ConjuntoDatos.PILOTOS));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Reporte de Autos por Escudería", e -> testReporteAutosPorEscuderia()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Reporte de Mecánicos por Escudería", e -> testReporteMecanicosPorEscuderia()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Contador de veces que un Piloto corrió en un Circuito", e -> testContadorPilotoEnCircuito()), cargaDatos));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Contador de Carreras por Circuito", e -> testContadorCarrerasEnCircuito()), ConjuntoDatos.CIRCUITOS, ConjuntoDatos.CARRERAS));
+        botones.add(habilitarCuandoListo(new BotonAccionRedondeado("Exportar Informe (CSV / JSON)", e -> exportarInforme()),
+                CompletableFuture.allOf(cargaDatos, sistema.cuandoListo(ConjuntoDatos.RESULTADOS))));
 
         return crearPanelDeAccionUnicaColumna("Módulo de Informes", botones);
     }
@@ -535,7 +684,9 @@ public class Gui extends JFrame {
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
             ButtonModel model = getModel();
-            if (model.isPressed()) {
+            if (!isEnabled()) {
+                g2.setColor(COLOR_FONDO_SECUNDARIO); // Deshabilitado mientras se cargan sus datos
+            } else if (model.isPressed()) {
                 g2.setColor(getBackground().darker());
             } else if (model.isRollover()) {
                 g2.setColor(getBackground().brighter()); // Hover se aclara
@@ -729,7 +880,7 @@ public class Gui extends JFrame {
 
     /**
      * Manejador de GUI para asociar un Piloto y un Auto a una Carrera.
-     * Llama a {@link LogicaGestion#asociarPilotoAutoACarrera(Carrera, Piloto, Auto, String)}.
+     * Llama a {@link LogicaGestion#asociarPilotoAutoACarrera(SistemaGestion, Carrera, Piloto, Auto, String)}.
      */
     private void testAsociarPilotoAutoCarrera() {
         try {
@@ -737,7 +888,7 @@ public class Gui extends JFrame {
             Auto a = seleccionarAuto();
             Carrera c = seleccionarCarrera();
             if (p == null || a == null || c == null) return;
-            logicaGestion.asociarPilotoAutoACarrera(c, p, a, c.getFechaRealizacion());
+            logicaGestion.asociarPilotoAutoACarrera(sistema, c, p, a, c.getFechaRealizacion());
             mostrarInfo("¡ASIGNACIÓN EXITOSA!\nPiloto: " + p.getNombre() + "\nAuto: " + a.getModelo() + "\nCarrera: " + c.getCircuito().getNombre());
         } catch (LogicaException | NullPointerException ex) {
             mostrarError(ex.getMessage());
@@ -765,7 +916,7 @@ public class Gui extends JFrame {
 
     /**
      * Manejador de GUI para asociar un Piloto a una Escudería (crear contrato).
-     * Llama a {@link LogicaGestion#asociarPilotoAEscuderia(Piloto, Escuderia, String)}.
+     * Llama a {@link LogicaGestion#asociarPilotoAEscuderia(SistemaGestion, Piloto, Escuderia, String)}.
      */
     private void testAsociarPilotoEscuderia() {
         try {
@@ -773,7 +924,7 @@ public class Gui extends JFrame {
             Escuderia e = seleccionarEscuderia();
             String fecha = getDesdeUsuario("Fecha de inicio de contrato (dd-MM-yyyy):");
             if (p == null || e == null || fecha == null) return;
-            logicaGestion.asociarPilotoAEscuderia(p, e, fecha);
+            logicaGestion.asociarPilotoAEscuderia(sistema, p, e, fecha);
             mostrarInfo("¡CONTRATO EXITOSO!\n" + p.getNombre() + " -> " + e.getNombre() + " (desde " + fecha + ")");
         } catch (LogicaException | NullPointerException ex) {
             mostrarError(ex.getMessage());
@@ -782,7 +933,7 @@ public class Gui extends JFrame {
 
     /**
      * Manejador de GUI para desvincular un Piloto de una Escudería (finalizar contrato).
-     * Llama a {@link LogicaGestion#desvincularPilotoDeEscuderia(Piloto, Escuderia, String)}.
+     * Llama a {@link LogicaGestion#desvincularPilotoDeEscuderia(SistemaGestion, Piloto, Escuderia, String)}.
      */
     private void testDesvincularPilotoEscuderia() {
         try {
@@ -792,7 +943,7 @@ public class Gui extends JFrame {
             if (e == null) return;
             String fecha = getDesdeUsuario("Fecha de FIN de contrato (dd-MM-yyyy):");
             if (fecha == null) return;
-            logicaGestion.desvincularPilotoDeEscuderia(p, e, fecha);
+            logicaGestion.desvincularPilotoDeEscuderia(sistema, p, e, fecha);
             mostrarInfo("¡CONTRATO FINALIZADO!\n" + p.getNombre() + " y " + e.getNombre() + " (hasta " + fecha + ")");
         } catch (LogicaException | NullPointerException ex) {
             mostrarError(ex.getMessage());
@@ -801,14 +952,14 @@ public class Gui extends JFrame {
 
     /**
      * Manejador de GUI para asociar un Auto a una Escudería.
-     * Llama a {@link LogicaGestion#asociarAutoAEscuderia(Auto, Escuderia)}.
+     * Llama a {@link LogicaGestion#asociarAutoAEscuderia(SistemaGestion, Auto, Escuderia)}.
      */
     private void testAsociarAutoAEscuderia() {
         try {
             Auto a = seleccionarAuto();
             Escuderia e = seleccionarEscuderia();
             if (a == null || e == null) return;
-            logicaGestion.asociarAutoAEscuderia(a, e);
+            logicaGestion.asociarAutoAEscuderia(sistema, a, e);
             mostrarInfo("¡Auto " + a.getModelo() + " ahora pertenece a " + e.getNombre() + "!");
         } catch (LogicaException | NullPointerException ex) {
             mostrarError(ex.getMessage());
@@ -817,14 +968,14 @@ public class Gui extends JFrame {
 
     /**
      * Manejador de GUI para asociar un Mecánico a una Escudería.
-     * Llama a {@link LogicaGestion#asociarMecanicoAEscuderia(Mecanico, Escuderia)}.
+     * Llama a {@link LogicaGestion#asociarMecanicoAEscuderia(SistemaGestion, Mecanico, Escuderia)}.
      */
     private void testAsociarMecanicoAEscuderia() {
         try {
             Mecanico m = seleccionarMecanico();
             Escuderia e = seleccionarEscuderia();
             if (m == null || e == null) return;
-            logicaGestion.asociarMecanicoAEscuderia(m, e);
+            logicaGestion.asociarMecanicoAEscuderia(sistema, m, e);
             mostrarInfo("¡Mecánico " + m.getNombre() + " ahora trabaja para " + e.getNombre() + "!");
         } catch (LogicaException | NullPointerException ex) {
             mostrarError(ex.getMessage());
@@ -833,14 +984,14 @@ public class Gui extends JFrame {
 
     /**
      * Manejador de GUI para asignar una Pole Position a un Piloto.
-     * Llama a {@link LogicaGestion#asignarPolePosition(Piloto)}.
+     * Llama a {@link LogicaGestion#asignarPolePosition(SistemaGestion, Piloto)}.
      */
     private void testAsignarPolePosition() {
         try {
             Piloto p = seleccionarPiloto();
             if (p == null) return;
             int polesAntes = p.getPolePosition();
-            logicaGestion.asignarPolePosition(p);
+            logicaGestion.asignarPolePosition(sistema, p);
             mostrarInfo("¡Pole position asignada a " + p.getNombre() + " " + p.getApellido() + "!\n" +
                     "Total anterior: " + polesAntes + "\n" +
                     "Total nuevo: " + p.getPolePosition());
@@ -997,6 +1148,66 @@ public class Gui extends JFrame {
         }
     }
 
+    /**
+     * Manejador de GUI para exportar un informe a un archivo CSV o JSON.
+     * Pide el informe, el formato y el archivo, y exporta en segundo plano con
+     * {@link ExportadorInformes} mientras muestra un diálogo que permite cancelar.
+     */
+    private void exportarInforme() {
+        String[] informes = {"Ranking de Pilotos", "Resultados de Carreras por Fechas", "Autos por Escudería"};
+        String informe = (String) JOptionPane.showInputDialog(this, "Seleccione el informe a exportar:", "Exportar Informe",
+                JOptionPane.QUESTION_MESSAGE, null, informes, informes[0]);
+        if (informe == null) return;
+        FormatoExportacion formato = (FormatoExportacion) JOptionPane.showInputDialog(this, "Seleccione el formato:", "Exportar Informe",
+                JOptionPane.QUESTION_MESSAGE, null, FormatoExportacion.values(), FormatoExportacion.CSV);
+        if (formato == null) return;
+        String fDesde = null;
+        String fHasta = null;
+        if (informe.equals(informes[1])) {
+            fDesde = getDesdeUsuario("Fecha desde (formato dd-MM-yyyy):");
+            if (fDesde == null) return;
+            fHasta = getDesdeUsuario("Fecha hasta (formato dd-MM-yyyy):");
+            if (fHasta == null) return;
+        }
+        JFileChooser selector = new JFileChooser();
+        selector.setSelectedFile(new File(informe.replace(' ', '_') + formato.getExtension()));
+        if (selector.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        String path = selector.getSelectedFile().getPath();
+
+        AtomicBoolean cancelado = new AtomicBoolean();
+        String desde = fDesde;
+        String hasta = fHasta;
+        CompletableFuture<Long> exportacion = CompletableFuture.supplyAsync(() -> {
+            try {
+                if (informe.equals(informes[0])) {
+                    return exportador.exportarRanking(sistema, logicaGestion, path, formato, cancelado::get);
+                } else if (informe.equals(informes[1])) {
+                    return exportador.exportarResultadosPorFechas(sistema, desde, hasta, path, formato, cancelado::get);
+                }
+                return exportador.exportarAutosPorEscuderia(sistema, path, formato, cancelado::get);
+            } catch (LogicaException ex) {
+                throw new CompletionException(ex);
+            }
+        });
+
+        JOptionPane espera = new JOptionPane("Exportando " + informe + "...", JOptionPane.INFORMATION_MESSAGE,
+                JOptionPane.DEFAULT_OPTION, null, new Object[]{"Cancelar"});
+        JDialog dialogo = espera.createDialog(this, "Exportar Informe");
+        exportacion.whenComplete((n, error) -> SwingUtilities.invokeLater(dialogo::dispose));
+        dialogo.setVisible(true); // Vuelve cuando termina la exportación o se presiona "Cancelar"
+        if ("Cancelar".equals(espera.getValue())) {
+            cancelado.set(true);
+        }
+        exportacion.whenComplete((n, error) -> SwingUtilities.invokeLater(() -> {
+            if (error == null) {
+                mostrarInfo("Informe exportado: " + n + " filas en\n" + path);
+            } else {
+                Throwable causa = (error instanceof CompletionException) ? error.getCause() : error;
+                mostrarError(causa.getMessage());
+            }
+        }));
+    }
+
     /**
      * Manejador de GUI para contar cuántas veces un Piloto corrió en un Circuito.
      * Llama a {@link LogicaInformes#getContadorPilotoEnCircuito(SistemaGestion, Piloto, Circuito)}.
@@ -1061,6 +1272,26 @@ public class Gui extends JFrame {
         UIManager.put("ComboBox.foreground", COLOR_FONDO_PRINCIPAL);
     }
 
+    /**
+     * Arma el mensaje para un error de carga de datos.
+     * La carga se corta en el primer error, así que se validan todos los
+     * archivos para mostrar de una vez todos los problemas a corregir.
+     *
+     * @param e El error con el que falló la carga.
+     * @return El reporte de validación, o el mensaje original si no se encontraron más errores.
+     */
+    private String describirErroresCarga(LogicaException e) {
+        try {
+            ReporteValidacion reporte = sistema.validarDatos();
+            if (reporte.hayErrores()) {
+                return reporte.toString();
+            }
+        } catch (LogicaException ex) {
+            // Se muestra el error original
+        }
+        return e.getMessage();
+    }
+
     /**
      * Muestra un diálogo de error estilizado.
      * Acepta saltos de línea (\n) y los convierte a HTML (<br>) para
@@ -0,0 +1,192 @@
+package logica;
+
+import archivos.EscritorInforme;
+import archivos.FormatoExportacion;
+import archivos.SistemaGestion;
+import clases.Auto;
+import clases.AutoPiloto;
+import clases.Carrera;
+import clases.Piloto;
+import clases.ResultadoCarrera;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Exporta los informes de {@link LogicaInformes} a archivos CSV o JSON.
+ * <p>
+ * Cada fila del informe se escribe apenas se recorre (ver {@link EscritorInforme}):
+ * no se arma el texto completo del informe en memoria, ni la lista completa de sus filas.
+ * Los resultados por fechas se leen de a una temporada con
+ * {@link SistemaGestion#streamResultadosEntre} (que poda las particiones y usa el índice
+ * por fecha del motor) y se ordenan de a una fecha; los autos, de a una escudería.
+ * Las exportaciones largas se pueden cancelar desde otro hilo con el {@link BooleanSupplier}
+ * que recibe cada método, también mientras se leen los datos; en ese caso el archivo
+ * destino no se modifica.
+ */
+public class ExportadorInformes {
+
+    private static final String SIN_ESCUDERIA = "Z/Sin Escuderia"; // Va al final, como en LogicaInformes
+
+    private final LogicaInformes informes;
+
+    /**
+     * Constructor de ExportadorInformes.
+     * @param informes La lógica que genera los informes.
+     */
+    public ExportadorInformes(LogicaInformes informes) {
+        this.informes = informes;
+    }
+
+    /**
+     * Exporta el ranking de pilotos (ver {@link LogicaInformes#getRankingPilotos}).
+     *
+     * @param datos El SistemaGestion.
+     * @param logicaGestion La lógica que calcula los puntajes.
+     * @param path Ruta del archivo destino.
+     * @param formato Formato del archivo.
+     * @param cancelado Devuelve true si hay que cortar la exportación (puede ser null).
+     * @return La cantidad de filas exportadas.
+     * @throws LogicaException Si se cancela, o no se pueden leer los resultados o escribir el archivo.
+     */
+    public long exportarRanking(SistemaGestion datos, LogicaGestion logicaGestion, String path, FormatoExportacion formato, BooleanSupplier cancelado) throws LogicaException {
+        try (EscritorInforme escritor = new EscritorInforme(path, formato, cancelado, "puesto", "dni", "nombre", "apellido", "puntos")) {
+            // Una fila por piloto: lo que crece con los resultados se suma sin guardarlo
+            List<PilotoPuntaje> ranking;
+            try {
+                ranking = informes.getRankingPilotos(datos, logicaGestion, cancelado);
+            } catch (LogicaRuntimeException e) {
+                throw e.getLogicaException();
+            }
+            int puesto = 1;
+            for (PilotoPuntaje pp : ranking) {
+                Piloto p = pp.getPiloto();
+                escritor.fila(puesto++, p.getDni(), p.getNombre(), p.getApellido(), pp.getPuntajeTotal());
+            }
+            escritor.terminar();
+            return escritor.getFilas();
+        }
+    }
+
+    /**
+     * Exporta los resultados de un rango de fechas, ordenados por fecha y posición
+     * (como {@link LogicaInformes#getReporteResultadosPorFechas}). Se leen de a una temporada
+     * y en memoria queda sólo esa temporada del rango.
+     *
+     * @param datos El SistemaGestion.
+     * @param fechaDesde La fecha de inicio del rango (formato "dd-MM-yyyy").
+     * @param fechaHasta La fecha de fin del rango (formato "dd-MM-yyyy").
+     * @param path Ruta del archivo destino.
+     * @param formato Formato del archivo.
+     * @param cancelado Devuelve true si hay que cortar la exportación (puede ser null).
+     * @return La cantidad de filas exportadas.
+     * @throws LogicaException Si alguna fecha es inválida, se cancela, o no se pueden
+     * leer los resultados o escribir el archivo.
+     */
+    public long exportarResultadosPorFechas(SistemaGestion datos, String fechaDesde, String fechaHasta, String path, FormatoExportacion formato, BooleanSupplier cancelado) throws LogicaException {
+        if (!Utilidades.esFechaValida(fechaDesde) || !Utilidades.esFechaValida(fechaHasta)) {
+            throw new LogicaException("Formato de fecha inválido. Use el formato dd-MM-yyyy.");
+        }
+        String desde = Utilidades.formatearFecha(fechaDesde);
+        String hasta = Utilidades.formatearFecha(fechaHasta);
+        // Las temporadas con carreras en el rango (las carreras están en memoria; los resultados, no siempre)
+        TreeSet<String> anios = new TreeSet<>();
+        for (Carrera c : datos.getCarreras()) {
+            String fecha = Utilidades.formatearFecha(c.getFechaRealizacion());
+            if (fecha != null && fecha.compareTo(desde) >= 0 && fecha.compareTo(hasta) <= 0) {
+                anios.add(fecha.substring(0, fecha.indexOf('-')));
+            }
+        }
+        String anioDesde = desde.substring(0, desde.indexOf('-'));
+        String anioHasta = hasta.substring(0, hasta.indexOf('-'));
+        try (EscritorInforme escritor = new EscritorInforme(path, formato, cancelado, "fecha", "circuito", "posicion", "dni", "nombre", "apellido")) {
+            for (String anio : anios) {
+                String inicio = anio.equals(anioDesde) ? fechaDesde : "01-01-" + anio;
+                String fin = anio.equals(anioHasta) ? fechaHasta : "31-12-" + anio;
+                for (List<ResultadoCarrera> delDia : resultadosPorFecha(datos, inicio, fin, path, cancelado).values()) {
+                    delDia.sort(Comparator.comparingInt(ResultadoCarrera::getPosicion));
+                    for (ResultadoCarrera r : delDia) {
+                        Piloto p = r.getPiloto();
+                        escritor.fila(r.getCarrera().getFechaRealizacion(), r.getCarrera().getCircuito().getNombre(), r.getPosicion(),
+                                p.getDni(), p.getNombre(), p.getApellido());
+                    }
+                }
+            }
+            escritor.terminar();
+            return escritor.getFilas();
+        }
+    }
+
+    /**
+     * Lee los resultados de un tramo del rango (una temporada) y los agrupa por fecha
+     * ("yyyy-MM-dd"), revisando la cancelación con cada resultado.
+     */
+    private static TreeMap<String, List<ResultadoCarrera>> resultadosPorFecha(SistemaGestion datos, String inicio, String fin,
+            String path, BooleanSupplier cancelado) throws LogicaException {
+        TreeMap<String, List<ResultadoCarrera>> porFecha = new TreeMap<>();
+        try (Stream<ResultadoCarrera> resultados = datos.streamResultadosEntre(inicio, fin, false)) {
+            Iterator<ResultadoCarrera> it = resultados.iterator();
+            while (it.hasNext()) {
+                verificarCancelacion(path, cancelado);
+                ResultadoCarrera r = it.next();
+                porFecha.computeIfAbsent(Utilidades.formatearFecha(r.getCarrera().getFechaRealizacion()), k -> new ArrayList<>()).add(r);
+            }
+        } catch (LogicaRuntimeException e) {
+            throw e.getLogicaException();
+        }
+        return porFecha;
+    }
+
+    /**
+     * Exporta los autos usados por escudería en cada carrera, ordenados por escudería
+     * y fecha (como {@link LogicaInformes#getReporteAutosPorEscuderia}). Las asignaciones
+     * se juntan y ordenan de a una escudería.
+     *
+     * @param datos El SistemaGestion.
+     * @param path Ruta del archivo destino.
+     * @param formato Formato del archivo.
+     * @param cancelado Devuelve true si hay que cortar la exportación (puede ser null).
+     * @return La cantidad de filas exportadas.
+     * @throws LogicaException Si se cancela o no se puede escribir el archivo.
+     */
+    public long exportarAutosPorEscuderia(SistemaGestion datos, String path, FormatoExportacion formato, BooleanSupplier cancelado) throws LogicaException {
+        // Los autos de cada escudería (son pocos); las asignaciones se juntan recién al escribirla
+        TreeMap<String, List<Auto>> autosPorEscuderia = new TreeMap<>();
+        for (Auto a : datos.getAutos()) {
+            String clave = (a.getEscuderia() != null) ? a.getEscuderia().getNombre() : SIN_ESCUDERIA;
+            autosPorEscuderia.computeIfAbsent(clave, k -> new ArrayList<>()).add(a);
+        }
+        try (EscritorInforme escritor = new EscritorInforme(path, formato, cancelado, "escuderia", "fecha", "circuito", "dni", "nombre", "apellido", "modelo", "motor")) {
+            for (Map.Entry<String, List<Auto>> e : autosPorEscuderia.entrySet()) {
+                verificarCancelacion(path, cancelado);
+                List<AutoPiloto> asignaciones = new ArrayList<>();
+                for (Auto a : e.getValue()) {
+                    asignaciones.addAll(a.getAutosPiloto());
+                }
+                asignaciones.sort(Comparator.comparing(ap -> Utilidades.formatearFecha(ap.getCarrera().getFechaRealizacion()),
+                        Comparator.nullsLast(Comparator.naturalOrder())));
+                String escuderia = e.getKey().equals(SIN_ESCUDERIA) ? null : e.getKey();
+                for (AutoPiloto ap : asignaciones) {
+                    Piloto p = ap.getPiloto();
+                    escritor.fila(escuderia, ap.getCarrera().getFechaRealizacion(), ap.getCarrera().getCircuito().getNombre(),
+                            p.getDni(), p.getNombre(), p.getApellido(), ap.getAuto().getModelo(), ap.getAuto().getMotor());
+                }
+            }
+            escritor.terminar();
+            return escritor.getFilas();
+        }
+    }
+
+    /** Corta la exportación si se pidió cancelarla (mientras se leen los datos, antes de escribir filas). */
+    private static void verificarCancelacion(String path, BooleanSupplier cancelado) throws LogicaException {
+        if (cancelado != null && cancelado.getAsBoolean()) {
+            throw new LogicaException("Exportación de " + path + " cancelada mientras se leían los datos.");
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package logica;
+
+import archivos.ErrorValidacion;
+import archivos.IndiceCarga;
+import archivos.LectorCSV;
+import archivos.SistemaGestion;
+import clases.Carrera;
+import clases.Circuito;
+import clases.Pais;
+import clases.Piloto;
+import clases.ResultadoCarrera;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Importa temporadas completas (pilotos, carreras y resultados) desde archivos
+ * CSV con el mismo formato que los de la carpeta datos.
+ * <p>
+ * Aplica las mismas reglas que {@link LogicaRegistro} y {@link LogicaGestion},
+ * pero sin sus búsquedas lineales de duplicados:
+ * <ul>
+ * <li>El hilo que llama lee el archivo y arma lotes de filas.</li>
+ * <li>Un pool de hilos valida cada lote: formato de los campos y referencias
+ * (país, circuito, piloto, carrera) contra el {@link IndiceCarga}.</li>
+ * <li>El hilo que llama confirma los lotes en el orden del archivo: controla
+ * duplicados con las mismas claves únicas del {@link IndiceCarga} que usa
+ * {@link LogicaRegistro} y agrega las entidades al sistema.</li>
+ * </ul>
+ * Como mucho hay {@link #setLotesEnVuelo(int)} lotes leídos sin confirmar: si la
+ * validación o la confirmación se atrasan, la lectura espera (así el uso de
+ * memoria no depende del tamaño del archivo).
+ * <p>
+ * Una fila inválida no corta la importación: se rechaza y su error queda en el
+ * {@link ResumenImportacion}. Si el archivo no se puede leer, las filas ya
+ * confirmadas quedan en el sistema.
+ */
+public class ImportadorMasivo {
+
+    /**
+     * Convierte y valida una fila (en los hilos del pool). No debe modificar el sistema.
+     */
+    private interface Validador<T> {
+        T validar(String[] campos) throws LogicaException;
+    }
+
+    /**
+     * Confirma las filas válidas (en el hilo que importa, en el orden del archivo).
+     * Al final de cada lote se registra lo confirmado en la bitácora y se agrega al sistema.
+     */
+    private interface Destino<T> {
+        void confirmar(T valor) throws LogicaException;
+
+        default void finDeLote() throws LogicaException {
+        }
+    }
+
+    /** Filas leídas del archivo, con su número de línea. */
+    private static class Lote {
+        private final String[][] filas;
+        private final int[] lineas;
+        private int cantidad;
+
+        private Lote(int tamanio) {
+            this.filas = new String[tamanio][];
+            this.lineas = new int[tamanio];
+        }
+    }
+
+    /** Un lote ya validado: por cada fila, el valor creado o el mensaje de error. */
+    private static class LoteValidado {
+        private final Lote lote;
+        private final Object[] valores;
+        private final String[] errores;
+
+        private LoteValidado(Lote lote) {
+            this.lote = lote;
+            this.valores = new Object[lote.cantidad];
+            this.errores = new String[lote.cantidad];
+        }
+    }
+
+    private final SistemaGestion datos;
+    private int hilos;
+    private int tamanioLote;
+    private int lotesEnVuelo;
+    private boolean exigirParticipacion;
+    private ProgresoImportacion progreso;
+
+    /**
+     * Constructor de ImportadorMasivo.
+     * Por defecto usa un hilo por procesador, lotes de 8192 filas y hasta dos
+     * lotes por hilo sin confirmar.
+     *
+     * @param datos El SistemaGestion (ya cargado) donde se agregan los datos importados.
+     */
+    public ImportadorMasivo(SistemaGestion datos) {
+        this.datos = datos;
+        this.hilos = Runtime.getRuntime().availableProcessors();
+        this.tamanioLote = 8192;
+        this.lotesEnVuelo = 2 * hilos;
+        this.exigirParticipacion = true;
+    }
+
+    /**
+     * Define cuántos hilos validan lotes a la vez.
+     * @param hilos Cantidad de hilos (al menos 1).
+     */
+    public void setHilos(int hilos) {
+        this.hilos = Math.max(1, hilos);
+    }
+
+    /**
+     * Define cuántas filas tiene cada lote.
+     * @param tamanioLote Cantidad de filas (al menos 1).
+     */
+    public void setTamanioLote(int tamanioLote) {
+        this.tamanioLote = Math.max(1, tamanioLote);
+    }
+
+    /**
+     * Define cuántos lotes pueden estar leídos sin confirmar (límite de memoria).
+     * @param lotesEnVuelo Cantidad de lotes (al menos 1).
+     */
+    public void setLotesEnVuelo(int lotesEnVuelo) {
+        this.lotesEnVuelo = Math.max(1, lotesEnVuelo);
+    }
+
+    /**
+     * Define si un resultado sólo se acepta cuando el piloto participó en la carrera
+     * (como en {@link LogicaGestion#registrarResultado}). Para temporadas históricas
+     * sin autos asignados se puede desactivar.
+     * @param exigirParticipacion true para exigir la participación (por defecto).
+     */
+    public void setExigirParticipacion(boolean exigirParticipacion) {
+        this.exigirParticipacion = exigirParticipacion;
+    }
+
+    /**
+     * Define quién recibe el avance de las importaciones.
+     * @param progreso El receptor del avance, o null para no informarlo.
+     */
+    public void setProgreso(ProgresoImportacion progreso) {
+        this.progreso = progreso;
+    }
+
+    // --- IMPORTACIONES ---
+
+    /**
+     * Importa pilotos desde un CSV con el formato de DatosPiloto.csv
+     * (dni, nombre, apellido, idPais, nroCompetencia, victorias, polePosition, vueltasRapidas, podios).
+     * Se rechazan las filas que {@link LogicaRegistro#registrarPiloto} rechazaría.
+     *
+     * @param path Ruta del archivo.
+     * @return El resumen de la importación.
+     * @throws LogicaException Si el archivo no se puede leer o la importación es interrumpida.
+     */
+    public ResumenImportacion importarPilotos(String path) throws LogicaException {
+        IndiceCarga indice = datos.getIndiceCarga();
+        // Claves de los confirmados que todavía no están en el sistema (ni en sus índices)
+        Set<String> dnis = new HashSet<>();
+        Set<String> nombres = new HashSet<>();
+        List<Piloto> confirmados = new ArrayList<>();
+
+        return importar(path, 9, campos -> {
+            Pais pais;
+            int victorias, polePosition, vueltasRapidas, podios;
+            try {
+                pais = indice.buscarPais(Integer.parseInt(campos[3]));
+                victorias = Integer.parseInt(campos[5]);
+                polePosition = Integer.parseInt(campos[6]);
+                vueltasRapidas = Integer.parseInt(campos[7]);
+                podios = Integer.parseInt(campos[8]);
+            } catch (NumberFormatException e) {
+                throw new LogicaException("Dato numérico (ID, stats) inválido.");
+            }
+            int nroComp = LogicaRegistro.validarCamposPiloto(campos[0], campos[1], campos[2], pais, campos[4]);
+            return new Piloto(campos[0], campos[1], campos[2], pais, nroComp, victorias, polePosition, vueltasRapidas, podios);
+        }, new Destino<Piloto>() {
+            @Override
+            public void confirmar(Piloto p) throws LogicaException {
+                // Las mismas claves únicas que controla LogicaRegistro.registrarPiloto
+                IndiceCarga unicos = datos.getIndiceCarga();
+                String dni = p.getDni().trim();
+                if (unicos.existePiloto(dni) || dnis.contains(dni)) {
+                    throw new LogicaException("Ya existe un piloto con DNI " + p.getDni());
+                }
+                String nombre = IndiceCarga.clavePersona(p.getNombre(), p.getApellido());
+                if (unicos.existePilotoConNombre(p.getNombre(), p.getApellido()) || nombres.contains(nombre)) {
+                    throw new LogicaException("Ya existe un piloto con el nombre '" + p.getNombre() + " " + p.getApellido() + "'");
+                }
+                dnis.add(dni);
+                nombres.add(nombre);
+                confirmados.add(p);
+            }
+
+            @Override
+            public void finDeLote() throws LogicaException {
+                // Primero en la bitácora (de a un lote) y después en el sistema
+                datos.getBitacora().registrarPilotos(confirmados);
+                for (Piloto p : confirmados) {
+                    datos.agregarPiloto(p);
+                }
+                confirmados.clear();
+                dnis.clear(); // Ya están en los índices del sistema
+                nombres.clear();
+            }
+        });
+    }
+
+    /**
+     * Importa carreras desde un CSV con el formato de DatosCarrera.csv
+     * (fechaRealizacion, nroVueltas, horaRealizacion, nombreCircuito).
+     * Se rechazan las filas que {@link LogicaRegistro#registrarCarrera} rechazaría.
+     *
+     * @param path Ruta del archivo.
+     * @return El resumen de la importación.
+     * @throws LogicaException Si el archivo no se puede leer o la importación es interrumpida.
+     */
+    public ResumenImportacion importarCarreras(String path) throws LogicaException {
+        IndiceCarga indice = datos.getIndiceCarga();
+        Set<String> claves = new HashSet<>(); // Fecha y circuito de los confirmados que todavía no están en el sistema
+        List<Carrera> confirmados = new ArrayList<>();
+
+        return importar(path, 4, campos -> {
+            int nroVueltas;
+            try {
+                nroVueltas = Integer.parseInt(campos[1]);
+            } catch (NumberFormatException e) {
+                throw new LogicaException("Nro de vueltas no es un número.");
+            }
+            Circuito circuito = indice.buscarCircuito(campos[3]);
+            LogicaRegistro.validarCamposCarrera(campos[0], nroVueltas, campos[2], circuito.getPais(), circuito);
+            return new Carrera(campos[0], nroVueltas, campos[2], circuito.getPais(), circuito);
+        }, new Destino<Carrera>() {
+            @Override
+            public void confirmar(Carrera c) throws LogicaException {
+                // La misma clave única que controla LogicaRegistro.registrarCarrera
+                if (datos.getIndiceCarga().existeCarrera(c.getFechaRealizacion(), c.getCircuito())
+                        || !claves.add(IndiceCarga.claveCarrera(c.getFechaRealizacion(), c.getCircuito()))) {
+                    throw new LogicaException("Ya existe una carrera planificada para el circuito " + c.getCircuito().getNombre() + " en la fecha " + c.getFechaRealizacion());
+                }
+                confirmados.add(c);
+            }
+
+            @Override
+            public void finDeLote() throws LogicaException {
+                datos.getBitacora().registrarCarreras(confirmados);
+                for (Carrera c : confirmados) {
+                    datos.agregarCarrera(c);
+                }
+                confirmados.clear();
+                claves.clear(); // Ya están en los índices del sistema
+            }
+        });
+    }
+
+    /**
+     * Importa resultados desde un CSV con el formato de DatosResultadoCarrera.csv
+     * (dniPiloto, fechaCarrera, posicion). Se rechazan las filas que
+     * {@link LogicaGestion#registrarResultado} rechazaría, y las estadísticas de
+     * cada piloto se actualizan igual (sin vuelta rápida, que el archivo no tiene).
+     *
+     * @param path Ruta del archivo.
+     * @return El resumen de la importación.
+     * @throws LogicaException Si algún archivo no se puede leer o la importación es interrumpida.
+     */
+    public ResumenImportacion importarResultados(String path) throws LogicaException {
+        IndiceCarga indice = datos.getIndiceCarga();
+        // Por carrera: pilotos con resultado y piloto de cada posición (1 a 20)
+        Map<Carrera, Set<Piloto>> pilotosPorCarrera = new HashMap<>();
+        Map<Carrera, Piloto[]> posicionesPorCarrera = new HashMap<>();
+        for (ResultadoCarrera r : datos.cargarResultados()) {
+            pilotosPorCarrera.computeIfAbsent(r.getCarrera(), k -> new HashSet<>()).add(r.getPiloto());
+            if (r.getPosicion() >= 1 && r.getPosicion() <= 20) {
+                posicionesPorCarrera.computeIfAbsent(r.getCarrera(), k -> new Piloto[21])[r.getPosicion()] = r.getPiloto();
+            }
+        }
+        boolean participacion = exigirParticipacion;
+        List<ResultadoCarrera> confirmados = new ArrayList<>();
+
+        return importar(path, 3, campos -> {
+            Piloto piloto = indice.buscarPiloto(campos[0]);
+            Carrera carrera = indice.buscarCarrera(campos[1]);
+            int posicion;
+            try {
+                posicion = Integer.parseInt(campos[2]);
+            } catch (NumberFormatException e) {
+                throw new LogicaException("La posición '" + campos[2] + "' no es un número.");
+            }
+            LogicaGestion.validarResultado(carrera, posicion);
+            if (participacion) {
+                LogicaGestion.validarParticipacion(carrera, piloto);
+            }
+            return new ResultadoCarrera(piloto, posicion, carrera);
+        }, new Destino<ResultadoCarrera>() {
+            @Override
+            public void confirmar(ResultadoCarrera r) throws LogicaException {
+                Piloto piloto = r.getPiloto();
+                Set<Piloto> conResultado = pilotosPorCarrera.computeIfAbsent(r.getCarrera(), k -> new HashSet<>());
+                if (conResultado.contains(piloto)) {
+                    throw new LogicaException("El piloto " + piloto.getNombre() + " ya tiene un resultado registrado para esta carrera.");
+                }
+                Piloto[] posiciones = posicionesPorCarrera.computeIfAbsent(r.getCarrera(), k -> new Piloto[21]);
+                Piloto ocupante = posiciones[r.getPosicion()];
+                if (ocupante != null) {
+                    throw new LogicaException("La posición " + r.getPosicion() + " ya ha sido asignada al piloto " + ocupante.getNombre() + " " + ocupante.getApellido() + " en esta carrera.");
+                }
+                conResultado.add(piloto);
+                posiciones[r.getPosicion()] = piloto;
+                confirmados.add(r);
+            }
+
+            @Override
+            public void finDeLote() throws LogicaException {
+                // Los resultados se registran en la bitácora y se agregan al sistema de a un lote
+                datos.getBitacora().registrarResultados(confirmados);
+                datos.agregarResultadosCarreras(confirmados);
+                for (ResultadoCarrera r : confirmados) {
+                    LogicaGestion.actualizarEstadisticas(r.getPiloto(), r.getPosicion(), false);
+                }
+                confirmados.clear();
+            }
+        });
+    }
+
+    // --- PIPELINE ---
+
+    /**
+     * Lee el archivo por lotes, los valida en el pool y los confirma en orden.
+     */
+    private <T> ResumenImportacion importar(String path, int camposMinimos, Validador<T> validador, Destino<T> destino)
+            throws LogicaException {
+        long inicio = System.nanoTime();
+        List<ErrorValidacion> errores = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "importador");
+            t.setDaemon(true);
+            return t;
+        });
+        long importadas;
+        try {
+            importadas = procesar(path, camposMinimos, validador, destino, pool, errores, inicio);
+        } catch (LogicaException | RuntimeException | Error e) {
+            try {
+                destino.finDeLote(); // Si la importación se cortó, lo ya confirmado queda en el sistema
+            } catch (LogicaException | RuntimeException e2) {
+                e.addSuppressed(e2); // No tapa el error que cortó la importación
+            }
+            throw e;
+        } finally {
+            pool.shutdownNow();
+        }
+        return new ResumenImportacion(path, importadas, errores, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Cuerpo de {@link #importar}: lee, valida y confirma todos los lotes.
+     * @return La cantidad de filas importadas.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> long procesar(String path, int camposMinimos, Validador<T> validador, Destino<T> destino,
+            ExecutorService pool, List<ErrorValidacion> errores, long inicio) throws LogicaException {
+        long importadas = 0;
+        ArrayDeque<Future<LoteValidado>> pendientes = new ArrayDeque<>();
+        try (LectorCSV lector = LectorCSV.abrir(path, datos.getModoLectura(path))) {
+            lector.siguienteLinea(); // Saltear encabezado
+            int nroLinea = 1;
+            boolean quedanLineas = true;
+            while (quedanLineas || !pendientes.isEmpty()) {
+                // Leer un lote más si hay lugar; si no, confirmar el más viejo (contrapresión)
+                if (quedanLineas && pendientes.size() < lotesEnVuelo) {
+                    Lote lote = new Lote(tamanioLote);
+                    while (lote.cantidad < tamanioLote && (quedanLineas = lector.siguienteLinea())) {
+                        nroLinea++;
+                        if (lector.lineaVacia()) continue;
+                        String[] campos = new String[lector.cantidadCampos()];
+                        for (int i = 0; i < campos.length; i++) {
+                            campos[i] = lector.campo(i);
+                        }
+                        lote.filas[lote.cantidad] = campos;
+                        lote.lineas[lote.cantidad] = nroLinea;
+                        lote.cantidad++;
+                    }
+                    if (lote.cantidad > 0) {
+                        pendientes.add(pool.submit(() -> validarLote(lote, camposMinimos, validador)));
+                    }
+                    continue;
+                }
+
+                LoteValidado validado = pendientes.poll().get();
+                for (int i = 0; i < validado.lote.cantidad; i++) {
+                    String error = validado.errores[i];
+                    if (error == null) {
+                        try {
+                            destino.confirmar((T) validado.valores[i]);
+                            importadas++;
+                        } catch (LogicaException e) {
+                            error = e.getMessage();
+                        }
+                    }
+                    if (error != null) {
+                        errores.add(new ErrorValidacion(path, validado.lote.lineas[i], error));
+                    }
+                }
+                destino.finDeLote();
+
+                if (progreso != null) {
+                    double segundos = (System.nanoTime() - inicio) / 1e9;
+                    long procesadas = importadas + errores.size();
+                    progreso.avance(path, procesadas, importadas, procesadas / Math.max(segundos, 1e-9));
+                }
+            }
+        } catch (IOException e) {
+            throw new LogicaException("Error al leer el archivo " + path + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LogicaException("La importación de " + path + " fue interrumpida.");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new LogicaException("Error al importar " + path + ": " + causa.getMessage());
+        }
+        return importadas;
+    }
+
+    private static <T> LoteValidado validarLote(Lote lote, int camposMinimos, Validador<T> validador) {
+        LoteValidado validado = new LoteValidado(lote);
+        for (int i = 0; i < lote.cantidad; i++) {
+            String[] campos = lote.filas[i];
+            if (campos.length < camposMinimos) {
+                validado.errores[i] = "La línea está incompleta.";
+                continue;
+            }
+            try {
+                validado.valores[i] = validador.validar(campos);
+            } catch (LogicaException e) {
+                validado.errores[i] = e.getMessage();
+            }
+        }
+        return validado;
+    }
+}
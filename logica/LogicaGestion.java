@@ -1,5 +1,6 @@
 package logica;
 
+import archivos.GestorArchivos;
 import archivos.SistemaGestion;
 import clases.Piloto;
 import clases.Auto;
@@ -12,6 +13,10 @@ import clases.Mecanico;
 import clases.PilotoEscuderia;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Contiene la lógica para gestionar las operaciones
@@ -23,16 +28,23 @@ public class LogicaGestion {
      * Asocia un piloto a un auto en una carrera específica.
      * Verifica que el auto no esté ya asignado a otro piloto en esa carrera.
      * Verifica que el piloto no esté ya participando con otro auto en esa carrera.
+     * La asociación queda en la bitácora del sistema antes de aplicarse.
      *
+     * @param datos El SistemaGestion.
      * @param carrera La carrera a la que se asocian.
      * @param piloto El piloto a asociar.
      * @param auto El auto a asociar.
      * @param fechaAsignacion La fecha de la asignación.
      * @return El objeto AutoPiloto creado si la asignación es exitosa.
-     * @throws LogicaException Si el auto o el piloto ya están asignados en esa carrera o si no pertenecen a la misma escudería.
+     * @throws LogicaException Si el auto o el piloto ya están asignados en esa carrera, si no pertenecen
+     * a la misma escudería o si no se pudo registrar en la bitácora.
      */
-    public AutoPiloto asociarPilotoAutoACarrera(Carrera carrera, Piloto piloto, Auto auto, String fechaAsignacion) throws LogicaException {
-        
+    public AutoPiloto asociarPilotoAutoACarrera(SistemaGestion datos, Carrera carrera, Piloto piloto, Auto auto, String fechaAsignacion) throws LogicaException {
+        // Se guarda en un campo de ancho fijo (ver GestorArchivos.REGISTROS_ASIGNACIONES_AUTOS)
+        if (!GestorArchivos.entraClaveEnRegistros(fechaAsignacion)) {
+            throw new LogicaException("La fecha de asignación es demasiado larga.");
+        }
+
         // Verifica que un auto no sea asignado a más de un piloto en la misma carrera
         for (AutoPiloto participante : carrera.getParticipantes()) {
             if (participante.getAuto().equals(auto)) {
@@ -76,6 +88,7 @@ public class LogicaGestion {
         }
         // Si pasa la verificación, crea la asociación
         AutoPiloto nuevaASociacion = new AutoPiloto(fechaAsignacion, piloto, auto, carrera);
+        datos.getBitacora().registrarParticipacion(nuevaASociacion);
         // Guarda la asignación en Persistencia (listas en memoria)
         carrera.agregarParticipante(nuevaASociacion);
         piloto.agregarAutoPiloto(nuevaASociacion);
@@ -99,36 +112,12 @@ public class LogicaGestion {
      * o si la posición ya ah sido asignado a otro piloto.
      */
     public void registrarResultado(SistemaGestion datos, Carrera carrera, Piloto piloto, int posicion, boolean tuvoVueltaRapida) throws LogicaException {
-//----------------------------------------
-        //Correcion para No registrar resultados a futuro(carrera que todavia no paso)
-        String fechaCarrera = carrera.getFechaRealizacion();
-        java.time.LocalDate fechaC = java.time.LocalDate.parse(Utilidades.formatearFecha(fechaCarrera));
-        if(fechaC.isAfter(java.time.LocalDate.now())){
-            throw new LogicaException("No se pueden registrar los resultados de una carrera futura.");
-        }
-//----------------------------------------
-
         // --- 1. Validaciones ---
-        if (posicion < 1) {
-            throw new LogicaException("La posición debe ser mayor o igual a 1.");
-        }
-        //Máximo de 20 posiciones en F1.
-        if (posicion > 20) {
-            throw new LogicaException("La posición máxima permitida en Fórmula 1 es 20. Ingrese una posición válida.");
-        }
-        // ¿El piloto realmente participó en la carrera?
-        boolean participo = false;
-        for (AutoPiloto ap : carrera.getParticipantes()) {
-            if (ap.getPiloto().equals(piloto)) {
-                participo = true;
-                break;
-            }
-        }
-        if (!participo) {
-            throw new LogicaException("El piloto " + piloto.getNombre() + " no participó en esta carrera.");
-        }
+        validarResultado(carrera, posicion);
+        validarParticipacion(carrera, piloto);
         
         // ¿Ya existe un resultado para este piloto en esta carrera?
+        datos.cargarResultados(); // Carga diferida: si el archivo falla, se informa como LogicaException
         for (ResultadoCarrera r : datos.getResultadosCarreras()) {
             if (r.getCarrera().equals(carrera) && r.getPiloto().equals(piloto)) {
                 throw new LogicaException("El piloto " + piloto.getNombre() + " ya tiene un resultado registrado para esta carrera.");
@@ -143,47 +132,112 @@ public class LogicaGestion {
         }
         // --- 2. Crear y guardar el objeto resultado en memoria ---
         ResultadoCarrera resultado = new ResultadoCarrera(piloto, posicion, carrera);
+        datos.getBitacora().registrarResultado(resultado, tuvoVueltaRapida);
         datos.agregarResultadoCarrera(resultado); 
         // --- 3. Actualizar estadísticas del Piloto ---
-        if (posicion == 1) {
-            piloto.setVictorias(piloto.getVictorias() + 1);
+        actualizarEstadisticas(piloto, posicion, tuvoVueltaRapida);
+    }
+
+    /**
+     * Valida la carrera y la posición de un resultado, sin revisar duplicados.
+     * La usan {@link #registrarResultado} y {@link ImportadorMasivo}.
+     *
+     * @param carrera La carrera del resultado.
+     * @param posicion La posición final.
+     * @throws LogicaException Si la carrera todavía no se corrió o la posición no está entre 1 y 20.
+     */
+    static void validarResultado(Carrera carrera, int posicion) throws LogicaException {
+//----------------------------------------
+        //Correcion para No registrar resultados a futuro(carrera que todavia no paso)
+        String fechaCarrera = carrera.getFechaRealizacion();
+        java.time.LocalDate fechaC = java.time.LocalDate.parse(Utilidades.formatearFecha(fechaCarrera));
+        if(fechaC.isAfter(java.time.LocalDate.now())){
+            throw new LogicaException("No se pueden registrar los resultados de una carrera futura.");
         }
-        if (posicion <= 3) {
-            piloto.setPodios(piloto.getPodios() + 1);
+//----------------------------------------
+
+        if (posicion < 1) {
+            throw new LogicaException("La posición debe ser mayor o igual a 1.");
+        }
+        //Máximo de 20 posiciones en F1.
+        if (posicion > 20) {
+            throw new LogicaException("La posición máxima permitida en Fórmula 1 es 20. Ingrese una posición válida.");
         }
-        if (tuvoVueltaRapida) {
-            piloto.setVueltasRapidas(piloto.getVueltasRapidas() + 1);
+    }
+
+    /**
+     * Verifica que el piloto haya participado (con algún auto) en la carrera.
+     *
+     * @param carrera La carrera.
+     * @param piloto El piloto.
+     * @throws LogicaException Si el piloto no participó en la carrera.
+     */
+    static void validarParticipacion(Carrera carrera, Piloto piloto) throws LogicaException {
+        // ¿El piloto realmente participó en la carrera?
+        for (AutoPiloto ap : carrera.getParticipantes()) {
+            if (ap.getPiloto().equals(piloto)) {
+                return;
+            }
         }
+        throw new LogicaException("El piloto " + piloto.getNombre() + " no participó en esta carrera.");
+    }
+
+    /**
+     * Suma al piloto la victoria, el podio y la vuelta rápida que correspondan a un resultado.
+     *
+     * @param piloto El piloto del resultado.
+     * @param posicion La posición final.
+     * @param tuvoVueltaRapida true si hizo la vuelta rápida.
+     */
+    static void actualizarEstadisticas(Piloto piloto, int posicion, boolean tuvoVueltaRapida) {
+        piloto.sumarResultado(posicion, tuvoVueltaRapida);
     }
 
     /**
      * Calcula el puntaje total de todos los pilotos basado en los resultados de
-     * todas las carreras cargadas en el sistema.
+     * todas las carreras del sistema.
+     * Los resultados se recorren una sola vez con un Stream paralelo
+     * ({@link SistemaGestion#streamResultados(boolean)}), sumando los puntos por DNI,
+     * así no hace falta tener todos los resultados en memoria.
      *
      * @param datos El objeto SistemaGestion que contiene la lista de pilotos y resultados.
      * @return Una lista de objetos PilotoPuntaje, sin ordenar.
+     * @throws LogicaRuntimeException Si el archivo de resultados no se puede leer.
      */
     public List<PilotoPuntaje> calcularPuntajes(SistemaGestion datos) {
-        
-        List<PilotoPuntaje> puntajesFinales = new ArrayList<>();
-        List<Piloto> todosLosPilotos = datos.getPilotos();
-        List<ResultadoCarrera> todosLosResultados = datos.getResultadosCarreras();
-        // Bucle exterior: Itera sobre cada piloto
-        for (Piloto piloto : todosLosPilotos) {
-            int puntajeTotalDelPiloto = 0; // Inicia el contador para este piloto
+        return calcularPuntajes(datos, null);
+    }
 
-            // Bucle interior: Itera sobre todos los resultados de todas las carreras
-            for (ResultadoCarrera resultado : todosLosResultados) {
-                
-                // Comprueba si el resultado pertenece al piloto actual
-                if (resultado.getPiloto().getDni().equals(piloto.getDni())) {
-                    // Obtiene los puntos para esa posición
-                    int puntosObtenidos = Puntaje.obtenerPuntaje(resultado.getPosicion());
-                    puntajeTotalDelPiloto += puntosObtenidos; // Los suma al total del piloto
+    /**
+     * Calcula el puntaje total de todos los pilotos, como {@link #calcularPuntajes(SistemaGestion)},
+     * pero se puede cortar desde otro hilo mientras se recorren los resultados.
+     *
+     * @param datos El objeto SistemaGestion que contiene la lista de pilotos y resultados.
+     * @param cancelado Devuelve true si hay que cortar el cálculo (puede ser null).
+     * @return Una lista de objetos PilotoPuntaje, sin ordenar.
+     * @throws LogicaRuntimeException Si el archivo de resultados no se puede leer o se canceló el cálculo.
+     */
+    public List<PilotoPuntaje> calcularPuntajes(SistemaGestion datos, BooleanSupplier cancelado) {
+        
+        // Suma los puntos de cada resultado al DNI de su piloto
+        Map<String, Integer> puntosPorDni;
+        try (Stream<ResultadoCarrera> todos = datos.streamResultados(true)) {
+            Stream<ResultadoCarrera> resultados = (cancelado == null) ? todos : todos.peek(r -> {
+                if (cancelado.getAsBoolean()) {
+                    throw new LogicaRuntimeException(new LogicaException("Se canceló el cálculo de los puntajes."));
                 }
-            }
-            // Una vez contados todos los resultados, crea el objeto contenedor
-            PilotoPuntaje pp = new PilotoPuntaje(piloto, puntajeTotalDelPiloto);
+            });
+            puntosPorDni = resultados.collect(Collectors.groupingByConcurrent(
+                    r -> r.getPiloto().getDni(),
+                    Collectors.summingInt(r -> Puntaje.obtenerPuntaje(r.getPosicion()))));
+        } catch (LogicaException e) {
+            throw new LogicaRuntimeException(e);
+        }
+
+        // Crea el objeto contenedor para cada piloto (0 puntos si no tiene resultados)
+        List<PilotoPuntaje> puntajesFinales = new ArrayList<>();
+        for (Piloto piloto : datos.getPilotos()) {
+            PilotoPuntaje pp = new PilotoPuntaje(piloto, puntosPorDni.getOrDefault(piloto.getDni(), 0));
             puntajesFinales.add(pp);
         }
         return puntajesFinales;
@@ -193,17 +247,20 @@ public class LogicaGestion {
      * Asocia un piloto a una escudería (crea un contrato).
      * Verifica que el piloto no tenga ya un contrato activo (sin 'hastaFecha')
      * y que la nueva fecha de inicio no se superponga con contratos anteriores.
+     * El contrato queda en la bitácora del sistema antes de aplicarse.
      *
+     * @param datos El SistemaGestion.
      * @param piloto El piloto a asociar.
      * @param escuderia La escudería a la que se une.
      * @param desdeFecha La fecha de inicio del contrato (ej. "01-01-2025").
      * @return El objeto de asociación PilotoEscuderia creado.
-     * @throws LogicaException Si el piloto ya tiene un contrato activo o si las fechas se superponen.
+     * @throws LogicaException Si el piloto ya tiene un contrato activo, si las fechas se superponen
+     * o si no se pudo registrar en la bitácora.
      */
-    public PilotoEscuderia asociarPilotoAEscuderia(Piloto piloto, Escuderia escuderia, String desdeFecha) throws LogicaException {
+    public PilotoEscuderia asociarPilotoAEscuderia(SistemaGestion datos, Piloto piloto, Escuderia escuderia, String desdeFecha) throws LogicaException {
 //----------------------------------------
         //Correcion para validar fecha
-        if(!Utilidades.esFechaValida(desdeFecha)){
+        if(!Utilidades.esFechaValida(desdeFecha) || !GestorArchivos.entraClaveEnRegistros(desdeFecha)){
             throw new LogicaException("La fecha de inicio de contrato no es valida.");
         }
 //----------------------------------------
@@ -231,6 +288,7 @@ public class LogicaGestion {
         }
         // Si pasa, crea la asociación
         PilotoEscuderia nuevaAsociacion = new PilotoEscuderia(desdeFecha, "", piloto, escuderia);
+        datos.getBitacora().registrarContrato(nuevaAsociacion);
         piloto.agregarPilotoEscuderia(nuevaAsociacion);
         escuderia.agregarPilotoEscuderia(nuevaAsociacion);
         return nuevaAsociacion;
@@ -238,15 +296,21 @@ public class LogicaGestion {
 
     /**
      * Termina el contrato de un piloto con una escudería, asignando "hastaFecha".
+     * El fin del contrato queda en la bitácora del sistema antes de aplicarse.
      *
+     * @param datos El SistemaGestion.
      * @param piloto El piloto a desvincular.
      * @param escuderia La escudería de la que se desvincula.
      * @param hastaFecha La fecha de fin de contrato (ej. "31-12-2025").
-     * @throws LogicaException Si no se encuentra un contrato activo entre ambos,
-     * o si la fecha de fin es anterior a la fecha de inicio del contrato.
+     * @throws LogicaException Si la fecha de fin no es válida, si no se encuentra un contrato activo entre ambos,
+     * si la fecha de fin es anterior a la fecha de inicio del contrato o si no se pudo registrar en la bitácora.
      */
-    public void desvincularPilotoDeEscuderia(Piloto piloto, Escuderia escuderia, String hastaFecha) throws LogicaException {
-        
+    public void desvincularPilotoDeEscuderia(SistemaGestion datos, Piloto piloto, Escuderia escuderia, String hastaFecha) throws LogicaException {
+        // Se guarda en un campo de ancho fijo (ver GestorArchivos.REGISTROS_CONTRATOS)
+        if (!Utilidades.esFechaValida(hastaFecha) || !GestorArchivos.entraClaveEnRegistros(hastaFecha)) {
+            throw new LogicaException("La fecha de fin de contrato no es valida.");
+        }
+
         PilotoEscuderia asociacionActiva = null;
         // Busca el contrato activo
         for (PilotoEscuderia pe : piloto.getPilotosEscuderias()) {
@@ -264,6 +328,7 @@ public class LogicaGestion {
                 throw new LogicaException("La fecha de fin (" + hastaFecha + ") no puede ser anterior a la fecha de inicio (" + asociacionActiva.getDesdeFecha() + ").");
             }
             
+            datos.getBitacora().registrarFinContrato(asociacionActiva, hastaFecha);
             asociacionActiva.setHastaFecha(hastaFecha);
         } else {
             throw new LogicaException("El piloto " + piloto.getNombre()
@@ -274,12 +339,14 @@ public class LogicaGestion {
     /**
      * Asocia un auto a una escudería.
      * CONTROL: Verifica que el auto no pertenezca ya a otra escudería.
+     * La asociación queda en la bitácora del sistema antes de aplicarse.
      *
+     * @param datos El SistemaGestion.
      * @param auto El auto a asignar.
      * @param escuderia La escudería propietaria.
-     * @throws LogicaException Si el auto ya tiene dueña.
+     * @throws LogicaException Si el auto ya tiene dueña o no se pudo registrar en la bitácora.
      */
-    public void asociarAutoAEscuderia(Auto auto, Escuderia escuderia) throws LogicaException {
+    public void asociarAutoAEscuderia(SistemaGestion datos, Auto auto, Escuderia escuderia) throws LogicaException {
         
         // Control: Un auto solo puede pertenecer a una escudería a la vez
         if (auto.getEscuderia() != null) {
@@ -287,42 +354,58 @@ public class LogicaGestion {
                     + " ya pertenece a la escudería " + auto.getEscuderia().getNombre() + ".");
         }
         
+        datos.getBitacora().registrarAutoEscuderia(auto, escuderia);
         // El método agregarAuto de Escuderia maneja la relación bidireccional
         escuderia.agregarAuto(auto);
     }
 
     /**
-     * Asocia un mecánico a una escudería.
-     * Control: Verifica que el mecánico no esté ya asignado a esa escudería.
+     * Asocia un mecánico a una escudería, cargando antes la relación
+     * mecánico-escudería del sistema si todavía no se leyó (carga diferida),
+     * y deja la asociación en la bitácora del sistema antes de aplicarla.
+     *
+     * @param datos El SistemaGestion.
+     * @param mecanico El mecánico a contratar.
+     * @param escuderia La escudería que contrata.
+     * @throws LogicaException Si el mecánico ya trabaja en esa escudería, la relación no se puede cargar
+     * o no se pudo registrar en la bitácora.
+     */
+    public void asociarMecanicoAEscuderia(SistemaGestion datos, Mecanico mecanico, Escuderia escuderia) throws LogicaException {
+        datos.cargarRelacionMecanicos();
+        validarMecanicoEscuderia(mecanico, escuderia);
+        datos.getBitacora().registrarMecanicoEscuderia(mecanico, escuderia);
+        escuderia.agregarMecanico(mecanico);
+        mecanico.agregarEscuderia(escuderia);
+    }
+
+    /**
+     * Verifica que el mecánico no esté ya asignado a la escudería.
      *
      * @param mecanico El mecánico a contratar.
      * @param escuderia La escudería que contrata.
      * @throws LogicaException Si el mecánico ya trabaja en esa escudería.
      */
-    public void asociarMecanicoAEscuderia(Mecanico mecanico, Escuderia escuderia) throws LogicaException {
-        
+    static void validarMecanicoEscuderia(Mecanico mecanico, Escuderia escuderia) throws LogicaException {
         // Control: Evitar duplicados
         if (escuderia.getMecanicos().contains(mecanico)) {
             throw new LogicaException("El mecánico " + mecanico.getNombre()
                     + " ya está asignado a " + escuderia.getNombre());
         }
-
-        // Establecemos la relación bidireccional
-        escuderia.agregarMecanico(mecanico);
-        mecanico.agregarEscuderia(escuderia);
     }
 
     /**
-     * Asigna una pole position a un piloto y actualiza sus estadísticas en memoria.
-     * (No persiste este cambio en el CSV, solo en el objeto).
+     * Asigna una pole position a un piloto y actualiza sus estadísticas,
+     * dejándola en la bitácora del sistema antes de aplicarla.
      *
+     * @param datos El SistemaGestion.
      * @param piloto El piloto que obtuvo la pole.
-     * @throws LogicaException Si el piloto es nulo.
+     * @throws LogicaException Si el piloto es nulo o no se pudo registrar en la bitácora.
      */
-    public void asignarPolePosition(Piloto piloto) throws LogicaException {
+    public void asignarPolePosition(SistemaGestion datos, Piloto piloto) throws LogicaException {
         if (piloto == null) {
             throw new LogicaException("El piloto no puede ser nulo.");
         }
+        datos.getBitacora().registrarPolePosition(piloto);
         // Actualiza la estadística del piloto
         piloto.setPolePosition(piloto.getPolePosition() + 1);
     }
@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.function.BooleanSupplier;
 
 /**
  * Contiene la lógica de negocio para generar los diferentes informes
@@ -25,32 +26,21 @@ public class LogicaInformes {
      * @param fechaDesde La fecha de inicio del rango (formato "dd-MM-yyyy").
      * @param fechaHasta La fecha de fin del rango (formato "dd-MM-yyyy").
      * @return Una lista de ResultadoCarrera, ordenada por fecha y luego por posición.
+     * @throws LogicaRuntimeException Si el archivo de resultados no se puede leer.
      */
     public List<ResultadoCarrera> getReporteResultadosPorFechas(SistemaGestion datos, String fechaDesde, String fechaHasta) {
         
-        List<ResultadoCarrera> resultadosEnRango = new ArrayList<>();
         //Se llama a la clase de Utilidades
-        String fechaDesdeFormateada = Utilidades.formatearFecha(fechaDesde);
-        String fechaHastaFormateada = Utilidades.formatearFecha(fechaHasta);
-
-        for (ResultadoCarrera resultado : datos.getResultadosCarreras()) {
-            
-            Carrera carreraDelResultado = resultado.getCarrera();
-            String fechaCarrera = carreraDelResultado.getFechaRealizacion();
-            
-            //Se llama a la clase de Utilidades
-            String fechaCarreraFormateada = Utilidades.formatearFecha(fechaCarrera);
-
-            // Comprobar si las fechas formateadas no son nulas
-            if (fechaCarreraFormateada == null || fechaDesdeFormateada == null || fechaHastaFormateada == null) {
-                continue; // O manejar como un error
-            }
+        if (Utilidades.formatearFecha(fechaDesde) == null || Utilidades.formatearFecha(fechaHasta) == null) {
+            return new ArrayList<>();
+        }
 
-            boolean estaDespuesDeInicio = fechaCarreraFormateada.compareTo(fechaDesdeFormateada) >= 0;
-            boolean estaAntesDeFin = fechaCarreraFormateada.compareTo(fechaHastaFormateada) <= 0;
-            if (estaDespuesDeInicio && estaAntesDeFin) {
-                resultadosEnRango.add(resultado);
-            }
+        // Sólo se leen las temporadas que se superponen con el rango
+        List<ResultadoCarrera> resultadosEnRango;
+        try {
+            resultadosEnRango = datos.getResultadosEntre(fechaDesde, fechaHasta);
+        } catch (LogicaException e) {
+            throw new LogicaRuntimeException(e);
         }
 
         // Ordenar la lista
@@ -85,9 +75,23 @@ public class LogicaInformes {
       * @return Una lista de PilotoPuntaje ordenada.
       */
     public List<PilotoPuntaje> getRankingPilotos(SistemaGestion datos, LogicaGestion logicaGestion) {
+        return getRankingPilotos(datos, logicaGestion, null);
+    }
+
+    /**
+     * Devuelve el ranking de pilotos, como {@link #getRankingPilotos(SistemaGestion, LogicaGestion)},
+     * pero el cálculo se puede cortar desde otro hilo (ver {@link LogicaGestion#calcularPuntajes(SistemaGestion, BooleanSupplier)}).
+     *
+     * @param datos El objeto SistemaGestion (para los datos).
+     * @param logicaGestion El objeto LogicaGestion (para el cálculo).
+     * @param cancelado Devuelve true si hay que cortar el cálculo (puede ser null).
+     * @return Una lista de PilotoPuntaje ordenada.
+     * @throws LogicaRuntimeException Si los resultados no se pueden leer o se canceló el cálculo.
+     */
+    public List<PilotoPuntaje> getRankingPilotos(SistemaGestion datos, LogicaGestion logicaGestion, BooleanSupplier cancelado) {
         
         //Llama al método de LogicaGestion para "Calcular"
-        List<PilotoPuntaje> puntajesSinOrdenar = logicaGestion.calcularPuntajes(datos);
+        List<PilotoPuntaje> puntajesSinOrdenar = logicaGestion.calcularPuntajes(datos, cancelado);
         
         //Este método se encarga de "Rankear" (Ordenar)
         // Usa el compareTo que definiste en PilotoPuntaje
@@ -204,9 +208,11 @@ public class LogicaInformes {
      *
      * @param datos El SistemaGestion.
      * @return La lista de todas las Escuderias (que contienen sus listas de mecánicos).
+     * @throws LogicaException Si no se puede cargar la relación mecánico-escudería.
      */
-    public List<Escuderia> getReporteMecanicosPorEscuderia(SistemaGestion datos) {
-        // Los datos ya están vinculados, solo devolvemos la lista.
+    public List<Escuderia> getReporteMecanicosPorEscuderia(SistemaGestion datos) throws LogicaException {
+        // La relación se carga recién la primera vez que se pide (carga diferida)
+        datos.cargarRelacionMecanicos();
         return datos.getEscuderias();
     }
 
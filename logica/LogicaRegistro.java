@@ -1,5 +1,7 @@
 package logica;
 
+import archivos.GestorArchivos;
+import archivos.IndiceCarga;
 import archivos.SistemaGestion;
 import clases.Piloto;
 import clases.Mecanico;
@@ -13,7 +15,8 @@ import clases.Carrera;
 /**
  * Contiene la lógica para registrar nuevas entidades en el sistema.
  * Realiza validaciones de campos obligatorios, formato de datos y
- * control de duplicados antes de crear y agregar los objetos.
+ * control de duplicados antes de crear y agregar los objetos. Los duplicados
+ * se buscan en los índices únicos del {@link IndiceCarga} del sistema, en O(1).
  */
 public class LogicaRegistro {
 
@@ -39,76 +42,23 @@ public class LogicaRegistro {
     public void registrarPiloto(SistemaGestion datos, String dni, String nombre, String apellido, Pais pais, String nroCompString, int victorias, int polePosition, int vueltasRapidas, int podios)
             throws LogicaException {
         
-        // --- VALIDACIÓN DE CAMPOS OBLIGATORIOS (Null/Vacío) ---
-        if (dni == null || dni.trim().isEmpty()) {
-            throw new LogicaException("El DNI del piloto es obligatorio.");
-        }
-        if (nombre == null || nombre.trim().isEmpty()) {
-            throw new LogicaException("El nombre del piloto es obligatorio.");
-        }
-        if (apellido == null || apellido.trim().isEmpty()) {
-            throw new LogicaException("El apellido del piloto es obligatorio.");
-        }
-        if (nroCompString == null || nroCompString.trim().isEmpty()) {
-            throw new LogicaException("El número de competencia es obligatorio.");
-        }
-        if (pais == null) {
-            throw new LogicaException("Debe seleccionar un país de origen para el piloto.");
-        }
-
-        // --- VALIDACIÓN DE FORMATO ---
-        try {
-            // Se intenta convertir el DNI a un número.
-            Long.parseLong(dni.trim());
-        } catch (NumberFormatException e) {
-            throw new LogicaException("Formato de DNI inválido: El DNI debe contener solo números.");
-        }
-//----------------------------------------
-        //Correcion de dni
-        if(dni.trim().length()<7 || dni.trim().length() > 8){
-            throw new LogicaException("El dni debe tener entre 7 y 8 digitos.");
-        }
-        try{
-            long dniNum= Long.parseLong(dni.trim());
-            if(dniNum <= 0) throw new LogicaException("El DNI debe ser un numero positivo.");
-        } catch(NumberFormatException e){
-            throw new LogicaException("El DNI solo debe contener numeros.");
-        }
-//----------------------------------------
-        int nroComp;
-        try {
-            // Control de Número de Competencia: Convierte.
-            nroComp = Integer.parseInt(nroCompString.trim());
-        } catch (NumberFormatException e) {
-            throw new LogicaException("Error de formato de número: El número de competencia debe ser un número entero válido.");
-        }
+        int nroComp = validarCamposPiloto(dni, nombre, apellido, pais, nroCompString);
 
-        //Correcion Numero competencia
-        int numeroComp;
-        try{
-            numeroComp = Integer.parseInt(nroCompString.trim());
-            if(numeroComp < 0){
-                throw new LogicaException("EL numero de competencia no puede ser negativo.");
-            }
-        } catch(NumberFormatException e){
-            throw new LogicaException("El numero de competencia debe ser un numero valido.");
+        // --- VERIFICACIÓN DE DUPLICADOS (índices únicos, O(1)) ---
+        IndiceCarga indice = datos.getIndiceCarga();
+        // Control de DNI duplicado
+        if (indice.existePiloto(dni)) {
+            throw new LogicaException("Ya existe un piloto con DNI " + dni);
         }
 
-        // --- VERIFICACIÓN DE DUPLICADOS ---
-        for (Piloto p : datos.getPilotos()) {
-            // Control de DNI duplicado
-            if (p.getDni().equals(dni)) {
-                throw new LogicaException("Ya existe un piloto con DNI " + dni);
-            }
-            
-            // Control de Nombre y Apellido duplicado (case-insensitive)
-            if (p.getNombre().equalsIgnoreCase(nombre) && p.getApellido().equalsIgnoreCase(apellido)) {
-                throw new LogicaException("Ya existe un piloto con el nombre '" + nombre + " " + apellido + "'");
-            }
+        // Control de Nombre y Apellido duplicado (case-insensitive)
+        if (indice.existePilotoConNombre(nombre, apellido)) {
+            throw new LogicaException("Ya existe un piloto con el nombre '" + nombre + " " + apellido + "'");
         }
 
         // --- REGISTRO ---
         Piloto nuevoPiloto = new Piloto(dni, nombre, apellido, pais, nroComp, victorias, polePosition, vueltasRapidas, podios);
+        datos.getBitacora().registrarPiloto(nuevoPiloto); // Primero en la bitácora: si no se puede guardar, no se registra
         datos.agregarPiloto(nuevoPiloto);
     }
 
@@ -172,15 +122,14 @@ public class LogicaRegistro {
         }
 //----------------------------------------
 
-        // --- VERIFICACIÓN DE DUPLICADOS ---
-        for (Mecanico m : datos.getMecanicos()) {
-            if (m.getDni().equals(dni)) {
-                throw new LogicaException("Ya existe un mecanico con DNI " + dni);
-            }
+        // --- VERIFICACIÓN DE DUPLICADOS (índices únicos, O(1)) ---
+        if (datos.getIndiceCarga().existeMecanico(dni)) {
+            throw new LogicaException("Ya existe un mecanico con DNI " + dni);
         }
         
         // --- REGISTRO ---
         Mecanico nuevoMecanico = new Mecanico(dni, nombre, apellido, pais, especialidad, aniosExperiencia, new java.util.ArrayList<>());
+        datos.getBitacora().registrarMecanico(nuevoMecanico);
         datos.agregarMecanico(nuevoMecanico);
     }
 
@@ -192,7 +141,7 @@ public class LogicaRegistro {
      * @param datos El SistemaGestion donde se agregará el auto.
      * @param modelo Modelo del auto.
      * @param motor Motor del auto.
-     * @throws LogicaException Si un campo obligatorio (Modelo o Motor) es nulo o vacío.
+     * @throws LogicaException Si un campo obligatorio (Modelo o Motor) es nulo o vacío, o el modelo es demasiado largo.
      */
     public void registrarAuto(SistemaGestion datos, String modelo, String motor) throws LogicaException {
         
@@ -206,6 +155,9 @@ public class LogicaRegistro {
         if(modelo.trim().length() < 2){
             throw new LogicaException("El modelo del auto es muy corto, ingrese un modelo valido.");
         }
+        if (!GestorArchivos.entraEnRegistros(modelo)) {
+            throw new LogicaException("El modelo del auto es demasiado largo.");
+        }
 //----------------------------------------
 
         if (motor == null || motor.trim().isEmpty()) {
@@ -214,6 +166,7 @@ public class LogicaRegistro {
         // --- FIN VALIDACIÓN ---
 
         Auto nuevoAuto = new Auto(modelo, motor);
+        datos.getBitacora().registrarAuto(nuevoAuto);
         datos.agregarAuto(nuevoAuto);
     }
 
@@ -226,7 +179,7 @@ public class LogicaRegistro {
      * @param datos El SistemaGestion donde se agregará la escudería.
      * @param nombre Nombre de la escudería.
      * @param pais País de origen (debe ser un objeto no nulo).
-     * @throws LogicaException Si un campo obligatorio está vacío/nulo o si el nombre de la escudería ya existe.
+     * @throws LogicaException Si un campo obligatorio está vacío/nulo, el nombre es demasiado largo o ya existe.
      */
     public void registrarEscuderia(SistemaGestion datos, String nombre, Pais pais) throws LogicaException {
         
@@ -234,21 +187,23 @@ public class LogicaRegistro {
         if (nombre == null || nombre.trim().isEmpty()) {
             throw new LogicaException("El nombre de la escudería es obligatorio.");
         }
+        if (!GestorArchivos.entraEnRegistros(nombre)) {
+            throw new LogicaException("El nombre de la escudería es demasiado largo.");
+        }
         if (pais == null) {
             throw new LogicaException("Debe seleccionar un país de origen para la escudería.");
         }
         // --- FIN VALIDACIÓN ---
 
-        // --- VERIFICACIÓN DE DUPLICADOS ---
-        for (Escuderia e : datos.getEscuderias()) {
-            if (e.getNombre().equalsIgnoreCase(nombre)) {
-                throw new LogicaException("Ya existe una escudería con el nombre " + nombre);
-            }
+        // --- VERIFICACIÓN DE DUPLICADOS (índices únicos, O(1)) ---
+        if (datos.getIndiceCarga().existeEscuderia(nombre)) {
+            throw new LogicaException("Ya existe una escudería con el nombre " + nombre);
         }
         
         // --- REGISTRO ---
         Escuderia nuevaEscuderia = new Escuderia(nombre);
         nuevaEscuderia.setPais(pais); // Asigna el país
+        datos.getBitacora().registrarEscuderia(nuevaEscuderia);
         datos.agregarEscuderia(nuevaEscuderia);
     }
 
@@ -270,6 +225,9 @@ public class LogicaRegistro {
         if (nombre == null || nombre.trim().isEmpty()) {
             throw new LogicaException("El nombre del circuito es obligatorio.");
         }
+        if (!GestorArchivos.entraEnRegistros(nombre)) {
+            throw new LogicaException("El nombre del circuito es demasiado largo.");
+        }
         if (pais == null) {
             throw new LogicaException("Debe seleccionar un país de ubicación para el circuito.");
         }
@@ -282,15 +240,14 @@ public class LogicaRegistro {
 //----------------------------------------
         // --- FIN VALIDACIÓN ---
 
-        // --- VERIFICACIÓN DE DUPLICADOS ---
-        for (Circuito c : datos.getCircuitos()) {
-            if (c.getNombre().equalsIgnoreCase(nombre)) {
-                throw new LogicaException("Ya existe un circuito con el nombre " + nombre);
-            }
+        // --- VERIFICACIÓN DE DUPLICADOS (índices únicos, O(1)) ---
+        if (datos.getIndiceCarga().existeCircuito(nombre)) {
+            throw new LogicaException("Ya existe un circuito con el nombre " + nombre);
         }
         
         // --- REGISTRO ---
         Circuito nuevoCircuito = new Circuito(nombre, longitud, pais);
+        datos.getBitacora().registrarCircuito(nuevoCircuito);
         datos.agregarCircuito(nuevoCircuito);
     }
 
@@ -321,19 +278,19 @@ public class LogicaRegistro {
 
         // --- FIN VALIDACIÓN ---
 
-        // --- VERIFICACIÓN DE DUPLICADOS ---
-        for (Pais p : datos.getPaises()) {
-            if (p.getIdPais() == idPais) {
-                throw new LogicaException("Ya existe un país con el ID " + idPais);
-            }
+        // --- VERIFICACIÓN DE DUPLICADOS (índices únicos, O(1)) ---
+        IndiceCarga indice = datos.getIndiceCarga();
+        if (indice.existePais(idPais)) {
+            throw new LogicaException("Ya existe un país con el ID " + idPais);
+        }
 
-            if (p.getDescripcion().equalsIgnoreCase(descripcion)) {
-                throw new LogicaException("Ya existe un país con el nombre " + descripcion);
-            }
+        if (indice.existePaisConDescripcion(descripcion)) {
+            throw new LogicaException("Ya existe un país con el nombre " + descripcion);
         }
         
         // --- REGISTRO ---
         Pais nuevoPais = new Pais(idPais, descripcion, new java.util.ArrayList<>(), new java.util.ArrayList<>(), new java.util.ArrayList<>(), new java.util.ArrayList<>());
+        datos.getBitacora().registrarPais(nuevoPais);
         datos.agregarPais(nuevoPais);
     }
 
@@ -353,6 +310,104 @@ public class LogicaRegistro {
     public void registrarCarrera(SistemaGestion datos, String fechaRealizacion, int nroVueltas, String horaRealizacion, Pais pais, Circuito circuito)
             throws LogicaException {
         
+        validarCamposCarrera(fechaRealizacion, nroVueltas, horaRealizacion, pais, circuito);
+
+        // --- VERIFICACIÓN DE DUPLICADOS (índices únicos, O(1)) ---
+        // Controla que no haya dos carreras en el mismo circuito el mismo día
+        if (datos.getIndiceCarga().existeCarrera(fechaRealizacion, circuito)) {
+            throw new LogicaException("Ya existe una carrera planificada para el circuito " + circuito.getNombre() + " en la fecha " + fechaRealizacion);
+        }
+        
+        // ---REGISTRO ---
+        Carrera nuevaCarrera = new Carrera(fechaRealizacion, nroVueltas, horaRealizacion, pais, circuito);
+        datos.getBitacora().registrarCarrera(nuevaCarrera);
+        datos.agregarCarrera(nuevaCarrera);
+    }
+
+    /**
+     * Valida los campos de un piloto (obligatorios y formato), sin revisar duplicados.
+     * La usan {@link #registrarPiloto} y {@link ImportadorMasivo}, para que las
+     * dos formas de registrar apliquen las mismas reglas.
+     *
+     * @param dni DNI del piloto.
+     * @param nombre Nombre del piloto.
+     * @param apellido Apellido del piloto.
+     * @param pais País de origen.
+     * @param nroCompString Número de competición como String.
+     * @return El número de competición ya convertido.
+     * @throws LogicaException Si un campo obligatorio falta o tiene un formato inválido.
+     */
+    static int validarCamposPiloto(String dni, String nombre, String apellido, Pais pais, String nroCompString) throws LogicaException {
+        // --- VALIDACIÓN DE CAMPOS OBLIGATORIOS (Null/Vacío) ---
+        if (dni == null || dni.trim().isEmpty()) {
+            throw new LogicaException("El DNI del piloto es obligatorio.");
+        }
+        if (nombre == null || nombre.trim().isEmpty()) {
+            throw new LogicaException("El nombre del piloto es obligatorio.");
+        }
+        if (apellido == null || apellido.trim().isEmpty()) {
+            throw new LogicaException("El apellido del piloto es obligatorio.");
+        }
+        if (nroCompString == null || nroCompString.trim().isEmpty()) {
+            throw new LogicaException("El número de competencia es obligatorio.");
+        }
+        if (pais == null) {
+            throw new LogicaException("Debe seleccionar un país de origen para el piloto.");
+        }
+
+        // --- VALIDACIÓN DE FORMATO ---
+        try {
+            // Se intenta convertir el DNI a un número.
+            Long.parseLong(dni.trim());
+        } catch (NumberFormatException e) {
+            throw new LogicaException("Formato de DNI inválido: El DNI debe contener solo números.");
+        }
+//----------------------------------------
+        //Correcion de dni
+        if(dni.trim().length()<7 || dni.trim().length() > 8){
+            throw new LogicaException("El dni debe tener entre 7 y 8 digitos.");
+        }
+        try{
+            long dniNum= Long.parseLong(dni.trim());
+            if(dniNum <= 0) throw new LogicaException("El DNI debe ser un numero positivo.");
+        } catch(NumberFormatException e){
+            throw new LogicaException("El DNI solo debe contener numeros.");
+        }
+//----------------------------------------
+        int nroComp;
+        try {
+            // Control de Número de Competencia: Convierte.
+            nroComp = Integer.parseInt(nroCompString.trim());
+        } catch (NumberFormatException e) {
+            throw new LogicaException("Error de formato de número: El número de competencia debe ser un número entero válido.");
+        }
+
+        //Correcion Numero competencia
+        int numeroComp;
+        try{
+            numeroComp = Integer.parseInt(nroCompString.trim());
+            if(numeroComp < 0){
+                throw new LogicaException("EL numero de competencia no puede ser negativo.");
+            }
+        } catch(NumberFormatException e){
+            throw new LogicaException("El numero de competencia debe ser un numero valido.");
+        }
+        return nroComp;
+    }
+
+    /**
+     * Valida los campos de una carrera (obligatorios y formato), sin revisar duplicados.
+     * La usan {@link #registrarCarrera} y {@link ImportadorMasivo}.
+     *
+     * @param fechaRealizacion Fecha de la carrera ("dd-MM-yyyy").
+     * @param nroVueltas Número de vueltas.
+     * @param horaRealizacion Hora de la carrera ("HH:mm").
+     * @param pais País de la carrera.
+     * @param circuito Circuito de la carrera.
+     * @throws LogicaException Si un campo obligatorio falta o tiene un formato inválido.
+     */
+    static void validarCamposCarrera(String fechaRealizacion, int nroVueltas, String horaRealizacion, Pais pais, Circuito circuito)
+            throws LogicaException {
         // --- VALIDACIÓN DE CAMPOS OBLIGATORIOS (Null/Vacío) ---
         if (fechaRealizacion == null || fechaRealizacion.trim().isEmpty()) {
             throw new LogicaException("La fecha de realización de la carrera es obligatoria.");
@@ -393,17 +448,5 @@ public class LogicaRegistro {
             throw new LogicaException("El circuito de la carrera no puede ser nulo.");
         }
         // --- FIN VALIDACIÓN ---
-
-        // --- VERIFICACIÓN DE DUPLICADOS ---
-        // Controla que no haya dos carreras en el mismo circuito el mismo día
-        for (Carrera c : datos.getCarreras()) {
-            if (c.getFechaRealizacion().equals(fechaRealizacion) && c.getCircuito().equals(circuito)) {
-                throw new LogicaException("Ya existe una carrera planificada para el circuito " + circuito.getNombre() + " en la fecha " + fechaRealizacion);
-            }
-        }
-        
-        // ---REGISTRO ---
-        Carrera nuevaCarrera = new Carrera(fechaRealizacion, nroVueltas, horaRealizacion, pais, circuito);
-        datos.agregarCarrera(nuevaCarrera);
     }
-}
\ No newline at end of file
+}
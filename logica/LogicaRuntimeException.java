@@ -0,0 +1,28 @@
+package logica;
+
+/**
+ * Versión no verificada (unchecked) de {@link LogicaException}.
+ * Se usa donde un método no puede declarar {@code throws LogicaException},
+ * por ejemplo un getter que carga datos la primera vez que se lo llama.
+ * El mensaje es el mismo de la LogicaException original, así la GUI
+ * puede mostrarlo igual que cualquier otro error.
+ */
+public class LogicaRuntimeException extends RuntimeException {
+
+    /**
+     * Constructor que envuelve una LogicaException.
+     *
+     * @param causa La excepción original.
+     */
+    public LogicaRuntimeException(LogicaException causa) {
+        super(causa.getMessage(), causa);
+    }
+
+    /**
+     * Devuelve la LogicaException original.
+     * @return La causa de este error.
+     */
+    public LogicaException getLogicaException() {
+        return (LogicaException) getCause();
+    }
+}
@@ -0,0 +1,17 @@
+package logica;
+
+/**
+ * Recibe el avance de una importación de {@link ImportadorMasivo}.
+ * Se llama desde el hilo que importa, cada vez que se confirma un lote.
+ */
+public interface ProgresoImportacion {
+    /**
+     * Informa el avance de la importación de un archivo.
+     *
+     * @param archivo Ruta del archivo que se está importando.
+     * @param filasProcesadas Filas leídas y ya confirmadas o rechazadas.
+     * @param filasImportadas Filas agregadas al sistema hasta ahora.
+     * @param filasPorSegundo Velocidad promedio desde el comienzo del archivo.
+     */
+    void avance(String archivo, long filasProcesadas, long filasImportadas, double filasPorSegundo);
+}
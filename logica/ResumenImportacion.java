@@ -0,0 +1,107 @@
+package logica;
+
+import archivos.ErrorValidacion;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de importar un archivo con {@link ImportadorMasivo}: cuántas filas
+ * se agregaron, cuáles se rechazaron (con su error) y cuánto tardó.
+ */
+public class ResumenImportacion {
+    /** Cantidad máxima de errores que se muestran en {@link #toString()}. */
+    private static final int MAX_ERRORES_TEXTO = 50;
+
+    private final String archivo;
+    private final long filasImportadas;
+    private final List<ErrorValidacion> errores;
+    private final long milisegundos;
+
+    /**
+     * Constructor de ResumenImportacion.
+     * @param archivo Ruta del archivo importado.
+     * @param filasImportadas Filas agregadas al sistema.
+     * @param errores Filas rechazadas, ordenadas por línea.
+     * @param milisegundos Tiempo que tomó la importación.
+     */
+    public ResumenImportacion(String archivo, long filasImportadas, List<ErrorValidacion> errores, long milisegundos) {
+        this.archivo = archivo;
+        this.filasImportadas = filasImportadas;
+        this.errores = Collections.unmodifiableList(errores);
+        this.milisegundos = milisegundos;
+    }
+
+    /**
+     * Devuelve la ruta del archivo importado.
+     * @return La ruta.
+     */
+    public String getArchivo() {
+        return archivo;
+    }
+
+    /**
+     * Devuelve la cantidad de filas agregadas al sistema.
+     * @return La cantidad de filas.
+     */
+    public long getFilasImportadas() {
+        return filasImportadas;
+    }
+
+    /**
+     * Devuelve la cantidad de filas rechazadas (una por error).
+     * @return La cantidad de filas.
+     */
+    public long getFilasRechazadas() {
+        return errores.size();
+    }
+
+    /**
+     * Indica si se rechazó al menos una fila.
+     * @return true si hubo errores.
+     */
+    public boolean hayErrores() {
+        return !errores.isEmpty();
+    }
+
+    /**
+     * Devuelve los errores de las filas rechazadas.
+     * @return Lista (no modificable) de errores, por número de línea.
+     */
+    public List<ErrorValidacion> getErrores() {
+        return errores;
+    }
+
+    /**
+     * Devuelve cuántos milisegundos tomó la importación.
+     * @return Los milisegundos.
+     */
+    public long getMilisegundos() {
+        return milisegundos;
+    }
+
+    /**
+     * Devuelve la velocidad promedio de la importación.
+     * @return Filas procesadas (importadas y rechazadas) por segundo.
+     */
+    public double getFilasPorSegundo() {
+        return (filasImportadas + errores.size()) * 1000.0 / Math.max(1, milisegundos);
+    }
+
+    /**
+     * Resumen de la importación, con los primeros {@value #MAX_ERRORES_TEXTO} errores.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Importación de ").append(archivo).append(": ").append(filasImportadas).append(" filas importadas, ")
+          .append(errores.size()).append(" rechazadas (").append(milisegundos).append(" ms, ")
+          .append(Math.round(getFilasPorSegundo())).append(" filas/s)");
+        for (int i = 0; i < errores.size() && i < MAX_ERRORES_TEXTO; i++) {
+            sb.append("\n").append(errores.get(i));
+        }
+        if (errores.size() > MAX_ERRORES_TEXTO) {
+            sb.append("\n... y ").append(errores.size() - MAX_ERRORES_TEXTO).append(" errores más.");
+        }
+        return sb.toString();
+    }
+}
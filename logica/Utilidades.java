@@ -3,6 +3,7 @@ package logica;
 import java.time.format.DateTimeFormatter;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 
 /**
  * Clase de utilidad con métodos estáticos (static)
@@ -47,7 +48,8 @@ public class Utilidades {
             return false;
         }
         try{
-            DateTimeFormatter fomatter = DateTimeFormatter.ofPattern("dd-mm-yyyy");
+            // "d": acepta días de uno o dos dígitos, como en los CSV; STRICT rechaza días que el mes no tiene (ej. 31-02)
+            DateTimeFormatter fomatter = DateTimeFormatter.ofPattern("d-MM-uuuu").withResolverStyle(ResolverStyle.STRICT);
             LocalDate.parse(fecha, fomatter);
             return true;
         } catch(DateTimeParseException e){